@@ -0,0 +1,68 @@
+import danraies.commutativealgebra.*;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+
+/**
+ * Tests the axioms of every example factory at the same time with an
+ * <code>AxiomTestSuite</code>, using the same parameters as the
+ * <code>main</code> methods of the factories.  The names of further factory
+ * classes with public no-argument constructors can be given as arguments.
+ * The summary goes to <code>System.out</code> and the JSON report to the
+ * file <code>axiom-tests.json</code>.  If the system property
+ * <code>axiomTestCache</code> names a directory, the factories are seeded
+ * with the property <code>axiomTestSeed</code>, zero by default, and
+ * factories that have not changed since the last run are taken from the
+ * cache in that directory instead of being tested again.
+ */
+final public class ExAxiomTestSuite {
+    private static final String reportFile = "axiom-tests.json";
+    private static final String cacheProperty = "axiomTestCache";
+    private static final String seedProperty = "axiomTestSeed";
+
+    public static void main(String[] args) throws IOException {
+        AxiomTestSuite suite = new AxiomTestSuite();
+        String cacheDirectory = System.getProperty(cacheProperty);
+        if (cacheDirectory != null) {
+            suite.setSeed(Long.getLong(seedProperty, 0L).longValue());
+            suite.setCache(new AxiomTestCache(Paths.get(cacheDirectory)));
+        }
+        suite.add(new ExNNElementFactory());
+        suite.add(new ExZZElementFactory());
+        suite.add(new ExBigZZElementFactory());
+        suite.add(new ExQQElementFactory());
+        suite.add("ExGFpElementFactory(1000003)", new ExGFpElementFactory(1000003L));
+        suite.add("ExGF2kElementFactory(8)", new ExGF2kElementFactory(8));
+        suite.add("ExGFpkElementFactory(7, 3)", new ExGFpkElementFactory(7L, 3));
+        long[] definingPolynomial = {-2L, 0L, 0L, 1L};
+        suite.add("ExNumberFieldElementFactory(x^3 - 2)",
+                  new ExNumberFieldElementFactory(definingPolynomial));
+        suite.add("ExEllipticCurvePointFactory(y^2 = x^3 + 2x + 3 mod 1000003)",
+                  new ExEllipticCurvePointFactory(new ExEllipticCurve(2L, 3L, 1000003L)));
+        for (int i = 0; i < args.length; i++) {
+            suite.add(newFactory(args[i]));
+        }
+
+        suite.run();
+        suite.writeSummary(System.out);
+        PrintStream report = new PrintStream(reportFile);
+        suite.writeReport(report);
+        report.close();
+        if (!suite.allPassed()) {
+            System.exit(1);
+        }
+    }
+
+    private static ElementFactory newFactory(String className) {
+        try {
+            return (ElementFactory) Class.forName(className).getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(noFactoryMessage + className, e);
+        } catch (ClassCastException e) {
+            throw new RuntimeException(noFactoryMessage + className, e);
+        }
+    }
+
+    private static final String noFactoryMessage
+        = "Not a factory with a public no-argument constructor: ";
+}
@@ -0,0 +1,90 @@
+import danraies.commutativealgebra.*;
+import java.math.BigInteger;
+
+final public class ExBigZZElement implements FastGcdElement {
+    private BigInteger value;
+
+    public ExBigZZElement(BigInteger value) {
+        this.value = value;
+    }
+
+    public ExBigZZElement(long value) {
+        this.value = BigInteger.valueOf(value);
+    }
+
+    public BigInteger getValue() {
+        return value;
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof ExBigZZElement)) {
+            return false;
+        }
+        ExBigZZElement z = (ExBigZZElement) o;
+        return this.value.equals(z.value);
+    }
+
+    public String toString() {
+        return value.toString();
+    }
+
+    public boolean isZero() {
+        return (value.signum() == 0);
+    }
+
+    public ExBigZZElement addTo(CommutativeMonoidElement e) {
+        ExBigZZElement z = (ExBigZZElement) e;
+        return new ExBigZZElement(this.value.add(z.value));
+    }
+
+    public ExBigZZElement negative() {
+        return new ExBigZZElement(this.value.negate());
+    }
+
+    public boolean isOne() {
+        return value.equals(BigInteger.ONE);
+    }
+
+    public ExBigZZElement multiplyBy(CommutativeRingElement e) {
+        ExBigZZElement z = (ExBigZZElement) e;
+        return new ExBigZZElement(this.value.multiply(z.value));
+    }
+
+    public ExBigZZElement[] divideWithRemainder(EuclideanDomainElement e) {
+        ExBigZZElement z = (ExBigZZElement) e;
+        if (z.value.signum() == 0) {
+            throw new RuntimeException("Division by zero.");
+        }
+        // The remainder is chosen to be non-negative, as with ExZZElement.
+        BigInteger remainder = this.value.mod(z.value.abs());
+        ExBigZZElement[] quotientAndRemainder = {
+            new ExBigZZElement(this.value.subtract(remainder).divide(z.value)),
+            new ExBigZZElement(remainder)};
+        return quotientAndRemainder;
+    }
+
+    public BigInteger euclideanNorm() {
+        return value.abs();
+    }
+
+    public ExBigZZElement unitPart() {
+        return new ExBigZZElement((value.signum() < 0) ? BigInteger.ONE.negate() : BigInteger.ONE);
+    }
+
+    public ExBigZZElement gcd(EuclideanDomainElement e) {
+        ExBigZZElement z = (ExBigZZElement) e;
+        return new ExBigZZElement(HalfGcd.gcd(this.value, z.value));
+    }
+
+    public ExBigZZElement[] extendedGcd(EuclideanDomainElement e) {
+        ExBigZZElement z = (ExBigZZElement) e;
+        BigInteger[] bezout = HalfGcd.extendedGcd(this.value, z.value);
+        ExBigZZElement[] result = {
+            new ExBigZZElement(bezout[0]),
+            new ExBigZZElement(bezout[1]),
+            new ExBigZZElement(bezout[2])};
+        return result;
+    }
+}
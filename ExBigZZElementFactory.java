@@ -0,0 +1,89 @@
+import danraies.commutativealgebra.*;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+final public class ExBigZZElementFactory extends EuclideanDomainElementFactory
+    implements ElementCodec<ExBigZZElement>, OperandSize {
+    private static int MAX_BITS = 256;
+    Random r = new Random();
+
+    public ExBigZZElement getRandom() {
+        BigInteger value = new BigInteger(r.nextInt(MAX_BITS) + 1, r);
+        if (r.nextBoolean()) {
+            value = value.negate();
+        }
+        return new ExBigZZElement(value);
+    }
+
+    public ExBigZZElement getZero() {
+        return new ExBigZZElement(BigInteger.ZERO);
+    }
+
+    public ExBigZZElement getOne() {
+        return new ExBigZZElement(BigInteger.ONE);
+    }
+
+    /**
+     * Values next to the word sizes, where the representation of a
+     * <code>BigInteger</code> grows by a word.
+     */
+    public ExBigZZElement[] getBoundaryElements() {
+        int[] bits = {31, 32, 63, 64, MAX_BITS};
+        ExBigZZElement[] boundary = new ExBigZZElement[4 * bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            BigInteger power = BigInteger.ONE.shiftLeft(bits[i]);
+            boundary[4 * i] = new ExBigZZElement(power);
+            boundary[4 * i + 1] = new ExBigZZElement(power.subtract(BigInteger.ONE));
+            boundary[4 * i + 2] = new ExBigZZElement(power.negate());
+            boundary[4 * i + 3] = new ExBigZZElement(power.subtract(BigInteger.ONE).negate());
+        }
+        return boundary;
+    }
+
+    /**
+     * Proposes zero, the absolute value of a negative number, and
+     * <code>value - value/2</code>, <code>value - value/4</code> and so on
+     * down to a step of one.
+     */
+    public ExBigZZElement[] shrink(Element e) {
+        BigInteger value = ((ExBigZZElement) e).getValue();
+        if (value.signum() == 0) {
+            return new ExBigZZElement[0];
+        }
+        int steps = value.abs().bitLength() - 1;
+        ExBigZZElement[] smaller = new ExBigZZElement[steps + 2];
+        smaller[0] = new ExBigZZElement(BigInteger.ZERO);
+        smaller[1] = new ExBigZZElement(value.abs());
+        for (int i = 0; i < steps; i++) {
+            smaller[i + 2] = new ExBigZZElement(value.subtract(value.divide(BigInteger.ONE.shiftLeft(i + 1))));
+        }
+        return smaller;
+    }
+
+    public void setSeed(long seed) {
+        r.setSeed(seed);
+    }
+
+    public int encodedSize(ExBigZZElement element) {
+        return Codecs.bigIntegerSize(element.getValue());
+    }
+
+    public void encode(ExBigZZElement element, ByteBuffer buffer) {
+        Codecs.writeBigInteger(buffer, element.getValue());
+    }
+
+    public ExBigZZElement decode(ByteBuffer buffer) {
+        return new ExBigZZElement(Codecs.readBigInteger(buffer));
+    }
+
+    /** The bit length of the absolute value. */
+    public long sizeOf(Element e) {
+        return ((ExBigZZElement) e).getValue().bitLength();
+    }
+
+    public static void main(String[] args) {
+        ExBigZZElementFactory f = new ExBigZZElementFactory();
+        f.exampleTest();
+    }
+}
@@ -0,0 +1,51 @@
+import danraies.commutativealgebra.*;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Tests the axioms of some example factories with an
+ * <code>AxiomTestCoordinator</code> and worker processes on this machine.
+ * Without arguments it starts a coordinator, launches the workers as new
+ * JVMs with the same class path, runs the tests and shuts everything down.
+ * The arguments <code>worker host port</code> run a single worker instead,
+ * which can also be started by hand on another machine.
+ */
+final public class ExDistributedAxiomTest {
+    private static final int workers = 3;
+    private static final int checksPerAxiom = 200000;
+    private static final String[] factoryClasses = {
+        "ExZZElementFactory", "ExBigZZElementFactory", "ExQQElementFactory"};
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if ((args.length == 3) && args[0].equals("worker")) {
+            new AxiomTestWorker(args[1], Integer.parseInt(args[2])).run();
+            return;
+        }
+        AxiomTestCoordinator coordinator = new AxiomTestCoordinator(0);
+        coordinator.setTotalNumberOfTests(checksPerAxiom);
+        coordinator.setShardSize(10000);
+        ArrayList<Process> processes = new ArrayList<Process>();
+        for (int i = 0; i < workers; i++) {
+            ProcessBuilder builder = new ProcessBuilder(
+                System.getProperty("java.home") + "/bin/java",
+                "-cp", System.getProperty("java.class.path"),
+                "ExDistributedAxiomTest", "worker", "localhost",
+                String.valueOf(coordinator.getPort()));
+            processes.add(builder.inheritIO().start());
+        }
+        boolean passed = true;
+        for (int i = 0; i < factoryClasses.length; i++) {
+            long start = System.nanoTime();
+            passed = coordinator.test(factoryClasses[i]) && passed;
+            coordinator.writeSummary(System.out);
+            System.out.println("  " + (System.nanoTime() - start) / 1000000L + " ms");
+        }
+        coordinator.close();
+        for (int i = 0; i < processes.size(); i++) {
+            processes.get(i).waitFor();
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+import danraies.commutativealgebra.*;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * Compares uniformly drawn elements with a mix of edge cases on the
+ * factories whose arithmetic overflows a <code>long</code>.  Uniformly drawn
+ * naturals and rationals are small, so their axioms pass; with a quarter of
+ * the elements replaced by edge cases, the boundary elements reach the
+ * overflow and the axioms fail within a few hundred checks.  For every
+ * factory and ratio the number of failed axioms and the checks that each
+ * needed are printed.  The number of checks per axiom can be given as an
+ * argument.
+ */
+final public class ExEdgeCaseBenchmark {
+    private static final double[] ratios = {0.0, 0.25};
+    private static final int maximumChecksToFailure = 1000;
+
+    public static void main(String[] args) {
+        int checksPerAxiom = 100000;
+        if (args.length > 0) {
+            checksPerAxiom = Integer.parseInt(args[0]);
+        }
+
+        ElementFactory[] factories = {new ExNNElementFactory(), new ExQQElementFactory()};
+        for (int i = 0; i < factories.length; i++) {
+            ElementFactory f = factories[i];
+            Failures failures = new Failures();
+            f.subscribe(failures, direct, Integer.MAX_VALUE);
+            f.shouldIncludeVerboseOutput(false);
+            f.setLog(new PrintStream(new ByteArrayOutputStream()));
+            f.setTotalNumberOfTests(checksPerAxiom);
+            System.out.println(f.getClass().getSimpleName() + ", " + checksPerAxiom
+                               + " checks per axiom");
+            for (int k = 0; k < ratios.length; k++) {
+                failures.reset();
+                long start = System.nanoTime();
+                f.setEdgeCaseRatio(ratios[k]);
+                f.testAxioms();
+                long millis = (System.nanoTime() - start) / 1000000L;
+                System.out.println("  edge case ratio " + ratios[k] + ": "
+                                   + failures.count + " axioms failed, "
+                                   + failures.checks + " in " + millis + " ms");
+                if (ratios[k] > 0.0) {
+                    check("edge cases fail an axiom within " + maximumChecksToFailure
+                          + " checks", failures.fewestChecks <= maximumChecksToFailure);
+                }
+            }
+        }
+    }
+
+    private static final Executor direct = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+
+    /**
+     * Records, for one run, which axioms failed and after how many checks.
+     */
+    private static final class Failures implements Flow.Subscriber<TestEvent> {
+        int count;
+        int fewestChecks;
+        String checks;
+
+        void reset() {
+            count = 0;
+            fewestChecks = Integer.MAX_VALUE;
+            checks = "no counterexamples";
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(TestEvent event) {
+            if ((event.getType() == TestEvent.AXIOM_FINISHED) && !event.hasPassed()) {
+                checks = ((count == 0) ? "checks to failure " : checks + ", ")
+                    + event.getNumberOfChecks();
+                count++;
+                fewestChecks = Math.min(fewestChecks, event.getNumberOfChecks());
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private static void check(String description, boolean passed) {
+        if (!passed) {
+            throw new RuntimeException("Check failed: " + description);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import danraies.commutativealgebra.*;
+
+/**
+ * The elliptic curve <code>y^2 = x^3 + a x + b</code> over GF(p), for an odd
+ * prime <code>p</code> no larger than <code>ModularArithmetic.MAX_MODULUS</code>.
+ * Its points, together with the point at infinity, form an abelian group
+ * whose elements are instances of <code>ExEllipticCurvePoint</code>.
+ */
+final public class ExEllipticCurve {
+    private long a;
+    private long b;
+    private long modulus;
+
+    /**
+     * Creates a curve in short Weierstrass form.  A runtime exception is
+     * thrown if the modulus is not an odd prime or if the curve is singular,
+     * i.e. if <code>4 a^3 + 27 b^2 = 0</code> modulo <code>p</code>.
+     *
+     * @param a The coefficient of <code>x</code>.
+     * @param b The constant coefficient.
+     * @param modulus The odd prime <code>p</code>.
+     */
+    public ExEllipticCurve(long a, long b, long modulus) {
+        if ((modulus == 2L) || (modulus > ModularArithmetic.MAX_MODULUS)
+            || !ModularArithmetic.isPrime(modulus)) {
+            throw new RuntimeException(notOddPrimeMessage);
+        }
+        this.modulus = modulus;
+        this.a = ModularArithmetic.reduce(a, modulus);
+        this.b = ModularArithmetic.reduce(b, modulus);
+        long aCubed = ModularArithmetic.power(this.a, 3L, modulus);
+        long bSquared = ModularArithmetic.multiply(this.b, this.b, modulus);
+        long discriminant = ModularArithmetic.add(
+            ModularArithmetic.multiply(4L, aCubed, modulus),
+            ModularArithmetic.multiply(27L, bSquared, modulus), modulus);
+        if (discriminant == 0L) {
+            throw new RuntimeException(singularCurveMessage);
+        }
+    }
+
+    public long getA() {
+        return a;
+    }
+
+    public long getB() {
+        return b;
+    }
+
+    public long getModulus() {
+        return modulus;
+    }
+
+    public ExEllipticCurvePoint getPointAtInfinity() {
+        return new ExEllipticCurvePoint(this, 1L, 1L, 0L);
+    }
+
+    /**
+     * Evaluates the right hand side <code>x^3 + a x + b</code>.
+     *
+     * @param x A reduced residue.
+     * @return The value of the cubic at <code>x</code>.
+     */
+    public long rightHandSide(long x) {
+        long xSquared = ModularArithmetic.multiply(x, x, modulus);
+        long cubic = ModularArithmetic.multiply(
+            ModularArithmetic.add(xSquared, a, modulus), x, modulus);
+        return ModularArithmetic.add(cubic, b, modulus);
+    }
+
+    public boolean contains(long x, long y) {
+        return ModularArithmetic.multiply(y, y, modulus) == rightHandSide(x);
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof ExEllipticCurve)) {
+            return false;
+        }
+        ExEllipticCurve c = (ExEllipticCurve) o;
+        return (c.a == a) && (c.b == b) && (c.modulus == modulus);
+    }
+
+    public int hashCode() {
+        return Long.hashCode(a) + 31 * Long.hashCode(b) + 961 * Long.hashCode(modulus);
+    }
+
+    public String toString() {
+        return "y^2 = x^3 + " + a + "x + " + b + " over GF(" + modulus + ")";
+    }
+
+    private static final String notOddPrimeMessage
+        = "The modulus of an elliptic curve must be an odd prime no larger than"
+        + " ModularArithmetic.MAX_MODULUS.";
+    private static final String singularCurveMessage
+        = "This curve is singular.";
+}
@@ -0,0 +1,81 @@
+import danraies.commutativealgebra.*;
+import java.math.BigInteger;
+
+/**
+ * Precomputed multiples of a single point, for when the same base point is
+ * multiplied by many different scalars (as with a generator in key
+ * generation).  For a window width <code>w</code> the table holds
+ * <code>j 2^(w i) P</code> for every window <code>i</code> and every digit
+ * <code>1 &lt;= j &lt; 2^w</code>, normalized to <code>Z = 1</code>.  A
+ * scalar multiplication then needs one cheap mixed addition per non-zero
+ * base-<code>2^w</code> digit of the scalar and no doublings at all.
+ */
+final public class ExEllipticCurveFixedBase {
+    private static int WINDOW_WIDTH = 4;
+
+    private ExEllipticCurvePoint base;
+    private int maximumBits;
+    private ExEllipticCurvePoint[][] table;
+
+    /**
+     * Builds the table for a base point.  Scalars with more than
+     * <code>maximumBits</code> bits are still handled, by falling back to
+     * <code>base.scalarMultiply</code>.
+     *
+     * @param base The fixed base point.
+     * @param maximumBits The bit length of the largest scalar the table
+     *        should cover, typically that of the order of <code>base</code>.
+     */
+    public ExEllipticCurveFixedBase(ExEllipticCurvePoint base, int maximumBits) {
+        this.base = base;
+        this.maximumBits = maximumBits;
+        int windows = (maximumBits + WINDOW_WIDTH - 1) / WINDOW_WIDTH;
+        table = new ExEllipticCurvePoint[windows][(1 << WINDOW_WIDTH) - 1];
+        ExEllipticCurvePoint windowBase = base;
+        for (int i = 0; i < windows; i++) {
+            table[i][0] = windowBase.normalize();
+            ExEllipticCurvePoint multiple = windowBase;
+            for (int j = 1; j < table[i].length; j++) {
+                multiple = multiple.addTo(windowBase);
+                table[i][j] = multiple.normalize();
+            }
+            for (int j = 0; j < WINDOW_WIDTH; j++) {
+                windowBase = windowBase.twice();
+            }
+        }
+    }
+
+    public ExEllipticCurvePoint getBase() {
+        return base;
+    }
+
+    public ExEllipticCurvePoint multiply(long n) {
+        return multiply(BigInteger.valueOf(n));
+    }
+
+    /**
+     * Computes <code>n P</code> for the fixed base point <code>P</code>.
+     *
+     * @param n Any integer.
+     * @return The point <code>n P</code>.
+     */
+    public ExEllipticCurvePoint multiply(BigInteger n) {
+        if (n.signum() < 0) {
+            return multiply(n.negate()).negative();
+        }
+        if (n.bitLength() > maximumBits) {
+            return base.scalarMultiply(n);
+        }
+        ExEllipticCurvePoint result = base.getCurve().getPointAtInfinity();
+        for (int i = 0; i < table.length; i++) {
+            int digit = 0;
+            for (int j = WINDOW_WIDTH - 1; j >= 0; j--) {
+                digit = 2 * digit + (n.testBit(WINDOW_WIDTH * i + j) ? 1 : 0);
+            }
+            if (digit != 0) {
+                result = result.addTo(table[i][digit - 1]);
+            }
+        }
+        return result;
+    }
+}
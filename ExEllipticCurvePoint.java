@@ -0,0 +1,264 @@
+import danraies.commutativealgebra.*;
+import java.math.BigInteger;
+
+/**
+ * A point on an <code>ExEllipticCurve</code>.  Points are kept in Jacobian
+ * coordinates: the triple <code>(X, Y, Z)</code> with <code>Z != 0</code>
+ * stands for the affine point <code>(X / Z^2, Y / Z^3)</code> and any triple
+ * with <code>Z = 0</code> is the point at infinity, which is the zero of the
+ * group.  In these coordinates neither addition nor doubling needs a field
+ * inversion; one is only paid in <code>toString()</code> and
+ * <code>normalize()</code>, and <code>equals</code> compares by
+ * cross-multiplication.
+ */
+final public class ExEllipticCurvePoint implements AbelianGroupElement {
+    private ExEllipticCurve curve;
+    private long x;
+    private long y;
+    private long z;
+
+    /**
+     * Creates the affine point <code>(x, y)</code>.  A runtime exception is
+     * thrown if it does not lie on the curve.
+     *
+     * @param curve The curve that this point lies on.
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     */
+    public ExEllipticCurvePoint(ExEllipticCurve curve, long x, long y) {
+        this(curve,
+             ModularArithmetic.reduce(x, curve.getModulus()),
+             ModularArithmetic.reduce(y, curve.getModulus()),
+             1L);
+        if (!curve.contains(this.x, this.y)) {
+            throw new RuntimeException(notOnCurveMessage);
+        }
+    }
+
+    /** Creates a point from reduced Jacobian coordinates without checking it. */
+    ExEllipticCurvePoint(ExEllipticCurve curve, long x, long y, long z) {
+        this.curve = curve;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public ExEllipticCurve getCurve() {
+        return curve;
+    }
+
+    /**
+     * Returns the affine x-coordinate.  Unless the point has been
+     * normalized this costs one field inversion.  A runtime exception is
+     * thrown for the point at infinity.
+     *
+     * @return The x-coordinate, between <code>0</code> and
+     *         <code>p - 1</code>.
+     */
+    public long getX() {
+        return affine().x;
+    }
+
+    /**
+     * Returns the affine y-coordinate, as <code>getX()</code> does.
+     *
+     * @return The y-coordinate, between <code>0</code> and
+     *         <code>p - 1</code>.
+     */
+    public long getY() {
+        return affine().y;
+    }
+
+    /**
+     * Returns the same point with <code>Z = 1</code>, so that its affine
+     * coordinates can be read off.  This costs one field inversion.
+     *
+     * @return An equal point in affine form.
+     */
+    public ExEllipticCurvePoint normalize() {
+        if ((z == 0L) || (z == 1L)) {
+            return this;
+        }
+        long p = curve.getModulus();
+        long zInverse = ModularArithmetic.inverse(z, p);
+        long zInverseSquared = ModularArithmetic.multiply(zInverse, zInverse, p);
+        long affineX = ModularArithmetic.multiply(x, zInverseSquared, p);
+        long affineY = ModularArithmetic.multiply(
+            y, ModularArithmetic.multiply(zInverseSquared, zInverse, p), p);
+        return new ExEllipticCurvePoint(curve, affineX, affineY, 1L);
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof ExEllipticCurvePoint)) {
+            return false;
+        }
+        ExEllipticCurvePoint q = (ExEllipticCurvePoint) o;
+        if (!curve.equals(q.curve)) {
+            return false;
+        }
+        if ((z == 0L) || (q.z == 0L)) {
+            return (z == 0L) && (q.z == 0L);
+        }
+        // X1 / Z1^2 = X2 / Z2^2 and Y1 / Z1^3 = Y2 / Z2^3, cleared of denominators.
+        long p = curve.getModulus();
+        long z1Squared = ModularArithmetic.multiply(z, z, p);
+        long z2Squared = ModularArithmetic.multiply(q.z, q.z, p);
+        if (ModularArithmetic.multiply(x, z2Squared, p)
+            != ModularArithmetic.multiply(q.x, z1Squared, p)) {
+            return false;
+        }
+        return ModularArithmetic.multiply(y, ModularArithmetic.multiply(z2Squared, q.z, p), p)
+            == ModularArithmetic.multiply(q.y, ModularArithmetic.multiply(z1Squared, z, p), p);
+    }
+
+    /**
+     * Overrides the <code>toString()</code> method.
+     *
+     * @return The string "(x, y)" with the affine coordinates, or "O" for the
+     *         point at infinity.
+     */
+    public String toString() {
+        if (z == 0L) {
+            return "O";
+        }
+        ExEllipticCurvePoint affine = normalize();
+        return "(" + affine.x + ", " + affine.y + ")";
+    }
+
+    public boolean isZero() {
+        return (z == 0L);
+    }
+
+    public ExEllipticCurvePoint negative() {
+        return new ExEllipticCurvePoint(curve, x, ModularArithmetic.negate(y, curve.getModulus()), z);
+    }
+
+    public ExEllipticCurvePoint addTo(CommutativeMonoidElement e) {
+        ExEllipticCurvePoint q = (ExEllipticCurvePoint) e;
+        if (!curve.equals(q.curve)) {
+            throw new RuntimeException(differentCurvesMessage);
+        }
+        if (z == 0L) {
+            return q;
+        }
+        if (q.z == 0L) {
+            return this;
+        }
+        long p = curve.getModulus();
+        long z1Squared = ModularArithmetic.multiply(z, z, p);
+        long u2 = ModularArithmetic.multiply(q.x, z1Squared, p);
+        long s2 = ModularArithmetic.multiply(q.y, ModularArithmetic.multiply(z1Squared, z, p), p);
+        // Points with Z = 1, such as precomputed table entries, save four
+        // multiplications here.
+        long u1 = x;
+        long s1 = y;
+        if (q.z != 1L) {
+            long z2Squared = ModularArithmetic.multiply(q.z, q.z, p);
+            u1 = ModularArithmetic.multiply(x, z2Squared, p);
+            s1 = ModularArithmetic.multiply(y, ModularArithmetic.multiply(z2Squared, q.z, p), p);
+        }
+        long h = ModularArithmetic.subtract(u2, u1, p);
+        long r = ModularArithmetic.subtract(s2, s1, p);
+        if (h == 0L) {
+            if (r == 0L) {
+                return twice();
+            }
+            return curve.getPointAtInfinity();
+        }
+        long hSquared = ModularArithmetic.multiply(h, h, p);
+        long hCubed = ModularArithmetic.multiply(hSquared, h, p);
+        long u1hSquared = ModularArithmetic.multiply(u1, hSquared, p);
+        long x3 = ModularArithmetic.subtract(
+            ModularArithmetic.subtract(ModularArithmetic.multiply(r, r, p), hCubed, p),
+            ModularArithmetic.add(u1hSquared, u1hSquared, p), p);
+        long y3 = ModularArithmetic.subtract(
+            ModularArithmetic.multiply(r, ModularArithmetic.subtract(u1hSquared, x3, p), p),
+            ModularArithmetic.multiply(s1, hCubed, p), p);
+        long z3 = ModularArithmetic.multiply(ModularArithmetic.multiply(h, z, p), q.z, p);
+        return new ExEllipticCurvePoint(curve, x3, y3, z3);
+    }
+
+    /**
+     * Doubles this point.  This is faster than <code>addTo(this)</code>.
+     *
+     * @return The point <code>2P</code>.
+     */
+    public ExEllipticCurvePoint twice() {
+        if ((z == 0L) || (y == 0L)) {
+            return curve.getPointAtInfinity();
+        }
+        long p = curve.getModulus();
+        long ySquared = ModularArithmetic.multiply(y, y, p);
+        long s = ModularArithmetic.multiply(4L, ModularArithmetic.multiply(x, ySquared, p), p);
+        long zSquared = ModularArithmetic.multiply(z, z, p);
+        long m = ModularArithmetic.add(
+            ModularArithmetic.multiply(3L, ModularArithmetic.multiply(x, x, p), p),
+            ModularArithmetic.multiply(curve.getA(),
+                                       ModularArithmetic.multiply(zSquared, zSquared, p), p), p);
+        long x3 = ModularArithmetic.subtract(ModularArithmetic.multiply(m, m, p),
+                                             ModularArithmetic.add(s, s, p), p);
+        long y3 = ModularArithmetic.subtract(
+            ModularArithmetic.multiply(m, ModularArithmetic.subtract(s, x3, p), p),
+            ModularArithmetic.multiply(8L, ModularArithmetic.multiply(ySquared, ySquared, p), p), p);
+        long z3 = ModularArithmetic.multiply(2L, ModularArithmetic.multiply(y, z, p), p);
+        return new ExEllipticCurvePoint(curve, x3, y3, z3);
+    }
+
+    public ExEllipticCurvePoint scalarMultiply(long n) {
+        return scalarMultiply(BigInteger.valueOf(n));
+    }
+
+    /**
+     * Computes <code>n P</code> with a width-w non-adjacent form of
+     * <code>n</code>: only the odd multiples <code>P, 3P, ...,
+     * (2^(w-1) - 1) P</code> are precomputed, and on average only one in
+     * <code>w + 1</code> of the doublings is followed by an addition.  For
+     * repeated multiplication of a single point see
+     * <code>ExEllipticCurveFixedBase</code>.
+     *
+     * @param n Any integer.
+     * @return The point <code>n P</code>.
+     */
+    public ExEllipticCurvePoint scalarMultiply(BigInteger n) {
+        if ((n.signum() == 0) || (z == 0L)) {
+            return curve.getPointAtInfinity();
+        }
+        if (n.signum() < 0) {
+            return negative().scalarMultiply(n.negate());
+        }
+        int width = (n.bitLength() <= 64) ? 4 : 5;
+        int[] digits = Exponentiation.nonAdjacentForm(n, width);
+        ExEllipticCurvePoint[] oddMultiples = new ExEllipticCurvePoint[1 << (width - 2)];
+        oddMultiples[0] = this;
+        ExEllipticCurvePoint doubled = twice();
+        for (int i = 1; i < oddMultiples.length; i++) {
+            oddMultiples[i] = oddMultiples[i - 1].addTo(doubled);
+        }
+        ExEllipticCurvePoint result = curve.getPointAtInfinity();
+        for (int i = digits.length - 1; i >= 0; i--) {
+            result = result.twice();
+            if (digits[i] > 0) {
+                result = result.addTo(oddMultiples[digits[i] / 2]);
+            } else if (digits[i] < 0) {
+                result = result.addTo(oddMultiples[-digits[i] / 2].negative());
+            }
+        }
+        return result;
+    }
+
+    private ExEllipticCurvePoint affine() {
+        if (z == 0L) {
+            throw new RuntimeException(infinityCoordinatesMessage);
+        }
+        return normalize();
+    }
+
+    private static final String notOnCurveMessage
+        = "This point does not lie on the curve.";
+    private static final String differentCurvesMessage
+        = "These points lie on different curves.";
+    private static final String infinityCoordinatesMessage
+        = "The point at infinity does not have affine coordinates.";
+}
@@ -0,0 +1,153 @@
+import danraies.commutativealgebra.*;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+final public class ExEllipticCurvePointFactory extends AbelianGroupElementFactory
+    implements ElementCodec<ExEllipticCurvePoint> {
+    private ExEllipticCurve curve;
+    Random r = new Random();
+
+    public ExEllipticCurvePointFactory(ExEllipticCurve curve) {
+        this.curve = curve;
+    }
+
+    /**
+     * Returns a random point of the curve.  The point is given a random
+     * Jacobian representative so that the tests also exercise the
+     * comparison of differently scaled coordinates.
+     */
+    public ExEllipticCurvePoint getRandom() {
+        long p = curve.getModulus();
+        long x;
+        long rightHandSide;
+        do {
+            x = ModularArithmetic.reduce(r.nextLong(), p);
+            rightHandSide = curve.rightHandSide(x);
+        } while (!ModularArithmetic.isSquare(rightHandSide, p));
+        long y = ModularArithmetic.squareRoot(rightHandSide, p);
+        if (r.nextBoolean()) {
+            y = ModularArithmetic.negate(y, p);
+        }
+        long lambda = 1L + ModularArithmetic.reduce(r.nextLong(), p - 1);
+        long lambdaSquared = ModularArithmetic.multiply(lambda, lambda, p);
+        return new ExEllipticCurvePoint(
+            curve,
+            ModularArithmetic.multiply(x, lambdaSquared, p),
+            ModularArithmetic.multiply(y, ModularArithmetic.multiply(lambdaSquared, lambda, p), p),
+            lambda);
+    }
+
+    public ExEllipticCurvePoint getZero() {
+        return curve.getPointAtInfinity();
+    }
+
+    public void setSeed(long seed) {
+        r.setSeed(seed);
+    }
+
+    /**
+     * Points are compressed: one byte that is zero for the point at infinity
+     * and otherwise holds the parity of <code>y</code>, followed by
+     * <code>x</code> as a varint.  Decoding recovers <code>y</code> with a
+     * square root.
+     */
+    public int encodedSize(ExEllipticCurvePoint point) {
+        if (point.isZero()) {
+            return 1;
+        }
+        return 1 + Codecs.varLongSize(point.normalize().getX());
+    }
+
+    public void encode(ExEllipticCurvePoint point, ByteBuffer buffer) {
+        if (point.isZero()) {
+            buffer.put(INFINITY);
+            return;
+        }
+        ExEllipticCurvePoint affine = point.normalize();
+        buffer.put((byte) (EVEN_Y | (affine.getY() & 1L)));
+        Codecs.writeVarLong(buffer, affine.getX());
+    }
+
+    public ExEllipticCurvePoint decode(ByteBuffer buffer) {
+        byte flag = buffer.get();
+        if (flag == INFINITY) {
+            return curve.getPointAtInfinity();
+        } else if ((flag != EVEN_Y) && (flag != ODD_Y)) {
+            throw new RuntimeException(badFlagMessage);
+        }
+        long p = curve.getModulus();
+        long x = Codecs.readVarLong(buffer);
+        if ((x < 0L) || (x >= p)) {
+            throw new RuntimeException(notOnCurveMessage);
+        }
+        long rightHandSide = curve.rightHandSide(x);
+        if (!ModularArithmetic.isSquare(rightHandSide, p)) {
+            throw new RuntimeException(notOnCurveMessage);
+        }
+        long y = ModularArithmetic.squareRoot(rightHandSide, p);
+        if ((y & 1L) != (flag & 1L)) {
+            y = ModularArithmetic.negate(y, p);
+        }
+        return new ExEllipticCurvePoint(curve, x, y);
+    }
+
+    public static void main(String[] args) {
+        ExEllipticCurve curve = new ExEllipticCurve(2L, 3L, 1000003L);
+        ExEllipticCurvePointFactory f = new ExEllipticCurvePointFactory(curve);
+        checkScalarMultiples(f);
+        f.exampleTest();
+    }
+
+    /**
+     * Compares <code>scalarMultiply</code> and
+     * <code>ExEllipticCurveFixedBase</code> with repeated addition for small
+     * scalars, and with the sum of two multiples for large ones, which go
+     * through the wider non-adjacent form and past the fixed-base table.
+     */
+    private static void checkScalarMultiples(ExEllipticCurvePointFactory f) {
+        f.setSeed(1L);
+        Random r = new Random(1L);
+        for (int k = 0; k < 10; k++) {
+            ExEllipticCurvePoint point = f.getRandom();
+            ExEllipticCurveFixedBase fixed = new ExEllipticCurveFixedBase(point, 10);
+            ExEllipticCurvePoint multiple = f.getZero();
+            for (int n = 0; n <= 1200; n++) {
+                check("scalarMultiply agrees with repeated addition",
+                      point.scalarMultiply(n).equals(multiple)
+                      && point.scalarMultiply(-n).equals(multiple.negative()));
+                check("fixed base agrees with repeated addition",
+                      fixed.multiply(n).equals(multiple)
+                      && fixed.multiply(-n).equals(multiple.negative()));
+                multiple = multiple.addTo(point);
+            }
+            ExEllipticCurveFixedBase wide = new ExEllipticCurveFixedBase(point, 160);
+            for (int j = 0; j < 20; j++) {
+                BigInteger a = new BigInteger(150, r);
+                BigInteger b = new BigInteger(150, r).negate();
+                ExEllipticCurvePoint sum = point.scalarMultiply(a).addTo(point.scalarMultiply(b));
+                check("scalarMultiply is additive in the scalar",
+                      point.scalarMultiply(a.add(b)).equals(sum));
+                check("fixed base agrees with scalarMultiply",
+                      wide.multiply(a).equals(point.scalarMultiply(a))
+                      && wide.multiply(a.add(b)).equals(sum)
+                      && fixed.multiply(a).equals(point.scalarMultiply(a)));
+            }
+        }
+        System.out.println("Scalar multiples agree with repeated addition.");
+    }
+
+    private static void check(String description, boolean passed) {
+        if (!passed) {
+            throw new RuntimeException("Check failed: " + description);
+        }
+    }
+
+    private static final byte INFINITY = 0;
+    private static final byte EVEN_Y = 2;
+    private static final byte ODD_Y = 3;
+    private static final String badFlagMessage
+        = "This is not the encoding of a point.";
+    private static final String notOnCurveMessage
+        = "This x-coordinate does not belong to a point of the curve.";
+}
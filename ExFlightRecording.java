@@ -0,0 +1,98 @@
+import danraies.commutativealgebra.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Records the axiom tests of a few example factories with Java Flight
+ * Recorder, together with the garbage collections and CPU samples of the
+ * JVM, and prints how many events of each kind the recording holds and the
+ * slowest sampled operations.  The rationals are tested with edge cases so
+ * that the recording also shows counterexamples.  The recording is written
+ * to <code>axiom-tests.jfr</code>, or to the file given as an argument,
+ * and can be opened in JDK Mission Control.  The same events are recorded
+ * from any program that runs axiom tests, for instance with
+ * <code>java -XX:StartFlightRecording=filename=run.jfr ExAxiomTestSuite</code>.
+ */
+final public class ExFlightRecording {
+    private static final String defaultFile = "axiom-tests.jfr";
+    private static final String prefix = "danraies.commutativealgebra.";
+    private static final int checksPerAxiom = 20000;
+    private static final int slowestOperations = 5;
+
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get((args.length > 0) ? args[0] : defaultFile);
+        Recording recording = new Recording();
+        recording.enable(prefix + "AxiomRun");
+        recording.enable(prefix + "Check");
+        recording.enable(prefix + "CounterExample");
+        recording.enable(prefix + "Operation");
+        recording.enable("jdk.GarbageCollection");
+        recording.enable("jdk.ExecutionSample").withPeriod(Duration.ofMillis(10));
+        recording.start();
+
+        ExQQElementFactory rationals = new ExQQElementFactory();
+        rationals.setEdgeCaseRatio(0.25);
+        ElementFactory[] factories = {
+            rationals, new ExBigZZElementFactory(), new ExGFpkElementFactory(7L, 3)};
+        for (int i = 0; i < factories.length; i++) {
+            factories[i].shouldIncludeVerboseOutput(false);
+            factories[i].setLog(new PrintStream(new ByteArrayOutputStream()));
+            factories[i].setTotalNumberOfTests(checksPerAxiom);
+            factories[i].testAxioms();
+        }
+
+        recording.stop();
+        recording.dump(file);
+        recording.close();
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        TreeMap<String, Integer> counts = new TreeMap<String, Integer>();
+        ArrayList<RecordedEvent> operations = new ArrayList<RecordedEvent>();
+        for (RecordedEvent event : events) {
+            String name = event.getEventType().getName();
+            counts.put(name, counts.getOrDefault(name, 0) + 1);
+            if (name.equals(prefix + "Operation")) {
+                operations.add(event);
+            }
+        }
+        System.out.println(file + ": " + events.size() + " events");
+        for (String name : counts.keySet()) {
+            System.out.println("  " + name + ": " + counts.get(name));
+        }
+        check("axiom runs were recorded", counts.containsKey(prefix + "AxiomRun"));
+        check("counterexamples were recorded", counts.containsKey(prefix + "CounterExample"));
+
+        Collections.sort(operations, new Comparator<RecordedEvent>() {
+                @Override
+                public int compare(RecordedEvent a, RecordedEvent b) {
+                    return b.getDuration().compareTo(a.getDuration());
+                }
+            });
+        System.out.println("Slowest sampled operations:");
+        for (int i = 0; (i < slowestOperations) && (i < operations.size()); i++) {
+            RecordedEvent e = operations.get(i);
+            System.out.println("  " + e.getString("elementClass") + "." + e.getString("operation")
+                               + " on sizes " + e.getLong("leftSize") + " and "
+                               + e.getLong("rightSize") + ": "
+                               + e.getDuration().toNanos() + " ns");
+        }
+    }
+
+    private static void check(String description, boolean passed) {
+        if (!passed) {
+            throw new RuntimeException("Check failed: " + description);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+import danraies.commutativealgebra.*;
+import java.math.BigInteger;
+
+/**
+ * Compares eager and lazy reduction in <code>FractionFieldElement</code> on
+ * long chains of sums: the harmonic numbers <code>1 + 1/2 + ... + 1/n</code>
+ * over the integers, and the partial fractions
+ * <code>1/(x - 1) + ... + 1/(x - n)</code> over GF(1000003)[x].  Each chain
+ * is summed by an eager field, by a lazy field with a size threshold and by
+ * a lazy field that never reduces before printing, and the three results
+ * are checked against each other.  Every mode is run once to warm up the
+ * just-in-time compiler and then five times, and the fastest time is
+ * reported.  The lengths of the two chains can be given as arguments.
+ */
+final public class ExFractionFieldBenchmark {
+    private static final String[] modes = {
+        "eager", "lazy with a size threshold", "lazy until printed"};
+    private static final int repetitions = 5;
+
+    public static void main(String[] args) {
+        int integerTerms = 3000;
+        int polynomialTerms = 300;
+        if (args.length > 0) {
+            integerTerms = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            polynomialTerms = Integer.parseInt(args[1]);
+        }
+
+        ExBigZZElementFactory integers = new ExBigZZElementFactory();
+        OperandSize bits = new OperandSize() {
+                public long sizeOf(Element e) {
+                    return ((ExBigZZElement) e).getValue().bitLength();
+                }
+            };
+        System.out.println("Harmonic number H_" + integerTerms + " over Q");
+        FractionFieldElementFactory[] rationals = {
+            new FractionFieldElementFactory(integers),
+            new FractionFieldElementFactory(integers, bits, 8192L),
+            new FractionFieldElementFactory(integers, bits, Long.MAX_VALUE)};
+        FieldElement[] harmonic = new FieldElement[rationals.length];
+        long[] best = new long[rationals.length];
+        for (int run = 0; run <= repetitions; run++) {
+            for (int k = 0; k < rationals.length; k++) {
+                long start = System.nanoTime();
+                harmonic[k] = harmonic(rationals[k], integerTerms);
+                best[k] = fastest(best[k], start, run);
+            }
+        }
+        report(best);
+        check(harmonic);
+
+        long p = 1000003L;
+        ExGFpElementFactory coefficients = new ExGFpElementFactory(p);
+        UnivariatePolynomialFactory polynomials = new UnivariatePolynomialFactory(coefficients, 1);
+        OperandSize degree = new OperandSize() {
+                public long sizeOf(Element e) {
+                    return ((UnivariatePolynomial) e).getDegree() + 1;
+                }
+            };
+        System.out.println("Sum of 1/(x - i) for i = 1, ..., " + polynomialTerms
+                           + " over GF(" + p + ")(x)");
+        FractionFieldElementFactory[] functions = {
+            new FractionFieldElementFactory(polynomials),
+            new FractionFieldElementFactory(polynomials, degree, 128L),
+            new FractionFieldElementFactory(polynomials, degree, Long.MAX_VALUE)};
+        FieldElement[] partialFractions = new FieldElement[functions.length];
+        best = new long[functions.length];
+        for (int run = 0; run <= repetitions; run++) {
+            for (int k = 0; k < functions.length; k++) {
+                long start = System.nanoTime();
+                partialFractions[k] = partialFractions(functions[k], coefficients, p,
+                                                       polynomialTerms);
+                best[k] = fastest(best[k], start, run);
+            }
+        }
+        report(best);
+        check(partialFractions);
+    }
+
+    /** Sums <code>1/i</code>, then prints the sum into a string. */
+    private static FieldElement harmonic(FractionFieldElementFactory rationals, int terms) {
+        FieldElement sum = rationals.getZero();
+        for (int i = 1; i <= terms; i++) {
+            sum = (FieldElement) sum.addTo(
+                rationals.getElement(new ExBigZZElement(1L), new ExBigZZElement(i)));
+        }
+        sum.toString();
+        return sum;
+    }
+
+    /** Sums <code>1/(x - i)</code>, then prints the sum into a string. */
+    private static FieldElement partialFractions(FractionFieldElementFactory functions,
+                                                 ExGFpElementFactory coefficients, long p,
+                                                 int terms) {
+        UnivariatePolynomialFactory polynomials = (UnivariatePolynomialFactory) functions.getRing();
+        FieldElement sum = functions.getZero();
+        for (int i = 1; i <= terms; i++) {
+            FieldElement[] linear = {new ExGFpElement(-i, p), coefficients.getOne()};
+            sum = (FieldElement) sum.addTo(
+                functions.getElement(polynomials.getOne(),
+                                     new UnivariatePolynomial(coefficients, linear)));
+        }
+        sum.toString();
+        return sum;
+    }
+
+    /**
+     * The faster of a previous best time and the time since
+     * <code>start</code>.  Run zero only warms up the just-in-time compiler
+     * and is not counted.
+     */
+    private static long fastest(long best, long start, int run) {
+        long elapsed = System.nanoTime() - start;
+        if (run == 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.min(best, elapsed);
+    }
+
+    private static void report(long[] best) {
+        for (int k = 0; k < best.length; k++) {
+            System.out.println("  " + modes[k] + ": " + (best[k] / 1000000L) + " ms");
+        }
+    }
+
+    private static void check(FieldElement[] results) {
+        for (int i = 1; i < results.length; i++) {
+            if (!results[i].equals(results[0])) {
+                throw new RuntimeException("The eager and lazy sums differ.");
+            }
+        }
+    }
+}
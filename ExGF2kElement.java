@@ -0,0 +1,147 @@
+import danraies.commutativealgebra.*;
+
+final public class ExGF2kElement implements FieldElement, AccumulatingElement {
+    private ExGF2kField field;
+    private long value;
+
+    /**
+     * Creates an element of GF(2^k) from the bits of a <code>long</code>.
+     * Bit <code>i</code> is the coefficient of <code>x^i</code>; bits of
+     * degree <code>k</code> and higher are ignored.
+     *
+     * @param field The field that this element belongs to.
+     * @param value The coefficients of the element as a bit pattern.
+     */
+    public ExGF2kElement(ExGF2kField field, long value) {
+        this.field = field;
+        this.value = field.truncate(value);
+    }
+
+    public ExGF2kField getField() {
+        return field;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof ExGF2kElement)) {
+            return false;
+        }
+        ExGF2kElement g = (ExGF2kElement) o;
+        return (this.value == g.value) && this.field.equals(g.field);
+    }
+
+    /**
+     * Overrides the <code>toString()</code> method.
+     *
+     * @return The element written as a polynomial in <code>x</code>, for
+     *         example <code>x^3 + x + 1</code>.
+     */
+    public String toString() {
+        if (value == 0L) {
+            return "0";
+        }
+        String returnValue = "";
+        for (int i = 63 - Long.numberOfLeadingZeros(value); i >= 0; i--) {
+            if (((value >>> i) & 1L) == 0L) {
+                continue;
+            }
+            if (returnValue.length() > 0) {
+                returnValue = returnValue + " + ";
+            }
+            if (i == 0) {
+                returnValue = returnValue + "1";
+            } else if (i == 1) {
+                returnValue = returnValue + "x";
+            } else {
+                returnValue = returnValue + "x^" + i;
+            }
+        }
+        return returnValue;
+    }
+
+    public boolean isZero() {
+        return (value == 0L);
+    }
+
+    public boolean isOne() {
+        return (value == 1L);
+    }
+
+    public ExGF2kElement addTo(CommutativeMonoidElement e) {
+        ExGF2kElement g = sameField(e);
+        return new ExGF2kElement(field, this.value ^ g.value);
+    }
+
+    /**
+     * In characteristic two every element is its own negative.
+     *
+     * @return Returns <code>this</code>.
+     */
+    public ExGF2kElement negative() {
+        return this;
+    }
+
+    public ExGF2kElement multiplyBy(CommutativeRingElement e) {
+        ExGF2kElement g = sameField(e);
+        return new ExGF2kElement(field, field.multiply(this.value, g.value));
+    }
+
+    public ExGF2kElement inverse() {
+        return new ExGF2kElement(field, field.inverse(value));
+    }
+
+    public Accumulator newAccumulator() {
+        return new GF2kAccumulator(field, value);
+    }
+
+    private ExGF2kElement sameField(Element e) {
+        ExGF2kElement g = (ExGF2kElement) e;
+        if (!field.equals(g.field)) {
+            throw new RuntimeException(differentFieldsMessage);
+        }
+        return g;
+    }
+
+    /** The bit pattern of an element, kept as a primitive <code>long</code>. */
+    private static final class GF2kAccumulator implements Accumulator {
+        private ExGF2kField field;
+        private long value;
+
+        GF2kAccumulator(ExGF2kField field, long value) {
+            this.field = field;
+            this.value = value;
+        }
+
+        public void set(CommutativeRingElement e) {
+            value = bits(e);
+        }
+
+        public void addInPlace(CommutativeRingElement e) {
+            value = value ^ bits(e);
+        }
+
+        public void multiplyAddInPlace(CommutativeRingElement a, CommutativeRingElement b) {
+            value = value ^ field.multiply(bits(a), bits(b));
+        }
+
+        public ExGF2kElement toElement() {
+            return new ExGF2kElement(field, value);
+        }
+
+        private long bits(CommutativeRingElement e) {
+            ExGF2kElement g = (ExGF2kElement) e;
+            if (!field.equals(g.field)) {
+                throw new RuntimeException(differentFieldsMessage);
+            }
+            return g.value;
+        }
+    }
+
+    private static final String differentFieldsMessage
+        = "These elements belong to different fields.";
+}
@@ -0,0 +1,79 @@
+import danraies.commutativealgebra.*;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+final public class ExGF2kElementFactory extends FieldElementFactory
+    implements ElementCodec<ExGF2kElement> {
+    private ExGF2kField field;
+    Random r = new Random();
+
+    public ExGF2kElementFactory(int degree) {
+        field = new ExGF2kField(degree);
+    }
+
+    public ExGF2kElement getRandom() {
+        return new ExGF2kElement(field, r.nextLong());
+    }
+
+    public ExGF2kElement getZero() {
+        return new ExGF2kElement(field, 0L);
+    }
+
+    public ExGF2kElement getOne() {
+        return new ExGF2kElement(field, 1L);
+    }
+
+    /**
+     * The element with every bit set, the element of highest degree alone
+     * and <code>x</code>, which exercise the reduction most.
+     */
+    public ExGF2kElement[] getBoundaryElements() {
+        int degree = field.getDegree();
+        ExGF2kElement[] boundary = {
+            new ExGF2kElement(field, -1L),
+            new ExGF2kElement(field, 1L << (degree - 1)),
+            new ExGF2kElement(field, 2L)};
+        return boundary;
+    }
+
+    /**
+     * Proposes zero, one, the element without its term of highest degree
+     * and the element with every degree lowered by one.
+     */
+    public ExGF2kElement[] shrink(Element e) {
+        long value = ((ExGF2kElement) e).getValue();
+        if (value <= 1L) {
+            return new ExGF2kElement[0];
+        }
+        ExGF2kElement[] smaller = {new ExGF2kElement(field, 0L),
+                                   new ExGF2kElement(field, 1L),
+                                   new ExGF2kElement(field, value ^ Long.highestOneBit(value)),
+                                   new ExGF2kElement(field, value >>> 1)};
+        return smaller;
+    }
+
+    public void setSeed(long seed) {
+        r.setSeed(seed);
+    }
+
+    public int encodedSize(ExGF2kElement element) {
+        return Codecs.varLongSize(element.getValue());
+    }
+
+    public void encode(ExGF2kElement element, ByteBuffer buffer) {
+        Codecs.writeVarLong(buffer, element.getValue());
+    }
+
+    public ExGF2kElement decode(ByteBuffer buffer) {
+        return new ExGF2kElement(field, Codecs.readVarLong(buffer));
+    }
+
+    public static void main(String[] args) {
+        int degree = 8;
+        if (args.length > 0) {
+            degree = Integer.parseInt(args[0]);
+        }
+        ExGF2kElementFactory f = new ExGF2kElementFactory(degree);
+        f.exampleTest();
+    }
+}
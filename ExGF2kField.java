@@ -0,0 +1,395 @@
+import danraies.commutativealgebra.*;
+
+/**
+ * The finite field with <code>2^k</code> elements, for <code>1 &lt;= k &lt;= 63</code>.
+ * Elements are polynomials over GF(2) of degree less than <code>k</code>,
+ * stored as the bits of a single <code>long</code>, so addition is an
+ * exclusive or.  This class holds everything that depends on <code>k</code>:
+ * the defining polynomial and, for small fields, the log/antilog tables.
+ * <p>
+ * For <code>k &lt;= 16</code> multiplication and inversion are table
+ * lookups.  For larger <code>k</code> multiplication is a word-level
+ * shift-and-XOR product followed by a fast reduction modulo a sparse
+ * (trinomial or pentanomial) irreducible polynomial, and inversion uses the
+ * Itoh-Tsujii addition chain, which needs about <code>k</code> squarings but
+ * only <code>log(k)</code> multiplications.
+ */
+final public class ExGF2kField {
+    private static int MAX_DEGREE = 63;
+    private static int MAX_TABLE_DEGREE = 16;
+
+    private int degree;
+    private long mask;
+
+    /** The exponents <code>e</code> with <code>x^k = sum of x^e</code>,
+        i.e. the defining polynomial without its leading term. */
+    private int[] reductionExponents;
+
+    /** <code>antilog[i]</code> is the generator to the power <code>i</code>,
+        stored twice over so that sums of two logarithms need no reduction. */
+    private int[] antilog;
+    private int[] log;
+
+    /**
+     * Builds the field with <code>2^degree</code> elements.  The defining
+     * polynomial is the irreducible trinomial with the smallest middle term
+     * if there is one and the smallest irreducible pentanomial otherwise.
+     *
+     * @param degree The degree <code>k</code> of the field over GF(2).
+     */
+    public ExGF2kField(int degree) {
+        if ((degree < 1) || (degree > MAX_DEGREE)) {
+            throw new RuntimeException(degreeOutOfRangeMessage);
+        }
+        this.degree = degree;
+        this.mask = (1L << degree) - 1L;
+        this.reductionExponents = findSparseIrreducible(degree);
+        if (degree <= MAX_TABLE_DEGREE) {
+            buildTables();
+        }
+    }
+
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * Returns the defining polynomial as a bit pattern without its leading
+     * term <code>x^k</code>.
+     *
+     * @return The low terms of the defining polynomial.
+     */
+    public long getReductionPolynomial() {
+        long low = 0L;
+        for (int i = 0; i < reductionExponents.length; i++) {
+            low = low | (1L << reductionExponents[i]);
+        }
+        return low;
+    }
+
+    /**
+     * Reduces an arbitrary bit pattern to a field element by discarding the
+     * bits of degree <code>k</code> and higher.
+     */
+    long truncate(long value) {
+        return value & mask;
+    }
+
+    long multiply(long a, long b) {
+        if ((a == 0L) || (b == 0L)) {
+            return 0L;
+        }
+        if (antilog != null) {
+            return antilog[log[(int) a] + log[(int) b]];
+        }
+        // Carry-less product of two words as a 128-bit (hi, lo) pair.
+        long hi = 0L;
+        long lo = 0L;
+        long bits = b;
+        while (bits != 0L) {
+            int i = Long.numberOfTrailingZeros(bits);
+            lo = lo ^ (a << i);
+            if (i != 0) {
+                hi = hi ^ (a >>> (64 - i));
+            }
+            bits = bits & (bits - 1L);
+        }
+        return reduce(hi, lo);
+    }
+
+    long square(long a) {
+        if (antilog != null) {
+            if (a == 0L) {
+                return 0L;
+            }
+            return antilog[2 * log[(int) a]];
+        }
+        // Squaring over GF(2) spreads the bits out: bit i moves to bit 2i.
+        long lo = 0L;
+        long hi = 0L;
+        for (int i = 0; i < 4; i++) {
+            lo = lo | ((long) SPREAD[(int) ((a >>> (8 * i)) & 0xFFL)] << (16 * i));
+            hi = hi | ((long) SPREAD[(int) ((a >>> (8 * i + 32)) & 0xFFL)] << (16 * i));
+        }
+        return reduce(hi, lo);
+    }
+
+    long inverse(long a) {
+        if (a == 0L) {
+            throw new RuntimeException(zeroInverseMessage);
+        }
+        if (antilog != null) {
+            return antilog[antilog.length / 2 - log[(int) a]];
+        }
+        // Itoh-Tsujii: a^-1 = (a^(2^(k-1) - 1))^2.  beta holds a^(2^m - 1)
+        // and is advanced along the binary expansion of k - 1.
+        int n = degree - 1;
+        long beta = a;
+        int m = 1;
+        for (int bit = 30 - Integer.numberOfLeadingZeros(n); bit >= 0; bit--) {
+            long power = beta;
+            for (int j = 0; j < m; j++) {
+                power = square(power);
+            }
+            beta = multiply(power, beta);
+            m = 2 * m;
+            if (((n >>> bit) & 1) != 0) {
+                beta = multiply(square(beta), a);
+                m = m + 1;
+            }
+        }
+        return square(beta);
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof ExGF2kField)) {
+            return false;
+        }
+        // The defining polynomial is a function of the degree.
+        return ((ExGF2kField) o).degree == degree;
+    }
+
+    public int hashCode() {
+        return degree;
+    }
+
+    public String toString() {
+        return "GF(2^" + degree + ")";
+    }
+
+    //////////////////////////////////////////////////
+    // Private methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Reduces the polynomial <code>hi * x^64 + lo</code>, of degree at most
+     * <code>2k - 2</code>, modulo the defining polynomial.  Since
+     * <code>x^k</code> is congruent to a sparse polynomial of small degree,
+     * the part above degree <code>k</code> can be folded down with a few
+     * shifts; a second or third fold handles what the first one pushed back
+     * over degree <code>k</code>.
+     */
+    private long reduce(long hi, long lo) {
+        while ((hi != 0L) || ((lo & ~mask) != 0L)) {
+            long top = (hi << (64 - degree)) | (lo >>> degree);
+            lo = lo & mask;
+            hi = 0L;
+            for (int i = 0; i < reductionExponents.length; i++) {
+                int e = reductionExponents[i];
+                lo = lo ^ (top << e);
+                if (e != 0) {
+                    hi = hi ^ (top >>> (64 - e));
+                }
+            }
+        }
+        return lo;
+    }
+
+    private void buildTables() {
+        int order = (int) mask;
+        long generator = findGenerator(order);
+        antilog = new int[2 * order];
+        log = new int[order + 1];
+        long power = 1L;
+        for (int i = 0; i < order; i++) {
+            antilog[i] = (int) power;
+            antilog[i + order] = (int) power;
+            log[(int) power] = i;
+            power = slowMultiply(power, generator);
+        }
+    }
+
+    /**
+     * Finds a generator of the multiplicative group, which has
+     * <code>order = 2^k - 1</code> elements.
+     */
+    private long findGenerator(int order) {
+        int[] primeFactors = primeFactors(order);
+        for (long candidate = (degree == 1) ? 1L : 2L; candidate <= order; candidate++) {
+            boolean generates = true;
+            for (int i = 0; i < primeFactors.length; i++) {
+                if (slowPower(candidate, order / primeFactors[i]) == 1L) {
+                    generates = false;
+                    break;
+                }
+            }
+            if (generates) {
+                return candidate;
+            }
+        }
+        throw new RuntimeException(noGeneratorMessage);
+    }
+
+    private static int[] primeFactors(int n) {
+        int[] factors = new int[32];
+        int count = 0;
+        for (int p = 2; (long) p * p <= n; p++) {
+            if (n % p == 0) {
+                factors[count++] = p;
+                while (n % p == 0) {
+                    n = n / p;
+                }
+            }
+        }
+        if (n > 1) {
+            factors[count++] = n;
+        }
+        int[] result = new int[count];
+        System.arraycopy(factors, 0, result, 0, count);
+        return result;
+    }
+
+    private long slowPower(long base, long exponent) {
+        long result = 1L;
+        while (exponent != 0L) {
+            if ((exponent & 1L) != 0L) {
+                result = slowMultiply(result, base);
+            }
+            base = slowMultiply(base, base);
+            exponent = exponent >>> 1;
+        }
+        return result;
+    }
+
+    /** Multiplication without the tables, used while the tables are built. */
+    private long slowMultiply(long a, long b) {
+        long hi = 0L;
+        long lo = 0L;
+        for (int i = 0; i < degree; i++) {
+            if (((b >>> i) & 1L) != 0L) {
+                lo = lo ^ (a << i);
+                if (i != 0) {
+                    hi = hi ^ (a >>> (64 - i));
+                }
+            }
+        }
+        return reduce(hi, lo);
+    }
+
+    /**
+     * Searches for a sparse irreducible polynomial of the given degree:
+     * first trinomials <code>x^k + x^a + 1</code>, then pentanomials
+     * <code>x^k + x^a + x^b + x^c + 1</code>, in order of increasing middle
+     * terms so that reduction needs as few folds as possible.
+     */
+    private static int[] findSparseIrreducible(int degree) {
+        if (degree == 1) {
+            int[] linear = {0};
+            return linear;
+        }
+        for (int a = 1; a <= degree / 2; a++) {
+            int[] exponents = {a, 0};
+            if (isIrreducible(degree, exponents)) {
+                return exponents;
+            }
+        }
+        for (int a = 3; a < degree; a++) {
+            for (int b = 2; b < a; b++) {
+                for (int c = 1; c < b; c++) {
+                    int[] exponents = {a, b, c, 0};
+                    if (isIrreducible(degree, exponents)) {
+                        return exponents;
+                    }
+                }
+            }
+        }
+        throw new RuntimeException(noIrreducibleMessage);
+    }
+
+    /**
+     * Rabin's test: a polynomial f of degree k over GF(2) is irreducible if
+     * and only if <code>x^(2^k) = x</code> modulo f and
+     * <code>gcd(x^(2^(k/q)) - x, f) = 1</code> for each prime q dividing k.
+     */
+    private static boolean isIrreducible(int degree, int[] exponents) {
+        ExGF2kField candidate = new ExGF2kField(degree, exponents);
+        long x = 2L;
+        long f = candidate.getReductionPolynomial();
+        int[] primeFactors = primeFactors(degree);
+        for (int i = 0; i < primeFactors.length; i++) {
+            long power = x;
+            for (int j = 0; j < degree / primeFactors[i]; j++) {
+                power = candidate.slowMultiply(power, power);
+            }
+            if (polynomialGcdWithModulus(degree, f, power ^ x) != 1L) {
+                return false;
+            }
+        }
+        long power = x;
+        for (int j = 0; j < degree; j++) {
+            power = candidate.slowMultiply(power, power);
+        }
+        return power == x;
+    }
+
+    /** Only used while searching, before the tables exist. */
+    private ExGF2kField(int degree, int[] reductionExponents) {
+        this.degree = degree;
+        this.mask = (1L << degree) - 1L;
+        this.reductionExponents = reductionExponents;
+    }
+
+    /**
+     * The gcd of <code>x^k + f</code> and <code>g</code> over GF(2), where
+     * <code>f</code> and <code>g</code> have degree less than <code>k</code>.
+     * One step of the Euclidean algorithm brings both arguments into a
+     * single word.
+     */
+    private static long polynomialGcdWithModulus(int degree, long f, long g) {
+        if (g == 0L) {
+            return -1L;
+        }
+        // x^k mod g, computed one shift at a time.
+        int gDegree = 63 - Long.numberOfLeadingZeros(g);
+        long xPower = 1L % g;
+        for (int i = 0; i < degree; i++) {
+            xPower = xPower << 1;
+            if (((xPower >>> gDegree) & 1L) != 0L) {
+                xPower = xPower ^ g;
+            }
+        }
+        long r = polynomialRemainder(f, g) ^ xPower;
+        long a = g;
+        long b = r;
+        while (b != 0L) {
+            long temp = polynomialRemainder(a, b);
+            a = b;
+            b = temp;
+        }
+        return a;
+    }
+
+    private static long polynomialRemainder(long a, long b) {
+        int bDegree = 63 - Long.numberOfLeadingZeros(b);
+        while ((a != 0L) && (63 - Long.numberOfLeadingZeros(a) >= bDegree)) {
+            a = a ^ (b << ((63 - Long.numberOfLeadingZeros(a)) - bDegree));
+        }
+        return a;
+    }
+
+    /** <code>SPREAD[b]</code> has bit <code>2i</code> set exactly when
+        <code>b</code> has bit <code>i</code> set. */
+    private static int[] SPREAD = new int[256];
+    static {
+        for (int b = 0; b < 256; b++) {
+            int spread = 0;
+            for (int i = 0; i < 8; i++) {
+                if (((b >>> i) & 1) != 0) {
+                    spread = spread | (1 << (2 * i));
+                }
+            }
+            SPREAD[b] = spread;
+        }
+    }
+
+    private static final String degreeOutOfRangeMessage
+        = "The degree of GF(2^k) must be between 1 and 63.";
+    private static final String zeroInverseMessage
+        = "Zero does not have a multiplicative inverse.";
+    private static final String noGeneratorMessage
+        = "No generator of the multiplicative group was found.";
+    private static final String noIrreducibleMessage
+        = "No sparse irreducible polynomial of this degree was found.";
+}
@@ -0,0 +1,258 @@
+import danraies.commutativealgebra.*;
+
+final public class ExGFpElement implements FieldElement, AccumulatingElement {
+    private long value;
+    private long modulus;
+
+    /**
+     * Creates the residue class of an integer modulo a prime.  The prime is
+     * not checked here; it must not exceed
+     * <code>ModularArithmetic.MAX_MODULUS</code>.
+     *
+     * @param value Any <code>long</code> integer.
+     * @param modulus The prime <code>p</code>.
+     */
+    public ExGFpElement(long value, long modulus) {
+        if ((modulus < 2) || (modulus > ModularArithmetic.MAX_MODULUS)) {
+            throw new RuntimeException(modulusOutOfRangeMessage);
+        }
+        this.value = ModularArithmetic.reduce(value, modulus);
+        this.modulus = modulus;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public long getModulus() {
+        return modulus;
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof ExGFpElement)) {
+            return false;
+        }
+        ExGFpElement g = (ExGFpElement) o;
+        return (this.value == g.value) && (this.modulus == g.modulus);
+    }
+
+    public String toString() {
+        return String.valueOf(value);
+    }
+
+    public boolean isZero() {
+        return (value == 0L);
+    }
+
+    public boolean isOne() {
+        return (value == 1L);
+    }
+
+    public ExGFpElement addTo(CommutativeMonoidElement e) {
+        ExGFpElement g = sameModulus(e);
+        return new ExGFpElement(ModularArithmetic.add(value, g.value, modulus), modulus);
+    }
+
+    public ExGFpElement negative() {
+        return new ExGFpElement(ModularArithmetic.negate(value, modulus), modulus);
+    }
+
+    public ExGFpElement multiplyBy(CommutativeRingElement e) {
+        ExGFpElement g = sameModulus(e);
+        return new ExGFpElement(ModularArithmetic.multiply(value, g.value, modulus), modulus);
+    }
+
+    public ExGFpElement inverse() {
+        if (value == 0L) {
+            throw new RuntimeException(zeroInverseMessage);
+        }
+        return new ExGFpElement(ModularArithmetic.inverse(value, modulus), modulus);
+    }
+
+    /**
+     * Inverts many elements of the same field at once.  This does the work
+     * of <code>BatchInversion.inverse</code> on primitive residues, so
+     * the only objects created are the results.  Zero elements stay zero.
+     *
+     * @param elements Elements of GF(p), all with the same modulus.
+     * @return A new array with the inverses, in the same order.
+     */
+    public static ExGFpElement[] inverseAll(ExGFpElement[] elements) {
+        ExGFpElement[] inverses = new ExGFpElement[elements.length];
+        if (elements.length == 0) {
+            return inverses;
+        }
+        long modulus = elements[0].modulus;
+        long[] values = new long[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            values[i] = elements[0].sameModulus(elements[i]).value;
+        }
+        long[] inverseValues = ModularArithmetic.inverseAll(values, modulus);
+        for (int i = 0; i < elements.length; i++) {
+            inverses[i] = new ExGFpElement(inverseValues[i], modulus);
+        }
+        return inverses;
+    }
+
+    /**
+     * Copies the residues of elements of the same field into a primitive
+     * array, for use with <code>ModularVectors</code>.
+     *
+     * @param elements Elements of GF(p), all with the same modulus.
+     * @return A new array with the residues, in the same order.
+     */
+    public static long[] toResidues(ExGFpElement[] elements) {
+        if (elements.length == 0) {
+            return new long[0];
+        }
+        return residuesLike(elements[0], elements);
+    }
+
+    /**
+     * Wraps primitive residues as elements.
+     *
+     * @param values Reduced residues.
+     * @param modulus The prime <code>p</code>.
+     * @return A new array of elements of GF(p), in the same order.
+     */
+    public static ExGFpElement[] fromResidues(long[] values, long modulus) {
+        ExGFpElement[] elements = new ExGFpElement[values.length];
+        for (int i = 0; i < values.length; i++) {
+            elements[i] = new ExGFpElement(values[i], modulus);
+        }
+        return elements;
+    }
+
+    /**
+     * Adds two vectors entry by entry with <code>ModularVectors.add</code>.
+     *
+     * @param a Elements of GF(p), all with the same modulus.
+     * @param b Elements of the same field, as many as in <code>a</code>.
+     * @return A new array with the sums.
+     */
+    public static ExGFpElement[] addAll(ExGFpElement[] a, ExGFpElement[] b) {
+        if (a.length == 0) {
+            return new ExGFpElement[0];
+        }
+        long[] x = residuesLike(a[0], a);
+        long[] y = residuesLike(a[0], b);
+        ModularVectors.add(x, y, x, a[0].modulus);
+        return fromResidues(x, a[0].modulus);
+    }
+
+    public static ExGFpElement[] subtractAll(ExGFpElement[] a, ExGFpElement[] b) {
+        if (a.length == 0) {
+            return new ExGFpElement[0];
+        }
+        long[] x = residuesLike(a[0], a);
+        long[] y = residuesLike(a[0], b);
+        ModularVectors.subtract(x, y, x, a[0].modulus);
+        return fromResidues(x, a[0].modulus);
+    }
+
+    public static ExGFpElement[] multiplyAll(ExGFpElement[] a, ExGFpElement[] b) {
+        if (a.length == 0) {
+            return new ExGFpElement[0];
+        }
+        long[] x = residuesLike(a[0], a);
+        long[] y = residuesLike(a[0], b);
+        ModularVectors.multiply(x, y, x, a[0].modulus);
+        return fromResidues(x, a[0].modulus);
+    }
+
+    /**
+     * Computes <code>y + c x</code> entry by entry with
+     * <code>ModularVectors.multiplyAccumulate</code>.
+     *
+     * @param y Elements of GF(p), all with the same modulus.
+     * @param c An element of the same field.
+     * @param x Elements of the same field, as many as in <code>y</code>.
+     * @return A new array with the results.
+     */
+    public static ExGFpElement[] multiplyAccumulateAll(ExGFpElement[] y, ExGFpElement c,
+                                                       ExGFpElement[] x) {
+        long[] result = residuesLike(c, y);
+        ModularVectors.multiplyAccumulate(result, c.value, residuesLike(c, x), c.modulus);
+        return fromResidues(result, c.modulus);
+    }
+
+    /**
+     * Computes a dot product with <code>ModularVectors.dotProduct</code>.
+     *
+     * @param a Elements of GF(p), all with the same modulus.  There must be
+     *        at least one.
+     * @param b Elements of the same field, as many as in <code>a</code>.
+     * @return The sum of the products <code>a[i] b[i]</code>.
+     */
+    public static ExGFpElement dotProduct(ExGFpElement[] a, ExGFpElement[] b) {
+        long[] x = residuesLike(a[0], a);
+        long[] y = residuesLike(a[0], b);
+        return new ExGFpElement(ModularVectors.dotProduct(x, y, a[0].modulus), a[0].modulus);
+    }
+
+    public Accumulator newAccumulator() {
+        return new GFpAccumulator(value, modulus);
+    }
+
+    /** The residues of elements that must share the modulus of <code>g</code>. */
+    private static long[] residuesLike(ExGFpElement g, ExGFpElement[] elements) {
+        long[] values = new long[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            values[i] = g.sameModulus(elements[i]).value;
+        }
+        return values;
+    }
+
+    private ExGFpElement sameModulus(Element e) {
+        ExGFpElement g = (ExGFpElement) e;
+        if (g.modulus != modulus) {
+            throw new RuntimeException(differentModuliMessage);
+        }
+        return g;
+    }
+
+    /** A residue kept as a primitive <code>long</code>. */
+    private static final class GFpAccumulator implements Accumulator {
+        private long value;
+        private long modulus;
+
+        GFpAccumulator(long value, long modulus) {
+            this.value = value;
+            this.modulus = modulus;
+        }
+
+        public void set(CommutativeRingElement e) {
+            value = residue(e);
+        }
+
+        public void addInPlace(CommutativeRingElement e) {
+            value = ModularArithmetic.add(value, residue(e), modulus);
+        }
+
+        public void multiplyAddInPlace(CommutativeRingElement a, CommutativeRingElement b) {
+            // The product is below 2^62 and the sum below 2^63.
+            value = (value + residue(a) * residue(b)) % modulus;
+        }
+
+        public ExGFpElement toElement() {
+            return new ExGFpElement(value, modulus);
+        }
+
+        private long residue(CommutativeRingElement e) {
+            ExGFpElement g = (ExGFpElement) e;
+            if (g.modulus != modulus) {
+                throw new RuntimeException(differentModuliMessage);
+            }
+            return g.value;
+        }
+    }
+
+    private static final String modulusOutOfRangeMessage
+        = "The modulus must be between 2 and ModularArithmetic.MAX_MODULUS.";
+    private static final String zeroInverseMessage
+        = "Zero does not have a multiplicative inverse.";
+    private static final String differentModuliMessage
+        = "These elements belong to different fields.";
+}
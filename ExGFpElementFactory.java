@@ -0,0 +1,77 @@
+import danraies.commutativealgebra.*;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+final public class ExGFpElementFactory extends FieldElementFactory
+    implements ElementCodec<ExGFpElement> {
+    private long modulus;
+    Random r = new Random();
+
+    public ExGFpElementFactory(long modulus) {
+        if (!ModularArithmetic.isPrime(modulus)) {
+            throw new RuntimeException("The modulus of GF(p) must be a prime.");
+        }
+        this.modulus = modulus;
+    }
+
+    public ExGFpElement getRandom() {
+        return new ExGFpElement(r.nextLong(), modulus);
+    }
+
+    public ExGFpElement getZero() {
+        return new ExGFpElement(0L, modulus);
+    }
+
+    public ExGFpElement getOne() {
+        return new ExGFpElement(1L, modulus);
+    }
+
+    /**
+     * The residues next to the modulus and to half of it.
+     */
+    public ExGFpElement[] getBoundaryElements() {
+        long[] values = {2L, modulus - 1L, modulus - 2L, modulus / 2L, modulus / 2L + 1L};
+        ExGFpElement[] boundary = new ExGFpElement[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boundary[i] = new ExGFpElement(values[i], modulus);
+        }
+        return boundary;
+    }
+
+    /**
+     * Proposes the residues between zero and the given one.
+     */
+    public ExGFpElement[] shrink(Element e) {
+        long[] values = shrinkTowardZero(((ExGFpElement) e).getValue());
+        ExGFpElement[] smaller = new ExGFpElement[values.length];
+        for (int i = 0; i < values.length; i++) {
+            smaller[i] = new ExGFpElement(values[i], modulus);
+        }
+        return smaller;
+    }
+
+    public void setSeed(long seed) {
+        r.setSeed(seed);
+    }
+
+    public int encodedSize(ExGFpElement element) {
+        return Codecs.varLongSize(element.getValue());
+    }
+
+    public void encode(ExGFpElement element, ByteBuffer buffer) {
+        Codecs.writeVarLong(buffer, element.getValue());
+    }
+
+    public ExGFpElement decode(ByteBuffer buffer) {
+        return new ExGFpElement(Codecs.readVarLong(buffer), modulus);
+    }
+
+    public static void main(String[] args) {
+        long modulus = 1000003L;
+        if (args.length > 0) {
+            modulus = Long.parseLong(args[0]);
+        }
+        ExGFpElementFactory f = new ExGFpElementFactory(modulus);
+        f.exampleTest();
+    }
+}
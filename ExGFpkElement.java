@@ -0,0 +1,207 @@
+import danraies.commutativealgebra.*;
+import java.util.Arrays;
+
+final public class ExGFpkElement implements FieldElement, AccumulatingElement {
+    private ExGFpkField field;
+    private long[] coefficients;
+
+    /**
+     * Creates an element of GF(p^k) from its coefficients with respect to
+     * the basis <code>1, x, ..., x^(k-1)</code>.  The coefficients are
+     * reduced modulo <code>p</code> and missing ones are taken to be zero.
+     *
+     * @param field The field that this element belongs to.
+     * @param coefficients At most <code>k</code> coefficients, lowest degree
+     *        first.
+     */
+    public ExGFpkElement(ExGFpkField field, long[] coefficients) {
+        if (coefficients.length > field.getDegree()) {
+            throw new RuntimeException(tooManyCoefficientsMessage);
+        }
+        this.field = field;
+        this.coefficients = new long[field.getDegree()];
+        for (int i = 0; i < coefficients.length; i++) {
+            this.coefficients[i] = ModularArithmetic.reduce(coefficients[i],
+                                                            field.getModulus());
+        }
+    }
+
+    /** Wraps an array that the field has already reduced, without copying. */
+    private ExGFpkElement(long[] coefficients, ExGFpkField field) {
+        this.field = field;
+        this.coefficients = coefficients;
+    }
+
+    public ExGFpkField getField() {
+        return field;
+    }
+
+    public long[] getCoefficients() {
+        return coefficients.clone();
+    }
+
+    /**
+     * Gets one coefficient without copying the others.
+     *
+     * @param i A degree between <code>0</code> and <code>k - 1</code>.
+     * @return The coefficient of <code>x^i</code>, between <code>0</code>
+     *         and <code>p - 1</code>.
+     */
+    public long getCoefficient(int i) {
+        return coefficients[i];
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof ExGFpkElement)) {
+            return false;
+        }
+        ExGFpkElement g = (ExGFpkElement) o;
+        return Arrays.equals(this.coefficients, g.coefficients)
+            && this.field.equals(g.field);
+    }
+
+    /**
+     * Overrides the <code>toString()</code> method.
+     *
+     * @return The element written as a polynomial in <code>x</code>, for
+     *         example <code>3x^2 + 1</code>.
+     */
+    public String toString() {
+        String returnValue = "";
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            if (coefficients[i] == 0L) {
+                continue;
+            }
+            if (returnValue.length() > 0) {
+                returnValue = returnValue + " + ";
+            }
+            if ((coefficients[i] != 1L) || (i == 0)) {
+                returnValue = returnValue + coefficients[i];
+            }
+            if (i == 1) {
+                returnValue = returnValue + "x";
+            } else if (i > 1) {
+                returnValue = returnValue + "x^" + i;
+            }
+        }
+        if (returnValue.length() == 0) {
+            return "0";
+        }
+        return returnValue;
+    }
+
+    public boolean isZero() {
+        for (int i = 0; i < coefficients.length; i++) {
+            if (coefficients[i] != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isOne() {
+        if (coefficients[0] != 1L) {
+            return false;
+        }
+        for (int i = 1; i < coefficients.length; i++) {
+            if (coefficients[i] != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public ExGFpkElement addTo(CommutativeMonoidElement e) {
+        ExGFpkElement g = sameField(e);
+        return new ExGFpkElement(field.add(coefficients, g.coefficients), field);
+    }
+
+    public ExGFpkElement negative() {
+        return new ExGFpkElement(field.negate(coefficients), field);
+    }
+
+    public ExGFpkElement multiplyBy(CommutativeRingElement e) {
+        ExGFpkElement g = sameField(e);
+        return new ExGFpkElement(field.multiply(coefficients, g.coefficients), field);
+    }
+
+    public ExGFpkElement inverse() {
+        return new ExGFpkElement(field.inverse(coefficients), field);
+    }
+
+    public Accumulator newAccumulator() {
+        return new GFpkAccumulator(field, coefficients);
+    }
+
+    private ExGFpkElement sameField(Element e) {
+        ExGFpkElement g = (ExGFpkElement) e;
+        if (!field.equals(g.field)) {
+            throw new RuntimeException(differentFieldsMessage);
+        }
+        return g;
+    }
+
+    /**
+     * Keeps an unreduced polynomial of degree up to <code>2k - 2</code>.
+     * Products are added to it coefficient by coefficient, and the
+     * reduction modulo f, which costs about as much as the product itself,
+     * is done only once in <code>toElement()</code>.
+     */
+    private static final class GFpkAccumulator implements Accumulator {
+        private ExGFpkField field;
+        private long[] sum;
+
+        GFpkAccumulator(ExGFpkField field, long[] coefficients) {
+            this.field = field;
+            sum = new long[2 * field.getDegree() - 1];
+            System.arraycopy(coefficients, 0, sum, 0, coefficients.length);
+        }
+
+        public void set(CommutativeRingElement e) {
+            long[] c = coefficients(e);
+            Arrays.fill(sum, 0L);
+            System.arraycopy(c, 0, sum, 0, c.length);
+        }
+
+        public void addInPlace(CommutativeRingElement e) {
+            long[] c = coefficients(e);
+            long p = field.getModulus();
+            for (int i = 0; i < c.length; i++) {
+                sum[i] = ModularArithmetic.add(sum[i], c[i], p);
+            }
+        }
+
+        public void multiplyAddInPlace(CommutativeRingElement a, CommutativeRingElement b) {
+            long[] c = coefficients(a);
+            long[] d = coefficients(b);
+            long p = field.getModulus();
+            for (int i = 0; i < c.length; i++) {
+                if (c[i] == 0L) {
+                    continue;
+                }
+                for (int j = 0; j < d.length; j++) {
+                    sum[i + j] = (sum[i + j] + c[i] * d[j]) % p;
+                }
+            }
+        }
+
+        public ExGFpkElement toElement() {
+            return new ExGFpkElement(field.reduceProduct(sum), field);
+        }
+
+        private long[] coefficients(CommutativeRingElement e) {
+            ExGFpkElement g = (ExGFpkElement) e;
+            if (!field.equals(g.field)) {
+                throw new RuntimeException(differentFieldsMessage);
+            }
+            return g.coefficients;
+        }
+    }
+
+    private static final String tooManyCoefficientsMessage
+        = "An element of GF(p^k) has at most k coefficients.";
+    private static final String differentFieldsMessage
+        = "These elements belong to different fields.";
+}
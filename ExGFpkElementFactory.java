@@ -0,0 +1,130 @@
+import danraies.commutativealgebra.*;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+final public class ExGFpkElementFactory extends FieldElementFactory
+    implements ElementCodec<ExGFpkElement> {
+    private ExGFpkField field;
+    Random r = new Random();
+
+    public ExGFpkElementFactory(long modulus, int degree) {
+        field = new ExGFpkField(modulus, degree);
+    }
+
+    public ExGFpkElement getRandom() {
+        long[] coefficients = new long[field.getDegree()];
+        for (int i = 0; i < coefficients.length; i++) {
+            coefficients[i] = r.nextLong();
+        }
+        return new ExGFpkElement(field, coefficients);
+    }
+
+    public ExGFpkElement getZero() {
+        return new ExGFpkElement(field, new long[0]);
+    }
+
+    public ExGFpkElement getOne() {
+        long[] one = {1L};
+        return new ExGFpkElement(field, one);
+    }
+
+    /**
+     * The elements with every coefficient equal to <code>p - 1</code>, with
+     * only the coefficient of highest degree, and <code>x</code>.
+     */
+    public ExGFpkElement[] getBoundaryElements() {
+        int degree = field.getDegree();
+        long[] largest = new long[degree];
+        long[] highest = new long[degree];
+        long[] x = new long[degree];
+        for (int i = 0; i < degree; i++) {
+            largest[i] = field.getModulus() - 1L;
+        }
+        highest[degree - 1] = field.getModulus() - 1L;
+        if (degree > 1) {
+            x[1] = 1L;
+        }
+        ExGFpkElement[] boundary = {
+            new ExGFpkElement(field, largest),
+            new ExGFpkElement(field, highest),
+            new ExGFpkElement(field, x)};
+        return boundary;
+    }
+
+    /**
+     * Proposes zero, the element without its term of highest degree and the
+     * element with every coefficient halved.
+     */
+    public ExGFpkElement[] shrink(Element e) {
+        long[] coefficients = ((ExGFpkElement) e).getCoefficients();
+        int top = coefficients.length - 1;
+        while ((top >= 0) && (coefficients[top] == 0L)) {
+            top--;
+        }
+        if (top < 0) {
+            return new ExGFpkElement[0];
+        }
+        long[] lower = coefficients.clone();
+        lower[top] = 0L;
+        long[] halved = new long[coefficients.length];
+        for (int i = 0; i < coefficients.length; i++) {
+            halved[i] = coefficients[i] / 2L;
+        }
+        ExGFpkElement[] smaller = {new ExGFpkElement(field, new long[coefficients.length]),
+                                   new ExGFpkElement(field, lower),
+                                   new ExGFpkElement(field, halved)};
+        return smaller;
+    }
+
+    public void setSeed(long seed) {
+        r.setSeed(seed);
+    }
+
+    /**
+     * The coefficients are written up to the last non-zero one, so that
+     * elements of the prime field take two bytes or fewer.
+     */
+    public int encodedSize(ExGFpkElement element) {
+        int length = encodedLength(element);
+        int size = Codecs.varLongSize(length);
+        for (int i = 0; i < length; i++) {
+            size = size + Codecs.varLongSize(element.getCoefficient(i));
+        }
+        return size;
+    }
+
+    public void encode(ExGFpkElement element, ByteBuffer buffer) {
+        int length = encodedLength(element);
+        Codecs.writeLength(buffer, length);
+        for (int i = 0; i < length; i++) {
+            Codecs.writeVarLong(buffer, element.getCoefficient(i));
+        }
+    }
+
+    public ExGFpkElement decode(ByteBuffer buffer) {
+        long[] coefficients = new long[Codecs.readLength(buffer)];
+        for (int i = 0; i < coefficients.length; i++) {
+            coefficients[i] = Codecs.readVarLong(buffer);
+        }
+        return new ExGFpkElement(field, coefficients);
+    }
+
+    private int encodedLength(ExGFpkElement element) {
+        int length = field.getDegree();
+        while ((length > 0) && (element.getCoefficient(length - 1) == 0L)) {
+            length--;
+        }
+        return length;
+    }
+
+    public static void main(String[] args) {
+        long modulus = 7L;
+        int degree = 3;
+        if (args.length > 1) {
+            modulus = Long.parseLong(args[0]);
+            degree = Integer.parseInt(args[1]);
+        }
+        ExGFpkElementFactory f = new ExGFpkElementFactory(modulus, degree);
+        f.exampleTest();
+    }
+}
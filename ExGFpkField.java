@@ -0,0 +1,336 @@
+import danraies.commutativealgebra.*;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The finite field GF(p^k), realised as GF(p)[x] modulo a monic irreducible
+ * polynomial f of degree k.  Elements are coefficient arrays of primitive
+ * residues, <code>long[k]</code>, and this class holds everything that
+ * depends on f.
+ * <p>
+ * Products are reduced modulo f with Barrett's method: the reversal of f
+ * has constant term one, so its power series inverse modulo
+ * <code>x^(k-1)</code> is computed once, and afterwards the quotient of any
+ * product by f is the truncated product of its reversal with that inverse.
+ * Inverses come from the extended Euclidean algorithm on polynomials.
+ */
+final public class ExGFpkField {
+    private long modulus;
+    private int degree;
+
+    /** The coefficients of f, lowest degree first, with a leading one. */
+    private long[] definingPolynomial;
+
+    /** The inverse of the reversal of f modulo <code>x^(k-1)</code>. */
+    private long[] barrettInverse;
+
+    /**
+     * Builds GF(p^k) from a given defining polynomial.  A runtime exception
+     * is thrown if the polynomial is not monic and irreducible modulo
+     * <code>p</code>.
+     *
+     * @param modulus The prime <code>p</code>, at most
+     *        <code>ModularArithmetic.MAX_MODULUS</code>.
+     * @param definingPolynomial The coefficients of f, lowest degree first.
+     */
+    public ExGFpkField(long modulus, long[] definingPolynomial) {
+        setModulus(modulus);
+        long[] f = new long[definingPolynomial.length];
+        for (int i = 0; i < f.length; i++) {
+            f[i] = ModularArithmetic.reduce(definingPolynomial[i], modulus);
+        }
+        if ((f.length < 2) || (f[f.length - 1] != 1L)) {
+            throw new RuntimeException(notMonicMessage);
+        }
+        setDefiningPolynomial(f);
+        if (!isIrreducible()) {
+            throw new RuntimeException(reducibleMessage);
+        }
+    }
+
+    /**
+     * Builds GF(p^k) with a defining polynomial found by a seeded random
+     * search, so the same <code>p</code> and <code>k</code> always give the
+     * same field.
+     *
+     * @param modulus The prime <code>p</code>, at most
+     *        <code>ModularArithmetic.MAX_MODULUS</code>.
+     * @param degree The degree <code>k</code> of the field over GF(p).
+     */
+    public ExGFpkField(long modulus, int degree) {
+        setModulus(modulus);
+        if (degree < 1) {
+            throw new RuntimeException(degreeOutOfRangeMessage);
+        }
+        Random random = new Random(31L * modulus + degree);
+        long[] f = new long[degree + 1];
+        f[degree] = 1L;
+        do {
+            for (int i = 0; i < degree; i++) {
+                f[i] = ModularArithmetic.reduce(random.nextLong(), modulus);
+            }
+            setDefiningPolynomial(f.clone());
+        } while (!isIrreducible());
+    }
+
+    public long getModulus() {
+        return modulus;
+    }
+
+    public int getDegree() {
+        return degree;
+    }
+
+    public long[] getDefiningPolynomial() {
+        return definingPolynomial.clone();
+    }
+
+    long[] add(long[] a, long[] b) {
+        long[] sum = new long[degree];
+        for (int i = 0; i < degree; i++) {
+            sum[i] = ModularArithmetic.add(a[i], b[i], modulus);
+        }
+        return sum;
+    }
+
+    long[] negate(long[] a) {
+        long[] negative = new long[degree];
+        for (int i = 0; i < degree; i++) {
+            negative[i] = ModularArithmetic.negate(a[i], modulus);
+        }
+        return negative;
+    }
+
+    long[] multiply(long[] a, long[] b) {
+        long[] product = new long[2 * degree - 1];
+        for (int i = 0; i < degree; i++) {
+            if (a[i] == 0L) {
+                continue;
+            }
+            for (int j = 0; j < degree; j++) {
+                product[i + j] = (product[i + j] + a[i] * b[j]) % modulus;
+            }
+        }
+        return reduceProduct(product);
+    }
+
+    long[] inverse(long[] a) {
+        // Extended Euclid on (f, a), keeping only the cofactor of a.
+        long[] oldR = definingPolynomial;
+        long[] r = a;
+        long[] oldT = new long[1];
+        long[] t = {1L};
+        while (!isZero(r)) {
+            int rDegree = degreeOf(r);
+            if (rDegree == 0) {
+                long scale = ModularArithmetic.inverse(r[0], modulus);
+                long[] inverse = new long[degree];
+                for (int i = 0; (i < t.length) && (i < degree); i++) {
+                    inverse[i] = ModularArithmetic.multiply(t[i], scale, modulus);
+                }
+                return inverse;
+            }
+            long[][] qr = divideWithRemainder(oldR, r);
+            long[] temp = t;
+            t = subtract(oldT, multiplyPolynomials(qr[0], t));
+            oldT = temp;
+            oldR = r;
+            r = qr[1];
+        }
+        throw new RuntimeException(notInvertibleMessage);
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof ExGFpkField)) {
+            return false;
+        }
+        ExGFpkField g = (ExGFpkField) o;
+        return (g.modulus == modulus)
+            && Arrays.equals(g.definingPolynomial, definingPolynomial);
+    }
+
+    public int hashCode() {
+        return Long.hashCode(modulus) * 31 + Arrays.hashCode(definingPolynomial);
+    }
+
+    public String toString() {
+        return "GF(" + modulus + "^" + degree + ")";
+    }
+
+    //////////////////////////////////////////////////
+    // Private methods
+    //////////////////////////////////////////////////
+
+    private void setModulus(long modulus) {
+        if ((modulus > ModularArithmetic.MAX_MODULUS)
+            || !ModularArithmetic.isPrime(modulus)) {
+            throw new RuntimeException(notPrimeMessage);
+        }
+        this.modulus = modulus;
+    }
+
+    private void setDefiningPolynomial(long[] f) {
+        definingPolynomial = f;
+        degree = f.length - 1;
+        // The reversal h of f has h[i] = f[k - i] and h[0] = 1, so its
+        // inverse g satisfies g[i] = -(h[1] g[i-1] + ... + h[i] g[0]).
+        barrettInverse = new long[Math.max(degree - 1, 0)];
+        if (barrettInverse.length > 0) {
+            barrettInverse[0] = 1L;
+        }
+        for (int i = 1; i < barrettInverse.length; i++) {
+            long sum = 0L;
+            for (int j = 1; j <= i; j++) {
+                sum = (sum + f[degree - j] * barrettInverse[i - j]) % modulus;
+            }
+            barrettInverse[i] = ModularArithmetic.negate(sum, modulus);
+        }
+    }
+
+    /**
+     * Reduces a product of two elements, of length <code>2k - 1</code>,
+     * modulo f.
+     */
+    long[] reduceProduct(long[] product) {
+        int k = degree;
+        long[] quotient = new long[k - 1];
+        for (int i = 0; i < k - 1; i++) {
+            long sum = 0L;
+            for (int j = 0; j <= i; j++) {
+                sum = (sum + product[2 * k - 2 - (i - j)] * barrettInverse[j]) % modulus;
+            }
+            quotient[k - 2 - i] = sum;
+        }
+        long[] remainder = new long[k];
+        for (int i = 0; i < k; i++) {
+            long sum = 0L;
+            for (int j = 0; (j <= i) && (j < k - 1); j++) {
+                sum = (sum + quotient[j] * definingPolynomial[i - j]) % modulus;
+            }
+            remainder[i] = ModularArithmetic.subtract(product[i], sum, modulus);
+        }
+        return remainder;
+    }
+
+    /**
+     * Rabin's test: f of degree k is irreducible if and only if
+     * <code>x^(p^k) = x</code> modulo f and
+     * <code>gcd(x^(p^(k/q)) - x, f) = 1</code> for each prime q dividing k.
+     */
+    private boolean isIrreducible() {
+        if (degree == 1) {
+            return true;
+        }
+        long[] x = new long[degree];
+        x[1] = 1L;
+        for (int q = 2; q <= degree; q++) {
+            if ((degree % q != 0) || !ModularArithmetic.isPrime(q)) {
+                continue;
+            }
+            long[] difference = subtract(frobeniusPower(x, degree / q), x);
+            long[] gcd = gcd(definingPolynomial, difference);
+            if (degreeOf(gcd) != 0) {
+                return false;
+            }
+        }
+        return Arrays.equals(frobeniusPower(x, degree), x);
+    }
+
+    /** Applies <code>a -> a^p</code> to an element <code>count</code> times. */
+    private long[] frobeniusPower(long[] a, int count) {
+        long[] result = a;
+        for (int i = 0; i < count; i++) {
+            long[] power = new long[degree];
+            power[0] = 1L;
+            long[] square = result;
+            long exponent = modulus;
+            while (exponent != 0L) {
+                if ((exponent & 1L) != 0L) {
+                    power = multiply(power, square);
+                }
+                square = multiply(square, square);
+                exponent = exponent >>> 1;
+            }
+            result = power;
+        }
+        return result;
+    }
+
+    private long[] gcd(long[] a, long[] b) {
+        while (!isZero(b)) {
+            long[] temp = divideWithRemainder(a, b)[1];
+            a = b;
+            b = temp;
+        }
+        return a;
+    }
+
+    private long[][] divideWithRemainder(long[] a, long[] b) {
+        int bDegree = degreeOf(b);
+        long leadInverse = ModularArithmetic.inverse(b[bDegree], modulus);
+        long[] remainder = a.clone();
+        int aDegree = degreeOf(a);
+        long[] quotient = new long[Math.max(aDegree - bDegree + 1, 1)];
+        for (int i = aDegree; i >= bDegree; i--) {
+            long c = ModularArithmetic.multiply(remainder[i], leadInverse, modulus);
+            if (c == 0L) {
+                continue;
+            }
+            quotient[i - bDegree] = c;
+            for (int j = 0; j <= bDegree; j++) {
+                remainder[i - bDegree + j] = ModularArithmetic.subtract(
+                    remainder[i - bDegree + j],
+                    ModularArithmetic.multiply(c, b[j], modulus), modulus);
+            }
+        }
+        long[][] qr = {quotient, remainder};
+        return qr;
+    }
+
+    private long[] multiplyPolynomials(long[] a, long[] b) {
+        long[] product = new long[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < b.length; j++) {
+                product[i + j] = (product[i + j] + a[i] * b[j]) % modulus;
+            }
+        }
+        return product;
+    }
+
+    private long[] subtract(long[] a, long[] b) {
+        long[] difference = new long[Math.max(a.length, b.length)];
+        for (int i = 0; i < difference.length; i++) {
+            long ai = (i < a.length) ? a[i] : 0L;
+            long bi = (i < b.length) ? b[i] : 0L;
+            difference[i] = ModularArithmetic.subtract(ai, bi, modulus);
+        }
+        return difference;
+    }
+
+    private static int degreeOf(long[] a) {
+        for (int i = a.length - 1; i >= 0; i--) {
+            if (a[i] != 0L) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isZero(long[] a) {
+        return degreeOf(a) < 0;
+    }
+
+    private static final String notPrimeMessage
+        = "The characteristic of GF(p^k) must be a prime no larger than"
+        + " ModularArithmetic.MAX_MODULUS.";
+    private static final String notMonicMessage
+        = "The defining polynomial must be monic of degree at least one.";
+    private static final String reducibleMessage
+        = "The defining polynomial is not irreducible.";
+    private static final String degreeOutOfRangeMessage
+        = "The degree of GF(p^k) must be at least one.";
+    private static final String notInvertibleMessage
+        = "Zero does not have a multiplicative inverse.";
+}
@@ -0,0 +1,193 @@
+import danraies.commutativealgebra.*;
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Times greatest common divisors by repeated division against the half-gcd
+ * method of <code>HalfGcd</code>, for polynomials over GF(998244353) and
+ * for integers held in <code>ExBigZZElement</code> objects.  Both operands
+ * share a factor of a quarter of their size, so the greatest common divisor
+ * is not trivial.  Each method is timed without and with the coefficients
+ * of Bezout's identity; the integers are also timed against
+ * <code>BigInteger.gcd</code>.  Every result is checked: the greatest
+ * common divisors must agree up to a unit, divide both operands and equal
+ * the combination given by their coefficients.  The degrees double from
+ * 512 up to the largest degree and the sizes from 4096 bits up to the
+ * largest size; both can be given as arguments and are 16384 and 262144 by
+ * default.
+ */
+final public class ExHalfGcdBenchmark {
+    private static final long modulus = 998244353L;
+    private static final int smallestDegree = 512;
+    private static final int smallestBits = 4096;
+
+    public static void main(String[] args) {
+        int largestDegree = 16384;
+        int largestBits = 262144;
+        if (args.length > 0) {
+            largestDegree = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            largestBits = Integer.parseInt(args[1]);
+        }
+        // The first pass only warms up the just-in-time compiler.
+        polynomials(smallestDegree, false);
+        integers(smallestBits, false);
+        System.out.println("GF(" + modulus + ")[x]:");
+        for (int n = smallestDegree; n <= largestDegree; n = 2 * n) {
+            polynomials(n, true);
+        }
+        System.out.println("ZZ:");
+        for (int n = smallestBits; n <= largestBits; n = 2 * n) {
+            integers(n, true);
+        }
+    }
+
+    private static void polynomials(int n, boolean verbose) {
+        ExGFpElementFactory field = new ExGFpElementFactory(modulus);
+        field.setSeed(n);
+        UnivariatePolynomialFactory ring = new UnivariatePolynomialFactory(field, 1);
+        UnivariatePolynomial common = randomPolynomial(field, n / 4);
+        UnivariatePolynomial a = common.multiplyBy(randomPolynomial(field, n - n / 4));
+        UnivariatePolynomial b = common.multiplyBy(randomPolynomial(field, n - n / 4 - 1));
+
+        long start = System.nanoTime();
+        EuclideanDomainElement euclid = repeatedDivision(a, b);
+        long euclidTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        UnivariatePolynomial half = a.gcd(b);
+        long halfTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        EuclideanDomainElement[] euclidBezout = extendedRepeatedDivision(ring, a, b);
+        long extendedEuclidTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        UnivariatePolynomial[] halfBezout = a.extendedGcd(b);
+        long extendedHalfTime = System.nanoTime() - start;
+
+        check("same polynomial gcd", ((UnivariatePolynomial) euclid).monic().equals(half)
+              && ((UnivariatePolynomial) euclidBezout[0]).monic().equals(half)
+              && halfBezout[0].equals(half));
+        check("polynomial gcd of degree at least n/4", half.getDegree() >= n / 4);
+        checkBezout(a, b, euclidBezout);
+        checkBezout(a, b, halfBezout);
+        if (verbose) {
+            System.out.println("  degree " + n + " (gcd of degree " + half.getDegree() + "):");
+            System.out.println("    gcd           repeated division " + millis(euclidTime)
+                               + " ms, half-gcd " + millis(halfTime) + " ms"
+                               + speedup(euclidTime, halfTime));
+            System.out.println("    extended gcd  repeated division " + millis(extendedEuclidTime)
+                               + " ms, half-gcd " + millis(extendedHalfTime) + " ms"
+                               + speedup(extendedEuclidTime, extendedHalfTime));
+        }
+    }
+
+    private static void integers(int n, boolean verbose) {
+        Random r = new Random(n);
+        ExBigZZElementFactory ring = new ExBigZZElementFactory();
+        BigInteger common = new BigInteger(n / 4, r).setBit(n / 4 - 1);
+        ExBigZZElement a = new ExBigZZElement(common.multiply(new BigInteger(n - n / 4, r)));
+        ExBigZZElement b = new ExBigZZElement(common.multiply(new BigInteger(n - n / 4, r)).negate());
+
+        long start = System.nanoTime();
+        BigInteger builtIn = a.getValue().gcd(b.getValue());
+        long builtInTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        EuclideanDomainElement euclid = repeatedDivision(a, b);
+        long euclidTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        ExBigZZElement half = a.gcd(b);
+        long halfTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        EuclideanDomainElement[] euclidBezout = extendedRepeatedDivision(ring, a, b);
+        long extendedEuclidTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        ExBigZZElement[] halfBezout = a.extendedGcd(b);
+        long extendedHalfTime = System.nanoTime() - start;
+
+        check("same integer gcd", half.getValue().equals(builtIn)
+              && ((ExBigZZElement) euclid).getValue().abs().equals(builtIn)
+              && ((ExBigZZElement) euclidBezout[0]).getValue().abs().equals(builtIn)
+              && halfBezout[0].getValue().equals(builtIn));
+        check("integer gcd of at least n/4 bits", builtIn.bitLength() >= n / 4);
+        checkBezout(a, b, euclidBezout);
+        checkBezout(a, b, halfBezout);
+        if (verbose) {
+            System.out.println("  " + n + " bits (gcd of " + builtIn.bitLength() + " bits):");
+            System.out.println("    gcd           repeated division " + millis(euclidTime)
+                               + " ms, BigInteger.gcd " + millis(builtInTime)
+                               + " ms, half-gcd " + millis(halfTime) + " ms"
+                               + speedup(builtInTime, halfTime));
+            System.out.println("    extended gcd  repeated division " + millis(extendedEuclidTime)
+                               + " ms, half-gcd " + millis(extendedHalfTime) + " ms"
+                               + speedup(extendedEuclidTime, extendedHalfTime));
+        }
+    }
+
+    /**
+     * The loop of <code>EuclideanAlgorithm.gcd</code>, which hands these
+     * elements to their own faster methods.
+     */
+    private static EuclideanDomainElement repeatedDivision(EuclideanDomainElement a,
+                                                           EuclideanDomainElement b) {
+        while (!b.isZero()) {
+            EuclideanDomainElement remainder = a.divideWithRemainder(b)[1];
+            a = b;
+            b = remainder;
+        }
+        return a;
+    }
+
+    /** The loop of <code>EuclideanAlgorithm.extendedGcd</code>. */
+    private static EuclideanDomainElement[] extendedRepeatedDivision(EuclideanDomainElementFactory ring,
+                                                                     EuclideanDomainElement a,
+                                                                     EuclideanDomainElement b) {
+        EuclideanDomainElement oldS = ring.getOne();
+        EuclideanDomainElement s = ring.getZero();
+        EuclideanDomainElement oldT = ring.getZero();
+        EuclideanDomainElement t = ring.getOne();
+        while (!b.isZero()) {
+            EuclideanDomainElement[] qr = a.divideWithRemainder(b);
+            a = b;
+            b = qr[1];
+            EuclideanDomainElement temp = s;
+            s = (EuclideanDomainElement) oldS.addTo(qr[0].multiplyBy(s).negative());
+            oldS = temp;
+            temp = t;
+            t = (EuclideanDomainElement) oldT.addTo(qr[0].multiplyBy(t).negative());
+            oldT = temp;
+        }
+        EuclideanDomainElement[] bezout = {a, oldS, oldT};
+        return bezout;
+    }
+
+    private static void checkBezout(EuclideanDomainElement a, EuclideanDomainElement b,
+                                    EuclideanDomainElement[] bezout) {
+        EuclideanDomainElement g = bezout[0];
+        check("Bezout's identity", bezout[1].multiplyBy(a).addTo(bezout[2].multiplyBy(b)).equals(g));
+        check("gcd divides both", a.divideWithRemainder(g)[1].isZero()
+              && b.divideWithRemainder(g)[1].isZero());
+    }
+
+    private static UnivariatePolynomial randomPolynomial(FieldElementFactory field, int degree) {
+        FieldElement[] coefficients = new FieldElement[degree + 1];
+        for (int i = 0; i < degree; i++) {
+            coefficients[i] = field.getRandom();
+        }
+        coefficients[degree] = field.getOne();
+        return new UnivariatePolynomial(field, coefficients);
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(nanos / 1000000L);
+    }
+
+    private static String speedup(long baseline, long time) {
+        return String.format(" (%.1fx)", (double) baseline / Math.max(time, 1L));
+    }
+
+    private static void check(String description, boolean passed) {
+        if (!passed) {
+            throw new RuntimeException("Check failed: " + description);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+import danraies.commutativealgebra.*;
+import java.util.Random;
+
+/**
+ * Times the array kernels of <code>ModularVectors</code> against the same
+ * computations done one <code>ExGFpElement</code> at a time and against a
+ * plain loop over <code>ModularArithmetic</code>, which reduces after every
+ * operation.  The kernels are run on <code>long</code> and on
+ * <code>int</code> residues, once with the scalar loops and once with the
+ * Vector API kernels, and every result is checked against the plain loop.
+ * Each time is the fastest of several passes.  The vector kernels are only
+ * available when they were compiled and the incubator module is added;
+ * they use the widest <code>VectorSpecies</code> of the processor, and the
+ * narrower ones can be timed by choosing the width:
+ * <pre>
+ * java --add-modules jdk.incubator.vector ExModularVectorsBenchmark
+ * java --add-modules jdk.incubator.vector \
+ *     -Ddanraies.commutativealgebra.vectorBits=128 ExModularVectorsBenchmark
+ * </pre>
+ * The array length can be given as an argument; by default it is 2^20.
+ */
+final public class ExModularVectorsBenchmark {
+    private static final long[] moduli = {998244353L, 2147483647L};
+    private static final int rounds = 10;
+    private static final int DOT_PRODUCT = 0;
+    private static final int ADD = 1;
+    private static final int MULTIPLY = 2;
+    private static final int MULTIPLY_ACCUMULATE = 3;
+
+    public static void main(String[] args) {
+        int n = 1 << 20;
+        if (args.length > 0) {
+            n = Integer.parseInt(args[0]);
+        }
+        // The first pass only warms up the just-in-time compiler.
+        run(moduli[0], n, false);
+        for (int m = 0; m < moduli.length; m++) {
+            run(moduli[m], n, true);
+        }
+    }
+
+    private static void run(long modulus, int n, boolean verbose) {
+        Random r = new Random(modulus);
+        long[] a = randomResidues(n, modulus, r);
+        long[] b = randomResidues(n, modulus, r);
+        long c = ModularArithmetic.reduce(r.nextLong(), modulus);
+        ExGFpElement[] x = ExGFpElement.fromResidues(a, modulus);
+        ExGFpElement[] y = ExGFpElement.fromResidues(b, modulus);
+        ExGFpElement scalar = new ExGFpElement(c, modulus);
+        int[] aInts = toInts(a);
+        int[] bInts = toInts(b);
+        if (verbose) {
+            System.out.println("p = " + modulus + ", N = " + n);
+        }
+
+        // The plain loop gives the reference results.
+        long[] sums = new long[n];
+        long[] products = new long[n];
+        long[] axpy = new long[n];
+        long dot = 0L;
+        for (int i = 0; i < n; i++) {
+            sums[i] = ModularArithmetic.add(a[i], b[i], modulus);
+            products[i] = ModularArithmetic.multiply(a[i], b[i], modulus);
+            axpy[i] = ModularArithmetic.add(b[i], ModularArithmetic.multiply(c, a[i], modulus),
+                                            modulus);
+            dot = ModularArithmetic.add(dot, products[i], modulus);
+        }
+
+        // Dot products.
+        long elementTime = Long.MAX_VALUE;
+        ExGFpElement elementDot = null;
+        for (int k = 0; k < rounds; k++) {
+            long start = System.nanoTime();
+            elementDot = x[0].multiplyBy(y[0]);
+            for (int i = 1; i < n; i++) {
+                elementDot = elementDot.addTo(x[i].multiplyBy(y[i]));
+            }
+            elementTime = Math.min(elementTime, System.nanoTime() - start);
+        }
+        long plainTime = Long.MAX_VALUE;
+        long plainDot = 0L;
+        for (int k = 0; k < rounds; k++) {
+            long start = System.nanoTime();
+            plainDot = 0L;
+            for (int i = 0; i < n; i++) {
+                plainDot = ModularArithmetic.add(plainDot,
+                                                 ModularArithmetic.multiply(a[i], b[i], modulus),
+                                                 modulus);
+            }
+            plainTime = Math.min(plainTime, System.nanoTime() - start);
+        }
+        check("dot product", (elementDot.getValue() == dot) && (plainDot == dot));
+        report(verbose, "dot product", elementTime, plainTime);
+        kernels(verbose, DOT_PRODUCT, a, b, c, aInts, bInts, new long[] {dot},
+                elementTime, plainTime, modulus);
+
+        // Element-wise sums.
+        ExGFpElement[] elementResult = new ExGFpElement[n];
+        elementTime = Long.MAX_VALUE;
+        for (int k = 0; k < rounds; k++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                elementResult[i] = x[i].addTo(y[i]);
+            }
+            elementTime = Math.min(elementTime, System.nanoTime() - start);
+        }
+        long[] longResult = new long[n];
+        plainTime = Long.MAX_VALUE;
+        for (int k = 0; k < rounds; k++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                longResult[i] = ModularArithmetic.add(a[i], b[i], modulus);
+            }
+            plainTime = Math.min(plainTime, System.nanoTime() - start);
+        }
+        check("add", same(sums, longResult) && same(sums, ExGFpElement.toResidues(elementResult)));
+        report(verbose, "add", elementTime, plainTime);
+        kernels(verbose, ADD, a, b, c, aInts, bInts, sums, elementTime, plainTime, modulus);
+
+        // Element-wise products.
+        elementTime = Long.MAX_VALUE;
+        for (int k = 0; k < rounds; k++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                elementResult[i] = x[i].multiplyBy(y[i]);
+            }
+            elementTime = Math.min(elementTime, System.nanoTime() - start);
+        }
+        plainTime = Long.MAX_VALUE;
+        for (int k = 0; k < rounds; k++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                longResult[i] = ModularArithmetic.multiply(a[i], b[i], modulus);
+            }
+            plainTime = Math.min(plainTime, System.nanoTime() - start);
+        }
+        check("multiply", same(products, longResult)
+              && same(products, ExGFpElement.toResidues(elementResult)));
+        report(verbose, "multiply", elementTime, plainTime);
+        kernels(verbose, MULTIPLY, a, b, c, aInts, bInts, products, elementTime, plainTime,
+                modulus);
+
+        // y + c x.
+        elementTime = Long.MAX_VALUE;
+        for (int k = 0; k < rounds; k++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                elementResult[i] = y[i].addTo(scalar.multiplyBy(x[i]));
+            }
+            elementTime = Math.min(elementTime, System.nanoTime() - start);
+        }
+        plainTime = Long.MAX_VALUE;
+        for (int k = 0; k < rounds; k++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                longResult[i] = ModularArithmetic.add(
+                    b[i], ModularArithmetic.multiply(c, a[i], modulus), modulus);
+            }
+            plainTime = Math.min(plainTime, System.nanoTime() - start);
+        }
+        check("multiply-accumulate", same(axpy, longResult)
+              && same(axpy, ExGFpElement.toResidues(elementResult)));
+        report(verbose, "multiply-accumulate", elementTime, plainTime);
+        kernels(verbose, MULTIPLY_ACCUMULATE, a, b, c, aInts, bInts, axpy, elementTime,
+                plainTime, modulus);
+        if (verbose) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * Times one operation with the scalar loops of
+     * <code>ModularVectors</code> and, if they are available, with its
+     * vector kernels, checks that both give the expected results and
+     * reports the times.
+     */
+    private static void kernels(boolean verbose, int operation, long[] a, long[] b, long c,
+                                int[] aInts, int[] bInts, long[] expected,
+                                long elementTime, long plainTime, long modulus) {
+        int n = a.length;
+        long[] longResult = new long[n];
+        int[] intResult = new int[n];
+        for (int v = 0; v < 2; v++) {
+            if (!ModularVectors.setUseVectors(v == 1)) {
+                continue;
+            }
+            long longDot = 0L;
+            long longTime = Long.MAX_VALUE;
+            for (int k = 0; k < rounds; k++) {
+                if (operation == MULTIPLY_ACCUMULATE) {
+                    System.arraycopy(b, 0, longResult, 0, n);
+                }
+                long start = System.nanoTime();
+                switch (operation) {
+                case DOT_PRODUCT:
+                    longDot = ModularVectors.dotProduct(a, b, modulus);
+                    break;
+                case ADD:
+                    ModularVectors.add(a, b, longResult, modulus);
+                    break;
+                case MULTIPLY:
+                    ModularVectors.multiply(a, b, longResult, modulus);
+                    break;
+                default:
+                    ModularVectors.multiplyAccumulate(longResult, c, a, modulus);
+                }
+                longTime = Math.min(longTime, System.nanoTime() - start);
+            }
+            long intDot = 0L;
+            long intTime = Long.MAX_VALUE;
+            for (int k = 0; k < rounds; k++) {
+                if (operation == MULTIPLY_ACCUMULATE) {
+                    System.arraycopy(bInts, 0, intResult, 0, n);
+                }
+                long start = System.nanoTime();
+                switch (operation) {
+                case DOT_PRODUCT:
+                    intDot = ModularVectors.dotProduct(aInts, bInts, modulus);
+                    break;
+                case ADD:
+                    ModularVectors.add(aInts, bInts, intResult, modulus);
+                    break;
+                case MULTIPLY:
+                    ModularVectors.multiply(aInts, bInts, intResult, modulus);
+                    break;
+                default:
+                    ModularVectors.multiplyAccumulate(intResult, c, aInts, modulus);
+                }
+                intTime = Math.min(intTime, System.nanoTime() - start);
+            }
+            int bits = ModularVectors.getVectorBits();
+            String width = (bits == 0) ? "scalar loops"
+                : (bits + "-bit vectors (" + (bits / 64) + " x 64-bit lanes)");
+            if (operation == DOT_PRODUCT) {
+                check("dot product, " + width, (longDot == expected[0]) && (intDot == expected[0]));
+            } else {
+                check(OPERATION_NAMES[operation] + ", " + width,
+                      same(expected, longResult) && same(expected, toLongs(intResult)));
+            }
+            if (verbose) {
+                System.out.println("    " + width + ":");
+                System.out.println("      long[] kernel   " + millis(longTime) + " ms"
+                                   + speedup(elementTime, plainTime, longTime));
+                System.out.println("      int[] kernel    " + millis(intTime) + " ms"
+                                   + speedup(elementTime, plainTime, intTime));
+            }
+        }
+        ModularVectors.setUseVectors(true);
+    }
+
+    private static long[] randomResidues(int n, long modulus, Random r) {
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = ModularArithmetic.reduce(r.nextLong(), modulus);
+        }
+        return values;
+    }
+
+    private static int[] toInts(long[] values) {
+        int[] ints = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            ints[i] = (int) values[i];
+        }
+        return ints;
+    }
+
+    private static long[] toLongs(int[] values) {
+        long[] longs = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            longs[i] = values[i];
+        }
+        return longs;
+    }
+
+    private static boolean same(long[] expected, long[] values) {
+        for (int i = 0; i < expected.length; i++) {
+            if (values[i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void report(boolean verbose, String operation, long elementTime,
+                               long plainTime) {
+        if (!verbose) {
+            return;
+        }
+        System.out.println("  " + operation + ":");
+        System.out.println("    elements            " + millis(elementTime) + " ms");
+        System.out.println("    ModularArithmetic   " + millis(plainTime) + " ms"
+                           + String.format(" (%.1fx)", (double) elementTime / Math.max(plainTime, 1L)));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1000000.0);
+    }
+
+    /**
+     * Gives the speedup over the elements and, in brackets, over the plain
+     * <code>ModularArithmetic</code> loop.
+     */
+    private static String speedup(long elementTime, long plainTime, long time) {
+        time = Math.max(time, 1L);
+        return String.format(" (%.1fx; %.2fx ModularArithmetic)",
+                             (double) elementTime / time, (double) plainTime / time);
+    }
+
+    private static void check(String description, boolean passed) {
+        if (!passed) {
+            throw new RuntimeException("Check failed: " + description);
+        }
+    }
+
+    private static final String[] OPERATION_NAMES
+        = {"dot product", "add", "multiply", "multiply-accumulate"};
+}
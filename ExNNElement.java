@@ -10,6 +10,10 @@ final public class ExNNElement implements CommutativeMonoidElement {
         this.value = value;
     }
 
+    public long getValue() {
+        return value;
+    }
+
     public boolean equals(Object o) {
         if (o == this) {
             return true;
@@ -1,7 +1,9 @@
 import danraies.commutativealgebra.*;
+import java.nio.ByteBuffer;
 import java.util.Random;
 
-final public class ExNNElementFactory extends CommutativeMonoidElementFactory {
+final public class ExNNElementFactory extends CommutativeMonoidElementFactory
+    implements ElementCodec<ExNNElement> {
     Random r = new Random();
     
     public ExNNElement getRandom() {
@@ -16,6 +18,48 @@ final public class ExNNElementFactory extends CommutativeMonoidElementFactory {
         return new ExNNElement(0L);
     }
 
+    /**
+     * The largest values, and those whose sums or doubles leave the range
+     * of a <code>long</code>.
+     */
+    public ExNNElement[] getBoundaryElements() {
+        long[] values = {1L, (1L << 31), (1L << 32), (1L << 62), Long.MAX_VALUE - 1L,
+                         Long.MAX_VALUE};
+        ExNNElement[] boundary = new ExNNElement[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boundary[i] = new ExNNElement(values[i]);
+        }
+        return boundary;
+    }
+
+    /**
+     * Proposes values between zero and the given one.
+     */
+    public ExNNElement[] shrink(Element e) {
+        long[] values = shrinkTowardZero(((ExNNElement) e).getValue());
+        ExNNElement[] smaller = new ExNNElement[values.length];
+        for (int i = 0; i < values.length; i++) {
+            smaller[i] = new ExNNElement(values[i]);
+        }
+        return smaller;
+    }
+
+    public void setSeed(long seed) {
+        r.setSeed(seed);
+    }
+
+    public int encodedSize(ExNNElement element) {
+        return Codecs.varLongSize(element.getValue());
+    }
+
+    public void encode(ExNNElement element, ByteBuffer buffer) {
+        Codecs.writeVarLong(buffer, element.getValue());
+    }
+
+    public ExNNElement decode(ByteBuffer buffer) {
+        return new ExNNElement(Codecs.readVarLong(buffer));
+    }
+
     public static void main(String[] args) {
         ExNNElementFactory f = new ExNNElementFactory();
         f.exampleTest();
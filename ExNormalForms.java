@@ -0,0 +1,247 @@
+import danraies.commutativealgebra.*;
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Checks the Hermite and Smith normal forms of
+ * <code>FractionFreeLinearAlgebra</code>.  Over the integers, held in
+ * <code>ExBigZZElement</code> objects because the intermediate entries of
+ * the eliminations can outgrow a <code>long</code>, they are compared with
+ * forms known from the literature and, for random matrices, with the forms
+ * of the same matrices multiplied by random unimodular matrices, which must
+ * not change.  The diagonal of every Smith normal form
+ * must be non-negative and each entry must divide the next; for square
+ * matrices its product must be the absolute value of the determinant.
+ * Over GF(7) the same invariance is checked for matrices of polynomials,
+ * whose pivots must be monic.  The number of random matrices can be given
+ * as an argument; by default it is 300.
+ */
+final public class ExNormalForms {
+    private static final ExBigZZElementFactory integers = new ExBigZZElementFactory();
+
+    public static void main(String[] args) {
+        int trials = 300;
+        if (args.length > 0) {
+            trials = Integer.parseInt(args[0]);
+        }
+        knownForms();
+        Random r = new Random(1);
+        for (int k = 0; k < trials; k++) {
+            int rows = 1 + r.nextInt(5);
+            int columns = 1 + r.nextInt(5);
+            integerInvariance(randomIntegerMatrix(r, rows, columns), r);
+            integerInvariance(randomIntegerMatrix(r, rows, rows), r);
+        }
+        ExGFpElementFactory field = new ExGFpElementFactory(7L);
+        field.setSeed(1L);
+        UnivariatePolynomialFactory polynomials = new UnivariatePolynomialFactory(field, 1);
+        for (int k = 0; k < trials / 10; k++) {
+            polynomialInvariance(polynomials, field, 1 + r.nextInt(4), 1 + r.nextInt(4), r);
+        }
+        System.out.println("All normal form checks passed.");
+    }
+
+    private static void knownForms() {
+        long[][] a = {{3, 3, 1, 4}, {0, 1, 0, 0}, {0, 0, 19, 16}, {0, 0, 0, 3}};
+        long[][] aHermite = {{3, 0, 1, 1}, {0, 1, 0, 0}, {0, 0, 19, 1}, {0, 0, 0, 3}};
+        check("known Hermite normal form", sameMatrix(
+            FractionFreeLinearAlgebra.hermiteNormalForm(integers, integerMatrix(a)),
+            integerMatrix(aHermite)));
+        long[][] b = {{2, 3, 6, 2}, {5, 6, 1, 6}, {8, 3, 1, 1}};
+        long[][] bHermite = {{1, 0, 50, -11}, {0, 3, 28, -2}, {0, 0, 61, -13}};
+        check("known Hermite normal form", sameMatrix(
+            FractionFreeLinearAlgebra.hermiteNormalForm(integers, integerMatrix(b)),
+            integerMatrix(bHermite)));
+        long[][] c = {{2, 4, 4}, {-6, 6, 12}, {10, -4, -16}};
+        long[][] cSmith = {{2, 0, 0}, {0, 6, 0}, {0, 0, 12}};
+        check("known Smith normal form", sameMatrix(
+            FractionFreeLinearAlgebra.smithNormalForm(integers, integerMatrix(c)),
+            integerMatrix(cSmith)));
+        long[][] d = {{-1, 0}, {0, -10}};
+        long[][] dSmith = {{1, 0}, {0, 10}};
+        check("known Smith normal form", sameMatrix(
+            FractionFreeLinearAlgebra.smithNormalForm(integers, integerMatrix(d)),
+            integerMatrix(dSmith)));
+    }
+
+    private static void integerInvariance(EuclideanDomainElement[][] a, Random r) {
+        EuclideanDomainElement[][] hermite = FractionFreeLinearAlgebra.hermiteNormalForm(integers, a);
+        EuclideanDomainElement[][] smith = FractionFreeLinearAlgebra.smithNormalForm(integers, a);
+        EuclideanDomainElement[][] ua = multiply(randomUnimodular(integers, a.length, r), a);
+        EuclideanDomainElement[][] uav = multiply(ua, randomUnimodular(integers, a[0].length, r));
+        check("Hermite normal form unchanged by row operations",
+              sameMatrix(FractionFreeLinearAlgebra.hermiteNormalForm(integers, ua), hermite));
+        check("Smith normal form unchanged by row and column operations",
+              sameMatrix(FractionFreeLinearAlgebra.smithNormalForm(integers, uav), smith));
+        checkHermite(hermite);
+        for (int t = 0; (t < smith.length) && (t < smith[t].length); t++) {
+            check("non-negative Smith diagonal", ((ExBigZZElement) smith[t][t]).getValue().signum() >= 0);
+        }
+        checkSmith(smith);
+        if (a.length == a[0].length) {
+            BigInteger product = BigInteger.ONE;
+            for (int t = 0; t < smith.length; t++) {
+                product = product.multiply(((ExBigZZElement) smith[t][t]).getValue());
+            }
+            BigInteger determinant
+                = ((ExBigZZElement) FractionFreeLinearAlgebra.determinant(integers, a)).getValue();
+            check("Smith diagonal multiplies to the determinant", product.equals(determinant.abs()));
+        }
+    }
+
+    private static void polynomialInvariance(UnivariatePolynomialFactory polynomials,
+                                             FieldElementFactory field,
+                                             int rows, int columns, Random r) {
+        EuclideanDomainElement[][] a = new EuclideanDomainElement[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                FieldElement[] coefficients = new FieldElement[1 + r.nextInt(3)];
+                for (int k = 0; k < coefficients.length; k++) {
+                    coefficients[k] = field.getRandom();
+                }
+                a[i][j] = new UnivariatePolynomial(field, coefficients);
+            }
+        }
+        EuclideanDomainElement[][] hermite = FractionFreeLinearAlgebra.hermiteNormalForm(polynomials, a);
+        EuclideanDomainElement[][] smith = FractionFreeLinearAlgebra.smithNormalForm(polynomials, a);
+        EuclideanDomainElement[][] ua = multiply(randomUnimodular(polynomials, rows, r), a);
+        EuclideanDomainElement[][] uav = multiply(ua, randomUnimodular(polynomials, columns, r));
+        check("polynomial Hermite normal form unchanged by row operations",
+              sameMatrix(FractionFreeLinearAlgebra.hermiteNormalForm(polynomials, ua), hermite));
+        check("polynomial Smith normal form unchanged by row and column operations",
+              sameMatrix(FractionFreeLinearAlgebra.smithNormalForm(polynomials, uav), smith));
+        checkHermite(hermite);
+        checkSmith(smith);
+    }
+
+    /**
+     * Checks that every pivot is its own canonical associate and that the
+     * entries above it are remainders upon division by it.
+     */
+    private static void checkHermite(EuclideanDomainElement[][] h) {
+        int pivotRow = 0;
+        for (int c = 0; (c < h[0].length) && (pivotRow < h.length); c++) {
+            EuclideanDomainElement pivot = h[pivotRow][c];
+            if (pivot.isZero()) {
+                continue;
+            }
+            check("canonical Hermite pivot", pivot.unitPart().isOne());
+            for (int i = 0; i < pivotRow; i++) {
+                check("reduced entry above a Hermite pivot",
+                      h[i][c].divideWithRemainder(pivot)[1].equals(h[i][c]));
+            }
+            pivotRow++;
+        }
+    }
+
+    /**
+     * Checks that the diagonal entries are canonical associates and that
+     * each divides the next.
+     */
+    private static void checkSmith(EuclideanDomainElement[][] s) {
+        for (int t = 0; (t < s.length) && (t < s[t].length); t++) {
+            if (s[t][t].isZero()) {
+                continue;
+            }
+            check("canonical Smith diagonal", s[t][t].unitPart().isOne());
+            if ((t + 1 < s.length) && (t + 1 < s[t + 1].length)) {
+                check("Smith diagonal entries divide the next",
+                      s[t + 1][t + 1].divideWithRemainder(s[t][t])[1].isZero());
+            }
+        }
+    }
+
+    /**
+     * A product of random elementary matrices: row swaps, multiplications
+     * of a row by minus one and additions of a multiple of one row to
+     * another.
+     */
+    private static EuclideanDomainElement[][] randomUnimodular(CommutativeRingElementFactory ring,
+                                                               int n, Random r) {
+        EuclideanDomainElement[][] u = new EuclideanDomainElement[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                u[i][j] = (EuclideanDomainElement) ((i == j) ? ring.getOne() : ring.getZero());
+            }
+        }
+        for (int step = 0; step < 3 * n; step++) {
+            int i = r.nextInt(n);
+            int j = r.nextInt(n);
+            int kind = r.nextInt(3);
+            if (kind == 0) {
+                EuclideanDomainElement[] temp = u[i];
+                u[i] = u[j];
+                u[j] = temp;
+            } else if ((kind == 1) || (i == j)) {
+                for (int k = 0; k < n; k++) {
+                    u[i][k] = (EuclideanDomainElement) u[i][k].negative();
+                }
+            } else {
+                CommutativeRingElement factor = ring.getOne();
+                for (int m = r.nextInt(4); m > 0; m--) {
+                    factor = (CommutativeRingElement) factor.addTo(ring.getOne());
+                }
+                for (int k = 0; k < n; k++) {
+                    u[i][k] = (EuclideanDomainElement) u[i][k].addTo(factor.multiplyBy(u[j][k]));
+                }
+            }
+        }
+        return u;
+    }
+
+    private static EuclideanDomainElement[][] multiply(EuclideanDomainElement[][] a,
+                                                       EuclideanDomainElement[][] b) {
+        EuclideanDomainElement[][] product = new EuclideanDomainElement[a.length][b[0].length];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < b[0].length; j++) {
+                CommutativeRingElement sum = a[i][0].multiplyBy(b[0][j]);
+                for (int k = 1; k < b.length; k++) {
+                    sum = (CommutativeRingElement) sum.addTo(a[i][k].multiplyBy(b[k][j]));
+                }
+                product[i][j] = (EuclideanDomainElement) sum;
+            }
+        }
+        return product;
+    }
+
+    private static EuclideanDomainElement[][] randomIntegerMatrix(Random r, int rows, int columns) {
+        long[][] values = new long[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                values[i][j] = r.nextInt(21) - 10;
+            }
+        }
+        return integerMatrix(values);
+    }
+
+    private static EuclideanDomainElement[][] integerMatrix(long[][] values) {
+        EuclideanDomainElement[][] m = new EuclideanDomainElement[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            m[i] = new EuclideanDomainElement[values[i].length];
+            for (int j = 0; j < values[i].length; j++) {
+                m[i][j] = new ExBigZZElement(BigInteger.valueOf(values[i][j]));
+            }
+        }
+        return m;
+    }
+
+    private static boolean sameMatrix(EuclideanDomainElement[][] a, EuclideanDomainElement[][] b) {
+        if (a.length != b.length) {
+            return false;
+        }
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < a[i].length; j++) {
+                if (!a[i][j].equals(b[i][j])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void check(String description, boolean passed) {
+        if (!passed) {
+            throw new RuntimeException("Check failed: " + description);
+        }
+    }
+}
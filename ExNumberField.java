@@ -0,0 +1,254 @@
+import danraies.commutativealgebra.*;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * The algebraic number field Q(a) = Q[x]/(f) for a monic irreducible integer
+ * polynomial f of degree k.  Every number field can be written this way.
+ * Elements are stored as an integer coefficient array with a single common
+ * denominator; this class holds everything that depends on f.
+ * <p>
+ * Because f is monic, the reversal of f has constant term one and its power
+ * series inverse has integer coefficients.  It is computed once and used for
+ * Barrett reduction of products.  Inverses come from an extended Euclidean
+ * algorithm on integer polynomials which uses pseudo-division and removes
+ * contents as it goes, so no rational arithmetic is needed until the final
+ * division by a constant.
+ * <p>
+ * Irreducibility of f over Q is not checked.  If f is reducible then some
+ * non-zero elements are zero divisors and inverting one of them throws a
+ * runtime exception.
+ */
+final public class ExNumberField {
+    private int degree;
+
+    /** The coefficients of f, lowest degree first, with a leading one. */
+    private BigInteger[] definingPolynomial;
+
+    /** The inverse of the reversal of f modulo <code>x^(k-1)</code>. */
+    private BigInteger[] barrettInverse;
+
+    /**
+     * Builds Q(a) for a root <code>a</code> of the given polynomial.
+     *
+     * @param definingPolynomial The coefficients of a monic irreducible
+     *        integer polynomial of degree at least one, lowest degree first.
+     */
+    public ExNumberField(long[] definingPolynomial) {
+        if ((definingPolynomial.length < 2)
+            || (definingPolynomial[definingPolynomial.length - 1] != 1L)) {
+            throw new RuntimeException(notMonicMessage);
+        }
+        degree = definingPolynomial.length - 1;
+        this.definingPolynomial = new BigInteger[degree + 1];
+        for (int i = 0; i <= degree; i++) {
+            this.definingPolynomial[i] = BigInteger.valueOf(definingPolynomial[i]);
+        }
+        barrettInverse = new BigInteger[Math.max(degree - 1, 0)];
+        if (barrettInverse.length > 0) {
+            barrettInverse[0] = BigInteger.ONE;
+        }
+        for (int i = 1; i < barrettInverse.length; i++) {
+            BigInteger sum = BigInteger.ZERO;
+            for (int j = 1; j <= i; j++) {
+                sum = sum.add(this.definingPolynomial[degree - j].multiply(barrettInverse[i - j]));
+            }
+            barrettInverse[i] = sum.negate();
+        }
+    }
+
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * Multiplies two integer coefficient arrays of length <code>k</code> and
+     * reduces the product modulo f.
+     */
+    BigInteger[] multiply(BigInteger[] a, BigInteger[] b) {
+        int k = degree;
+        BigInteger[] product = zeros(2 * k - 1);
+        for (int i = 0; i < k; i++) {
+            if (a[i].signum() == 0) {
+                continue;
+            }
+            for (int j = 0; j < k; j++) {
+                product[i + j] = product[i + j].add(a[i].multiply(b[j]));
+            }
+        }
+        BigInteger[] quotient = zeros(Math.max(k - 1, 0));
+        for (int i = 0; i < k - 1; i++) {
+            BigInteger sum = BigInteger.ZERO;
+            for (int j = 0; j <= i; j++) {
+                sum = sum.add(product[2 * k - 2 - (i - j)].multiply(barrettInverse[j]));
+            }
+            quotient[k - 2 - i] = sum;
+        }
+        BigInteger[] remainder = new BigInteger[k];
+        for (int i = 0; i < k; i++) {
+            BigInteger sum = BigInteger.ZERO;
+            for (int j = 0; (j <= i) && (j < k - 1); j++) {
+                sum = sum.add(quotient[j].multiply(definingPolynomial[i - j]));
+            }
+            remainder[i] = product[i].subtract(sum);
+        }
+        return remainder;
+    }
+
+    /**
+     * Finds an integer polynomial <code>t</code> and a non-zero integer
+     * <code>c</code> with <code>t * a = c</code> modulo f, so that the
+     * inverse of <code>a</code> is <code>t / c</code>.
+     *
+     * @return The array <code>{t, {c}}</code>, where <code>t</code> has
+     *         length <code>k</code>.
+     */
+    BigInteger[][] scaledInverse(BigInteger[] a) {
+        BigInteger[] oldR = definingPolynomial;
+        BigInteger[] r = a;
+        BigInteger[] oldT = zeros(1);
+        BigInteger[] t = {BigInteger.ONE};
+        while (degreeOf(r) > 0) {
+            int shift = degreeOf(oldR) - degreeOf(r);
+            BigInteger scale = r[degreeOf(r)].pow(shift + 1);
+            BigInteger[][] qr = pseudoDivide(oldR, r);
+            BigInteger[] newT = subtract(scaleBy(oldT, scale), multiplyPolynomials(qr[0], t));
+            BigInteger[] newR = qr[1];
+            BigInteger content = content(newR).gcd(content(newT));
+            if (content.signum() != 0) {
+                newR = divideBy(newR, content);
+                newT = divideBy(newT, content);
+            }
+            oldR = r;
+            r = newR;
+            oldT = t;
+            t = newT;
+        }
+        if (degreeOf(r) < 0) {
+            throw new RuntimeException(notInvertibleMessage);
+        }
+        BigInteger[] inverse = zeros(degree);
+        for (int i = 0; (i < t.length) && (i < degree); i++) {
+            inverse[i] = t[i];
+        }
+        BigInteger[] constant = {r[0]};
+        BigInteger[][] returnValue = {inverse, constant};
+        return returnValue;
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof ExNumberField)) {
+            return false;
+        }
+        return Arrays.equals(((ExNumberField) o).definingPolynomial, definingPolynomial);
+    }
+
+    public int hashCode() {
+        return Arrays.hashCode(definingPolynomial);
+    }
+
+    public String toString() {
+        return "Q[x]/(" + ExNumberFieldElement.formatPolynomial(definingPolynomial) + ")";
+    }
+
+    //////////////////////////////////////////////////
+    // Private methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Pseudo-division: returns <code>{q, r}</code> with
+     * <code>lc(b)^(deg a - deg b + 1) * a = q * b + r</code> and
+     * <code>deg r &lt; deg b</code>.
+     */
+    private static BigInteger[][] pseudoDivide(BigInteger[] a, BigInteger[] b) {
+        int aDegree = degreeOf(a);
+        int bDegree = degreeOf(b);
+        BigInteger lead = b[bDegree];
+        BigInteger[] remainder = Arrays.copyOf(a, aDegree + 1);
+        BigInteger[] quotient = zeros(Math.max(aDegree - bDegree + 1, 1));
+        for (int i = aDegree; i >= bDegree; i--) {
+            // Multiply everything so far by the leading coefficient, then
+            // cancel the term of degree i.
+            BigInteger c = remainder[i];
+            for (int j = 0; j < quotient.length; j++) {
+                quotient[j] = quotient[j].multiply(lead);
+            }
+            quotient[i - bDegree] = c;
+            for (int j = 0; j < i; j++) {
+                remainder[j] = remainder[j].multiply(lead);
+            }
+            remainder[i] = BigInteger.ZERO;
+            for (int j = 0; j < bDegree; j++) {
+                remainder[i - bDegree + j] = remainder[i - bDegree + j].subtract(c.multiply(b[j]));
+            }
+        }
+        BigInteger[][] qr = {quotient, remainder};
+        return qr;
+    }
+
+    private static BigInteger[] multiplyPolynomials(BigInteger[] a, BigInteger[] b) {
+        BigInteger[] product = zeros(a.length + b.length - 1);
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < b.length; j++) {
+                product[i + j] = product[i + j].add(a[i].multiply(b[j]));
+            }
+        }
+        return product;
+    }
+
+    private static BigInteger[] subtract(BigInteger[] a, BigInteger[] b) {
+        BigInteger[] difference = zeros(Math.max(a.length, b.length));
+        for (int i = 0; i < difference.length; i++) {
+            BigInteger ai = (i < a.length) ? a[i] : BigInteger.ZERO;
+            BigInteger bi = (i < b.length) ? b[i] : BigInteger.ZERO;
+            difference[i] = ai.subtract(bi);
+        }
+        return difference;
+    }
+
+    private static BigInteger[] scaleBy(BigInteger[] a, BigInteger scale) {
+        BigInteger[] scaled = new BigInteger[a.length];
+        for (int i = 0; i < a.length; i++) {
+            scaled[i] = a[i].multiply(scale);
+        }
+        return scaled;
+    }
+
+    private static BigInteger[] divideBy(BigInteger[] a, BigInteger divisor) {
+        BigInteger[] quotient = new BigInteger[a.length];
+        for (int i = 0; i < a.length; i++) {
+            quotient[i] = a[i].divide(divisor);
+        }
+        return quotient;
+    }
+
+    static BigInteger content(BigInteger[] a) {
+        BigInteger gcd = BigInteger.ZERO;
+        for (int i = 0; i < a.length; i++) {
+            gcd = gcd.gcd(a[i]);
+        }
+        return gcd;
+    }
+
+    static int degreeOf(BigInteger[] a) {
+        for (int i = a.length - 1; i >= 0; i--) {
+            if (a[i].signum() != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static BigInteger[] zeros(int length) {
+        BigInteger[] zeros = new BigInteger[length];
+        Arrays.fill(zeros, BigInteger.ZERO);
+        return zeros;
+    }
+
+    private static final String notMonicMessage
+        = "The defining polynomial must be monic of degree at least one.";
+    private static final String notInvertibleMessage
+        = "This element is not invertible; the defining polynomial may be reducible.";
+}
@@ -0,0 +1,200 @@
+import danraies.commutativealgebra.*;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+final public class ExNumberFieldElement implements FieldElement {
+    private ExNumberField field;
+    private BigInteger[] numerators;
+    private BigInteger denominator;
+
+    /**
+     * Creates the element <code>(c_0 + c_1 x + ... ) / d</code> of Q(a).
+     * As with <code>ExQQElement</code> the result is automatically reduced:
+     * the denominator is positive and shares no factor with all of the
+     * numerators.  A zero denominator throws a runtime exception.
+     *
+     * @param field The field that this element belongs to.
+     * @param numerators At most <code>k</code> integer coefficients, lowest
+     *        degree first.
+     * @param denominator The common denominator of the coefficients.
+     */
+    public ExNumberFieldElement(ExNumberField field, long[] numerators, long denominator) {
+        this(field, toBigIntegers(field, numerators), BigInteger.valueOf(denominator));
+    }
+
+    ExNumberFieldElement(ExNumberField field, BigInteger[] numerators, BigInteger denominator) {
+        if (denominator.signum() == 0) {
+            throw new RuntimeException(zeroDenominatorMessage);
+        }
+        this.field = field;
+        BigInteger gcd = ExNumberField.content(numerators).gcd(denominator);
+        if (denominator.signum() < 0) {
+            gcd = gcd.negate();
+        }
+        if (ExNumberField.degreeOf(numerators) < 0) {
+            this.numerators = numerators;
+            this.denominator = BigInteger.ONE;
+        } else if (gcd.equals(BigInteger.ONE)) {
+            this.numerators = numerators;
+            this.denominator = denominator;
+        } else {
+            this.numerators = new BigInteger[numerators.length];
+            for (int i = 0; i < numerators.length; i++) {
+                this.numerators[i] = numerators[i].divide(gcd);
+            }
+            this.denominator = denominator.divide(gcd);
+        }
+    }
+
+    public ExNumberField getField() {
+        return field;
+    }
+
+    /**
+     * Gets one coefficient of the numerator.
+     *
+     * @param i A degree between <code>0</code> and <code>k - 1</code>.
+     * @return The coefficient of <code>x^i</code> before it is divided by
+     *         the denominator.
+     */
+    public BigInteger getNumerator(int i) {
+        return numerators[i];
+    }
+
+    /**
+     * Gets the common denominator of the coefficients.
+     *
+     * @return The denominator, which is always positive.
+     */
+    public BigInteger getDenominator() {
+        return denominator;
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof ExNumberFieldElement)) {
+            return false;
+        }
+        ExNumberFieldElement n = (ExNumberFieldElement) o;
+        return this.denominator.equals(n.denominator)
+            && Arrays.equals(this.numerators, n.numerators)
+            && this.field.equals(n.field);
+    }
+
+    /**
+     * Overrides the <code>toString()</code> method.
+     *
+     * @return The string "(numerator)/denominator", where the numerator is a
+     *         polynomial in <code>x</code>.  The denominator is left out when
+     *         it is one.
+     */
+    public String toString() {
+        String numerator = formatPolynomial(numerators);
+        if (denominator.equals(BigInteger.ONE)) {
+            return numerator;
+        }
+        return "(" + numerator + ")" + ExQQElement.SLASH_CHAR + denominator;
+    }
+
+    public boolean isZero() {
+        return ExNumberField.degreeOf(numerators) < 0;
+    }
+
+    public boolean isOne() {
+        return (ExNumberField.degreeOf(numerators) == 0)
+            && numerators[0].equals(denominator);
+    }
+
+    public ExNumberFieldElement addTo(CommutativeMonoidElement e) {
+        ExNumberFieldElement n = sameField(e);
+        BigInteger[] sum = new BigInteger[numerators.length];
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = numerators[i].multiply(n.denominator)
+                .add(n.numerators[i].multiply(denominator));
+        }
+        return new ExNumberFieldElement(field, sum, denominator.multiply(n.denominator));
+    }
+
+    public ExNumberFieldElement negative() {
+        BigInteger[] negative = new BigInteger[numerators.length];
+        for (int i = 0; i < negative.length; i++) {
+            negative[i] = numerators[i].negate();
+        }
+        return new ExNumberFieldElement(field, negative, denominator);
+    }
+
+    public ExNumberFieldElement multiplyBy(CommutativeRingElement e) {
+        ExNumberFieldElement n = sameField(e);
+        return new ExNumberFieldElement(field,
+                                        field.multiply(numerators, n.numerators),
+                                        denominator.multiply(n.denominator));
+    }
+
+    public ExNumberFieldElement inverse() {
+        if (isZero()) {
+            throw new RuntimeException(zeroInverseMessage);
+        }
+        // If t * numerators = c modulo f then the inverse is denominator * t / c.
+        BigInteger[][] scaledInverse = field.scaledInverse(numerators);
+        BigInteger[] inverse = new BigInteger[numerators.length];
+        for (int i = 0; i < inverse.length; i++) {
+            inverse[i] = scaledInverse[0][i].multiply(denominator);
+        }
+        return new ExNumberFieldElement(field, inverse, scaledInverse[1][0]);
+    }
+
+    static String formatPolynomial(BigInteger[] coefficients) {
+        String returnValue = "";
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            BigInteger c = coefficients[i];
+            if (c.signum() == 0) {
+                continue;
+            }
+            if (returnValue.length() > 0) {
+                returnValue = returnValue + ((c.signum() < 0) ? " - " : " + ");
+                c = c.abs();
+            }
+            if (!c.equals(BigInteger.ONE) || (i == 0)) {
+                returnValue = returnValue + (c.equals(BigInteger.ONE.negate()) && (i > 0) ? "-" : c);
+            }
+            if (i == 1) {
+                returnValue = returnValue + "x";
+            } else if (i > 1) {
+                returnValue = returnValue + "x^" + i;
+            }
+        }
+        if (returnValue.length() == 0) {
+            return "0";
+        }
+        return returnValue;
+    }
+
+    private static BigInteger[] toBigIntegers(ExNumberField field, long[] numerators) {
+        if (numerators.length > field.getDegree()) {
+            throw new RuntimeException(tooManyCoefficientsMessage);
+        }
+        BigInteger[] big = ExNumberField.zeros(field.getDegree());
+        for (int i = 0; i < numerators.length; i++) {
+            big[i] = BigInteger.valueOf(numerators[i]);
+        }
+        return big;
+    }
+
+    private ExNumberFieldElement sameField(Element e) {
+        ExNumberFieldElement n = (ExNumberFieldElement) e;
+        if (!field.equals(n.field)) {
+            throw new RuntimeException(differentFieldsMessage);
+        }
+        return n;
+    }
+
+    private static final String zeroDenominatorMessage
+        = "Denominator was set to be zero.";
+    private static final String zeroInverseMessage
+        = "Zero does not have a multiplicative inverse.";
+    private static final String tooManyCoefficientsMessage
+        = "An element of a number field of degree k has at most k coefficients.";
+    private static final String differentFieldsMessage
+        = "These elements belong to different fields.";
+}
@@ -0,0 +1,89 @@
+import danraies.commutativealgebra.*;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+final public class ExNumberFieldElementFactory extends FieldElementFactory
+    implements ElementCodec<ExNumberFieldElement> {
+    private static int MAX_LONG = 20;
+    private ExNumberField field;
+    Random r = new Random();
+
+    public ExNumberFieldElementFactory(long[] definingPolynomial) {
+        field = new ExNumberField(definingPolynomial);
+    }
+
+    public ExNumberFieldElement getRandom() {
+        long[] numerators = new long[field.getDegree()];
+        for (int i = 0; i < numerators.length; i++) {
+            numerators[i] = r.nextInt(2 * MAX_LONG) - MAX_LONG;
+        }
+        long denominator = r.nextInt(MAX_LONG - 1) + 1;
+        return new ExNumberFieldElement(field, numerators, denominator);
+    }
+
+    public ExNumberFieldElement getZero() {
+        return new ExNumberFieldElement(field, new long[0], 1L);
+    }
+
+    public ExNumberFieldElement getOne() {
+        long[] one = {1L};
+        return new ExNumberFieldElement(field, one, 1L);
+    }
+
+    public void setSeed(long seed) {
+        r.setSeed(seed);
+    }
+
+    /**
+     * The numerators are written up to the last non-zero one, followed by
+     * the denominator.
+     */
+    public int encodedSize(ExNumberFieldElement element) {
+        int length = encodedLength(element);
+        int size = Codecs.varLongSize(length);
+        for (int i = 0; i < length; i++) {
+            size = size + Codecs.bigIntegerSize(element.getNumerator(i));
+        }
+        return size + Codecs.bigIntegerSize(element.getDenominator());
+    }
+
+    public void encode(ExNumberFieldElement element, ByteBuffer buffer) {
+        int length = encodedLength(element);
+        Codecs.writeLength(buffer, length);
+        for (int i = 0; i < length; i++) {
+            Codecs.writeBigInteger(buffer, element.getNumerator(i));
+        }
+        Codecs.writeBigInteger(buffer, element.getDenominator());
+    }
+
+    public ExNumberFieldElement decode(ByteBuffer buffer) {
+        int length = Codecs.readLength(buffer);
+        if (length > field.getDegree()) {
+            throw new RuntimeException(tooManyCoefficientsMessage);
+        }
+        BigInteger[] numerators = new BigInteger[field.getDegree()];
+        for (int i = 0; i < numerators.length; i++) {
+            numerators[i] = (i < length) ? Codecs.readBigInteger(buffer) : BigInteger.ZERO;
+        }
+        return new ExNumberFieldElement(field, numerators, Codecs.readBigInteger(buffer));
+    }
+
+    private int encodedLength(ExNumberFieldElement element) {
+        int length = field.getDegree();
+        while ((length > 0) && (element.getNumerator(length - 1).signum() == 0)) {
+            length--;
+        }
+        return length;
+    }
+
+    public static void main(String[] args) {
+        // Q(2^(1/3)), defined by x^3 - 2.
+        long[] definingPolynomial = {-2L, 0L, 0L, 1L};
+        ExNumberFieldElementFactory f = new ExNumberFieldElementFactory(definingPolynomial);
+        f.exampleTest();
+    }
+
+    private static final String tooManyCoefficientsMessage
+        = "An element of this number field has too many coefficients.";
+}
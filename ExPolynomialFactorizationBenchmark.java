@@ -0,0 +1,130 @@
+import danraies.commutativealgebra.*;
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+/**
+ * Factors random polynomials over GF(998244353), GF(3), GF(2^8) and GF(7^3)
+ * with <code>FiniteFieldFactorization</code> and times the three stages:
+ * the square-free decomposition, the distinct-degree factorization of the
+ * square-free parts and the equal-degree splitting.  Each polynomial is
+ * made as <code>a b^2 c^p</code> from random monic polynomials, so that
+ * every stage has work to do; the <code>p</code>-th power is left out over
+ * the large prime field.  Every factorization is checked: the factors must
+ * be irreducible and their product must give the polynomial back.  The
+ * degrees double from 128 up to the largest degree, which can be given as
+ * an argument; by default it is 1024.
+ */
+final public class ExPolynomialFactorizationBenchmark {
+    private static final int smallestDegree = 128;
+
+    public static void main(String[] args) {
+        int largestDegree = 1024;
+        if (args.length > 0) {
+            largestDegree = Integer.parseInt(args[0]);
+        }
+        FieldElementFactory[] fields = {new ExGFpElementFactory(998244353L),
+                                        new ExGFpElementFactory(3L),
+                                        new ExGF2kElementFactory(8),
+                                        new ExGFpkElementFactory(7L, 3)};
+        String[] names = {"GF(998244353)", "GF(3)", "GF(2^8)", "GF(7^3)"};
+        long[] characteristics = {998244353L, 3L, 2L, 7L};
+        int[] extensionDegrees = {1, 1, 8, 3};
+        // The first pass only warms up the just-in-time compiler.
+        run(fields[0], characteristics[0], extensionDegrees[0], smallestDegree, false);
+        for (int i = 0; i < fields.length; i++) {
+            System.out.println(names[i] + ":");
+            for (int n = smallestDegree; n <= largestDegree; n = 2 * n) {
+                run(fields[i], characteristics[i], extensionDegrees[i], n, true);
+            }
+        }
+    }
+
+    private static void run(FieldElementFactory field, long characteristic, int extensionDegree,
+                            int n, boolean verbose) {
+        field.setSeed(n);
+        FiniteFieldFactorization factorization
+            = new FiniteFieldFactorization(field, characteristic, extensionDegree);
+        UnivariatePolynomialFactory polynomials = new UnivariatePolynomialFactory(field, 1);
+        int powerDegree = (characteristic <= 7L) ? 2 : 0;
+        int squareDegree = n / 8;
+        UnivariatePolynomial f = randomMonic(field, n - 2 * squareDegree
+                                             - (int) characteristic * powerDegree);
+        UnivariatePolynomial square = randomMonic(field, squareDegree);
+        f = f.multiplyBy(square).multiplyBy(square);
+        if (powerDegree > 0) {
+            f = f.multiplyBy(Exponentiation.power(polynomials, randomMonic(field, powerDegree),
+                                                  characteristic));
+        }
+
+        long start = System.nanoTime();
+        ArrayList<FiniteFieldFactorization.Factor> parts = factorization.squareFreeDecomposition(f);
+        long squareFreeTime = System.nanoTime() - start;
+        ArrayList<TreeMap<Integer, UnivariatePolynomial>> degrees
+            = new ArrayList<TreeMap<Integer, UnivariatePolynomial>>();
+        start = System.nanoTime();
+        for (int i = 0; i < parts.size(); i++) {
+            degrees.add(factorization.distinctDegreeFactorization(parts.get(i).getPolynomial()));
+        }
+        long distinctDegreeTime = System.nanoTime() - start;
+        int splitFactors = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < degrees.size(); i++) {
+            for (Integer d : degrees.get(i).keySet()) {
+                splitFactors += factorization.equalDegreeFactorization(degrees.get(i).get(d), d).size();
+            }
+        }
+        long equalDegreeTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        ArrayList<FiniteFieldFactorization.Factor> factors = factorization.factor(f);
+        long factorTime = System.nanoTime() - start;
+
+        CommutativeRingElement product = polynomials.getOne();
+        for (int i = 0; i < factors.size(); i++) {
+            FiniteFieldFactorization.Factor factor = factors.get(i);
+            check("irreducible factors", factorization.isIrreducible(factor.getPolynomial()));
+            product = product.multiplyBy(Exponentiation.power(polynomials, factor.getPolynomial(),
+                                                              factor.getMultiplicity()));
+        }
+        check("product of the factors", product.equals(f.monic()));
+        check("same factors from the stages", splitFactors == factors.size());
+        if (verbose) {
+            System.out.println("  degree " + f.getDegree() + ": " + factors.size() + " factors of "
+                               + describe(factors));
+            System.out.println("    square-free     " + millis(squareFreeTime) + " ms");
+            System.out.println("    distinct-degree " + millis(distinctDegreeTime) + " ms");
+            System.out.println("    equal-degree    " + millis(equalDegreeTime) + " ms");
+            System.out.println("    factor          " + millis(factorTime) + " ms");
+        }
+    }
+
+    private static UnivariatePolynomial randomMonic(FieldElementFactory field, int degree) {
+        FieldElement[] coefficients = new FieldElement[degree + 1];
+        for (int i = 0; i < degree; i++) {
+            coefficients[i] = field.getRandom();
+        }
+        coefficients[degree] = field.getOne();
+        return new UnivariatePolynomial(field, coefficients);
+    }
+
+    /** Lists the degrees of the factors, with their multiplicities. */
+    private static String describe(ArrayList<FiniteFieldFactorization.Factor> factors) {
+        StringBuilder degrees = new StringBuilder("degrees");
+        for (int i = 0; i < factors.size(); i++) {
+            degrees.append(' ').append(factors.get(i).getPolynomial().getDegree());
+            if (factors.get(i).getMultiplicity() > 1) {
+                degrees.append('^').append(factors.get(i).getMultiplicity());
+            }
+        }
+        return degrees.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(nanos / 1000000L);
+    }
+
+    private static void check(String description, boolean passed) {
+        if (!passed) {
+            throw new RuntimeException("Check failed: " + description);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+import danraies.commutativealgebra.*;
+import java.util.Random;
+
+/**
+ * Times the operations of <code>TruncatedPowerSeries</code> over
+ * GF(998244353) at increasing precisions.  At the smallest precision the
+ * Newton-iteration inverse is also compared with the schoolbook recurrence,
+ * which solves for one coefficient at a time.  The precisions can be given
+ * as arguments; by default they are 1000, 10000 and 100000.
+ */
+final public class ExPowerSeriesBenchmark {
+    private static final long modulus = 998244353L;
+
+    public static void main(String[] args) {
+        int[] precisions = {1000, 10000, 100000};
+        if (args.length > 0) {
+            precisions = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                precisions[i] = Integer.parseInt(args[i]);
+            }
+        }
+        ExGFpElementFactory field = new ExGFpElementFactory(modulus);
+        Random r = new Random(1L);
+        for (int i = 0; i < precisions.length; i++) {
+            int n = precisions[i];
+            TruncatedPowerSeries f = randomSeries(field, n, 1L, r);
+            TruncatedPowerSeries g = randomSeries(field, n, 0L, r);
+            System.out.println("N = " + n);
+
+            long start = System.nanoTime();
+            TruncatedPowerSeries product = f.multiplyBy(g);
+            report("multiply", start);
+
+            start = System.nanoTime();
+            TruncatedPowerSeries inverse = f.inverse();
+            report("inverse", start);
+            check("f * f^-1 = 1", f.multiplyBy(inverse).isOne());
+
+            if (i == 0) {
+                start = System.nanoTime();
+                TruncatedPowerSeries naive = naiveInverse(field, f);
+                report("schoolbook inverse", start);
+                check("schoolbook inverse agrees", naive.equals(inverse));
+            }
+
+            start = System.nanoTime();
+            TruncatedPowerSeries logarithm = f.log();
+            report("log", start);
+
+            start = System.nanoTime();
+            TruncatedPowerSeries exponential = logarithm.exp();
+            report("exp", start);
+            check("exp(log f) = f", exponential.equals(f));
+
+            start = System.nanoTime();
+            TruncatedPowerSeries root = f.sqrt();
+            report("sqrt", start);
+            check("sqrt(f)^2 = f", root.multiplyBy(root).equals(f));
+            System.out.println();
+        }
+    }
+
+    private static TruncatedPowerSeries randomSeries(ExGFpElementFactory field, int n,
+                                                     long constantTerm, Random r) {
+        CommutativeRingElement[] coefficients = new CommutativeRingElement[n];
+        coefficients[0] = new ExGFpElement(constantTerm, modulus);
+        for (int i = 1; i < n; i++) {
+            coefficients[i] = new ExGFpElement(r.nextLong(), modulus);
+        }
+        return new TruncatedPowerSeries(field, coefficients, n);
+    }
+
+    /**
+     * Solves <code>f g = 1</code> one coefficient at a time, with the same
+     * element arithmetic that the series use.
+     */
+    private static TruncatedPowerSeries naiveInverse(ExGFpElementFactory field,
+                                                     TruncatedPowerSeries f) {
+        int n = f.getPrecision();
+        ExGFpElement[] g = new ExGFpElement[n];
+        ExGFpElement constantInverse = ((ExGFpElement) f.getCoefficient(0)).inverse();
+        g[0] = constantInverse;
+        for (int k = 1; k < n; k++) {
+            ExGFpElement sum = field.getZero();
+            for (int j = 1; j <= k; j++) {
+                sum = sum.addTo(((ExGFpElement) f.getCoefficient(j)).multiplyBy(g[k - j]));
+            }
+            g[k] = sum.negative().multiplyBy(constantInverse);
+        }
+        return new TruncatedPowerSeries(field, g, n);
+    }
+
+    private static void report(String operation, long start) {
+        long elapsed = (System.nanoTime() - start) / 1000000L;
+        System.out.println("  " + operation + ": " + elapsed + " ms");
+    }
+
+    private static void check(String description, boolean passed) {
+        if (!passed) {
+            throw new RuntimeException("Check failed: " + description);
+        }
+    }
+}
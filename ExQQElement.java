@@ -1,6 +1,6 @@
 import danraies.commutativealgebra.*;
 
-final public class ExQQElement implements FieldElement {
+final public class ExQQElement implements FieldElement, AccumulatingElement {
     private long numerator;
     private long denominator;
 
@@ -46,6 +46,24 @@ final public class ExQQElement implements FieldElement {
         }
     }
 
+    /**
+     * Gets the numerator of the reduced fraction.
+     *
+     * @return The numerator, which carries the sign of the number.
+     */
+    public long getNumerator() {
+        return numerator;
+    }
+
+    /**
+     * Gets the denominator of the reduced fraction.
+     *
+     * @return The denominator, which is always positive.
+     */
+    public long getDenominator() {
+        return denominator;
+    }
+
     /**
      * Overrides the <code>toString()</code> method.
      *
@@ -123,6 +141,36 @@ final public class ExQQElement implements FieldElement {
         return new ExQQElement(denominator, numerator);
     }
 
+    /**
+     * Inverts many rational numbers at once.  Inverting a reduced fraction
+     * only swaps the numerator and the denominator, so Montgomery's trick
+     * (see <code>BatchInversion</code>) would be slower here; instead this
+     * method skips the gcd that the constructor would compute.  Zero
+     * elements stay zero.
+     *
+     * @param elements Any rational numbers.
+     * @return A new array with the inverses, in the same order.
+     */
+    public static ExQQElement[] inverseAll(ExQQElement[] elements) {
+        ExQQElement[] inverses = new ExQQElement[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            ExQQElement q = elements[i];
+            if (q.numerator == 0L) {
+                inverses[i] = q;
+                continue;
+            }
+            ExQQElement inverse = new ExQQElement();
+            inverse.numerator = q.denominator;
+            inverse.denominator = q.numerator;
+            if (inverse.denominator < 0) {
+                inverse.denominator = (-1L) * inverse.denominator;
+                inverse.numerator = (-1L) * inverse.numerator;
+            }
+            inverses[i] = inverse;
+        }
+        return inverses;
+    }
+
     public ExQQElement addTo(CommutativeMonoidElement r) {
         ExQQElement q = (ExQQElement) r;
         long lcm = lcm(denominator, q.denominator);
@@ -162,6 +210,87 @@ final public class ExQQElement implements FieldElement {
         return new ExQQElement(aNumerator, aDenominator);
     }
 
+    public Accumulator newAccumulator() {
+        return new QQAccumulator(numerator, denominator);
+    }
+
+    /**
+     * A reduced fraction kept as two primitive <code>long</code> integers.
+     * The arithmetic is that of <code>addTo</code> and
+     * <code>multiplyBy</code>, including the overflow checks.
+     */
+    private static final class QQAccumulator implements Accumulator {
+        private long numerator;
+        private long denominator;
+
+        QQAccumulator(long numerator, long denominator) {
+            this.numerator = numerator;
+            this.denominator = denominator;
+        }
+
+        public void set(CommutativeRingElement e) {
+            ExQQElement q = (ExQQElement) e;
+            numerator = q.numerator;
+            denominator = q.denominator;
+        }
+
+        public void addInPlace(CommutativeRingElement e) {
+            ExQQElement q = (ExQQElement) e;
+            add(q.numerator, q.denominator);
+        }
+
+        public void multiplyAddInPlace(CommutativeRingElement a, CommutativeRingElement b) {
+            ExQQElement p = (ExQQElement) a;
+            ExQQElement q = (ExQQElement) b;
+            long num1 = p.numerator;
+            long num2 = q.numerator;
+            long den1 = p.denominator;
+            long den2 = q.denominator;
+            if ((num1 == 0L) || (num2 == 0L)) {
+                return;
+            }
+            long somefactors = gcd(num1, den2);
+            num1 = num1/somefactors;
+            den2 = den2/somefactors;
+            somefactors = gcd(num2, den1);
+            num2 = num2/somefactors;
+            den1 = den1/somefactors;
+            try {
+                add(Math.multiplyExact(num1, num2), Math.multiplyExact(den1, den2));
+            } catch (ArithmeticException ex) {
+                throw new RuntimeException(longOverflowMessage, ex);
+            }
+        }
+
+        public ExQQElement toElement() {
+            ExQQElement q = new ExQQElement();
+            q.numerator = numerator;
+            q.denominator = denominator;
+            return q;
+        }
+
+        /** Adds a reduced fraction with a positive denominator. */
+        private void add(long aNumerator, long aDenominator) {
+            long lcm = lcm(denominator, aDenominator);
+            long sum;
+            try {
+                sum = Math.addExact(
+                    Math.multiplyExact(numerator, (lcm / denominator)),
+                    Math.multiplyExact(aNumerator, (lcm / aDenominator)));
+            } catch (ArithmeticException ex) {
+                throw new RuntimeException(longOverflowMessage, ex);
+            }
+            if (sum == 0L) {
+                numerator = 0L;
+                denominator = 1L;
+                return;
+            }
+            long gcd = gcd(sum, lcm);
+            numerator = sum / gcd;
+            denominator = lcm / gcd;
+        }
+    }
+
     /**
      * Returns the greatest common divisor of two <code>long</code> integers.
      * It uses the Euclidean Algorithm for the computation.
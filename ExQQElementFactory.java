@@ -1,7 +1,9 @@
 import danraies.commutativealgebra.*;
+import java.nio.ByteBuffer;
 import java.util.Random;
 
-final public class ExQQElementFactory extends FieldElementFactory {
+final public class ExQQElementFactory extends FieldElementFactory
+    implements ElementCodec<ExQQElement> {
     private static int MAX_LONG = 20;
     Random r = new Random();
 
@@ -19,6 +21,63 @@ final public class ExQQElementFactory extends FieldElementFactory {
         return new ExQQElement(1L, 1L);
     }
 
+    /**
+     * Fractions whose numerators or denominators are at, or whose products
+     * are beyond, the range of a <code>long</code>.
+     */
+    public ExQQElement[] getBoundaryElements() {
+        ExQQElement[] boundary = {
+            new ExQQElement(Long.MAX_VALUE, 1L),
+            new ExQQElement(-Long.MAX_VALUE, 1L),
+            new ExQQElement(1L, Long.MAX_VALUE),
+            new ExQQElement(Long.MAX_VALUE, Long.MAX_VALUE - 1L),
+            new ExQQElement(3037000500L, 1L),
+            new ExQQElement(-1L, 3037000500L),
+            new ExQQElement(1L << 32, 3L),
+            new ExQQElement(-1L, -1L)};
+        return boundary;
+    }
+
+    /**
+     * Proposes zero, one, the integer part, the fraction with half the
+     * denominator, and fractions with numerators between zero and the given
+     * one.
+     */
+    public ExQQElement[] shrink(Element e) {
+        long numerator = ((ExQQElement) e).getNumerator();
+        long denominator = ((ExQQElement) e).getDenominator();
+        long[] numerators = shrinkTowardZero(numerator);
+        if (numerators.length == 0) {
+            return new ExQQElement[0];
+        }
+        ExQQElement[] smaller = new ExQQElement[numerators.length + 3];
+        smaller[0] = new ExQQElement(numerators[0], 1L);
+        smaller[1] = new ExQQElement(1L, 1L);
+        smaller[2] = new ExQQElement(numerator / denominator, 1L);
+        smaller[3] = new ExQQElement(numerator, Math.max(denominator / 2L, 1L));
+        for (int i = 1; i < numerators.length; i++) {
+            smaller[i + 3] = new ExQQElement(numerators[i], denominator);
+        }
+        return smaller;
+    }
+
+    public void setSeed(long seed) {
+        r.setSeed(seed);
+    }
+
+    public int encodedSize(ExQQElement element) {
+        return Codecs.rationalSize(element.getNumerator(), element.getDenominator());
+    }
+
+    public void encode(ExQQElement element, ByteBuffer buffer) {
+        Codecs.writeRational(buffer, element.getNumerator(), element.getDenominator());
+    }
+
+    public ExQQElement decode(ByteBuffer buffer) {
+        long numerator = Codecs.readNumerator(buffer);
+        return new ExQQElement(numerator, Codecs.readDenominator(buffer));
+    }
+
     public static void main(String[] args) {
         ExQQElementFactory f = new ExQQElementFactory();
         f.exampleTest();
@@ -0,0 +1,60 @@
+import danraies.commutativealgebra.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Summarizes result files written by a <code>ResultSink</code>: pass counts,
+ * numbers of checks, timings and counterexamples for every axiom.  The files
+ * are given as arguments and may be JSON Lines or columnar.  Without
+ * arguments, a large run of <code>ExQQElementFactory</code> is written in
+ * both formats, keeping one passing check in a hundred, and the two files
+ * are summarized.
+ */
+final public class ExResultSummary {
+    private static final int checksPerAxiom = 100000;
+    private static final int keepOneIn = 100;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            args = writeExampleFiles();
+        }
+        ResultSummary summary = new ResultSummary();
+        for (int i = 0; i < args.length; i++) {
+            summary.read(Paths.get(args[i]));
+        }
+        summary.write(System.out);
+        if (!summary.allPassed()) {
+            System.exit(1);
+        }
+    }
+
+    private static String[] writeExampleFiles() throws IOException {
+        Path json = Files.createTempFile("ExQQElementFactory", ".jsonl");
+        Path columnar = Files.createTempFile("ExQQElementFactory", ".car");
+        ResultSink jsonSink = new ResultSink(json, ResultSink.JSON_LINES, "ExQQElementFactory");
+        ResultSink columnarSink = new ResultSink(columnar, ResultSink.COLUMNAR, "ExQQElementFactory");
+        jsonSink.setSampling(keepOneIn);
+        columnarSink.setSampling(keepOneIn);
+
+        ExQQElementFactory f = new ExQQElementFactory();
+        f.addResultSink(jsonSink);
+        f.addResultSink(columnarSink);
+        f.shouldIncludeVerboseOutput(false);
+        f.setLog(new PrintStream(new ByteArrayOutputStream()));
+        f.setTotalNumberOfTests(checksPerAxiom);
+        f.testAxioms();
+        jsonSink.close();
+        columnarSink.close();
+
+        System.out.println(json + ": " + Files.size(json) + " bytes");
+        System.out.println(columnar + ": " + Files.size(columnar) + " bytes");
+        json.toFile().deleteOnExit();
+        columnar.toFile().deleteOnExit();
+        String[] files = {json.toString(), columnar.toString()};
+        return files;
+    }
+}
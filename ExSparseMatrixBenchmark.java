@@ -0,0 +1,216 @@
+import danraies.commutativealgebra.*;
+import java.util.Random;
+
+/**
+ * Times products of random sparse matrices over GF(p), stored as
+ * <code>ExGFpElement</code> objects in a <code>SparseMatrix</code> and as
+ * residues in a <code>ModularSparseMatrix</code>, against the same product
+ * with a vector done on a dense array of elements.  The results of the two
+ * sparse forms are checked against each other and against the dense
+ * product, and the products of two matrices are checked against products
+ * with vectors and against transposes.  A smaller matrix over the rationals
+ * checks the generic form over a second ring, and two small matrices check
+ * that entries which cancel are dropped.  The dimension can be given as an
+ * argument; by default it is 2000, with about eight entries per row.
+ */
+final public class ExSparseMatrixBenchmark {
+    private static final long modulus = 998244353L;
+    private static final int entriesPerRow = 8;
+    private static final int rationalDimension = 200;
+    private static final int rounds = 5;
+
+    public static void main(String[] args) {
+        int n = 2000;
+        if (args.length > 0) {
+            n = Integer.parseInt(args[0]);
+        }
+        // The first pass only warms up the just-in-time compiler.
+        run(n, false);
+        run(n, true);
+        rationals();
+        cancellation();
+    }
+
+    private static void run(int n, boolean verbose) {
+        Random r = new Random(n);
+        ExGFpElementFactory field = new ExGFpElementFactory(modulus);
+        SparseMatrix.Builder elementBuilder = new SparseMatrix.Builder(field, n, n);
+        ModularSparseMatrix.Builder residueBuilder = new ModularSparseMatrix.Builder(modulus, n, n);
+        ExGFpElement[][] dense = new ExGFpElement[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                dense[i][j] = field.getZero();
+            }
+        }
+        // Triples are streamed in random order and some positions repeat.
+        for (int t = 0; t < entriesPerRow * n; t++) {
+            int i = r.nextInt(n);
+            int j = r.nextInt(n);
+            long value = r.nextLong();
+            ExGFpElement element = new ExGFpElement(value, modulus);
+            elementBuilder.add(i, j, element);
+            residueBuilder.add(i, j, value);
+            dense[i][j] = dense[i][j].addTo(element);
+        }
+        long start = System.nanoTime();
+        SparseMatrix a = elementBuilder.build();
+        long elementBuildTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        ModularSparseMatrix m = residueBuilder.build();
+        long residueBuildTime = System.nanoTime() - start;
+        check("same number of entries", a.getNonZeroCount() == m.getNonZeroCount());
+        check("transposing twice", a.transpose().transpose().equals(a)
+              && m.transpose().transpose().equals(m));
+        if (verbose) {
+            System.out.println("GF(" + modulus + "), " + n + " x " + n + ", "
+                               + m.getNonZeroCount() + " entries");
+            System.out.println("  build:");
+            System.out.println("    SparseMatrix        " + millis(elementBuildTime) + " ms");
+            System.out.println("    ModularSparseMatrix " + millis(residueBuildTime) + " ms");
+        }
+
+        // Products with a vector.
+        long[] x = new long[n];
+        for (int j = 0; j < n; j++) {
+            x[j] = ModularArithmetic.reduce(r.nextLong(), modulus);
+        }
+        ExGFpElement[] xElements = ExGFpElement.fromResidues(x, modulus);
+        ExGFpElement[] denseResult = new ExGFpElement[n];
+        start = System.nanoTime();
+        for (int k = 0; k < rounds; k++) {
+            for (int i = 0; i < n; i++) {
+                ExGFpElement sum = field.getZero();
+                for (int j = 0; j < n; j++) {
+                    sum = sum.addTo(dense[i][j].multiplyBy(xElements[j]));
+                }
+                denseResult[i] = sum;
+            }
+        }
+        long denseTime = System.nanoTime() - start;
+        CommutativeRingElement[] elementResult = null;
+        start = System.nanoTime();
+        for (int k = 0; k < rounds; k++) {
+            elementResult = a.multiply(xElements);
+        }
+        long elementTime = System.nanoTime() - start;
+        long[] residueResult = null;
+        start = System.nanoTime();
+        for (int k = 0; k < rounds; k++) {
+            residueResult = m.multiply(x);
+        }
+        long residueTime = System.nanoTime() - start;
+        for (int i = 0; i < n; i++) {
+            check("matrix times vector", denseResult[i].equals(elementResult[i])
+                  && (denseResult[i].getValue() == residueResult[i]));
+        }
+        if (verbose) {
+            System.out.println("  matrix times vector:");
+            System.out.println("    dense elements      " + millis(denseTime) + " ms");
+            System.out.println("    SparseMatrix        " + millis(elementTime) + " ms"
+                               + speedup(denseTime, elementTime));
+            System.out.println("    ModularSparseMatrix " + millis(residueTime) + " ms"
+                               + speedup(denseTime, residueTime));
+        }
+
+        // Products of two matrices: (A A^T) x = A (A^T x) and (A A^T)^T = A A^T.
+        SparseMatrix at = a.transpose();
+        ModularSparseMatrix mt = m.transpose();
+        SparseMatrix aat = null;
+        start = System.nanoTime();
+        for (int k = 0; k < rounds; k++) {
+            aat = a.multiply(at);
+        }
+        elementTime = System.nanoTime() - start;
+        ModularSparseMatrix mmt = null;
+        start = System.nanoTime();
+        for (int k = 0; k < rounds; k++) {
+            mmt = m.multiply(mt);
+        }
+        residueTime = System.nanoTime() - start;
+        check("product of matrices is symmetric", aat.transpose().equals(aat)
+              && mmt.transpose().equals(mmt));
+        check("same product of matrices", aat.getNonZeroCount() == mmt.getNonZeroCount());
+        long[] product = mmt.multiply(x);
+        long[] nested = m.multiply(mt.multiply(x));
+        CommutativeRingElement[] elementProduct = aat.multiply(xElements);
+        for (int i = 0; i < n; i++) {
+            check("matrix times matrix", (product[i] == nested[i])
+                  && (((ExGFpElement) elementProduct[i]).getValue() == product[i]));
+        }
+        if (verbose) {
+            System.out.println("  matrix times matrix (" + mmt.getNonZeroCount() + " entries):");
+            System.out.println("    SparseMatrix        " + millis(elementTime) + " ms");
+            System.out.println("    ModularSparseMatrix " + millis(residueTime) + " ms"
+                               + speedup(elementTime, residueTime));
+            System.out.println();
+        }
+    }
+
+    private static void rationals() {
+        int n = rationalDimension;
+        Random r = new Random(n);
+        ExQQElementFactory rationals = new ExQQElementFactory();
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(rationals, n, n);
+        ExQQElement[][] dense = new ExQQElement[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                dense[i][j] = rationals.getZero();
+            }
+        }
+        for (int t = 0; t < entriesPerRow * n; t++) {
+            int i = r.nextInt(n);
+            int j = r.nextInt(n);
+            ExQQElement value = new ExQQElement(r.nextInt(19) - 9, r.nextInt(3) + 1);
+            builder.add(i, j, value);
+            dense[i][j] = dense[i][j].addTo(value);
+        }
+        SparseMatrix a = builder.build();
+        ExQQElement[] x = new ExQQElement[n];
+        for (int j = 0; j < n; j++) {
+            x[j] = new ExQQElement(r.nextInt(19) - 9, r.nextInt(3) + 1);
+        }
+        CommutativeRingElement[] result = a.multiply(x);
+        for (int i = 0; i < n; i++) {
+            ExQQElement sum = rationals.getZero();
+            for (int j = 0; j < n; j++) {
+                sum = sum.addTo(dense[i][j].multiplyBy(x[j]));
+                check("stored entries over the rationals",
+                      a.get(i, j).equals(dense[i][j]) && (dense[i][j].isZero()
+                                                          || !a.get(i, j).isZero()));
+            }
+            check("matrix times vector over the rationals", sum.equals(result[i]));
+        }
+        System.out.println("QQ, " + n + " x " + n + ", " + a.getNonZeroCount()
+                           + " entries: products agree with the dense matrix");
+    }
+
+    private static void cancellation() {
+        ExQQElementFactory rationals = new ExQQElementFactory();
+        ExQQElement one = rationals.getOne();
+        SparseMatrix row = new SparseMatrix.Builder(rationals, 1, 2)
+            .add(0, 0, one).add(0, 1, one).add(0, 1, one.negative()).add(0, 1, one).build();
+        SparseMatrix column = new SparseMatrix.Builder(rationals, 2, 1)
+            .add(0, 0, one).add(1, 0, one.negative()).build();
+        check("repeated entries are added", row.getNonZeroCount() == 2);
+        check("cancelling products are dropped", row.multiply(column).getNonZeroCount() == 0);
+        ModularSparseMatrix residues = new ModularSparseMatrix.Builder(modulus, 2, 2)
+            .add(0, 0, 1L).add(0, 0, modulus - 1L).add(1, 1, -1L).build();
+        check("cancelling residues are dropped", (residues.getNonZeroCount() == 1)
+              && (residues.get(1, 1) == modulus - 1L));
+        System.out.println("Entries that cancel are dropped");
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(nanos / 1000000L);
+    }
+
+    private static String speedup(long baseline, long time) {
+        return String.format(" (%.1fx)", (double) baseline / Math.max(time, 1L));
+    }
+
+    private static void check(String description, boolean passed) {
+        if (!passed) {
+            throw new RuntimeException("Check failed: " + description);
+        }
+    }
+}
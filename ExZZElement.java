@@ -1,12 +1,17 @@
 import danraies.commutativealgebra.*;
+import java.math.BigInteger;
 
-final public class ExZZElement implements CommutativeRingElement {
+final public class ExZZElement implements EuclideanDomainElement, AccumulatingElement {
     private long value;
 
     public ExZZElement(long value) {
         this.value = value;
     }
 
+    public long getValue() {
+        return value;
+    }
+
     public boolean equals(Object o) {
         if (o == this) {
             return true;
@@ -42,4 +47,67 @@ final public class ExZZElement implements CommutativeRingElement {
         ExZZElement z = (ExZZElement) e;
         return new ExZZElement(this.value * z.value);
     }
+
+    public ExZZElement[] divideWithRemainder(EuclideanDomainElement e) {
+        ExZZElement z = (ExZZElement) e;
+        if (z.value == 0L) {
+            throw new RuntimeException("Division by zero.");
+        }
+        // The remainder is chosen to be non-negative.  It is corrected
+        // together with the quotient, so that quotient * divisor + remainder
+        // wraps around exactly as the dividend does, even where the
+        // quotient itself overflows.
+        long quotient = this.value / z.value;
+        long remainder = this.value - quotient * z.value;
+        if (remainder < 0) {
+            if (z.value > 0) {
+                quotient = quotient - 1L;
+                remainder = remainder + z.value;
+            } else {
+                quotient = quotient + 1L;
+                remainder = remainder - z.value;
+            }
+        }
+        ExZZElement[] quotientAndRemainder = {
+            new ExZZElement(quotient),
+            new ExZZElement(remainder)};
+        return quotientAndRemainder;
+    }
+
+    public BigInteger euclideanNorm() {
+        return BigInteger.valueOf(value).abs();
+    }
+
+    public ExZZElement unitPart() {
+        return new ExZZElement((value < 0L) ? -1L : 1L);
+    }
+
+    public Accumulator newAccumulator() {
+        return new ZZAccumulator(value);
+    }
+
+    /** An integer kept as a primitive <code>long</code>. */
+    private static final class ZZAccumulator implements Accumulator {
+        private long value;
+
+        ZZAccumulator(long value) {
+            this.value = value;
+        }
+
+        public void set(CommutativeRingElement e) {
+            value = ((ExZZElement) e).value;
+        }
+
+        public void addInPlace(CommutativeRingElement e) {
+            value = value + ((ExZZElement) e).value;
+        }
+
+        public void multiplyAddInPlace(CommutativeRingElement a, CommutativeRingElement b) {
+            value = value + ((ExZZElement) a).value * ((ExZZElement) b).value;
+        }
+
+        public ExZZElement toElement() {
+            return new ExZZElement(value);
+        }
+    }
 }
@@ -1,7 +1,9 @@
 import danraies.commutativealgebra.*;
+import java.nio.ByteBuffer;
 import java.util.Random;
 
-final public class ExZZElementFactory extends CommutativeRingElementFactory {
+final public class ExZZElementFactory extends EuclideanDomainElementFactory
+    implements ElementCodec<ExZZElement> {
     Random r = new Random();
 
     public ExZZElement getRandom() {
@@ -17,6 +19,51 @@ final public class ExZZElementFactory extends CommutativeRingElementFactory {
         return new ExZZElement(1L);
     }
 
+    /**
+     * The ends of the range of a <code>long</code> and the values whose
+     * squares or sums leave it.
+     */
+    public ExZZElement[] getBoundaryElements() {
+        long[] values = {-1L, (1L << 31), -(1L << 31), (1L << 32), 3037000500L, -3037000500L,
+                         (1L << 62), Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1L};
+        ExZZElement[] boundary = new ExZZElement[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boundary[i] = new ExZZElement(values[i]);
+        }
+        return boundary;
+    }
+
+    /**
+     * Proposes the absolute value of a negative number and values between
+     * zero and the given one.
+     */
+    public ExZZElement[] shrink(Element e) {
+        long value = ((ExZZElement) e).getValue();
+        long[] values = shrinkTowardZero(value);
+        ExZZElement[] smaller = new ExZZElement[values.length + 1];
+        smaller[0] = new ExZZElement((value == Long.MIN_VALUE) ? value : Math.abs(value));
+        for (int i = 0; i < values.length; i++) {
+            smaller[i + 1] = new ExZZElement(values[i]);
+        }
+        return smaller;
+    }
+
+    public void setSeed(long seed) {
+        r.setSeed(seed);
+    }
+
+    public int encodedSize(ExZZElement element) {
+        return Codecs.signedVarLongSize(element.getValue());
+    }
+
+    public void encode(ExZZElement element, ByteBuffer buffer) {
+        Codecs.writeSignedVarLong(buffer, element.getValue());
+    }
+
+    public ExZZElement decode(ByteBuffer buffer) {
+        return new ExZZElement(Codecs.readSignedVarLong(buffer));
+    }
+
     public static void main(String[] args) {
         ExZZElementFactory f = new ExZZElementFactory();
         f.exampleTest();
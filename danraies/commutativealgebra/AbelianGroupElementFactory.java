@@ -12,6 +12,6 @@ public abstract class AbelianGroupElementFactory extends CommutativeMonoidElemen
     }
 
     final void addAbelianGroupTestsToRun() {
-        addTestToRun(new AxiomTestAdditiveInverse(totalTests, log));
+        addTestToRun(new AxiomTestAdditiveInverse(totalTests, events));
     }
 }
@@ -0,0 +1,22 @@
+package danraies.commutativealgebra;
+
+/**
+ * <p>
+ * Implement <code>AccumulatingElement</code> in addition to
+ * <code>CommutativeRingElement</code> (or one of its subinterfaces) when the
+ * elements of a ring have a cheaper mutable form.  Code that accumulates
+ * many sums and products, such as the methods of
+ * {@link Accumulators Accumulators}, will then use that form instead of
+ * creating a new element for every operation.  Implementing this interface
+ * is optional; every ring element can be accumulated, just not as cheaply.
+ * </p>
+ */
+public interface AccumulatingElement extends CommutativeRingElement {
+    /**
+     * Creates a new accumulator whose initial value is this element.  The
+     * accumulator must accept every element of the same ring.
+     *
+     * @return A new <code>Accumulator</code> holding <code>this</code>.
+     */
+    public Accumulator newAccumulator();
+}
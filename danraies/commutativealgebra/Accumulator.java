@@ -0,0 +1,52 @@
+package danraies.commutativealgebra;
+
+/**
+ * <p>
+ * A mutable variable holding an element of a commutative ring.  Ring
+ * elements are immutable, so a loop such as a dot product creates two new
+ * objects for every term.  An accumulator is updated in place instead, and
+ * only {@link #toElement() toElement} creates an object.  Implementations
+ * may also postpone reductions until the value is read, for example
+ * reducing a sum of products modulo a polynomial only once.
+ * </p>
+ * <p>
+ * Accumulators are meant for the inner loops of algorithms; the values that
+ * go in and come out are ordinary immutable elements.  An accumulator is
+ * not safe for use by several threads at once.  The static methods of
+ * {@link Accumulators Accumulators} return one for any element, using the
+ * specialized implementation of an {@link AccumulatingElement
+ * AccumulatingElement} where there is one.
+ * </p>
+ */
+public interface Accumulator {
+    /**
+     * Replaces the value of this accumulator.
+     *
+     * @param e An element of the ring of this accumulator.
+     */
+    public void set(CommutativeRingElement e);
+
+    /**
+     * Adds an element to the value of this accumulator.
+     *
+     * @param e An element of the ring of this accumulator.
+     */
+    public void addInPlace(CommutativeRingElement e);
+
+    /**
+     * Adds the product <code>a * b</code> to the value of this accumulator
+     * without creating the product as an element.
+     *
+     * @param a An element of the ring of this accumulator.
+     * @param b An element of the ring of this accumulator.
+     */
+    public void multiplyAddInPlace(CommutativeRingElement a, CommutativeRingElement b);
+
+    /**
+     * Reads the value of this accumulator.  The accumulator can still be
+     * used afterwards; later updates do not change the returned element.
+     *
+     * @return The current value, as an immutable element.
+     */
+    public CommutativeRingElement toElement();
+}
@@ -0,0 +1,78 @@
+package danraies.commutativealgebra;
+
+/**
+ * Creates {@link Accumulator Accumulator} objects and uses them for the most
+ * common accumulating loops.  Elements that implement
+ * {@link AccumulatingElement AccumulatingElement} get their own mutable
+ * form; every other element gets a generic accumulator that simply replaces
+ * its value with the result of <code>addTo</code> or
+ * <code>multiplyBy</code>, so code written against accumulators works for
+ * every ring and is only faster for some.
+ */
+public final class Accumulators {
+    private Accumulators() {
+    }
+
+    /**
+     * Creates an accumulator.
+     *
+     * @param initialValue Any ring element.
+     * @return A new accumulator holding <code>initialValue</code>, which
+     *         accepts every element of the same ring.
+     */
+    public static Accumulator newAccumulator(CommutativeRingElement initialValue) {
+        if (initialValue instanceof AccumulatingElement) {
+            return ((AccumulatingElement) initialValue).newAccumulator();
+        }
+        return new GenericAccumulator(initialValue);
+    }
+
+    /**
+     * Computes the dot product <code>a[0] b[0] + ... + a[n-1] b[n-1]</code>
+     * in a single accumulator.
+     *
+     * @param ring The factory describing the ring, which supplies the
+     *        initial zero.
+     * @param a Any ring elements.
+     * @param b As many ring elements as <code>a</code>.
+     * @return The dot product of <code>a</code> and <code>b</code>.
+     */
+    public static CommutativeRingElement dotProduct(CommutativeRingElementFactory ring,
+                                                    CommutativeRingElement[] a,
+                                                    CommutativeRingElement[] b) {
+        if (a.length != b.length) {
+            throw new RuntimeException(LENGTH_MISMATCH_MESSAGE);
+        }
+        Accumulator sum = newAccumulator(ring.getZero());
+        for (int i = 0; i < a.length; i++) {
+            sum.multiplyAddInPlace(a[i], b[i]);
+        }
+        return sum.toElement();
+    }
+
+    private static final class GenericAccumulator implements Accumulator {
+        private CommutativeRingElement value;
+
+        GenericAccumulator(CommutativeRingElement value) {
+            this.value = value;
+        }
+
+        public void set(CommutativeRingElement e) {
+            value = e;
+        }
+
+        public void addInPlace(CommutativeRingElement e) {
+            value = (CommutativeRingElement) value.addTo(e);
+        }
+
+        public void multiplyAddInPlace(CommutativeRingElement a, CommutativeRingElement b) {
+            value = (CommutativeRingElement) value.addTo(a.multiplyBy(b));
+        }
+
+        public CommutativeRingElement toElement() {
+            return value;
+        }
+    }
+
+    private static String LENGTH_MISMATCH_MESSAGE = "The vectors must have the same length.";
+}
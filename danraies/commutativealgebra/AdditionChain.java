@@ -0,0 +1,185 @@
+package danraies.commutativealgebra;
+import java.math.BigInteger;
+import java.util.ArrayList;
+
+/**
+ * <p>
+ * An addition chain for a fixed positive integer <code>n</code>: a sequence
+ * <code>1 = a_0, a_1, ..., a_r = n</code> in which every term is the sum of
+ * two earlier (not necessarily different) terms.  Such a chain computes
+ * <code>x^n</code> with exactly <code>r</code> multiplications, for any
+ * base <code>x</code>.
+ * </p>
+ * <p>
+ * Finding a shortest chain is hard, but a short one is cheap to find: this
+ * class builds the chains produced by the sliding-window method for every
+ * window width up to {@link #MAX_WIDTH MAX_WIDTH}, drops the precomputed
+ * odd powers that are never used, and keeps the shortest result.  Because
+ * that search happens once, it is worth doing when the same exponent is
+ * applied to many bases, for example an inversion exponent
+ * <code>p - 2</code> or a hash-to-curve cofactor.
+ * </p>
+ */
+public final class AdditionChain {
+    /** The largest window width tried when building a chain. */
+    public static final int MAX_WIDTH = 8;
+
+    private BigInteger exponent;
+
+    /** Term <code>k + 1</code> is the sum of terms <code>left[k]</code> and <code>right[k]</code>. */
+    private int[] left;
+    private int[] right;
+
+    /**
+     * Builds a short addition chain for an exponent.
+     *
+     * @param exponent Any positive integer.
+     */
+    public AdditionChain(BigInteger exponent) {
+        if (exponent.signum() <= 0) {
+            throw new RuntimeException(NON_POSITIVE_EXPONENT_MESSAGE);
+        }
+        this.exponent = exponent;
+        int[][] best = null;
+        for (int width = 1; width <= MAX_WIDTH; width++) {
+            int[][] chain = slidingWindowChain(exponent, width);
+            if ((best == null) || (chain[0].length < best[0].length)) {
+                best = chain;
+            }
+        }
+        left = best[0];
+        right = best[1];
+    }
+
+    public AdditionChain(long exponent) {
+        this(BigInteger.valueOf(exponent));
+    }
+
+    public BigInteger getExponent() {
+        return exponent;
+    }
+
+    /**
+     * Returns the number of steps in the chain, which is the number of
+     * multiplications that {@link #power(CommutativeRingElement) power}
+     * performs.
+     *
+     * @return The length <code>r</code> of the chain.
+     */
+    public int length() {
+        return left.length;
+    }
+
+    /**
+     * Raises an element to the exponent of this chain.
+     *
+     * @param x Any ring element.
+     * @return The power <code>x^n</code>.
+     */
+    public CommutativeRingElement power(CommutativeRingElement x) {
+        return (CommutativeRingElement) evaluate(Exponentiation.MULTIPLICATION, x);
+    }
+
+    /**
+     * Multiplies an element by the exponent of this chain.
+     *
+     * @param x Any monoid element.
+     * @return The multiple <code>n x</code>.
+     */
+    public CommutativeMonoidElement multiple(CommutativeMonoidElement x) {
+        return (CommutativeMonoidElement) evaluate(Exponentiation.ADDITION, x);
+    }
+
+    /**
+     * Overrides the <code>toString()</code> method.
+     *
+     * @return The terms of the chain, separated by commas.
+     */
+    public String toString() {
+        BigInteger[] terms = new BigInteger[left.length + 1];
+        terms[0] = BigInteger.ONE;
+        String returnValue = "1";
+        for (int k = 0; k < left.length; k++) {
+            terms[k + 1] = terms[left[k]].add(terms[right[k]]);
+            returnValue = returnValue + ", " + terms[k + 1];
+        }
+        return returnValue;
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    private Element evaluate(Exponentiation.Operation op, Element x) {
+        Element[] terms = new Element[left.length + 1];
+        terms[0] = x;
+        for (int k = 0; k < left.length; k++) {
+            terms[k + 1] = (left[k] == right[k])
+                ? op.twice(terms[left[k]]) : op.combine(terms[left[k]], terms[right[k]]);
+        }
+        return terms[left.length];
+    }
+
+    /**
+     * Records the steps that the sliding-window method would take, then
+     * removes the steps whose results are never used.
+     *
+     * @return The arrays <code>{left, right}</code>.
+     */
+    private static int[][] slidingWindowChain(BigInteger n, int width) {
+        int[] digits = Exponentiation.slidingWindowDigits(n, width);
+        ArrayList<int[]> steps = new ArrayList<int[]>();
+        int[] oddTerms = new int[1 << (width - 1)];
+        oddTerms[0] = 0;
+        if (oddTerms.length > 1) {
+            int doubled = addStep(steps, 0, 0);
+            for (int i = 1; i < oddTerms.length; i++) {
+                oddTerms[i] = addStep(steps, oddTerms[i - 1], doubled);
+            }
+        }
+        int current = -1;
+        for (int bit = digits.length - 1; bit >= 0; bit--) {
+            if (current >= 0) {
+                current = addStep(steps, current, current);
+            }
+            if (digits[bit] != 0) {
+                int term = oddTerms[digits[bit] / 2];
+                current = (current < 0) ? term : addStep(steps, current, term);
+            }
+        }
+
+        boolean[] used = new boolean[steps.size() + 1];
+        used[current] = true;
+        for (int k = steps.size() - 1; k >= 0; k--) {
+            if (used[k + 1]) {
+                used[steps.get(k)[0]] = true;
+                used[steps.get(k)[1]] = true;
+            }
+        }
+        int[] newIndex = new int[steps.size() + 1];
+        int count = 0;
+        for (int k = 0; k < steps.size(); k++) {
+            if (used[k + 1]) {
+                count++;
+                newIndex[k + 1] = count;
+            }
+        }
+        int[][] chain = new int[2][count];
+        for (int k = 0; k < steps.size(); k++) {
+            if (used[k + 1]) {
+                chain[0][newIndex[k + 1] - 1] = newIndex[steps.get(k)[0]];
+                chain[1][newIndex[k + 1] - 1] = newIndex[steps.get(k)[1]];
+            }
+        }
+        return chain;
+    }
+
+    private static int addStep(ArrayList<int[]> steps, int i, int j) {
+        int[] step = {i, j};
+        steps.add(step);
+        return steps.size();
+    }
+
+    private static String NON_POSITIVE_EXPONENT_MESSAGE
+        = "An addition chain can only be built for a positive exponent.";
+}
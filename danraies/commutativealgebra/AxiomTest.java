@@ -3,12 +3,20 @@ package danraies.commutativealgebra;
 abstract class AxiomTest extends UnitTest {
     private boolean elementsRequiredWasSet = false;
     private int elementsRequired;
+    private CounterExampleShrinker shrinker;
+    private long checkDeadlineNanos = 0L;
+    private boolean timedOut;
+    private LatencyHistogram latencies;
+    private int operationCounter = 0;
+    private OperandSize operandSize;
+    /** What the last check that threw an exception threw. */
+    private volatile RuntimeException thrown;
 
     AxiomTest(int elementsRequired,
               int intendedNumberOfChecks,
               String testName,
-              FactoryLogger log) {
-        super(testName, log);
+              TestEventPublisher events) {
+        super(testName, events);
         setNumberOfElementsRequired(elementsRequired);
         setIntendedNumberOfChecks(intendedNumberOfChecks);
     }
@@ -18,13 +26,29 @@ abstract class AxiomTest extends UnitTest {
         elementsRequiredWasSet = true;
     }
     
+    final int getNumberOfElementsRequired() {
+        return elementsRequired;
+    }
+
     abstract boolean testElements(Element[] list);
 
-    private boolean safelyTestElements(Element[] list) {
+    /**
+     * Checks the axiom for some elements.  An exception thrown by the
+     * arithmetic, such as an overflow, counts as a failed check, so that the
+     * elements are reported as a counterexample.  The exception is kept and
+     * published with the counterexample, since it may just as well come
+     * from a mistake in the test or the factory as from the arithmetic.
+     */
+    final boolean checkElements(Element[] list) {
         if (list.length != elementsRequired) {
             throw new RuntimeException(WRONG_NUMBER_OF_ELEMENTS);
         }
-        return testElements(list);
+        try {
+            return testElements(list);
+        } catch (RuntimeException e) {
+            thrown = e;
+            return false;
+        }
     }
 
     final boolean runTest(ElementRandomizer r) {
@@ -34,21 +58,158 @@ abstract class AxiomTest extends UnitTest {
         int testCounter = 0;
         boolean passedSoFar = true;
         Element[] listOfElements = new Element[elementsRequired];
-        while ((passedSoFar) && (testCounter < getIntendedNumberOfChecks())) {
-            testCounter++;
-            for (int i = 0; i < listOfElements.length; i++) {
-                listOfElements[i] = r.getRandomElement();
+        latencies = new LatencyHistogram(SLOWEST_CHECKS);
+        timedOut = false;
+        CheckWatchdog watchdog = null;
+        if (checkDeadlineNanos > 0L) {
+            watchdog = new CheckWatchdog(this, checkDeadlineNanos);
+        }
+        try {
+            while ((passedSoFar) && (testCounter < getIntendedNumberOfChecks())) {
+                testCounter++;
+                for (int i = 0; i < listOfElements.length; i++) {
+                    listOfElements[i] = r.getRandomElement();
+                }
+                FlightRecorderEvents.Check checkEvent = FlightRecorderEvents.beginCheck();
+                thrown = null;
+                long start = System.nanoTime();
+                boolean passedThisCheck;
+                if (watchdog == null) {
+                    passedThisCheck = checkElements(listOfElements);
+                } else {
+                    passedThisCheck = watchdog.check(listOfElements);
+                    timedOut = watchdog.hasTimedOut();
+                }
+                if (timedOut) {
+                    latencies.recordTimeout(checkDeadlineNanos, listOfElements);
+                } else {
+                    latencies.record(System.nanoTime() - start, listOfElements);
+                }
+                FlightRecorderEvents.endCheck(checkEvent, getTestName(), testCounter, passedThisCheck);
+                events.checkCompleted(getTestName(), testCounter, listOfElements, passedThisCheck);
+                if (!passedThisCheck) {
+                    setPossibleCounterExample(listOfElements.clone(), timedOut ? null : thrown);
+                }
+                passedSoFar = passedSoFar && passedThisCheck;
+            }
+        } finally {
+            if (watchdog != null) {
+                watchdog.close();
             }
-            boolean passedThisCheck = safelyTestElements(listOfElements);
-            log.logIndividualCheck(testCounter, listOfElements, passedThisCheck);
-            passedSoFar = passedSoFar && passedThisCheck;
         }
         setActualNumberOfChecks(testCounter);
         return passedSoFar;
     }
 
+    /**
+     * Sets the time that a single check may take, or removes the limit if
+     * it is zero.  A check that takes longer fails.
+     */
+    final void setCheckDeadline(long nanos) {
+        this.checkDeadlineNanos = nanos;
+    }
+
+    LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Sets the search for smaller counterexamples after a failure, or turns
+     * it off if <code>shrinker</code> is <code>null</code>.
+     */
+    final void setShrinker(CounterExampleShrinker shrinker) {
+        this.shrinker = shrinker;
+    }
+
+    /**
+     * Sets how the operands of recorded operations are measured, or records
+     * their sizes as zero if <code>operandSize</code> is <code>null</code>.
+     */
+    final void setOperandSize(OperandSize operandSize) {
+        this.operandSize = operandSize;
+    }
+
+    /**
+     * A counterexample that only ran out of time is not shrunk, since every
+     * candidate would be likely to run out of time as well.
+     */
+    Element[] shrinkCounterExample(Element[] counterExample) {
+        if ((shrinker == null) || timedOut) {
+            return null;
+        }
+        return shrinker.shrink(this, counterExample);
+    }
+
+    //////////////////////////////////////////////////
+    // Operations
+    //////////////////////////////////////////////////
+
+    // The tests make their arithmetic through these methods, so that a
+    // sample of the operations can be timed for Java Flight Recorder.  The
+    // counter is not synchronized; when checks run in parallel, as while
+    // shrinking, the sample is merely less even.
+
+    final CommutativeMonoidElement add(CommutativeMonoidElement e1, CommutativeMonoidElement e2) {
+        if (!FlightRecorderEvents.sampleOperation(++operationCounter)) {
+            return e1.addTo(e2);
+        }
+        FlightRecorderEvents.Operation event = FlightRecorderEvents.beginOperation();
+        CommutativeMonoidElement sum = e1.addTo(e2);
+        FlightRecorderEvents.endOperation(event, ADD, operandSize, e1, e2);
+        return sum;
+    }
+
+    final CommutativeRingElement multiply(CommutativeRingElement e1, CommutativeRingElement e2) {
+        if (!FlightRecorderEvents.sampleOperation(++operationCounter)) {
+            return e1.multiplyBy(e2);
+        }
+        FlightRecorderEvents.Operation event = FlightRecorderEvents.beginOperation();
+        CommutativeRingElement product = e1.multiplyBy(e2);
+        FlightRecorderEvents.endOperation(event, MULTIPLY, operandSize, e1, e2);
+        return product;
+    }
+
+    final AbelianGroupElement negate(AbelianGroupElement g) {
+        if (!FlightRecorderEvents.sampleOperation(++operationCounter)) {
+            return g.negative();
+        }
+        FlightRecorderEvents.Operation event = FlightRecorderEvents.beginOperation();
+        AbelianGroupElement negative = g.negative();
+        FlightRecorderEvents.endOperation(event, NEGATE, operandSize, g, null);
+        return negative;
+    }
+
+    final FieldElement invert(FieldElement x) {
+        if (!FlightRecorderEvents.sampleOperation(++operationCounter)) {
+            return x.inverse();
+        }
+        FlightRecorderEvents.Operation event = FlightRecorderEvents.beginOperation();
+        FieldElement inverse = x.inverse();
+        FlightRecorderEvents.endOperation(event, INVERT, operandSize, x, null);
+        return inverse;
+    }
+
+    final EuclideanDomainElement[] divide(EuclideanDomainElement a, EuclideanDomainElement b) {
+        if (!FlightRecorderEvents.sampleOperation(++operationCounter)) {
+            return a.divideWithRemainder(b);
+        }
+        FlightRecorderEvents.Operation event = FlightRecorderEvents.beginOperation();
+        EuclideanDomainElement[] quotientAndRemainder = a.divideWithRemainder(b);
+        FlightRecorderEvents.endOperation(event, DIVIDE, operandSize, a, b);
+        return quotientAndRemainder;
+    }
+
+    /** The number of slowest checks whose elements are kept. */
+    private static final int SLOWEST_CHECKS = 3;
+
+    private static String ADD = "addTo";
+    private static String MULTIPLY = "multiplyBy";
+    private static String NEGATE = "negative";
+    private static String INVERT = "inverse";
+    private static String DIVIDE = "divideWithRemainder";
+
     private static String VARIABLES_NOT_SET_MESSAGE =
-        "Either the log, the name of the test, or the number of elements required" +
+        "Either the events, the name of the test, or the number of elements required" +
         " was not set.";
 
     private static String WRONG_NUMBER_OF_ELEMENTS =
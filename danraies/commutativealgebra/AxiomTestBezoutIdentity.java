@@ -0,0 +1,32 @@
+package danraies.commutativealgebra;
+
+/**
+ * Checks the greatest common divisors of
+ * {@link EuclideanAlgorithm EuclideanAlgorithm}, which are those of the
+ * domain itself if its elements are a
+ * {@link FastGcdElement FastGcdElement}: the gcd must divide both elements
+ * and be the combination of them that its coefficients say.
+ */
+final class AxiomTestBezoutIdentity extends AxiomTest {
+    private static String TEST_NAME = "Bezout Identity";
+    private CommutativeRingElementFactory ring;
+
+    AxiomTestBezoutIdentity(CommutativeRingElementFactory ring, int numberOfTests,
+                            TestEventPublisher events) {
+        super(2, numberOfTests, TEST_NAME, events);
+        this.ring = ring;
+    }
+
+    boolean testElements(Element[] list) {
+        EuclideanDomainElement a = (EuclideanDomainElement) list[0];
+        EuclideanDomainElement b = (EuclideanDomainElement) list[1];
+        EuclideanDomainElement[] bezout = EuclideanAlgorithm.extendedGcd(ring, a, b);
+        EuclideanDomainElement g = bezout[0];
+        if (!add(multiply(bezout[1], a), multiply(bezout[2], b)).equals(g)) {
+            return false;
+        } else if (g.isZero()) {
+            return a.isZero() && b.isZero();
+        }
+        return divide(a, g)[1].isZero() && divide(b, g)[1].isZero();
+    }
+}
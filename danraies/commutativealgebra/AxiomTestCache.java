@@ -0,0 +1,372 @@
+package danraies.commutativealgebra;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * <p>
+ * Keeps the results of seeded runs on disk, so that an
+ * {@link AxiomTestSuite AxiomTestSuite} can skip a factory whose results
+ * cannot have changed.  A result is filed under a SHA-256 hash of
+ * everything the run depends on:
+ * </p>
+ * <ul>
+ * <li>the bytecode of the classes of the factory, of its elements and of
+ *     its tests, and of every class that their bytecode refers to, directly
+ *     or through other classes: superclasses, the types of fields and
+ *     parameters, and the static helpers such as
+ *     <code>ModularArithmetic</code> that the arithmetic runs in;</li>
+ * <li>the name under which the factory is tested and the first elements it
+ *     produces from the seed, which stand for the parameters of its
+ *     constructor;</li>
+ * <li>the seed and the number of checks of each axiom.</li>
+ * </ul>
+ * <p>
+ * If any of these changes, the hash changes and the old result is simply
+ * never read again, so the cache never has to be invalidated by hand.  A
+ * factory whose bytecode cannot be found, for instance because its class
+ * was generated at run time, is not cached.
+ * </p>
+ * <p>
+ * The classes referred to are found in the constant pools of the class
+ * files, so a class that the code only reaches by reflection, or only
+ * through a subclass that none of these classes names, is not part of the
+ * hash.  The classes of the Java platform are left out as well; a result
+ * stays valid when only the JDK changes.
+ * </p>
+ * <p>
+ * Each result is a small text file named after its hash.  It is written to
+ * a temporary file in the same directory and then renamed, which replaces
+ * any earlier file in one step, so several processes may share a cache:
+ * a reader sees either a whole result or none, and two writers of the same
+ * result write the same contents.  A file that is not a complete result
+ * counts as a miss.
+ * </p>
+ */
+public final class AxiomTestCache {
+    private Path directory;
+
+    /**
+     * Opens a cache, creating its directory if necessary.
+     *
+     * @param directory The directory that holds the results.
+     * @throws IOException If the directory cannot be created.
+     */
+    public AxiomTestCache(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * @return The directory that holds the results.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Computes the key of a run.  The factory is seeded, asked for a few
+     * elements and seeded again, so that the run starts from the seed.
+     *
+     * @return The key, or <code>null</code> if the run cannot be cached.
+     */
+    static String key(String name, ElementFactory factory, long seed, int checksPerAxiom) {
+        MessageDigest digest = newDigest();
+        factory.setSeed(seed);
+        Element sample = factory.getRandom();
+        factory.buildTests();
+        ArrayList<UnitTest> tests = factory.getTestsToRun();
+        ArrayList<Class<?>> roots = new ArrayList<Class<?>>();
+        roots.add(factory.getClass());
+        roots.add(sample.getClass());
+        for (int i = 0; i < tests.size(); i++) {
+            roots.add(tests.get(i).getClass());
+        }
+        if (!addClasses(digest, roots)) {
+            return null;
+        }
+        StringBuilder parameters = new StringBuilder();
+        parameters.append(name).append('\n').append(seed).append('\n').append(checksPerAxiom);
+        parameters.append('\n').append(sample);
+        for (int i = 1; i < SAMPLE_ELEMENTS; i++) {
+            parameters.append('\n').append(factory.getRandom());
+        }
+        digest.update(parameters.toString().getBytes(StandardCharsets.UTF_8));
+        factory.setSeed(seed);
+        return hex(digest.digest());
+    }
+
+    /**
+     * Reads the results stored under a key.
+     *
+     * @return One <code>AXIOM_FINISHED</code> event per test, in order, or
+     *         <code>null</code> if there is no complete result.
+     */
+    ArrayList<TestEvent> load(String key) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(directory.resolve(key + SUFFIX), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+        if ((lines.size() < 3)
+            || !HEADER.equals(lines.get(0))
+            || !(KEY_PREFIX + key).equals(lines.get(1))
+            || !END.equals(lines.get(lines.size() - 1))) {
+            return null;
+        }
+        ArrayList<TestEvent> results = new ArrayList<TestEvent>();
+        for (int i = 2; i < lines.size() - 1; i++) {
+            String[] fields = lines.get(i).split(" ", 3);
+            if ((fields.length != 3) || !(fields[0].equals(PASSED) || fields[0].equals(FAILED))) {
+                return null;
+            }
+            try {
+                results.add(new TestEvent(TestEvent.AXIOM_FINISHED, fields[2], 0,
+                                          Integer.parseInt(fields[1]),
+                                          fields[0].equals(PASSED), null));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Stores the results of a run under a key, replacing any earlier ones.
+     *
+     * @param results One <code>AXIOM_FINISHED</code> event per test.
+     */
+    void store(String key, List<TestEvent> results) throws IOException {
+        StringBuilder text = new StringBuilder();
+        text.append(HEADER).append('\n').append(KEY_PREFIX).append(key).append('\n');
+        for (int i = 0; i < results.size(); i++) {
+            TestEvent result = results.get(i);
+            text.append(result.hasPassed() ? PASSED : FAILED).append(' ')
+                .append(result.getNumberOfChecks()).append(' ')
+                .append(result.getTestName().replace('\n', ' ')).append('\n');
+        }
+        text.append(END).append('\n');
+        Path temporary = Files.createTempFile(directory, key, TEMPORARY_SUFFIX);
+        try {
+            Files.write(temporary, text.toString().getBytes(StandardCharsets.UTF_8));
+            Path target = directory.resolve(key + SUFFIX);
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE,
+                           StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Adds the bytecode of some classes and of every class they refer to,
+     * directly or indirectly, in a fixed order.  A referred class whose
+     * bytecode cannot be found adds only its name.
+     *
+     * @return <code>false</code> if the bytecode of one of the classes
+     *         themselves could not be found.
+     */
+    private static boolean addClasses(MessageDigest digest, ArrayList<Class<?>> roots) {
+        ClassLoader loader = roots.get(0).getClassLoader();
+        ArrayList<String> queue = new ArrayList<String>();
+        HashSet<String> seen = new HashSet<String>();
+        for (int i = 0; i < roots.size(); i++) {
+            Class<?> c = roots.get(i);
+            if (c.getClassLoader() == null) {
+                continue;
+            }
+            if (bytecode(c.getClassLoader(), internalName(c.getName())) == null) {
+                return false;
+            }
+            if (seen.add(internalName(c.getName()))) {
+                queue.add(internalName(c.getName()));
+            }
+        }
+        ClassLoader platform = ClassLoader.getPlatformClassLoader();
+        for (int next = 0; next < queue.size(); next++) {
+            String name = queue.get(next);
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            byte[] bytecode = bytecode(loader, name);
+            if (bytecode == null) {
+                continue;
+            }
+            digest.update(bytecode);
+            ArrayList<String> referred = referredClasses(bytecode);
+            for (int i = 0; i < referred.size(); i++) {
+                String r = referred.get(i);
+                if (seen.add(r) && (platform.getResource(r + ".class") == null)) {
+                    queue.add(r);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lists the classes named in the constant pool of a class file: those
+     * of its <code>CONSTANT_Class</code> entries and those that occur in its
+     * descriptors and signatures, as internal names such as
+     * <code>danraies/commutativealgebra/ModularArithmetic</code>.  Bytecode
+     * that cannot be read gives an empty list.
+     */
+    private static ArrayList<String> referredClasses(byte[] bytecode) {
+        ArrayList<String> names = new ArrayList<String>();
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytecode));
+            in.skipBytes(8);
+            int count = in.readUnsignedShort();
+            String[] utf8 = new String[count];
+            int[] classNames = new int[count];
+            int classes = 0;
+            for (int i = 1; i < count; i++) {
+                int tag = in.readUnsignedByte();
+                switch (tag) {
+                case CONSTANT_UTF8:
+                    utf8[i] = in.readUTF();
+                    break;
+                case CONSTANT_CLASS:
+                    classNames[classes++] = in.readUnsignedShort();
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    in.skipBytes(8);
+                    i++;
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    in.skipBytes(3);
+                    break;
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    in.skipBytes(2);
+                    break;
+                default:
+                    // Integers, floats, member references, names and
+                    // types, and dynamic constants all take four bytes.
+                    in.skipBytes(4);
+                }
+            }
+            for (int i = 0; i < classes; i++) {
+                String name = utf8[classNames[i]];
+                if ((name != null) && !name.startsWith("[")) {
+                    names.add(name);
+                }
+            }
+            for (int i = 1; i < count; i++) {
+                addDescriptorClasses(utf8[i], names);
+            }
+        } catch (IOException e) {
+            names.clear();
+        }
+        return names;
+    }
+
+    /**
+     * Adds the classes of a field or method descriptor, such as
+     * <code>(JLdanraies/commutativealgebra/Element;)[I</code>.  Other
+     * strings of the constant pool, which are names or literals, are
+     * ignored, and so are generic signatures: the classes of their type
+     * arguments are named by the casts of the code that uses them.
+     */
+    private static void addDescriptorClasses(String text, ArrayList<String> names) {
+        if ((text == null) || (text.length() == 0) || (text.indexOf('<') >= 0)) {
+            return;
+        }
+        char first = text.charAt(0);
+        if ((first != '(') && !(((first == 'L') || (first == '[')) && text.endsWith(";"))) {
+            return;
+        }
+        int i = 0;
+        while (i < text.length()) {
+            if (text.charAt(i) != 'L') {
+                i++;
+                continue;
+            }
+            int end = text.indexOf(';', i);
+            if (end < 0) {
+                return;
+            }
+            names.add(text.substring(i + 1, end));
+            i = end + 1;
+        }
+    }
+
+    private static String internalName(String name) {
+        return name.replace('.', '/');
+    }
+
+    private static byte[] bytecode(ClassLoader loader, String internalName) {
+        try (InputStream in = loader.getResourceAsStream(internalName + ".class")) {
+            if (in == null) {
+                return null;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            in.transferTo(bytes);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(NO_DIGEST_MESSAGE, e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (int i = 0; i < bytes.length; i++) {
+            hex.append(Character.forDigit((bytes[i] >> 4) & 15, 16))
+               .append(Character.forDigit(bytes[i] & 15, 16));
+        }
+        return hex.toString();
+    }
+
+    private static final int SAMPLE_ELEMENTS = 4;
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+    private static String DIGEST = "SHA-256";
+    private static String SUFFIX = ".txt";
+    private static String TEMPORARY_SUFFIX = ".tmp";
+    private static String HEADER = "axiom test results 1";
+    private static String KEY_PREFIX = "key ";
+    private static String END = "end";
+    private static String PASSED = "passed";
+    private static String FAILED = "FAILED";
+    private static String NO_DIGEST_MESSAGE = "SHA-256 is not available.";
+}
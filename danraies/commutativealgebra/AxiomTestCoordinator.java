@@ -0,0 +1,481 @@
+package danraies.commutativealgebra;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Random;
+
+/**
+ * <p>
+ * Tests the axioms of a factory with the help of worker processes, each
+ * running an {@link AxiomTestWorker AxiomTestWorker} connected to this
+ * coordinator over a socket.  The checks of every axiom are split into
+ * shards of a fixed size, and each shard is addressed by a seed: a worker
+ * creates its own instance of the factory class, seeds it with
+ * <code>setSeed</code>, and runs the checks of the shard with the elements
+ * that follow.  Any shard can therefore be run again, by any process, with
+ * the same result, and a counterexample is reported with the seed and the
+ * number of the check that found it.
+ * </p>
+ * <p>
+ * Shards are handed out one at a time to whichever worker is free.  As soon
+ * as one shard of an axiom finds a counterexample, the shards of that axiom
+ * that are still queued are dropped and the workers busy with one are told
+ * to stop.  If a worker disconnects, or takes longer than the shard timeout,
+ * its shard is put back at the front of the queue for another worker.
+ * </p>
+ * <p>
+ * The factory class needs a public constructor without arguments, and it
+ * must override <code>setSeed</code>.  Tests that do not draw random
+ * elements, such as checking that zero is zero, are run by the coordinator
+ * itself.  Workers may connect at any time; a test waits until it has
+ * workers to run its shards.
+ * </p>
+ */
+public class AxiomTestCoordinator {
+    static final byte SHARD = 1;
+    static final byte CANCEL = 2;
+    static final byte PASSED = 0;
+    static final byte COUNTER_EXAMPLE = 1;
+    static final byte CANCELLED = 2;
+    static final byte ERROR = 3;
+
+    private ServerSocket server;
+    private int shardSize = 1000;
+    private int totalTests = 100;
+    private int shardTimeout = 0;
+    private Random seeds = new Random();
+
+    private LinkedList<Shard> pending = new LinkedList<Shard>();
+    private ArrayList<Connection> connections = new ArrayList<Connection>();
+    private int outstanding;
+    private int nextShardId;
+    private int reassignedShards;
+    private boolean closed;
+    private String factoryClassName;
+    private ArrayList<TestState> results = new ArrayList<TestState>();
+
+    /**
+     * Starts listening for workers.
+     *
+     * @param port The port to listen on, or <code>0</code> for any free
+     *        port.
+     * @throws IOException If the port cannot be opened.
+     */
+    public AxiomTestCoordinator(int port) throws IOException {
+        server = new ServerSocket(port);
+        Thread acceptor = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    acceptWorkers();
+                }
+            });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    public synchronized int getNumberOfWorkers() {
+        return connections.size();
+    }
+
+    /**
+     * Sets the number of checks in one shard.  The default is one thousand.
+     *
+     * @param shardSize Any positive integer.
+     */
+    public void setShardSize(int shardSize) {
+        this.shardSize = shardSize;
+    }
+
+    /**
+     * Sets the number of checks of each axiom.  The default is one hundred,
+     * as for a single factory.
+     *
+     * @param totalTests The number of checks of each axiom.
+     */
+    public void setTotalNumberOfTests(int totalTests) {
+        this.totalTests = totalTests;
+    }
+
+    /**
+     * Fixes the seed from which the seeds of the shards are drawn, so that a
+     * whole run can be repeated.  By default it is random.
+     *
+     * @param seed Any <code>long</code> integer.
+     */
+    public void setSeed(long seed) {
+        seeds = new Random(seed);
+    }
+
+    /**
+     * Sets how long a worker may take for one shard before it is considered
+     * dead.  The default, zero, waits forever.
+     *
+     * @param milliseconds The time limit for one shard.
+     */
+    public void setShardTimeout(int milliseconds) {
+        this.shardTimeout = milliseconds;
+    }
+
+    /**
+     * Tests all axioms of a factory class and waits for the result.
+     *
+     * @param className The fully qualified name of a factory class with a
+     *        public no-argument constructor that overrides
+     *        <code>setSeed</code>.
+     * @return <code>true</code> if no counterexample was found.
+     */
+    public boolean test(String className) {
+        final ElementFactory factory = AxiomTestWorker.newFactory(className);
+        factory.buildTests();
+        ElementRandomizer r = new ElementRandomizer() {
+                @Override
+                public Element getRandomElement() {
+                    return factory.getRandom();
+                }
+            };
+        ArrayList<UnitTest> tests = factory.getTestsToRun();
+        ArrayList<TestState> states = new ArrayList<TestState>();
+        LinkedList<Shard> shards = new LinkedList<Shard>();
+        for (int i = 0; i < tests.size(); i++) {
+            UnitTest test = tests.get(i);
+            TestState state = new TestState(test.getTestName());
+            states.add(state);
+            if (!(test instanceof AxiomTest)) {
+                state.checksRun = 1;
+                if (!test.runTest(r)) {
+                    state.failed = true;
+                }
+                continue;
+            }
+            for (int first = 0; first < totalTests; first += shardSize) {
+                Shard shard = new Shard(nextShardId++, i, seeds.nextLong(),
+                                        Math.min(shardSize, totalTests - first), state);
+                shards.add(shard);
+                state.shards++;
+            }
+        }
+        synchronized (this) {
+            factoryClassName = className;
+            results = states;
+            reassignedShards = 0;
+            pending.addAll(shards);
+            outstanding = shards.size();
+            notifyAll();
+            while (outstanding > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(INTERRUPTED_MESSAGE, e);
+                }
+            }
+        }
+        for (int i = 0; i < states.size(); i++) {
+            if (states.get(i).failed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the results of the last test: one line per axiom, with the
+     * seed and the check of a counterexample if one was found.  The stream
+     * is not closed.
+     *
+     * @param stream The stream to write to.
+     */
+    public synchronized void writeSummary(PrintStream stream) {
+        stream.println(factoryClassName + ":");
+        for (int i = 0; i < results.size(); i++) {
+            TestState state = results.get(i);
+            String line = "  " + state.name + ": " + (state.failed ? "FAILED" : "passed")
+                + " (" + state.checksRun + " checks";
+            if (state.shards > 0) {
+                line = line + " in " + state.shards + " shards";
+            }
+            stream.println(line + ")");
+            if (state.counterExample != null) {
+                stream.println("    " + state.counterExample + " (seed " + state.seed
+                               + ", check " + state.checkNumber + ")");
+            }
+        }
+        stream.println("  " + reassignedShards + " shards reassigned, "
+                       + connections.size() + " workers connected");
+        stream.flush();
+    }
+
+    /**
+     * Stops accepting workers and disconnects the ones that are connected,
+     * which makes them exit.
+     */
+    public void close() {
+        ArrayList<Connection> open;
+        synchronized (this) {
+            closed = true;
+            open = new ArrayList<Connection>(connections);
+            notifyAll();
+        }
+        try {
+            server.close();
+        } catch (IOException e) {
+            // The coordinator is going away anyway.
+        }
+        for (int i = 0; i < open.size(); i++) {
+            open.get(i).disconnect();
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    /** Strings are sent as a length and UTF-8 bytes, without a size limit. */
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    private void acceptWorkers() {
+        while (true) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                return;
+            }
+            try {
+                socket.setSoTimeout(shardTimeout);
+                final Connection connection = new Connection(socket);
+                synchronized (this) {
+                    if (closed) {
+                        connection.disconnect();
+                        return;
+                    }
+                    connections.add(connection);
+                }
+                Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            serve(connection);
+                        }
+                    });
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    /** Hands shards to one worker until it disconnects. */
+    private void serve(Connection connection) {
+        Shard shard = null;
+        try {
+            while ((shard = nextShard(connection)) != null) {
+                connection.send(shard, factoryClassName);
+                DataInputStream in = connection.in;
+                int id = in.readInt();
+                byte status = in.readByte();
+                int checks = in.readInt();
+                String message = (status == COUNTER_EXAMPLE || status == ERROR)
+                    ? readString(in) : null;
+                if (id != shard.id) {
+                    throw new IOException(PROTOCOL_MESSAGE);
+                }
+                finish(connection, shard, status, checks, message);
+                shard = null;
+            }
+        } catch (IOException e) {
+            lose(connection, shard);
+        }
+        connection.disconnect();
+    }
+
+    /**
+     * Waits for a shard that is still needed, and notes that the worker is
+     * busy with it.  Returns <code>null</code> once the coordinator is
+     * closed.
+     */
+    private synchronized Shard nextShard(Connection connection) {
+        while (!closed) {
+            Shard shard = pending.poll();
+            if (shard == null) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    return null;
+                }
+            } else if (shard.test.failed) {
+                resolve();
+            } else {
+                connection.current = shard;
+                return shard;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void finish(Connection connection, Shard shard, byte status,
+                                     int checks, String message) {
+        connection.current = null;
+        TestState state = shard.test;
+        state.checksRun += checks;
+        if ((status == COUNTER_EXAMPLE || status == ERROR) && !state.failed) {
+            state.failed = true;
+            state.counterExample = (status == ERROR) ? ERROR_PREFIX + message : message;
+            state.seed = shard.seed;
+            state.checkNumber = checks;
+            cancel(state);
+        }
+        resolve();
+    }
+
+    /**
+     * Drops the queued shards of an axiom that has failed and asks the
+     * workers running one to stop.
+     */
+    private void cancel(TestState state) {
+        Iterator<Shard> queued = pending.iterator();
+        while (queued.hasNext()) {
+            if (queued.next().test == state) {
+                queued.remove();
+                resolve();
+            }
+        }
+        for (int i = 0; i < connections.size(); i++) {
+            Connection c = connections.get(i);
+            if ((c.current != null) && (c.current.test == state)) {
+                c.cancel(c.current.id);
+            }
+        }
+    }
+
+    /** Puts the shard of a dead worker back at the front of the queue. */
+    private synchronized void lose(Connection connection, Shard shard) {
+        connections.remove(connection);
+        connection.current = null;
+        if ((shard != null) && !closed) {
+            pending.addFirst(shard);
+            reassignedShards++;
+            notifyAll();
+        }
+    }
+
+    /** Marks one shard as done with, and wakes the waiting test. */
+    private void resolve() {
+        outstanding--;
+        notifyAll();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // There is nothing left to do with this socket.
+        }
+    }
+
+    /** A range of checks of one axiom, given by a seed and a count. */
+    private static final class Shard {
+        private final int id;
+        private final int testIndex;
+        private final long seed;
+        private final int checks;
+        private final TestState test;
+
+        Shard(int id, int testIndex, long seed, int checks, TestState test) {
+            this.id = id;
+            this.testIndex = testIndex;
+            this.seed = seed;
+            this.checks = checks;
+            this.test = test;
+        }
+    }
+
+    /** What is known so far about one test of the factory. */
+    private static final class TestState {
+        private final String name;
+        private boolean failed;
+        private int checksRun;
+        private int shards;
+        private String counterExample;
+        private long seed;
+        private int checkNumber;
+
+        TestState(String name) {
+            this.name = name;
+        }
+    }
+
+    /** The socket of one worker and the shard it is running, if any. */
+    private static final class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private Shard current;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        synchronized void send(Shard shard, String className) throws IOException {
+            out.writeByte(SHARD);
+            out.writeInt(shard.id);
+            writeString(out, className);
+            out.writeInt(shard.testIndex);
+            out.writeLong(shard.seed);
+            out.writeInt(shard.checks);
+            out.flush();
+        }
+
+        /**
+         * Asks the worker to stop a shard.  A worker that cannot be reached
+         * any more is noticed by the thread that serves it.
+         */
+        synchronized void cancel(int id) {
+            try {
+                out.writeByte(CANCEL);
+                out.writeInt(id);
+                out.flush();
+            } catch (IOException e) {
+                closeQuietly(socket);
+            }
+        }
+
+        void disconnect() {
+            closeQuietly(socket);
+        }
+    }
+
+    private static String ERROR_PREFIX = "Exception: ";
+    private static String PROTOCOL_MESSAGE = "The worker answered for the wrong shard.";
+    private static String INTERRUPTED_MESSAGE
+        = "The coordinator was interrupted before all shards were done.";
+}
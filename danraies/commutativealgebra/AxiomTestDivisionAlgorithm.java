@@ -0,0 +1,21 @@
+package danraies.commutativealgebra;
+
+final class AxiomTestDivisionAlgorithm extends AxiomTest {
+    private static String TEST_NAME = "Division Algorithm";
+
+    AxiomTestDivisionAlgorithm(int numberOfTests, TestEventPublisher events) {
+        super(2, numberOfTests, TEST_NAME, events);
+    }
+
+    boolean testElements(Element[] list) {
+        EuclideanDomainElement a = (EuclideanDomainElement) list[0];
+        EuclideanDomainElement b = (EuclideanDomainElement) list[1];
+        if (b.isZero()) {
+            return true;
+        }
+        EuclideanDomainElement[] qr = divide(a, b);
+        boolean smallerRemainder = qr[1].isZero()
+            || (qr[1].euclideanNorm().compareTo(b.euclideanNorm()) < 0);
+        return add(multiply(qr[0], b), qr[1]).equals(a) && smallerRemainder;
+    }
+}
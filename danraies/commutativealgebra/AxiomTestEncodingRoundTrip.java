@@ -0,0 +1,39 @@
+package danraies.commutativealgebra;
+import java.nio.ByteBuffer;
+
+/**
+ * Checks an {@link ElementCodec ElementCodec}: two elements written one after
+ * the other take exactly the announced number of bytes and are read back as
+ * equal elements.
+ */
+final class AxiomTestEncodingRoundTrip extends AxiomTest {
+    private static String TEST_NAME = "Encoding Round Trip";
+    private ElementCodec<Element> codec;
+
+    AxiomTestEncodingRoundTrip(ElementCodec<Element> codec,
+                               int numberOfTests,
+                               TestEventPublisher events) {
+        super(2, numberOfTests, TEST_NAME, events);
+        this.codec = codec;
+    }
+
+    boolean testElements(Element[] list) {
+        int size1 = codec.encodedSize(list[0]);
+        int size2 = codec.encodedSize(list[1]);
+        ByteBuffer buffer = ByteBuffer.allocate(size1 + size2);
+        codec.encode(list[0], buffer);
+        if (buffer.position() != size1) {
+            return false;
+        }
+        codec.encode(list[1], buffer);
+        buffer.flip();
+        Element decoded1 = codec.decode(buffer);
+        if (buffer.position() != size1) {
+            return false;
+        }
+        Element decoded2 = codec.decode(buffer);
+        return (!buffer.hasRemaining())
+            && list[0].equals(decoded1)
+            && list[1].equals(decoded2);
+    }
+}
@@ -3,16 +3,16 @@ package danraies.commutativealgebra;
 final class AxiomTestMultiplicativeAssociativity extends AxiomTest {
     private static String TEST_NAME = "Multiplicative Associativity";
 
-    AxiomTestMultiplicativeAssociativity(int numberOfTests, FactoryLogger log) {
-        super(3, numberOfTests, TEST_NAME, log);
+    AxiomTestMultiplicativeAssociativity(int numberOfTests, TestEventPublisher events) {
+        super(3, numberOfTests, TEST_NAME, events);
     }
 
     boolean testElements(Element[] list) {
         CommutativeRingElement e1 = (CommutativeRingElement) list[0];
         CommutativeRingElement e2 = (CommutativeRingElement) list[0];
         CommutativeRingElement e3 = (CommutativeRingElement) list[0];
-        CommutativeRingElement product1 = e1.multiplyBy(e2.multiplyBy(e3));
-        CommutativeRingElement product2 = e1.multiplyBy(e2).multiplyBy(e3);
+        CommutativeRingElement product1 = multiply(e1, multiply(e2, e3));
+        CommutativeRingElement product2 = multiply(multiply(e1, e2), e3);
         return product1.equals(product2);
     }
 }
@@ -3,8 +3,8 @@ package danraies.commutativealgebra;
 final class AxiomTestMultiplicativeInverse extends AxiomTest {
     private static String TEST_NAME = "Multiplicative Inverse";
 
-    AxiomTestMultiplicativeInverse(int numberOfTests, FactoryLogger log) {
-        super(1, numberOfTests, TEST_NAME, log);
+    AxiomTestMultiplicativeInverse(int numberOfTests, TestEventPublisher events) {
+        super(1, numberOfTests, TEST_NAME, events);
     }
 
     boolean testElements(Element[] list) {
@@ -12,8 +12,8 @@ final class AxiomTestMultiplicativeInverse extends AxiomTest {
         if (x.isZero()) {
             return true;
         }
-        CommutativeRingElement possibleOne1 = x.inverse().multiplyBy(x);
-        CommutativeRingElement possibleOne2 = x.multiplyBy(x.inverse());
+        CommutativeRingElement possibleOne1 = multiply(invert(x), x);
+        CommutativeRingElement possibleOne2 = multiply(x, invert(x));
         return possibleOne1.isOne() && possibleOne2.isOne();
     }
 }
@@ -0,0 +1,15 @@
+package danraies.commutativealgebra;
+
+final class AxiomTestNoZeroDivisors extends AxiomTest {
+    private static String TEST_NAME = "No Zero Divisors";
+
+    AxiomTestNoZeroDivisors(int numberOfTests, TestEventPublisher events) {
+        super(2, numberOfTests, TEST_NAME, events);
+    }
+
+    boolean testElements(Element[] list) {
+        EuclideanDomainElement a = (EuclideanDomainElement) list[0];
+        EuclideanDomainElement b = (EuclideanDomainElement) list[1];
+        return !multiply(a, b).isZero() || a.isZero() || b.isZero();
+    }
+}
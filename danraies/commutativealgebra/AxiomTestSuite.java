@@ -0,0 +1,454 @@
+package danraies.commutativealgebra;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Tests the axioms of many factories at the same time.  Each factory gets a
+ * log of its own, kept in memory, so that factories never share a
+ * <code>PrintStream</code>; closing a factory's log at the end of its run
+ * does no harm.  When all factories are done, the suite writes a merged
+ * summary, the individual logs if they are wanted, and a report in JSON.
+ * </p>
+ * <p>
+ * The factories share a fixed number of threads.  The tests of one factory
+ * run one after another, because a factory's <code>getRandom</code> method
+ * need not be thread-safe, but after each test the factory goes to the back
+ * of a single first-in-first-out queue.  The threads therefore serve the
+ * factories in turn, one test each, and a factory with many slow tests
+ * cannot hold up the others.
+ * </p>
+ * <p>
+ * A factory whose test throws an exception is stopped and reported as an
+ * error; the other factories carry on.
+ * </p>
+ * <p>
+ * When a seed is set, every factory is seeded before its run, and the
+ * results of the run are reproducible.  An {@link AxiomTestCache
+ * AxiomTestCache} can then remember them, and a factory whose classes,
+ * seed and number of checks are unchanged since a run stored in the cache
+ * is not tested again; its results are taken from the cache.
+ * </p>
+ */
+public class AxiomTestSuite {
+    private int threads;
+    private int totalTests = 100;
+    private boolean verbose = false;
+    private boolean seeded = false;
+    private long seed;
+    private AxiomTestCache cache;
+    private ArrayList<Entry> entries = new ArrayList<Entry>();
+
+    /**
+     * Creates a suite that uses one thread per available processor.
+     */
+    public AxiomTestSuite() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a suite.
+     *
+     * @param threads The number of factories that may be tested at the same
+     *        time.
+     */
+    public AxiomTestSuite(int threads) {
+        if (threads < 1) {
+            throw new RuntimeException(NO_THREADS_MESSAGE);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Adds a factory under the name of its class.
+     *
+     * @param factory Any factory.
+     */
+    public void add(ElementFactory factory) {
+        add(factory.getClass().getSimpleName(), factory);
+    }
+
+    /**
+     * Adds a factory.  Its log, its number of tests and its verbosity are
+     * replaced by those of the suite when the suite is run.
+     *
+     * @param name The name under which the factory is reported.
+     * @param factory Any factory.
+     */
+    public void add(String name, ElementFactory factory) {
+        entries.add(new Entry(name, factory));
+    }
+
+    /**
+     * Sets the number of checks of each axiom, for every factory.  The
+     * default is one hundred, as for a single factory.
+     *
+     * @param totalTests The number of checks of each axiom.
+     */
+    public void setTotalNumberOfTests(int totalTests) {
+        this.totalTests = totalTests;
+    }
+
+    /**
+     * Decides whether the logs of the factories show every individual check.
+     * The default is <code>false</code>.
+     *
+     * @param verbose <code>true</code> to log every check.
+     */
+    public void shouldIncludeVerboseOutput(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Seeds every factory before its run, so that the runs can be repeated
+     * and cached.  Factories that cannot be seeded are tested as they are.
+     * By default the factories are not seeded.
+     *
+     * @param seed Any <code>long</code> integer.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        seeded = true;
+    }
+
+    /**
+     * Takes the results of unchanged factories from a cache, and stores
+     * the results of the others in it.  Only seeded runs of factories that
+     * can be seeded and use no edge cases are cached.
+     *
+     * @param cache A cache, or <code>null</code> to stop using one.
+     */
+    public void setCache(AxiomTestCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Tests all factories and waits until they are done.
+     *
+     * @return <code>true</code> if every test of every factory passed.
+     */
+    public boolean run() {
+        final CountDownLatch remaining = new CountDownLatch(entries.size());
+        final ThreadPoolExecutor executor =
+            new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                                   new LinkedBlockingQueue<Runnable>());
+        try {
+            for (int i = 0; i < entries.size(); i++) {
+                final Entry entry = entries.get(i);
+                entry.reset(seeded, seed, cache, totalTests);
+                entry.factory.setLog(new PrintStream(entry.buffer));
+                entry.factory.shouldIncludeVerboseOutput(verbose);
+                entry.factory.setTotalNumberOfTests(totalTests);
+                executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (entry.step()) {
+                                remaining.countDown();
+                            } else {
+                                executor.execute(this);
+                            }
+                        }
+                    });
+            }
+            remaining.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(INTERRUPTED_MESSAGE, e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return allPassed();
+    }
+
+    /**
+     * Tells whether the last run was a complete success.
+     *
+     * @return <code>true</code> if every test of every factory passed.
+     */
+    public boolean allPassed() {
+        for (int i = 0; i < entries.size(); i++) {
+            if (!entries.get(i).passed()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes one line per factory and one per failed test, followed by the
+     * totals.  The stream is not closed.
+     *
+     * @param stream The stream to write to.
+     */
+    public void writeSummary(PrintStream stream) {
+        int passedFactories = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            String status = entry.passed() ? PASSED : FAILED;
+            if (entry.error != null) {
+                status = ERROR;
+            }
+            String time = entry.cached ? CACHED : ((entry.nanos / 1000000L) + " ms");
+            stream.println(status + " " + entry.name + " (" + entry.completedTests()
+                           + " tests, " + time + ")");
+            ArrayList<TestEvent> results = entry.results();
+            for (int j = 0; j < results.size(); j++) {
+                if (!results.get(j).hasPassed()) {
+                    stream.println("    " + FAILED + " " + results.get(j).getTestName());
+                }
+            }
+            if (entry.error != null) {
+                stream.println("    " + entry.error);
+            }
+            if (entry.passed()) {
+                passedFactories++;
+            }
+        }
+        stream.println(passedFactories + " of " + entries.size() + " factories passed.");
+        stream.flush();
+    }
+
+    /**
+     * Writes the log of every factory, one after another.  The stream is not
+     * closed.
+     *
+     * @param stream The stream to write to.
+     */
+    public void writeLogs(PrintStream stream) {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            stream.println("===== " + entry.name + " =====");
+            stream.print(entry.buffer.toString());
+            stream.println();
+        }
+        stream.flush();
+    }
+
+    /**
+     * Writes the results as a single JSON object with an array of
+     * factories, each with its tests.  The stream is not closed.
+     *
+     * @param stream The stream to write to.
+     */
+    public void writeReport(PrintStream stream) {
+        stream.println("{");
+        stream.println("  \"passed\": " + allPassed() + ",");
+        stream.println("  \"threads\": " + threads + ",");
+        stream.println("  \"checksPerAxiom\": " + totalTests + ",");
+        stream.println("  \"factories\": [");
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            stream.println("    {");
+            stream.println("      \"name\": " + quote(entry.name) + ",");
+            stream.println("      \"class\": " + quote(entry.factory.getClass().getName()) + ",");
+            stream.println("      \"passed\": " + entry.passed() + ",");
+            stream.println("      \"milliseconds\": " + (entry.nanos / 1000000L) + ",");
+            stream.println("      \"cached\": " + entry.cached + ",");
+            stream.println("      \"error\": "
+                           + ((entry.error == null) ? "null" : quote(entry.error.toString())) + ",");
+            stream.println("      \"tests\": [");
+            ArrayList<TestEvent> results = entry.results();
+            for (int j = 0; j < results.size(); j++) {
+                TestEvent result = results.get(j);
+                stream.print("        {\"name\": " + quote(result.getTestName())
+                             + ", \"passed\": " + result.hasPassed()
+                             + ", \"checks\": " + result.getNumberOfChecks() + "}");
+                stream.println((j < results.size() - 1) ? "," : "");
+            }
+            stream.println("      ]");
+            stream.println((i < entries.size() - 1) ? "    }," : "    }");
+        }
+        stream.println("  ]");
+        stream.println("}");
+        stream.flush();
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    /** Writes a string as a JSON string literal. */
+    static String quote(String s) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if ((c == '"') || (c == '\\')) {
+                quoted.append('\\').append(c);
+            } else if (c == '\n') {
+                quoted.append("\\n");
+            } else if (c < ' ') {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /** A factory of the suite and the state of its run. */
+    private static final class Entry {
+        private final String name;
+        private final ElementFactory factory;
+        private ByteArrayOutputStream buffer;
+        private boolean started;
+        private int nextTest;
+        private boolean finished;
+        private long nanos;
+        private Throwable error;
+        private boolean seeded;
+        private long seed;
+        private AxiomTestCache cache;
+        private int checksPerAxiom;
+        private String key;
+        private boolean cached;
+        private ArrayList<TestEvent> cachedResults;
+
+        Entry(String name, ElementFactory factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        void reset(boolean seeded, long seed, AxiomTestCache cache, int checksPerAxiom) {
+            buffer = new ByteArrayOutputStream();
+            started = false;
+            nextTest = 0;
+            finished = false;
+            nanos = 0L;
+            error = null;
+            this.seeded = seeded;
+            this.seed = seed;
+            this.cache = cache;
+            this.checksPerAxiom = checksPerAxiom;
+            key = null;
+            cached = false;
+            cachedResults = null;
+        }
+
+        /**
+         * Starts the run, runs one test, or finishes the run.  Steps of one
+         * entry never overlap, since each is queued only after the previous
+         * one has returned.
+         *
+         * @return <code>true</code> once the run is over.
+         */
+        boolean step() {
+            long start = System.nanoTime();
+            try {
+                if (!started) {
+                    started = true;
+                    if (seeded) {
+                        seedOrLookUp();
+                    }
+                    if (cached) {
+                        finished = true;
+                    } else {
+                        factory.startTests();
+                    }
+                } else if (nextTest < factory.getTestsToRun().size()) {
+                    factory.runTest(nextTest);
+                    nextTest++;
+                } else {
+                    factory.finishTests();
+                    finished = true;
+                    store();
+                }
+            } catch (Throwable t) {
+                // Whatever goes wrong in a factory, the suite must learn
+                // that its run is over.
+                error = t;
+                finished = true;
+            }
+            nanos += System.nanoTime() - start;
+            return finished;
+        }
+
+        int completedTests() {
+            return cached ? cachedResults.size() : nextTest;
+        }
+
+        /**
+         * Returns one <code>AXIOM_FINISHED</code> event for every completed
+         * test, taken from the cache or from the tests themselves.
+         */
+        ArrayList<TestEvent> results() {
+            if (cached) {
+                return cachedResults;
+            }
+            ArrayList<TestEvent> results = new ArrayList<TestEvent>();
+            ArrayList<UnitTest> tests = factory.getTestsToRun();
+            for (int i = 0; i < nextTest; i++) {
+                results.add(new TestEvent(TestEvent.AXIOM_FINISHED, tests.get(i).getTestName(), 0,
+                                          tests.get(i).getActualNumberOfChecks(),
+                                          tests.get(i).getTestResult(), null));
+            }
+            return results;
+        }
+
+        boolean passed() {
+            if (!finished || (error != null)) {
+                return false;
+            }
+            ArrayList<TestEvent> results = results();
+            for (int i = 0; i < results.size(); i++) {
+                if (!results.get(i).hasPassed()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Seeds the factory and, if there is a cache and the run can be
+         * cached, looks for its results.  A factory that cannot be seeded
+         * is tested as it is.
+         */
+        private void seedOrLookUp() {
+            try {
+                factory.setSeed(seed);
+            } catch (RuntimeException e) {
+                return;
+            }
+            if ((cache == null) || (factory.getEdgeCaseRatio() > 0.0)) {
+                return;
+            }
+            key = AxiomTestCache.key(name, factory, seed, checksPerAxiom);
+            cachedResults = (key == null) ? null : cache.load(key);
+            if (cachedResults != null) {
+                cached = true;
+                PrintStream log = new PrintStream(buffer);
+                log.println(CACHED_LOG_MESSAGE + cache.getDirectory().resolve(key));
+                log.close();
+            }
+        }
+
+        private void store() {
+            if (key == null) {
+                return;
+            }
+            try {
+                cache.store(key, results());
+            } catch (IOException e) {
+                // A result that cannot be stored is tested again next time.
+            }
+        }
+    }
+
+    private static String PASSED = "passed";
+    private static String FAILED = "FAILED";
+    private static String ERROR = "ERROR";
+    private static String CACHED = "cached";
+    private static String CACHED_LOG_MESSAGE = "The results were taken from the cache: ";
+    private static String NO_THREADS_MESSAGE = "A suite needs at least one thread.";
+    private static String INTERRUPTED_MESSAGE
+        = "The suite was interrupted before all factories were tested.";
+}
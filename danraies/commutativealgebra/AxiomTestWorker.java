@@ -0,0 +1,195 @@
+package danraies.commutativealgebra;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * <p>
+ * Runs shards of axiom checks for an {@link AxiomTestCoordinator
+ * AxiomTestCoordinator}.  A worker connects to the coordinator, receives
+ * shards, and answers each with the number of checks it ran and the first
+ * counterexample it found, if any.  It keeps one instance of every factory
+ * class it is asked about and seeds it afresh for each shard.
+ * </p>
+ * <p>
+ * A second thread listens to the coordinator while a shard runs, so that a
+ * shard can be stopped between two checks when another worker has already
+ * found a counterexample for the same axiom.  The worker exits when the
+ * coordinator closes the connection.
+ * </p>
+ */
+public class AxiomTestWorker {
+    private String host;
+    private int port;
+    private HashMap<String, ElementFactory> factories = new HashMap<String, ElementFactory>();
+    private Set<Integer> cancelled
+        = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+    /**
+     * @param host The host of the coordinator.
+     * @param port The port on which the coordinator listens.
+     */
+    public AxiomTestWorker(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Connects to the coordinator and runs shards until it disconnects.
+     *
+     * @throws IOException If the coordinator cannot be reached.
+     */
+    public void run() throws IOException {
+        Socket socket = new Socket(host, port);
+        final DataInputStream in
+            = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out
+            = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        final LinkedBlockingQueue<Shard> shards = new LinkedBlockingQueue<Shard>();
+        Thread listener = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    listen(in, shards);
+                }
+            });
+        listener.setDaemon(true);
+        listener.start();
+        try {
+            while (true) {
+                Shard shard = shards.take();
+                if (shard.className == null) {
+                    break;
+                }
+                runShard(shard, out);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // The coordinator has gone away while a result was being sent.
+        } finally {
+            socket.close();
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    /** Creates a factory from the name of its class. */
+    static ElementFactory newFactory(String className) {
+        try {
+            return (ElementFactory) Class.forName(className).getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(NOT_A_FACTORY_MESSAGE + className, e);
+        } catch (ClassCastException e) {
+            throw new RuntimeException(NOT_A_FACTORY_MESSAGE + className, e);
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Reads messages from the coordinator.  When the connection ends, a
+     * shard without a class is queued to stop the worker.
+     */
+    private void listen(DataInputStream in, LinkedBlockingQueue<Shard> shards) {
+        try {
+            while (true) {
+                byte type = in.readByte();
+                int id = in.readInt();
+                if (type == AxiomTestCoordinator.CANCEL) {
+                    cancelled.add(id);
+                    continue;
+                }
+                String className = AxiomTestCoordinator.readString(in);
+                shards.add(new Shard(id, className, in.readInt(), in.readLong(), in.readInt()));
+            }
+        } catch (IOException e) {
+            shards.add(new Shard(0, null, 0, 0L, 0));
+        }
+    }
+
+    private void runShard(Shard shard, DataOutputStream out) throws IOException {
+        byte status = AxiomTestCoordinator.PASSED;
+        String message = null;
+        int checks = 0;
+        try {
+            ElementFactory factory = factories.get(shard.className);
+            if (factory == null) {
+                factory = newFactory(shard.className);
+                factory.buildTests();
+                factories.put(shard.className, factory);
+            }
+            AxiomTest test = (AxiomTest) factory.getTestsToRun().get(shard.testIndex);
+            factory.setSeed(shard.seed);
+            Element[] elements = new Element[test.getNumberOfElementsRequired()];
+            while (checks < shard.checks) {
+                if (cancelled.contains(shard.id)) {
+                    status = AxiomTestCoordinator.CANCELLED;
+                    break;
+                }
+                for (int i = 0; i < elements.length; i++) {
+                    elements[i] = factory.getRandom();
+                }
+                checks++;
+                if (!test.testElements(elements)) {
+                    status = AxiomTestCoordinator.COUNTER_EXAMPLE;
+                    message = formatElements(elements);
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            status = AxiomTestCoordinator.ERROR;
+            message = e.toString();
+        }
+        cancelled.remove(shard.id);
+        out.writeInt(shard.id);
+        out.writeByte(status);
+        out.writeInt(checks);
+        if (message != null) {
+            AxiomTestCoordinator.writeString(out, message);
+        }
+        out.flush();
+    }
+
+    private static String formatElements(Element[] elements) {
+        String returnValue = "";
+        for (int i = 0; i < elements.length; i++) {
+            returnValue = returnValue + elements[i];
+            if (i < (elements.length - 1)) {
+                returnValue = returnValue + ", ";
+            }
+        }
+        return returnValue;
+    }
+
+    /** A shard as received from the coordinator. */
+    private static final class Shard {
+        private final int id;
+        private final String className;
+        private final int testIndex;
+        private final long seed;
+        private final int checks;
+
+        Shard(int id, String className, int testIndex, long seed, int checks) {
+            this.id = id;
+            this.className = className;
+            this.testIndex = testIndex;
+            this.seed = seed;
+            this.checks = checks;
+        }
+    }
+
+    private static String NOT_A_FACTORY_MESSAGE
+        = "Not a factory class with a public no-argument constructor: ";
+}
@@ -0,0 +1,152 @@
+package danraies.commutativealgebra;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Inverts many field elements at once with Montgomery's trick.  The running
+ * products <code>a_1, a_1 a_2, ..., a_1 a_2 ... a_n</code> are computed, the
+ * last one is inverted, and the inverses of the individual elements are then
+ * peeled off from the back, each with two multiplications.  This replaces
+ * <code>n</code> calls to <code>inverse()</code> with one call and about
+ * <code>3n</code> multiplications, which pays off whenever inversion is much
+ * more expensive than multiplication, as it is in every field of this
+ * project except the rationals.
+ * </p>
+ * <p>
+ * Zero has no inverse, but a batch that contains a zero should not have to
+ * be filtered first.  Zero elements are therefore left out of the running
+ * products and appear unchanged in the output: the "inverse" of zero is
+ * zero.  Callers that need to know can test the output entry with
+ * <code>isZero()</code>.
+ * </p>
+ * <p>
+ * {@link #parallelInverse(FieldElement[]) parallelInverse} cuts large arrays
+ * into chunks that are inverted independently on the common fork-join pool.
+ * This costs one field inversion per chunk.
+ * </p>
+ */
+public final class BatchInversion {
+    /** Arrays shorter than this are not split by <code>parallelInverse</code>. */
+    private static int CHUNK_SIZE = 4096;
+
+    private BatchInversion() {
+    }
+
+    /**
+     * Inverts every element of an array.
+     *
+     * @param elements Field elements, all from the same field.  Entries may
+     *        be zero but not <code>null</code>.
+     * @return A new array whose <code>i</code>-th entry is the inverse of
+     *         <code>elements[i]</code>, or zero if that element is zero.
+     */
+    public static FieldElement[] inverse(FieldElement[] elements) {
+        FieldElement[] inverses = new FieldElement[elements.length];
+        invertRange(elements, inverses, 0, elements.length);
+        return inverses;
+    }
+
+    /**
+     * Inverts every element of a list.
+     *
+     * @param elements Field elements, all from the same field.  Entries may
+     *        be zero but not <code>null</code>.
+     * @return A new list whose <code>i</code>-th entry is the inverse of the
+     *         <code>i</code>-th element, or zero if that element is zero.
+     */
+    public static List<FieldElement> inverse(List<? extends FieldElement> elements) {
+        FieldElement[] array = elements.toArray(new FieldElement[elements.size()]);
+        return new ArrayList<FieldElement>(Arrays.asList(inverse(array)));
+    }
+
+    /**
+     * Inverts every element of an array, processing chunks in parallel.
+     * The result is the same as that of {@link #inverse(FieldElement[])
+     * inverse}.
+     *
+     * @param elements Field elements, all from the same field.  Entries may
+     *        be zero but not <code>null</code>.
+     * @return A new array whose <code>i</code>-th entry is the inverse of
+     *         <code>elements[i]</code>, or zero if that element is zero.
+     */
+    public static FieldElement[] parallelInverse(FieldElement[] elements) {
+        FieldElement[] inverses = new FieldElement[elements.length];
+        if (elements.length <= CHUNK_SIZE) {
+            invertRange(elements, inverses, 0, elements.length);
+        } else {
+            ForkJoinPool.commonPool().invoke(
+                new BatchInversionTask(elements, inverses, 0, elements.length));
+        }
+        return inverses;
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Writes the inverses of <code>elements[start ... end - 1]</code> into
+     * the same positions of <code>inverses</code>.  The output array holds
+     * the running products until they are replaced by the inverses.
+     */
+    private static void invertRange(FieldElement[] elements, FieldElement[] inverses,
+                                    int start, int end) {
+        int[] nonZero = new int[end - start];
+        int count = 0;
+        FieldElement running = null;
+        for (int i = start; i < end; i++) {
+            if (elements[i].isZero()) {
+                inverses[i] = elements[i];
+                continue;
+            }
+            running = (running == null)
+                ? elements[i] : (FieldElement) running.multiplyBy(elements[i]);
+            inverses[i] = running;
+            nonZero[count] = i;
+            count++;
+        }
+        if (count == 0) {
+            return;
+        }
+        // runningInverse is the inverse of the product of the first k
+        // non-zero elements.
+        FieldElement runningInverse = running.inverse();
+        for (int k = count - 1; k > 0; k--) {
+            int i = nonZero[k];
+            FieldElement inverse = (FieldElement) runningInverse.multiplyBy(inverses[nonZero[k - 1]]);
+            runningInverse = (FieldElement) runningInverse.multiplyBy(elements[i]);
+            inverses[i] = inverse;
+        }
+        inverses[nonZero[0]] = runningInverse;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class BatchInversionTask extends RecursiveAction {
+        private final FieldElement[] elements;
+        private final FieldElement[] inverses;
+        private final int start;
+        private final int end;
+
+        BatchInversionTask(FieldElement[] elements, FieldElement[] inverses, int start, int end) {
+            this.elements = elements;
+            this.inverses = inverses;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= CHUNK_SIZE) {
+                invertRange(elements, inverses, start, end);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new BatchInversionTask(elements, inverses, start, middle),
+                      new BatchInversionTask(elements, inverses, middle, end));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package danraies.commutativealgebra;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <p>
+ * Enforces a deadline on every check of a test.  The checks run one at a
+ * time on a thread of the watchdog while the thread of the test waits for
+ * each of them, but no longer than the deadline.  A check that takes
+ * longer is interrupted and abandoned, and counts as failed; since the
+ * arithmetic of the elements does not look at interrupts, it may go on
+ * running in the background, but the thread is a daemon and the test
+ * stops at the failure anyway.
+ * </p>
+ * <p>
+ * Handing each check to another thread costs a few microseconds, so a
+ * watchdog is only used when a deadline is set.
+ * </p>
+ */
+final class CheckWatchdog {
+    private AxiomTest test;
+    private long deadlineNanos;
+    private ThreadPoolExecutor executor;
+    private boolean timedOut = false;
+
+    CheckWatchdog(AxiomTest test, long deadlineNanos) {
+        this.test = test;
+        this.deadlineNanos = deadlineNanos;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                                               new LinkedBlockingQueue<Runnable>(), DAEMONS);
+    }
+
+    /**
+     * Checks the axiom for some elements within the deadline.
+     *
+     * @return The result of the check, or <code>false</code> if it did not
+     *         finish in time.
+     */
+    boolean check(Element[] list) {
+        final Element[] elements = list.clone();
+        Future<Boolean> result = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return test.checkElements(elements);
+                }
+            });
+        try {
+            return result.get(deadlineNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timedOut = true;
+            result.cancel(true);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new RuntimeException(INTERRUPTED_MESSAGE, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @return Whether a check has missed the deadline.
+     */
+    boolean hasTimedOut() {
+        return timedOut;
+    }
+
+    void close() {
+        executor.shutdownNow();
+    }
+
+    private static final ThreadFactory DAEMONS = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+
+    private static String THREAD_NAME = "check watchdog";
+    private static String INTERRUPTED_MESSAGE = "The test was interrupted during a check.";
+}
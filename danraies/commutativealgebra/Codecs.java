@@ -0,0 +1,191 @@
+package danraies.commutativealgebra;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * A collection of static methods for the encodings that
+ * {@link ElementCodec ElementCodec} implementations are built from.  All of
+ * them read or write at the position of a <code>ByteBuffer</code> and
+ * advance it, and none of them creates an object, except for the methods
+ * for <code>BigInteger</code> values.
+ * </p>
+ * <dl>
+ * <dt>Varints</dt>
+ * <dd>A non-negative <code>long</code> is written seven bits at a time,
+ *     lowest bits first, with the high bit of each byte set when more bytes
+ *     follow.  Values below 128 take one byte and no value takes more than
+ *     ten.</dd>
+ * <dt>Signed varints</dt>
+ * <dd>Any <code>long</code> is first mapped to a non-negative one by zigzag
+ *     encoding, <code>0, -1, 1, -2, ...</code> to <code>0, 1, 2, 3,
+ *     ...</code>, so that small negative values stay short.</dd>
+ * <dt>Rationals</dt>
+ * <dd>A fraction with a positive denominator is a signed varint for the
+ *     numerator followed by a varint for the denominator minus one, so an
+ *     integer costs a single extra byte.</dd>
+ * <dt>Lengths</dt>
+ * <dd>Arrays are written as their length, a varint, followed by their
+ *     entries.  Reading a length checks it against the bytes that remain, so
+ *     a corrupt length cannot cause a huge allocation.</dd>
+ * <dt>Big integers</dt>
+ * <dd>The length of the magnitude in bytes, shifted left once with the sign
+ *     in the lowest bit, as a varint, followed by the magnitude in big-endian
+ *     order.</dd>
+ * </dl>
+ * <p>
+ * Reading past the limit of a buffer throws a
+ * <code>BufferUnderflowException</code>; malformed bytes throw a runtime
+ * exception.
+ * </p>
+ */
+public final class Codecs {
+    private Codecs() {
+    }
+
+    /**
+     * Writes a non-negative integer as a varint.
+     *
+     * @param buffer The buffer to write to.
+     * @param value Any non-negative <code>long</code> integer.  Negative
+     *        values are written as if they were unsigned, in ten bytes.
+     */
+    public static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0L) {
+            buffer.put((byte) ((value & 0x7FL) | 0x80L));
+            value = value >>> 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static long readVarLong(ByteBuffer buffer) {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value = value | ((long) (b & 0x7F) << shift);
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new RuntimeException(MALFORMED_VARINT_MESSAGE);
+    }
+
+    /**
+     * Returns the length of a varint.
+     *
+     * @param value Any <code>long</code> integer.
+     * @return The number of bytes that <code>writeVarLong</code> writes for
+     *         <code>value</code>, between one and ten.
+     */
+    public static int varLongSize(long value) {
+        int bits = 64 - Long.numberOfLeadingZeros(value | 1L);
+        return (bits + 6) / 7;
+    }
+
+    public static void writeSignedVarLong(ByteBuffer buffer, long value) {
+        writeVarLong(buffer, zigZag(value));
+    }
+
+    public static long readSignedVarLong(ByteBuffer buffer) {
+        long encoded = readVarLong(buffer);
+        return (encoded >>> 1) ^ -(encoded & 1L);
+    }
+
+    public static int signedVarLongSize(long value) {
+        return varLongSize(zigZag(value));
+    }
+
+    /**
+     * Writes a fraction.  Read it back with <code>readNumerator</code>
+     * followed by <code>readDenominator</code>.
+     *
+     * @param buffer The buffer to write to.
+     * @param numerator Any <code>long</code> integer.
+     * @param denominator A positive <code>long</code> integer.
+     */
+    public static void writeRational(ByteBuffer buffer, long numerator, long denominator) {
+        if (denominator <= 0L) {
+            throw new RuntimeException(DENOMINATOR_MESSAGE);
+        }
+        writeSignedVarLong(buffer, numerator);
+        writeVarLong(buffer, denominator - 1L);
+    }
+
+    public static long readNumerator(ByteBuffer buffer) {
+        return readSignedVarLong(buffer);
+    }
+
+    public static long readDenominator(ByteBuffer buffer) {
+        long denominator = readVarLong(buffer) + 1L;
+        if (denominator <= 0L) {
+            throw new RuntimeException(DENOMINATOR_MESSAGE);
+        }
+        return denominator;
+    }
+
+    public static int rationalSize(long numerator, long denominator) {
+        return signedVarLongSize(numerator) + varLongSize(denominator - 1L);
+    }
+
+    /**
+     * Writes the length of an array.
+     *
+     * @param buffer The buffer to write to.
+     * @param length Any non-negative <code>int</code>.
+     */
+    public static void writeLength(ByteBuffer buffer, int length) {
+        writeVarLong(buffer, length);
+    }
+
+    /**
+     * Reads the length of an array and checks it against the bytes that
+     * remain, assuming that every entry takes at least one byte.
+     *
+     * @param buffer The buffer to read from.
+     * @return The length, a non-negative <code>int</code>.
+     */
+    public static int readLength(ByteBuffer buffer) {
+        long length = readVarLong(buffer);
+        if ((length < 0L) || (length > buffer.remaining())) {
+            throw new RuntimeException(LENGTH_MESSAGE);
+        }
+        return (int) length;
+    }
+
+    public static void writeBigInteger(ByteBuffer buffer, BigInteger value) {
+        byte[] magnitude = value.abs().toByteArray();
+        int start = (magnitude[0] == 0) ? 1 : 0;
+        int length = magnitude.length - start;
+        writeVarLong(buffer, ((long) length << 1) | ((value.signum() < 0) ? 1L : 0L));
+        buffer.put(magnitude, start, length);
+    }
+
+    public static BigInteger readBigInteger(ByteBuffer buffer) {
+        long header = readVarLong(buffer);
+        long length = header >>> 1;
+        if (length > buffer.remaining()) {
+            throw new RuntimeException(LENGTH_MESSAGE);
+        }
+        byte[] magnitude = new byte[(int) length];
+        buffer.get(magnitude);
+        BigInteger value = new BigInteger(1, magnitude);
+        return ((header & 1L) != 0L) ? value.negate() : value;
+    }
+
+    public static int bigIntegerSize(BigInteger value) {
+        int length = (value.abs().bitLength() + 7) / 8;
+        return varLongSize((long) length << 1) + length;
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static String MALFORMED_VARINT_MESSAGE = "A varint is longer than ten bytes.";
+    private static String LENGTH_MESSAGE = "A length is longer than the bytes that remain.";
+    private static String DENOMINATOR_MESSAGE = "A denominator must be positive.";
+}
@@ -11,8 +11,8 @@ public abstract class CommutativeMonoidElementFactory extends ElementFactory {
     }
 
     final void addCommutativeMonoidTestsToRun() {
-        addTestToRun(new ZeroEqualsZeroTest(getZero(), log));
-        addTestToRun(new AxiomTestAdditiveCommutivity(totalTests, log));
-        addTestToRun(new AxiomTestAdditiveAssociativity(totalTests, log));
+        addTestToRun(new ZeroEqualsZeroTest(getZero(), events));
+        addTestToRun(new AxiomTestAdditiveCommutivity(totalTests, events));
+        addTestToRun(new AxiomTestAdditiveAssociativity(totalTests, events));
     }
 }
@@ -14,8 +14,8 @@ public abstract class CommutativeRingElementFactory extends AbelianGroupElementF
     }
 
     final void addCommutativeRingTestsToRun() {
-        addTestToRun(new OneEqualsOneTest(getOne(), log));
-        addTestToRun(new AxiomTestMultiplicativeCommutivity(totalTests, log));
-        addTestToRun(new AxiomTestMultiplicativeAssociativity(totalTests, log));
+        addTestToRun(new OneEqualsOneTest(getOne(), events));
+        addTestToRun(new AxiomTestMultiplicativeCommutivity(totalTests, events));
+        addTestToRun(new AxiomTestMultiplicativeAssociativity(totalTests, events));
     }
 }
@@ -0,0 +1,147 @@
+package danraies.commutativealgebra;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <p>
+ * Searches for a smaller counterexample once an axiom has failed.  The
+ * factory's {@link ElementFactory#shrink(Element) shrink} method proposes
+ * smaller replacements for each element; every tuple that differs from the
+ * current one in a single element is a candidate, and the first candidate,
+ * in the order of the proposals, that still breaks the axiom becomes the
+ * current tuple.  The search stops when no candidate breaks the axiom or
+ * when its time is up, and the smallest tuple found so far is kept.
+ * </p>
+ * <p>
+ * The candidates of a round are checked in parallel.  Since the round then
+ * waits for the candidates in order, the result does not depend on the
+ * number of threads or on which check finishes first.  A check still
+ * running when the time is up is interrupted and abandoned; the threads are
+ * daemons, so a check that never returns cannot keep the program alive.
+ * </p>
+ */
+final class CounterExampleShrinker {
+    private ElementFactory factory;
+    private long timeLimitNanos;
+    private int threads;
+
+    /**
+     * @param factory The factory whose <code>shrink</code> method proposes
+     *        the candidates.
+     * @param timeLimitMillis The time the whole search may take.
+     * @param threads The number of candidates checked at once.
+     */
+    CounterExampleShrinker(ElementFactory factory, long timeLimitMillis, int threads) {
+        this.factory = factory;
+        this.timeLimitNanos = TimeUnit.MILLISECONDS.toNanos(timeLimitMillis);
+        this.threads = threads;
+    }
+
+    /**
+     * Shrinks a counterexample of a test.
+     *
+     * @param test The test that failed for the counterexample.
+     * @param counterExample The elements for which it failed.
+     * @return A smaller tuple for which the test also fails, or
+     *         <code>null</code> if none was found.
+     */
+    Element[] shrink(final AxiomTest test, Element[] counterExample) {
+        long deadline = System.nanoTime() + timeLimitNanos;
+        Element[] current = counterExample;
+        ThreadPoolExecutor executor =
+            new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                                   new LinkedBlockingQueue<Runnable>(), DAEMONS);
+        try {
+            for (int round = 0; round < MAX_ROUNDS; round++) {
+                ArrayList<Element[]> candidates = candidates(current);
+                ArrayList<Future<Boolean>> failures = new ArrayList<Future<Boolean>>();
+                for (int i = 0; i < candidates.size(); i++) {
+                    final Element[] candidate = candidates.get(i);
+                    failures.add(executor.submit(new Callable<Boolean>() {
+                            @Override
+                            public Boolean call() {
+                                return !test.checkElements(candidate);
+                            }
+                        }));
+                }
+                int smaller = firstFailure(failures, deadline);
+                if (smaller < 0) {
+                    break;
+                }
+                current = candidates.get(smaller);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return (current == counterExample) ? null : current.clone();
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    private ArrayList<Element[]> candidates(Element[] tuple) {
+        ArrayList<Element[]> candidates = new ArrayList<Element[]>();
+        for (int i = 0; i < tuple.length; i++) {
+            Element[] replacements = factory.shrink(tuple[i]);
+            for (int j = 0; j < replacements.length; j++) {
+                if ((replacements[j] != null) && !replacements[j].equals(tuple[i])) {
+                    Element[] candidate = tuple.clone();
+                    candidate[i] = replacements[j];
+                    candidates.add(candidate);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Waits for the checks in order and returns the index of the first
+     * candidate that breaks the axiom, or -1 if none does or the time is up.
+     * A check that ends in an error, rather than an exception, does not
+     * count.  The remaining checks are cancelled either way.
+     */
+    private static int firstFailure(ArrayList<Future<Boolean>> failures, long deadline) {
+        int returnValue = -1;
+        boolean timeIsUp = false;
+        for (int i = 0; (returnValue < 0) && !timeIsUp && (i < failures.size()); i++) {
+            long remaining = deadline - System.nanoTime();
+            try {
+                if (failures.get(i).get(Math.max(remaining, 0L), TimeUnit.NANOSECONDS)) {
+                    returnValue = i;
+                }
+            } catch (TimeoutException e) {
+                timeIsUp = true;
+            } catch (ExecutionException e) {
+                // The candidate is skipped.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                timeIsUp = true;
+            }
+        }
+        for (int i = 0; i < failures.size(); i++) {
+            failures.get(i).cancel(true);
+        }
+        return returnValue;
+    }
+
+    private static final ThreadFactory DAEMONS = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+
+    /** A bound on the rounds, in case a factory proposes larger elements. */
+    private static final int MAX_ROUNDS = 10000;
+    private static String THREAD_NAME = "counterexample shrinker";
+}
@@ -0,0 +1,162 @@
+package danraies.commutativealgebra;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * <p>
+ * Draws the elements of a test from the factory's <code>getRandom</code>,
+ * but replaces a fixed share of them by an edge case: zero, one, the
+ * negative or the inverse of an element drawn shortly before, that same
+ * element again, or one of the factory's boundary elements.  Bugs in
+ * arithmetic tend to sit at exactly these elements, while a uniformly drawn
+ * element almost never lands on them.
+ * </p>
+ * <p>
+ * The kinds of edge case are weighted, and the weights follow a simple
+ * measure of coverage.  Every element is sorted into a class by whether it
+ * is zero or one, by its sign and by the length of its string; a kind that
+ * produces an element of a class not seen before in this test gains
+ * weight, and a kind that only repeats known classes slowly loses it.  The
+ * kinds that keep reaching new ground are therefore drawn more often.
+ * </p>
+ */
+final class EdgeCaseRandomizer implements ElementRandomizer {
+    static final int ZERO = 0;
+    static final int ONE = 1;
+    static final int NEGATIVE = 2;
+    static final int INVERSE = 3;
+    static final int REPEAT = 4;
+    static final int BOUNDARY = 5;
+    private static final int KINDS = 6;
+
+    private ElementFactory factory;
+    private double ratio;
+    private Random random;
+    private Element[] boundary;
+    private Element[] recent = new Element[RECENT];
+    private int recentCount;
+    private double[] weights = new double[KINDS];
+    private HashSet<Integer> covered = new HashSet<Integer>();
+
+    /**
+     * @param factory The factory whose elements are drawn.
+     * @param ratio The share of elements, between zero and one, that are
+     *        replaced by edge cases.
+     * @param random The source of the choices of this randomizer; the
+     *        elements themselves come from the factory.
+     */
+    EdgeCaseRandomizer(ElementFactory factory, double ratio, Random random) {
+        this.factory = factory;
+        this.ratio = ratio;
+        this.random = random;
+        this.boundary = factory.getBoundaryElements();
+        weights[ZERO] = (factory instanceof CommutativeMonoidElementFactory) ? 1.0 : 0.0;
+        weights[ONE] = (factory instanceof CommutativeRingElementFactory) ? 1.0 : 0.0;
+        weights[NEGATIVE] = (factory instanceof AbelianGroupElementFactory) ? 1.0 : 0.0;
+        weights[INVERSE] = (factory instanceof FieldElementFactory) ? 1.0 : 0.0;
+        weights[REPEAT] = 1.0;
+        weights[BOUNDARY] = (boundary.length > 0) ? 1.0 : 0.0;
+    }
+
+    public Element getRandomElement() {
+        Element e = null;
+        int kind = -1;
+        if (random.nextDouble() < ratio) {
+            kind = chooseKind();
+            e = edgeCase(kind);
+        }
+        if (e == null) {
+            kind = -1;
+            e = factory.getRandom();
+        }
+        recent[recentCount % RECENT] = e;
+        recentCount++;
+        boolean newClass = covered.add(coverageClass(e));
+        if (kind >= 0) {
+            if (newClass) {
+                weights[kind] = Math.min(weights[kind] * REWARD, MAX_WEIGHT);
+            } else {
+                weights[kind] = Math.max(weights[kind] * DECAY, MIN_WEIGHT);
+            }
+        }
+        return e;
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    private int chooseKind() {
+        double total = 0.0;
+        for (int i = 0; i < KINDS; i++) {
+            total = total + weights[i];
+        }
+        double x = random.nextDouble() * total;
+        for (int i = 0; i < KINDS; i++) {
+            x = x - weights[i];
+            if ((x < 0.0) && (weights[i] > 0.0)) {
+                return i;
+            }
+        }
+        return REPEAT;
+    }
+
+    /**
+     * Returns an edge case of the given kind, or <code>null</code> if there
+     * is none right now, for instance because nothing has been drawn yet or
+     * because the element to invert is zero.
+     */
+    private Element edgeCase(int kind) {
+        Element previous = null;
+        if (recentCount > 0) {
+            previous = recent[random.nextInt(Math.min(recentCount, RECENT))];
+        }
+        try {
+            switch (kind) {
+            case ZERO:
+                return ((CommutativeMonoidElementFactory) factory).getZero();
+            case ONE:
+                return ((CommutativeRingElementFactory) factory).getOne();
+            case NEGATIVE:
+                if (previous instanceof AbelianGroupElement) {
+                    return ((AbelianGroupElement) previous).negative();
+                }
+                return null;
+            case INVERSE:
+                if ((previous instanceof FieldElement) && !((FieldElement) previous).isZero()) {
+                    return ((FieldElement) previous).inverse();
+                }
+                return null;
+            case REPEAT:
+                return previous;
+            case BOUNDARY:
+                return boundary[random.nextInt(boundary.length)];
+            default:
+                return null;
+            }
+        } catch (RuntimeException e) {
+            // An edge case that cannot be formed is replaced by a random element.
+            return null;
+        }
+    }
+
+    private static int coverageClass(Element e) {
+        int c = 0;
+        if ((e instanceof CommutativeMonoidElement) && ((CommutativeMonoidElement) e).isZero()) {
+            c = 1;
+        } else if ((e instanceof CommutativeRingElement) && ((CommutativeRingElement) e).isOne()) {
+            c = 2;
+        }
+        String s = String.valueOf(e);
+        if (s.startsWith("-")) {
+            c = c | 4;
+        }
+        return c | ((32 - Integer.numberOfLeadingZeros(s.length())) << 3);
+    }
+
+    private static final int RECENT = 16;
+    private static final double REWARD = 1.5;
+    private static final double DECAY = 0.95;
+    private static final double MAX_WEIGHT = 8.0;
+    private static final double MIN_WEIGHT = 0.1;
+}
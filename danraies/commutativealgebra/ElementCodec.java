@@ -0,0 +1,45 @@
+package danraies.commutativealgebra;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Writes elements to a <code>ByteBuffer</code> and reads them back.  A
+ * factory implements this interface for the elements it creates, because
+ * it knows what an encoding leaves out: the modulus, the field or the
+ * curve that all of its elements share.  The static methods of
+ * {@link Codecs Codecs} provide the building blocks.
+ * </p>
+ * <p>
+ * Encodings are written at the position of the buffer and advance it, so
+ * that many elements can be written one after another and read back in the
+ * same order.  A factory that implements this interface has a round-trip
+ * check added to the tests of <code>testAxioms</code>.
+ * </p>
+ */
+public interface ElementCodec<E extends Element> {
+    /**
+     * Returns the number of bytes that <code>encode</code> writes.
+     *
+     * @param element Any element of this factory.
+     * @return The exact length of the encoding of <code>element</code>.
+     */
+    public abstract int encodedSize(E element);
+
+    /**
+     * Writes an element at the position of a buffer.
+     *
+     * @param element Any element of this factory.
+     * @param buffer A buffer with at least <code>encodedSize(element)</code>
+     *        bytes remaining.
+     */
+    public abstract void encode(E element, ByteBuffer buffer);
+
+    /**
+     * Reads an element written by <code>encode</code>.  A runtime exception
+     * is thrown if the bytes are not a valid encoding.
+     *
+     * @param buffer A buffer positioned at the start of an encoding.
+     * @return The element, which equals the one that was written.
+     */
+    public abstract E decode(ByteBuffer buffer);
+}
@@ -1,6 +1,10 @@
 package danraies.commutativealgebra;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>
@@ -33,8 +37,14 @@ import java.util.ArrayList;
  *     that class will perform the tests.  By default, output is sent to
  *     <code>System.out</code>.</dd>
  * </dl>
+ * <p>
+ * While the tests run, a factory also publishes their progress as a stream
+ * of {@link TestEvent TestEvent} objects, so that other programs can follow
+ * a run without reading the log.  The log itself is written by one of the
+ * subscribers of this stream.
+ * </p>
  */
-public abstract class ElementFactory {
+public abstract class ElementFactory implements Flow.Publisher<TestEvent> {
     //////////////////////////////////////////////////
     // Private Instance Variables
     //////////////////////////////////////////////////
@@ -43,10 +53,29 @@ public abstract class ElementFactory {
         all logs are written. */
     FactoryLogger log = new FactoryLogger();
 
+    /** The events of every run are published here; the log is subscribed
+        first, and receives them in the thread that runs the tests. */
+    TestEventPublisher events = new TestEventPublisher();
+
+    {
+        events.subscribe(log, TestEventPublisher.DIRECT, Integer.MAX_VALUE);
+    }
+
     /** This is the total number of element-wise tests that will be run when
         testing each individual axiom. */
     int totalTests = 100;
 
+    /** The share of random elements that are replaced by edge cases. */
+    private double edgeCaseRatio = 0.0;
+
+    /** The time, in milliseconds, that may be spent shrinking each
+        counterexample. */
+    private long shrinkTimeLimit = 1000L;
+
+    /** The time, in nanoseconds, that a single check may take, or zero for
+        no limit. */
+    private long checkDeadline = 0L;
+
     /** This list holds all of the tests that are going to be run. */
     private ArrayList<UnitTest> testsToRun = new ArrayList<UnitTest>();
     
@@ -84,23 +113,98 @@ public abstract class ElementFactory {
      * number of tests can increase confidence.
      */
     final public void testAxioms() {
+        startTests();
+        for (int i = 0; i < testsToRun.size(); i++) {
+            runTest(i);
+        }
+        finishTests();
+    }
+
+    /**
+     * The three steps of <code>testAxioms</code>, which an
+     * <code>AxiomTestSuite</code> performs one test at a time.  Starting
+     * discards the tests of any previous run, so a factory can be tested
+     * more than once.
+     */
+    final void startTests() {
+        buildTests();
+        events.runStarted();
+    }
+
+    /**
+     * Replaces the tests of any previous run by a fresh list.  A factory that
+     * is also an <code>ElementCodec</code> has its encoding checked as well.
+     */
+    @SuppressWarnings("unchecked")
+    final void buildTests() {
+        testsToRun.clear();
         addAllTests();
-        log.announceStart();
-        ElementRandomizer r = new ElementRandomizer() {
+        if (this instanceof ElementCodec) {
+            addTestToRun(new AxiomTestEncodingRoundTrip((ElementCodec<Element>) this,
+                                                        totalTests, events));
+        }
+    }
+
+    final void runTest(int index) {
+        UnitTest test = testsToRun.get(index);
+        if (test instanceof AxiomTest) {
+            ((AxiomTest) test).setShrinker(newShrinker());
+            ((AxiomTest) test).setCheckDeadline(checkDeadline);
+            ((AxiomTest) test).setOperandSize(
+                (this instanceof OperandSize) ? (OperandSize) this : null);
+        }
+        FlightRecorderEvents.AxiomRun event = FlightRecorderEvents.beginAxiomRun();
+        test.run(newRandomizer());
+        FlightRecorderEvents.endAxiomRun(event, this, test);
+    }
+
+    /**
+     * Returns the source of elements for one test: <code>getRandom</code>
+     * itself, or a mix of it and edge cases if an edge case ratio is set.
+     */
+    final ElementRandomizer newRandomizer() {
+        if (edgeCaseRatio > 0.0) {
+            return new EdgeCaseRandomizer(this, edgeCaseRatio, new Random());
+        }
+        return new ElementRandomizer() {
                 @Override
                 public Element getRandomElement() {
                     return getRandom();
                 }
             };
-        for (int i = 0; i < testsToRun.size(); i++) {
-            testsToRun.get(i).run(r);
-        }
-        
-        log.announceEnd();
-        for (int i = 0; i < testsToRun.size(); i++) {
-            testsToRun.get(i).logResultSummary();
+    }
+
+    /**
+     * Returns the search for smaller counterexamples, or <code>null</code>
+     * if it is turned off.
+     */
+    final CounterExampleShrinker newShrinker() {
+        if (shrinkTimeLimit <= 0L) {
+            return null;
         }
-        log.close();
+        return new CounterExampleShrinker(this, shrinkTimeLimit,
+                                          Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns the share of elements replaced by edge cases.  Those are
+     * drawn by a generator of their own, so a run with edge cases is not
+     * reproduced by <code>setSeed</code>.
+     */
+    final double getEdgeCaseRatio() {
+        return edgeCaseRatio;
+    }
+
+    final void finishTests() {
+        events.runFinished();
+    }
+
+    /**
+     * Returns the tests of the current run, in the order in which they are
+     * run.
+     */
+    final ArrayList<UnitTest> getTestsToRun() {
+        return testsToRun;
     }
 
     /**
@@ -156,10 +260,214 @@ public abstract class ElementFactory {
         this.totalTests = totalTests;
     }
 
+    /**
+     * Makes the tests use edge cases as well as random elements.  Of the
+     * elements that the tests use, this share is replaced by zero, one, the
+     * negative or the inverse of a recent element, a recent element again,
+     * or one of the elements of <code>getBoundaryElements</code>.  The kinds
+     * of edge case that reach new kinds of element are chosen more often as
+     * a test goes on.  By default the ratio is zero and every element comes
+     * from <code>getRandom</code>.
+     *
+     * @param edgeCaseRatio A number between zero and one; a ratio of about
+     *        a quarter finds most arithmetic bugs in a few hundred checks.
+     */
+    final public void setEdgeCaseRatio(double edgeCaseRatio) {
+        if (!((edgeCaseRatio >= 0.0) && (edgeCaseRatio <= 1.0))) {
+            throw new RuntimeException(EDGE_CASE_RATIO_MESSAGE);
+        }
+        this.edgeCaseRatio = edgeCaseRatio;
+    }
+
+    /**
+     * Returns elements that lie where the arithmetic of this structure is
+     * most likely to break, such as the largest values that fit in a
+     * primitive type.  They are used as edge cases when an edge case ratio
+     * is set.  A factory should override this method if its elements have
+     * such boundaries; by default there are none.
+     *
+     * @return Some elements of this structure, possibly none.
+     */
+    public Element[] getBoundaryElements() {
+        return new Element[0];
+    }
+
+    /**
+     * Sets how long the search for a smaller counterexample may take after
+     * an axiom has failed.  The search replaces one element at a time by one
+     * of the elements that <code>shrink</code> proposes, as long as the
+     * axiom still fails, and both counterexamples are logged.  The default
+     * is one second.
+     *
+     * @param milliseconds The time for each failed axiom; zero turns the
+     *        search off.
+     */
+    final public void setShrinkTimeLimit(long milliseconds) {
+        if (milliseconds < 0L) {
+            throw new RuntimeException(SHRINK_TIME_LIMIT_MESSAGE);
+        }
+        this.shrinkTimeLimit = milliseconds;
+    }
+
+    /**
+     * Sets a deadline for every single check.  A check that takes longer
+     * is abandoned and fails the test, and its elements are reported as the
+     * counterexample, so that one pathological set of elements cannot
+     * stall a run.  Enforcing the deadline costs a few microseconds per
+     * check.  By default there is no deadline.
+     *
+     * @param milliseconds The time one check may take; zero removes the
+     *        deadline.
+     */
+    final public void setCheckDeadline(long milliseconds) {
+        if (milliseconds < 0L) {
+            throw new RuntimeException(CHECK_DEADLINE_MESSAGE);
+        }
+        this.checkDeadline = TimeUnit.MILLISECONDS.toNanos(milliseconds);
+    }
+
+    /**
+     * Decides whether the log shows, for every axiom, how long its checks
+     * took and which elements made the slowest checks.  The times are
+     * always measured and published with the events; by default they are
+     * not logged, so that the log of a seeded run is always the same.
+     *
+     * @param reportLatencies <code>true</code> to log the times.
+     */
+    final public void shouldReportLatencies(boolean reportLatencies) {
+        log.shouldShowLatencies(reportLatencies);
+    }
+
+    /**
+     * Proposes elements that are smaller than the given one, for instance
+     * by being closer to zero or by having fewer digits or terms, so that a
+     * counterexample can be made easier to read.  The most drastic
+     * proposals should come first, such as zero itself.  Every proposal
+     * must be strictly smaller in some measure that cannot decrease forever,
+     * or the search only ends when its time is up.  A factory should
+     * override this method if its elements can be simplified; by default
+     * there are no proposals and counterexamples are reported as found.
+     *
+     * @param e An element of this structure.
+     * @return Some smaller elements, possibly none.
+     */
+    public Element[] shrink(Element e) {
+        return new Element[0];
+    }
+
+    /**
+     * Proposes smaller integers for implementations of <code>shrink</code>:
+     * zero, then <code>value - value/2</code>, <code>value - value/4</code>
+     * and so on down to a step of one.  Taking the first proposal that still
+     * fails halves the distance to the smallest failing value in every round,
+     * so that this value is reached in a number of rounds that is
+     * logarithmic, not linear, in the size of <code>value</code>.
+     *
+     * @param value Any <code>long</code> integer.
+     * @return Integers closer to zero than <code>value</code>, the closest
+     *         last, or none if <code>value</code> is zero.
+     */
+    public static long[] shrinkTowardZero(long value) {
+        if (value == 0L) {
+            return new long[0];
+        }
+        int count = 1;
+        for (long step = value / 2L; step != 0L; step = step / 2L) {
+            count++;
+        }
+        long[] smaller = new long[count];
+        int i = 1;
+        for (long step = value / 2L; step != 0L; step = step / 2L) {
+            smaller[i] = value - step;
+            i++;
+        }
+        return smaller;
+    }
+
+    /**
+     * Restarts the random choices of <code>getRandom</code> from a seed, so
+     * that a factory given the same seed produces the same elements again.
+     * A factory whose elements come from a <code>java.util.Random</code>
+     * should override this method and seed it; the default throws a runtime
+     * exception.  Seeds are what an <code>AxiomTestCoordinator</code> uses
+     * to hand out checks to other processes and to reproduce a
+     * counterexample.
+     *
+     * @param seed Any <code>long</code> integer.
+     */
+    public void setSeed(long seed) {
+        throw new RuntimeException(NOT_SEEDABLE_MESSAGE);
+    }
+
+    /**
+     * Subscribes to the events of this factory's runs.  The subscriber is
+     * given its events on the common pool, from a buffer of two hundred and
+     * fifty-six events; see {@link #subscribe(Flow.Subscriber, Executor, int)
+     * subscribe} for what happens when it falls behind.
+     *
+     * @param subscriber Any subscriber.
+     */
+    public void subscribe(Flow.Subscriber<? super TestEvent> subscriber) {
+        events.subscribe(subscriber);
+    }
+
+    /**
+     * Subscribes to the events of this factory's runs.  The tests never wait
+     * for a subscriber.  When its buffer is full, consecutive batches of
+     * checks are merged, and the elements of the merged checks are dropped;
+     * the events that start and finish runs and axioms, and counterexamples,
+     * are always delivered.  The stream never completes, since a factory
+     * can be tested again; each run ends with a <code>RUN_FINISHED</code>
+     * event.
+     *
+     * @param subscriber Any subscriber.
+     * @param executor The executor on which the subscriber is called, never
+     *        by more than one thread at a time.
+     * @param bufferCapacity The number of events that may wait for the
+     *        subscriber before batches are merged.
+     */
+    final public void subscribe(Flow.Subscriber<? super TestEvent> subscriber,
+                                Executor executor,
+                                int bufferCapacity) {
+        events.subscribe(subscriber, executor, bufferCapacity);
+    }
+
+    /**
+     * Writes the results of every later run to a file as records, in
+     * addition to the log.  The sink receives every event in the thread
+     * that runs the tests, so no check is merged away; for long runs the log
+     * can be silenced with <code>shouldIncludeVerboseOutput(false)</code>.
+     * The sink is not closed by the factory.
+     *
+     * @param sink A sink that is not yet attached to any factory.
+     */
+    final public void addResultSink(ResultSink sink) {
+        events.subscribe(sink, TestEventPublisher.DIRECT, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Sets how many checks are reported in one <code>CHECKS_COMPLETED</code>
+     * event.  The default is sixty-four.
+     *
+     * @param batchSize A positive number of checks.
+     */
+    final public void setEventBatchSize(int batchSize) {
+        events.setBatchSize(batchSize);
+    }
+
     final public void exampleTest() {
         shouldIncludeVerboseOutput(true);
         setLog(System.out);
         setTotalNumberOfTests(10);
         testAxioms();
     }
+
+    private static String NOT_SEEDABLE_MESSAGE
+        = "This factory cannot be seeded.";
+    private static String EDGE_CASE_RATIO_MESSAGE
+        = "The edge case ratio must lie between zero and one.";
+    private static String SHRINK_TIME_LIMIT_MESSAGE
+        = "The shrink time limit cannot be negative.";
+    private static String CHECK_DEADLINE_MESSAGE
+        = "The check deadline cannot be negative.";
 }
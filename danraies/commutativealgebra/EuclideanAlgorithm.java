@@ -0,0 +1,83 @@
+package danraies.commutativealgebra;
+
+/**
+ * Greatest common divisors in a Euclidean domain, computed by repeated
+ * division with remainder.  A greatest common divisor is only determined up
+ * to a unit; the one returned here is whatever the domain's own
+ * <code>divideWithRemainder</code> leads to.  Elements that implement
+ * {@link FastGcdElement FastGcdElement} compute their own greatest common
+ * divisors instead, and those may differ from the ones repeated division
+ * would give by a unit.
+ */
+public final class EuclideanAlgorithm {
+    private EuclideanAlgorithm() {
+    }
+
+    /**
+     * Computes a greatest common divisor.
+     *
+     * @param a Any element of a Euclidean domain.
+     * @param b Any element of the same domain.
+     * @return A greatest common divisor of <code>a</code> and
+     *         <code>b</code>, which is zero only if both are zero.
+     */
+    public static EuclideanDomainElement gcd(EuclideanDomainElement a, EuclideanDomainElement b) {
+        if (a instanceof FastGcdElement) {
+            return ((FastGcdElement) a).gcd(b);
+        }
+        while (!b.isZero()) {
+            EuclideanDomainElement remainder = a.divideWithRemainder(b)[1];
+            a = b;
+            b = remainder;
+        }
+        return a;
+    }
+
+    /**
+     * Computes a greatest common divisor together with the coefficients of
+     * B&eacute;zout's identity.  Besides the remainders, the loop keeps the
+     * combinations of <code>a</code> and <code>b</code> that they are equal
+     * to.
+     *
+     * @param ring The factory describing the domain, which supplies the
+     *        initial zero and one.
+     * @param a Any element of the domain.
+     * @param b Any element of the same domain.
+     * @return An array <code>{g, s, t}</code> where <code>g</code> is a
+     *         greatest common divisor of <code>a</code> and <code>b</code>
+     *         and <code>s * a + t * b = g</code>.
+     */
+    public static EuclideanDomainElement[] extendedGcd(CommutativeRingElementFactory ring,
+                                                       EuclideanDomainElement a,
+                                                       EuclideanDomainElement b) {
+        if (a instanceof FastGcdElement) {
+            return ((FastGcdElement) a).extendedGcd(b);
+        }
+        EuclideanDomainElement oldR = a;
+        EuclideanDomainElement r = b;
+        EuclideanDomainElement oldS = (EuclideanDomainElement) ring.getOne();
+        EuclideanDomainElement s = (EuclideanDomainElement) ring.getZero();
+        EuclideanDomainElement oldT = (EuclideanDomainElement) ring.getZero();
+        EuclideanDomainElement t = (EuclideanDomainElement) ring.getOne();
+        while (!r.isZero()) {
+            EuclideanDomainElement[] qr = oldR.divideWithRemainder(r);
+            oldR = r;
+            r = qr[1];
+            EuclideanDomainElement temp = s;
+            s = subtractMultiple(oldS, qr[0], s);
+            oldS = temp;
+            temp = t;
+            t = subtractMultiple(oldT, qr[0], t);
+            oldT = temp;
+        }
+        EuclideanDomainElement[] bezout = {oldR, oldS, oldT};
+        return bezout;
+    }
+
+    /** Returns <code>a - q * b</code>. */
+    private static EuclideanDomainElement subtractMultiple(EuclideanDomainElement a,
+                                                           EuclideanDomainElement q,
+                                                           EuclideanDomainElement b) {
+        return (EuclideanDomainElement) a.addTo(q.multiplyBy(b).negative());
+    }
+}
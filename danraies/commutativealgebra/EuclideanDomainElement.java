@@ -0,0 +1,77 @@
+package danraies.commutativealgebra;
+import java.math.BigInteger;
+
+/**
+ * <p>
+ * Implement a <code>EuclideanDomainElement</code> when you want to model a
+ * Euclidean domain, that is, a commutative ring without zero divisors which
+ * admits a division algorithm.  Instances of this interface are meant to be
+ * elements of such a ring.  If <code>EElement</code> implements
+ * <code>EuclideanDomainElement</code> then instances of <code>EElement</code>
+ * are meant to satisfy all of the axioms of a
+ * <code>CommutativeRingElement</code> as well as the following:
+ * </p>
+ * <dl>
+ * <dt>No Zero Divisors</dt>
+ * <dd>If <code>m1</code> and <code>m2</code> are both instances of
+ *     <code>EElement</code> and <code>m1.multiplyBy(m2).isZero()</code>
+ *     returns <code>true</code> then either <code>m1.isZero()</code> or
+ *     <code>m2.isZero()</code> returns <code>true</code>.</dd>
+ * <dt>Division Algorithm</dt>
+ * <dd>If <code>a</code> and <code>b</code> are both instances of
+ *     <code>EElement</code>, if <code>b.isZero()</code> returns
+ *     <code>false</code> and if <code>qr = a.divideWithRemainder(b)</code>
+ *     then <code>qr[0].multiplyBy(b).addTo(qr[1]).equals(a)</code> returns
+ *     <code>true</code> and either <code>qr[1].isZero()</code> returns
+ *     <code>true</code> or <code>qr[1].euclideanNorm()</code> is less than
+ *     <code>b.euclideanNorm()</code>.</dd>
+ * </dl>
+ * <p>
+ * The division algorithm is all that the fraction-free algorithms in this
+ * package need: exact quotients are quotients with a zero remainder and
+ * greatest common divisors come from repeated division, as in
+ * {@link EuclideanAlgorithm EuclideanAlgorithm}.  A domain with a faster
+ * way to find greatest common divisors can also implement
+ * {@link FastGcdElement FastGcdElement}.
+ * </p>
+ * <p>
+ * The interface doesn't have a way to check that these methods are coded correctly;
+ * it is the programmers job to ensure that they satisfy the axioms.
+ * </p>
+ */
+public interface EuclideanDomainElement extends CommutativeRingElement {
+    /**
+     * Euclidean domains are required to have a division algorithm.  This
+     * method implements it.  Implementations should throw a
+     * <code>RuntimeException</code> when <code>divisor</code> is zero.
+     *
+     * @param divisor Any other non-zero instance of
+     *        <code>EuclideanDomainElement</code>.
+     * @return An array of length two holding the quotient in position zero
+     *         and the remainder in position one.
+     */
+    public EuclideanDomainElement[] divideWithRemainder(EuclideanDomainElement divisor);
+
+    /**
+     * Returns the value of the domain's Euclidean function, which the
+     * remainders of the division algorithm make smaller: the absolute value
+     * of an integer or the degree of a polynomial, for example.
+     *
+     * @return A non-negative integer if this element is non-zero.  The
+     *         value at zero is never compared.
+     */
+    public BigInteger euclideanNorm();
+
+    /**
+     * Returns the unit which separates this element from its canonical
+     * associate, so that dividing by it gives the associate that normal
+     * forms use: the sign of an integer or the leading coefficient of a
+     * polynomial, for example.  Two associates must have the same
+     * canonical associate.
+     *
+     * @return A unit <code>u</code> such that this element is
+     *         <code>u</code> times its canonical associate, if this element
+     *         is non-zero.  The value at zero is never used.
+     */
+    public EuclideanDomainElement unitPart();
+}
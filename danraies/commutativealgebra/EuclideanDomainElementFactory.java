@@ -0,0 +1,20 @@
+package danraies.commutativealgebra;
+
+public abstract class EuclideanDomainElementFactory extends CommutativeRingElementFactory {
+    public abstract EuclideanDomainElement getRandom();
+    public abstract EuclideanDomainElement getZero();
+    public abstract EuclideanDomainElement getOne();
+
+    void addAllTests() {
+        addCommutativeMonoidTestsToRun();
+        addAbelianGroupTestsToRun();
+        addCommutativeRingTestsToRun();
+        addEuclideanDomainTestsToRun();
+    }
+
+    final void addEuclideanDomainTestsToRun() {
+        addTestToRun(new AxiomTestNoZeroDivisors(totalTests, events));
+        addTestToRun(new AxiomTestDivisionAlgorithm(totalTests, events));
+        addTestToRun(new AxiomTestBezoutIdentity(this, totalTests, events));
+    }
+}
@@ -0,0 +1,513 @@
+package danraies.commutativealgebra;
+import java.math.BigInteger;
+
+/**
+ * <p>
+ * Powers and multiples with large exponents.  Computing <code>x^n</code>
+ * by calling <code>multiplyBy</code> <code>n - 1</code> times is hopeless
+ * once <code>n</code> has more than a few digits; the methods of this class
+ * need about <code>log2(n)</code> squarings and far fewer other
+ * multiplications.
+ * </p>
+ * <dl>
+ * <dt>{@link #power(CommutativeRingElementFactory, CommutativeRingElement, BigInteger) power}</dt>
+ * <dd>Left-to-right square-and-multiply for short exponents and the
+ *     sliding-window method for long ones, which precomputes the odd powers
+ *     <code>x, x^3, ..., x^(2^w - 1)</code> and then needs only one
+ *     multiplication per window of <code>w</code> bits.</dd>
+ * <dt>{@link #multiPower(CommutativeRingElementFactory, CommutativeRingElement[], BigInteger[]) multiPower}</dt>
+ * <dd>Products <code>x_1^n_1 x_2^n_2 ... x_k^n_k</code>.  For a few bases
+ *     Straus' method shares the squarings between all of them; for many
+ *     bases Pippenger's bucket method needs only about
+ *     <code>k log2(n) / log2(k)</code> multiplications in total.</dd>
+ * <dt>{@link #multiple(CommutativeMonoidElementFactory, CommutativeMonoidElement, BigInteger) multiple}
+ *     and {@link #linearCombination(CommutativeMonoidElementFactory, CommutativeMonoidElement[], BigInteger[]) linearCombination}</dt>
+ * <dd>The same algorithms written additively, with doubling in place of
+ *     squaring.  For an <code>AbelianGroupElement</code> negation is
+ *     assumed to be cheap and single multiples use signed digits (the
+ *     width-w non-adjacent form), which saves about a third of the
+ *     additions.</dd>
+ * </dl>
+ * <p>
+ * When the same exponent is used with many bases, an
+ * {@link AdditionChain AdditionChain} for it can be computed once and
+ * reused.  The monoid or ring is passed as a factory only to supply the
+ * identity for a zero exponent.  Negative exponents are allowed for
+ * <code>FieldElement</code> bases and negative multiples for
+ * <code>AbelianGroupElement</code> ones.
+ * </p>
+ */
+public final class Exponentiation {
+    /** Above this many bases <code>multiPower</code> uses Pippenger's method. */
+    private static int PIPPENGER_THRESHOLD = 32;
+
+    private Exponentiation() {
+    }
+
+    //////////////////////////////////////////////////
+    // Public Methods
+    //////////////////////////////////////////////////
+
+    public static CommutativeRingElement power(CommutativeRingElementFactory ring,
+                                               CommutativeRingElement x, long n) {
+        return power(ring, x, BigInteger.valueOf(n));
+    }
+
+    /**
+     * Raises an element to a power.
+     *
+     * @param ring The factory describing the ring that <code>x</code>
+     *        belongs to.
+     * @param x Any element of the ring.
+     * @param n Any non-negative integer, or any integer if <code>x</code> is
+     *        a <code>FieldElement</code>.
+     * @return The power <code>x^n</code>.
+     */
+    public static CommutativeRingElement power(CommutativeRingElementFactory ring,
+                                               CommutativeRingElement x, BigInteger n) {
+        if (n.signum() == 0) {
+            return ring.getOne();
+        }
+        if (n.signum() < 0) {
+            return power(ring, invert(x), n.negate());
+        }
+        return (CommutativeRingElement) slidingWindow(MULTIPLICATION, x, n);
+    }
+
+    /**
+     * Computes a product of powers.
+     *
+     * @param ring The factory describing the ring that the bases belong to.
+     * @param bases Any elements of the ring.
+     * @param exponents One exponent for each base, with the same
+     *        restrictions as in {@link #power(CommutativeRingElementFactory,
+     *        CommutativeRingElement, BigInteger) power}.
+     * @return The product of <code>bases[i]^exponents[i]</code>.
+     */
+    public static CommutativeRingElement multiPower(CommutativeRingElementFactory ring,
+                                                    CommutativeRingElement[] bases,
+                                                    BigInteger[] exponents) {
+        checkLengths(bases, exponents);
+        Element[] positiveBases = new Element[bases.length];
+        BigInteger[] positiveExponents = new BigInteger[bases.length];
+        for (int i = 0; i < bases.length; i++) {
+            positiveBases[i] = bases[i];
+            positiveExponents[i] = exponents[i].abs();
+        }
+        invertNegatives(positiveBases, exponents);
+        Element product = multiExponentiate(MULTIPLICATION, positiveBases, positiveExponents);
+        return (product == null) ? ring.getOne() : (CommutativeRingElement) product;
+    }
+
+    public static CommutativeMonoidElement multiple(CommutativeMonoidElementFactory monoid,
+                                                    CommutativeMonoidElement x, long n) {
+        return multiple(monoid, x, BigInteger.valueOf(n));
+    }
+
+    /**
+     * Computes an integer multiple <code>n x = x + x + ... + x</code> by
+     * doubling.
+     *
+     * @param monoid The factory describing the monoid that <code>x</code>
+     *        belongs to.
+     * @param x Any element of the monoid.
+     * @param n Any non-negative integer, or any integer if <code>x</code> is
+     *        an <code>AbelianGroupElement</code>.
+     * @return The multiple <code>n x</code>.
+     */
+    public static CommutativeMonoidElement multiple(CommutativeMonoidElementFactory monoid,
+                                                    CommutativeMonoidElement x, BigInteger n) {
+        if (n.signum() == 0) {
+            return monoid.getZero();
+        }
+        if (x instanceof AbelianGroupElement) {
+            return (CommutativeMonoidElement) signedWindow(ADDITION, x, n);
+        }
+        if (n.signum() < 0) {
+            throw new RuntimeException(NEGATIVE_MULTIPLE_MESSAGE);
+        }
+        return (CommutativeMonoidElement) slidingWindow(ADDITION, x, n);
+    }
+
+    /**
+     * Computes a sum of multiples.
+     *
+     * @param monoid The factory describing the monoid that the elements
+     *        belong to.
+     * @param elements Any elements of the monoid.
+     * @param coefficients One coefficient for each element, with the same
+     *        restrictions as in {@link #multiple(CommutativeMonoidElementFactory,
+     *        CommutativeMonoidElement, BigInteger) multiple}.
+     * @return The sum of <code>coefficients[i] elements[i]</code>.
+     */
+    public static CommutativeMonoidElement linearCombination(CommutativeMonoidElementFactory monoid,
+                                                             CommutativeMonoidElement[] elements,
+                                                             BigInteger[] coefficients) {
+        checkLengths(elements, coefficients);
+        Element[] positiveElements = new Element[elements.length];
+        BigInteger[] positiveCoefficients = new BigInteger[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            positiveElements[i] = elements[i];
+            positiveCoefficients[i] = coefficients[i].abs();
+            if (coefficients[i].signum() < 0) {
+                positiveElements[i] = negate(elements[i]);
+            }
+        }
+        Element sum = multiExponentiate(ADDITION, positiveElements, positiveCoefficients);
+        return (sum == null) ? monoid.getZero() : (CommutativeMonoidElement) sum;
+    }
+
+    /**
+     * Writes a positive integer in width-w non-adjacent form, as a sum of
+     * <code>d_i 2^i</code> where every non-zero digit is odd, less than
+     * <code>2^(w-1)</code> in absolute value and followed by at least
+     * <code>w - 1</code> zero digits.  Only the odd multiples up to
+     * <code>2^(w-1) - 1</code> are then needed to compute a multiple, and
+     * on average only one in <code>w + 1</code> digits is non-zero.
+     *
+     * @param n Any positive integer.
+     * @param width The width <code>w</code>, at least two.
+     * @return The digits, least significant first.
+     */
+    public static int[] nonAdjacentForm(BigInteger n, int width) {
+        int[] digits = new int[n.bitLength() + 1];
+        int modulus = 1 << width;
+        int length = 0;
+        while (n.signum() > 0) {
+            int digit = 0;
+            if (n.testBit(0)) {
+                digit = n.intValue() & (modulus - 1);
+                if (digit >= modulus / 2) {
+                    digit = digit - modulus;
+                }
+                n = n.subtract(BigInteger.valueOf(digit));
+            }
+            digits[length] = digit;
+            length++;
+            n = n.shiftRight(1);
+        }
+        int[] trimmed = new int[length];
+        System.arraycopy(digits, 0, trimmed, 0, length);
+        return trimmed;
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * A commutative and associative operation, written as a method so that
+     * every algorithm in this class can be used both multiplicatively and
+     * additively.
+     */
+    static abstract class Operation {
+        abstract Element combine(Element a, Element b);
+
+        Element twice(Element a) {
+            return combine(a, a);
+        }
+    }
+
+    static final Operation MULTIPLICATION = new Operation() {
+            @Override
+            Element combine(Element a, Element b) {
+                return ((CommutativeRingElement) a).multiplyBy((CommutativeRingElement) b);
+            }
+        };
+
+    static final Operation ADDITION = new Operation() {
+            @Override
+            Element combine(Element a, Element b) {
+                return ((CommutativeMonoidElement) a).addTo((CommutativeMonoidElement) b);
+            }
+        };
+
+    /**
+     * Writes a positive integer as a sum of <code>d_j 2^j</code> where every
+     * non-zero digit is odd and less than <code>2^width</code>, and any two
+     * non-zero digits are at least <code>width</code> positions apart.  This
+     * is the recoding behind the sliding-window method.
+     *
+     * @return The digits, indexed by position.
+     */
+    static int[] slidingWindowDigits(BigInteger n, int width) {
+        int[] digits = new int[n.bitLength()];
+        int i = n.bitLength() - 1;
+        while (i >= 0) {
+            if (!n.testBit(i)) {
+                i--;
+                continue;
+            }
+            int j = Math.max(i - width + 1, 0);
+            while (!n.testBit(j)) {
+                j++;
+            }
+            int value = 0;
+            for (int k = i; k >= j; k--) {
+                value = 2 * value + (n.testBit(k) ? 1 : 0);
+            }
+            digits[j] = value;
+            i = j - 1;
+        }
+        return digits;
+    }
+
+    /** A window width that suits an exponent with the given number of bits. */
+    static int windowWidth(int bits) {
+        if (bits <= 8) {
+            return 1;
+        } else if (bits <= 64) {
+            return 3;
+        } else if (bits <= 240) {
+            return 4;
+        } else if (bits <= 672) {
+            return 5;
+        }
+        return 6;
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /** Computes <code>n x</code> for <code>n &gt; 0</code>. */
+    private static Element slidingWindow(Operation op, Element x, BigInteger n) {
+        Element[] bases = {x};
+        BigInteger[] exponents = {n};
+        return straus(op, bases, exponents);
+    }
+
+    /**
+     * Computes <code>n x</code> for a group element and any non-zero
+     * <code>n</code>, using digits of either sign.
+     */
+    private static Element signedWindow(Operation op, Element x, BigInteger n) {
+        if (n.signum() < 0) {
+            return signedWindow(op, negate(x), n.negate());
+        }
+        int width = windowWidth(n.bitLength()) + 1;
+        int[] digits = nonAdjacentForm(n, width);
+        Element[] oddMultiples = oddMultiples(op, x, 1 << (width - 2));
+        Element[] negatives = new Element[oddMultiples.length];
+        Element result = null;
+        for (int i = digits.length - 1; i >= 0; i--) {
+            if (result != null) {
+                result = op.twice(result);
+            }
+            int digit = digits[i];
+            if (digit == 0) {
+                continue;
+            }
+            Element term;
+            if (digit > 0) {
+                term = oddMultiples[digit / 2];
+            } else {
+                if (negatives[-digit / 2] == null) {
+                    negatives[-digit / 2] = negate(oddMultiples[-digit / 2]);
+                }
+                term = negatives[-digit / 2];
+            }
+            result = (result == null) ? term : op.combine(result, term);
+        }
+        return result;
+    }
+
+    /**
+     * Chooses between Straus' and Pippenger's methods.  Exponents must be
+     * non-negative; the result is <code>null</code> if all of them are zero.
+     */
+    private static Element multiExponentiate(Operation op, Element[] bases, BigInteger[] exponents) {
+        int count = 0;
+        for (int i = 0; i < exponents.length; i++) {
+            if (exponents[i].signum() != 0) {
+                count++;
+            }
+        }
+        Element[] nonZeroBases = new Element[count];
+        BigInteger[] nonZeroExponents = new BigInteger[count];
+        count = 0;
+        for (int i = 0; i < exponents.length; i++) {
+            if (exponents[i].signum() != 0) {
+                nonZeroBases[count] = bases[i];
+                nonZeroExponents[count] = exponents[i];
+                count++;
+            }
+        }
+        if (count == 0) {
+            return null;
+        } else if (count <= PIPPENGER_THRESHOLD) {
+            return straus(op, nonZeroBases, nonZeroExponents);
+        }
+        return pippenger(op, nonZeroBases, nonZeroExponents);
+    }
+
+    /**
+     * Straus' method with a sliding window for every base: the doublings
+     * are shared, and each base contributes one table entry per window.
+     * The exponents must be positive.
+     */
+    private static Element straus(Operation op, Element[] bases, BigInteger[] exponents) {
+        int maxBits = 0;
+        for (int i = 0; i < exponents.length; i++) {
+            maxBits = Math.max(maxBits, exponents[i].bitLength());
+        }
+        int[][] digits = new int[bases.length][];
+        Element[][] tables = new Element[bases.length][];
+        for (int i = 0; i < bases.length; i++) {
+            int width = windowWidth(exponents[i].bitLength());
+            digits[i] = slidingWindowDigits(exponents[i], width);
+            tables[i] = oddMultiples(op, bases[i], 1 << (width - 1));
+        }
+        Element result = null;
+        for (int bit = maxBits - 1; bit >= 0; bit--) {
+            if (result != null) {
+                result = op.twice(result);
+            }
+            for (int i = 0; i < bases.length; i++) {
+                if ((bit < digits[i].length) && (digits[i][bit] != 0)) {
+                    Element term = tables[i][digits[i][bit] / 2];
+                    result = (result == null) ? term : op.combine(result, term);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Pippenger's bucket method.  The exponents are cut into windows of
+     * <code>c</code> bits; in each window every base is added to the bucket
+     * of its digit, and the weighted sum of the buckets is formed with
+     * running sums.  The exponents must be positive.
+     */
+    private static Element pippenger(Operation op, Element[] bases, BigInteger[] exponents) {
+        int maxBits = 0;
+        for (int i = 0; i < exponents.length; i++) {
+            maxBits = Math.max(maxBits, exponents[i].bitLength());
+        }
+        int c = Math.max(1, 31 - Integer.numberOfLeadingZeros(bases.length) - 2);
+        c = Math.min(c, 16);
+        int windows = (maxBits + c - 1) / c;
+        Element result = null;
+        for (int w = windows - 1; w >= 0; w--) {
+            if (result != null) {
+                for (int k = 0; k < c; k++) {
+                    result = op.twice(result);
+                }
+            }
+            Element[] buckets = new Element[1 << c];
+            for (int i = 0; i < bases.length; i++) {
+                int digit = window(exponents[i], w * c, c);
+                if (digit != 0) {
+                    buckets[digit] = (buckets[digit] == null)
+                        ? bases[i] : op.combine(buckets[digit], bases[i]);
+                }
+            }
+            // sum of d * buckets[d] = sum over d of (buckets[d] + ... + buckets[top]).
+            Element running = null;
+            Element windowSum = null;
+            for (int d = buckets.length - 1; d > 0; d--) {
+                if (buckets[d] != null) {
+                    running = (running == null) ? buckets[d] : op.combine(running, buckets[d]);
+                }
+                if (running != null) {
+                    windowSum = (windowSum == null) ? running : op.combine(windowSum, running);
+                }
+            }
+            if (windowSum != null) {
+                result = (result == null) ? windowSum : op.combine(result, windowSum);
+            }
+        }
+        return result;
+    }
+
+    /** Returns the odd multiples <code>x, 3x, ..., (2 count - 1) x</code>. */
+    private static Element[] oddMultiples(Operation op, Element x, int count) {
+        Element[] table = new Element[count];
+        table[0] = x;
+        if (count > 1) {
+            Element doubled = op.twice(x);
+            for (int i = 1; i < count; i++) {
+                table[i] = op.combine(table[i - 1], doubled);
+            }
+        }
+        return table;
+    }
+
+    /** The integer formed by <code>length</code> bits of n starting at a position. */
+    private static int window(BigInteger n, int start, int length) {
+        int value = 0;
+        for (int k = length - 1; k >= 0; k--) {
+            value = 2 * value + (n.testBit(start + k) ? 1 : 0);
+        }
+        return value;
+    }
+
+    /** Replaces bases with negative exponents by their inverses, all at once. */
+    private static void invertNegatives(Element[] bases, BigInteger[] exponents) {
+        int count = 0;
+        for (int i = 0; i < exponents.length; i++) {
+            if (exponents[i].signum() < 0) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        FieldElement[] toInvert = new FieldElement[count];
+        count = 0;
+        for (int i = 0; i < exponents.length; i++) {
+            if (exponents[i].signum() < 0) {
+                toInvert[count] = asFieldElement(bases[i]);
+                if (toInvert[count].isZero()) {
+                    throw new RuntimeException(NOT_INVERTIBLE_MESSAGE);
+                }
+                count++;
+            }
+        }
+        FieldElement[] inverses = BatchInversion.inverse(toInvert);
+        count = 0;
+        for (int i = 0; i < exponents.length; i++) {
+            if (exponents[i].signum() < 0) {
+                bases[i] = inverses[count];
+                count++;
+            }
+        }
+    }
+
+    private static FieldElement invert(CommutativeRingElement x) {
+        FieldElement f = asFieldElement(x);
+        if (f.isZero()) {
+            throw new RuntimeException(NOT_INVERTIBLE_MESSAGE);
+        }
+        return f.inverse();
+    }
+
+    private static FieldElement asFieldElement(Element x) {
+        if (!(x instanceof FieldElement)) {
+            throw new RuntimeException(NEGATIVE_EXPONENT_MESSAGE);
+        }
+        return (FieldElement) x;
+    }
+
+    private static Element negate(Element x) {
+        if (!(x instanceof AbelianGroupElement)) {
+            throw new RuntimeException(NEGATIVE_MULTIPLE_MESSAGE);
+        }
+        return ((AbelianGroupElement) x).negative();
+    }
+
+    private static void checkLengths(Element[] elements, BigInteger[] exponents) {
+        if (elements.length != exponents.length) {
+            throw new RuntimeException(LENGTH_MISMATCH_MESSAGE);
+        }
+    }
+
+    private static String NEGATIVE_EXPONENT_MESSAGE
+        = "Only field elements can be raised to negative powers.";
+    private static String NEGATIVE_MULTIPLE_MESSAGE
+        = "Negative multiples are only defined for abelian group elements.";
+    private static String NOT_INVERTIBLE_MESSAGE
+        = "Zero cannot be raised to a negative power.";
+    private static String LENGTH_MISMATCH_MESSAGE
+        = "There must be exactly one exponent for each base.";
+}
@@ -0,0 +1,411 @@
+package danraies.commutativealgebra;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * A lazily evaluated element of a commutative ring.  Adding, negating,
+ * multiplying or inverting expressions does no arithmetic at all; it only
+ * records the operation as a node of the {@link ExpressionGraph
+ * ExpressionGraph} that the expressions belong to.  The graph merges nodes
+ * that compute the same thing, so a subterm that appears many times in a
+ * formula is computed once, and it drops operations that the ring axioms
+ * make trivial, such as adding zero or multiplying by one.
+ * </p>
+ * <p>
+ * The value is computed the first time it is needed: by
+ * {@link #evaluate() evaluate}, by {@link #evaluateInParallel()
+ * evaluateInParallel}, or by <code>isZero</code>, <code>isOne</code> and
+ * <code>equals</code>, which have to compare values.  Every node keeps its
+ * value once it is known.  Because an <code>Expression</code> is itself a
+ * <code>FieldElement</code>, the generic algorithms of this package can be
+ * run on expressions to build a formula instead of a number.
+ * </p>
+ * <p>
+ * <code>inverse()</code> can always be recorded, but evaluating it requires
+ * the value to be a non-zero <code>FieldElement</code>.
+ * </p>
+ */
+public final class Expression implements FieldElement {
+    static final int CONSTANT = 0;
+    static final int SUM = 1;
+    static final int NEGATIVE = 2;
+    static final int PRODUCT = 3;
+    static final int INVERSE = 4;
+
+    private ExpressionGraph graph;
+    private int operation;
+    private Expression left;
+    private Expression right;
+    private long id;
+
+    /**
+     * The key under which the graph stores this node.  The graph only holds
+     * its keys weakly, so the entry of this node lasts exactly as long as
+     * the node is reachable.
+     */
+    private Object key;
+
+    /** The length of the longest path from this node down to a constant. */
+    private int height;
+
+    private volatile CommutativeRingElement value;
+
+    Expression(ExpressionGraph graph, long id, Object key, CommutativeRingElement value) {
+        this.graph = graph;
+        this.operation = CONSTANT;
+        this.id = id;
+        this.key = key;
+        this.value = value;
+    }
+
+    Expression(ExpressionGraph graph, long id, Object key, int operation,
+               Expression left, Expression right) {
+        this.graph = graph;
+        this.operation = operation;
+        this.id = id;
+        this.key = key;
+        this.left = left;
+        this.right = right;
+        this.height = left.height + 1;
+        if ((right != null) && (right.height >= left.height)) {
+            this.height = right.height + 1;
+        }
+    }
+
+    public ExpressionGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Computes the value of this expression, and of every subexpression
+     * that has not been computed yet, in a single thread.
+     *
+     * @return The value of this expression.
+     */
+    public CommutativeRingElement evaluate() {
+        if (value == null) {
+            ArrayList<Expression> order = pendingNodes();
+            for (int i = 0; i < order.size(); i++) {
+                order.get(i).compute();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Computes the value of this expression on the common fork-join pool.
+     * The nodes that still need a value are grouped by height; nodes of the
+     * same height do not depend on each other and are computed in parallel,
+     * one height after the other.
+     *
+     * @return The value of this expression.
+     */
+    public CommutativeRingElement evaluateInParallel() {
+        if (value == null) {
+            ArrayList<Expression> order = pendingNodes();
+            ArrayList<ArrayList<Expression>> levels = new ArrayList<ArrayList<Expression>>();
+            for (int i = 0; i < order.size(); i++) {
+                Expression e = order.get(i);
+                while (levels.size() <= e.height) {
+                    levels.add(new ArrayList<Expression>());
+                }
+                levels.get(e.height).add(e);
+            }
+            for (int h = 0; h < levels.size(); h++) {
+                ArrayList<Expression> level = levels.get(h);
+                if (level.size() == 1) {
+                    level.get(0).compute();
+                } else if (level.size() > 1) {
+                    ForkJoinPool.commonPool().invoke(new LevelTask(level, 0, level.size()));
+                }
+            }
+        }
+        return value;
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof Expression)) {
+            return false;
+        }
+        return evaluate().equals(((Expression) o).evaluate());
+    }
+
+    /**
+     * Overrides the <code>toString()</code> method.  This does not evaluate
+     * anything.  A subexpression that occurs more than once is written out
+     * only once, as a binding <code>tN = ...</code> named after its node,
+     * and referred to by that name, so the string grows with the number of
+     * nodes and not with the number of paths through them.
+     *
+     * @return The formula recorded by this expression, preceded by
+     *         <code>let tN = ..., tM = ... in</code> if it has shared
+     *         subexpressions.
+     */
+    public String toString() {
+        ArrayList<Expression> order = nodesBelow(false);
+        IdentityHashMap<Expression, Boolean> used = new IdentityHashMap<Expression, Boolean>();
+        Set<Expression> shared
+            = Collections.newSetFromMap(new IdentityHashMap<Expression, Boolean>());
+        for (int i = 0; i < order.size(); i++) {
+            Expression e = order.get(i);
+            if (e.operation == CONSTANT) {
+                continue;
+            }
+            markUse(e.left, used, shared);
+            if (e.right != null) {
+                markUse(e.right, used, shared);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        if (!shared.isEmpty()) {
+            sb.append("let ");
+            boolean first = true;
+            for (int i = 0; i < order.size(); i++) {
+                Expression e = order.get(i);
+                if (!shared.contains(e)) {
+                    continue;
+                }
+                if (!first) {
+                    sb.append(", ");
+                }
+                first = false;
+                sb.append(e.name()).append(" = ");
+                e.appendFormula(sb, shared);
+            }
+            sb.append(" in ");
+        }
+        appendFormula(sb, shared);
+        return sb.toString();
+    }
+
+    public boolean isZero() {
+        return (this == graph.getZero()) || evaluate().isZero();
+    }
+
+    public boolean isOne() {
+        return (this == graph.getOne()) || evaluate().isOne();
+    }
+
+    public Expression addTo(CommutativeMonoidElement e) {
+        return graph.add(this, (Expression) e);
+    }
+
+    public Expression negative() {
+        return graph.negate(this);
+    }
+
+    public Expression multiplyBy(CommutativeRingElement e) {
+        return graph.multiply(this, (Expression) e);
+    }
+
+    public Expression inverse() {
+        return graph.invert(this);
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    int getOperation() {
+        return operation;
+    }
+
+    Expression getLeft() {
+        return left;
+    }
+
+    Expression getRight() {
+        return right;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    /**
+     * Tells whether this is a constant whose value is zero (or one), which
+     * is known without evaluating anything.
+     */
+    boolean isConstantZero() {
+        return (operation == CONSTANT) && value.isZero();
+    }
+
+    boolean isConstantOne() {
+        return (operation == CONSTANT) && value.isOne();
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /** Lists the nodes below this one that have no value yet. */
+    private ArrayList<Expression> pendingNodes() {
+        return nodesBelow(true);
+    }
+
+    /**
+     * Lists the nodes below this one, each once and every node after its
+     * children.  The traversal uses an explicit stack, since recorded
+     * formulas can be far deeper than the call stack allows.
+     *
+     * @param onlyPending Whether to leave out the nodes that already have a
+     *        value, together with everything below them.
+     */
+    private ArrayList<Expression> nodesBelow(boolean onlyPending) {
+        ArrayList<Expression> order = new ArrayList<Expression>();
+        Set<Expression> visited
+            = Collections.newSetFromMap(new IdentityHashMap<Expression, Boolean>());
+        ArrayList<Expression> stack = new ArrayList<Expression>();
+        ArrayList<Boolean> expanded = new ArrayList<Boolean>();
+        stack.add(this);
+        expanded.add(Boolean.FALSE);
+        while (!stack.isEmpty()) {
+            int top = stack.size() - 1;
+            Expression e = stack.get(top);
+            if (expanded.get(top).booleanValue()) {
+                stack.remove(top);
+                expanded.remove(top);
+                order.add(e);
+                continue;
+            }
+            if ((onlyPending && (e.value != null)) || !visited.add(e)) {
+                stack.remove(top);
+                expanded.remove(top);
+                continue;
+            }
+            expanded.set(top, Boolean.TRUE);
+            if (e.operation == CONSTANT) {
+                continue;
+            }
+            if (e.right != null) {
+                stack.add(e.right);
+                expanded.add(Boolean.FALSE);
+            }
+            stack.add(e.left);
+            expanded.add(Boolean.FALSE);
+        }
+        return order;
+    }
+
+    /** Records a use of a node, which is shared once it is used twice. */
+    private static void markUse(Expression e, IdentityHashMap<Expression, Boolean> used,
+                                Set<Expression> shared) {
+        if ((e.operation != CONSTANT) && (used.put(e, Boolean.TRUE) != null)) {
+            shared.add(e);
+        }
+    }
+
+    private String name() {
+        return "t" + id;
+    }
+
+    /**
+     * Appends the formula of this node, with shared nodes below it written
+     * as their names.  Like the traversals, this uses an explicit stack of
+     * nodes and of the text between them.
+     */
+    private void appendFormula(StringBuilder sb, Set<Expression> shared) {
+        ArrayList<Object> stack = new ArrayList<Object>();
+        stack.add(this);
+        while (!stack.isEmpty()) {
+            Object top = stack.remove(stack.size() - 1);
+            if (top instanceof String) {
+                sb.append((String) top);
+                continue;
+            }
+            Expression e = (Expression) top;
+            if ((e != this) && shared.contains(e)) {
+                sb.append(e.name());
+                continue;
+            }
+            // The pieces are pushed in reverse, so that they are popped in
+            // the order in which they are written.
+            switch (e.operation) {
+            case SUM:
+                stack.add(")");
+                stack.add(e.right);
+                stack.add(" + ");
+                stack.add(e.left);
+                stack.add("(");
+                break;
+            case NEGATIVE:
+                stack.add(e.left);
+                stack.add("-");
+                break;
+            case PRODUCT:
+                stack.add(e.right);
+                stack.add("*");
+                stack.add(e.left);
+                break;
+            case INVERSE:
+                stack.add(e.left);
+                stack.add("1/");
+                break;
+            default:
+                sb.append(e.value.toString());
+            }
+        }
+    }
+
+    /** Computes the value of this node from the values of its children. */
+    private void compute() {
+        if (value != null) {
+            return;
+        }
+        CommutativeRingElement a = left.value;
+        switch (operation) {
+        case SUM:
+            value = (CommutativeRingElement) a.addTo(right.value);
+            break;
+        case NEGATIVE:
+            value = (CommutativeRingElement) a.negative();
+            break;
+        case PRODUCT:
+            value = a.multiplyBy(right.value);
+            break;
+        default:
+            if (!(a instanceof FieldElement)) {
+                throw new RuntimeException(NOT_A_FIELD_ELEMENT_MESSAGE);
+            }
+            if (a.isZero()) {
+                throw new RuntimeException(ZERO_INVERSE_MESSAGE);
+            }
+            value = ((FieldElement) a).inverse();
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class LevelTask extends RecursiveAction {
+        private final ArrayList<Expression> level;
+        private final int start;
+        private final int end;
+
+        LevelTask(ArrayList<Expression> level, int start, int end) {
+            this.level = level;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                level.get(start).compute();
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new LevelTask(level, start, middle), new LevelTask(level, middle, end));
+        }
+    }
+
+    private static String NOT_A_FIELD_ELEMENT_MESSAGE
+        = "Only field elements can be inverted.";
+    private static String ZERO_INVERSE_MESSAGE
+        = "This expression inverts a subexpression whose value is zero.";
+}
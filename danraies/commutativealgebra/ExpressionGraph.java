@@ -0,0 +1,267 @@
+package danraies.commutativealgebra;
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * <p>
+ * Records lazily evaluated {@link Expression Expression} objects over a
+ * commutative ring and creates them.  Each operation is stored once: asking
+ * for the sum, negative, product or inverse of expressions that were already
+ * combined in the same way returns the node that exists, so equal
+ * subformulas share a single node and a single evaluation.  Sums and
+ * products are commutative, so <code>a + b</code> and <code>b + a</code> are
+ * the same node as well.
+ * </p>
+ * <p>
+ * New nodes are simplified with these ring identities before they are
+ * stored: <code>x + 0 = x</code>, <code>x + (-x) = 0</code>,
+ * <code>-(-x) = x</code>, <code>x * 1 = x</code>, <code>x * 0 = 0</code>,
+ * <code>1/(1/x) = x</code> and <code>1/1 = 1</code>.  Only constants and
+ * nodes built by the graph itself are recognized as zero or one, so none of
+ * these rewrites evaluates anything.
+ * </p>
+ * <p>
+ * Constants are identified by reference, because elements do not provide
+ * hash codes: passing the same element object twice gives the same node,
+ * while two equal element objects give two nodes.  Constants equal to zero
+ * or one are the exception; they are always replaced by the graph's own zero
+ * and one.  The methods of a graph may be called from several threads.
+ * </p>
+ * <p>
+ * The graph only holds its nodes weakly.  A node is forgotten, and can be
+ * collected, as soon as neither the caller nor a node above it refers to
+ * it, so a graph that is used for a long time, for example by the random
+ * elements of an axiom test, only keeps the nodes that are still in use.
+ * Building a forgotten operation again gives a new node, which nobody can
+ * tell apart from the old one.
+ * </p>
+ */
+public class ExpressionGraph extends CommutativeRingElementFactory {
+    private CommutativeRingElementFactory ring;
+    /**
+     * The nodes, each under a key that only the node itself refers to, so
+     * that an entry disappears together with its node.
+     */
+    private WeakHashMap<Object, WeakReference<Expression>> nodes
+        = new WeakHashMap<Object, WeakReference<Expression>>();
+    private long nextId;
+    private Expression zero;
+    private Expression one;
+
+    /**
+     * Creates an empty graph.
+     *
+     * @param ring The factory of the ring in which expressions are
+     *        evaluated.  It also supplies the random elements for
+     *        <code>getRandom()</code>.
+     */
+    public ExpressionGraph(CommutativeRingElementFactory ring) {
+        this.ring = ring;
+        this.zero = new Expression(this, nextId++, null, ring.getZero());
+        this.one = new Expression(this, nextId++, null, ring.getOne());
+    }
+
+    public CommutativeRingElementFactory getRing() {
+        return ring;
+    }
+
+    /**
+     * Returns the number of distinct nodes that the graph still holds,
+     * including its zero and its one.  Nodes that are no longer referred to
+     * stop being counted once they have been collected.
+     *
+     * @return The number of nodes in use.
+     */
+    public synchronized int size() {
+        return nodes.size() + 2;
+    }
+
+    /**
+     * Wraps an element of the ring.
+     *
+     * @param value Any element of the ring.
+     * @return The constant node for <code>value</code>, which is the same
+     *         node every time the same object is passed.
+     */
+    public synchronized Expression constant(CommutativeRingElement value) {
+        if (value.isZero()) {
+            return zero;
+        } else if (value.isOne()) {
+            return one;
+        }
+        ConstantKey key = new ConstantKey(value);
+        Expression e = lookUp(key);
+        if (e == null) {
+            e = new Expression(this, nextId++, key, value);
+            store(key, e);
+        }
+        return e;
+    }
+
+    public synchronized Expression add(Expression a, Expression b) {
+        checkGraph(a);
+        checkGraph(b);
+        if (a.isConstantZero()) {
+            return b;
+        } else if (b.isConstantZero()) {
+            return a;
+        } else if (isNegativeOf(a, b) || isNegativeOf(b, a)) {
+            return zero;
+        }
+        return node(Expression.SUM, a, b);
+    }
+
+    public synchronized Expression negate(Expression a) {
+        checkGraph(a);
+        if (a.isConstantZero()) {
+            return zero;
+        } else if (a.getOperation() == Expression.NEGATIVE) {
+            return a.getLeft();
+        }
+        return node(Expression.NEGATIVE, a, null);
+    }
+
+    public Expression subtract(Expression a, Expression b) {
+        return add(a, negate(b));
+    }
+
+    public synchronized Expression multiply(Expression a, Expression b) {
+        checkGraph(a);
+        checkGraph(b);
+        if (a.isConstantZero() || b.isConstantZero()) {
+            return zero;
+        } else if (a.isConstantOne()) {
+            return b;
+        } else if (b.isConstantOne()) {
+            return a;
+        }
+        return node(Expression.PRODUCT, a, b);
+    }
+
+    /**
+     * Records the multiplicative inverse of an expression.  Evaluating the
+     * result fails unless the value of <code>a</code> is a non-zero
+     * <code>FieldElement</code>.
+     *
+     * @param a Any expression of this graph.
+     * @return The node for <code>1/a</code>.
+     */
+    public synchronized Expression invert(Expression a) {
+        checkGraph(a);
+        if (a.isConstantZero()) {
+            throw new RuntimeException(ZERO_INVERSE_MESSAGE);
+        } else if (a.isConstantOne()) {
+            return one;
+        } else if (a.getOperation() == Expression.INVERSE) {
+            return a.getLeft();
+        }
+        return node(Expression.INVERSE, a, null);
+    }
+
+    public Expression getRandom() {
+        return constant(ring.getRandom());
+    }
+
+    public void setSeed(long seed) {
+        ring.setSeed(seed);
+    }
+
+    public Expression getZero() {
+        return zero;
+    }
+
+    public Expression getOne() {
+        return one;
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /** Returns the stored node for an operation, creating it if needed. */
+    private Expression node(int operation, Expression a, Expression b) {
+        if ((b != null) && (b.getId() < a.getId())) {
+            Expression temp = a;
+            a = b;
+            b = temp;
+        }
+        NodeKey key = new NodeKey(operation, a.getId(), (b == null) ? -1L : b.getId());
+        Expression e = lookUp(key);
+        if (e == null) {
+            e = new Expression(this, nextId++, key, operation, a, b);
+            store(key, e);
+        }
+        return e;
+    }
+
+    private Expression lookUp(Object key) {
+        WeakReference<Expression> reference = nodes.get(key);
+        return (reference == null) ? null : reference.get();
+    }
+
+    /**
+     * Stores a new node under its own key.  An equal key of a collected node
+     * may still be in the map, and <code>put</code> would keep that key
+     * instead of the new one, so it is removed first.
+     */
+    private void store(Object key, Expression e) {
+        nodes.remove(key);
+        nodes.put(key, new WeakReference<Expression>(e));
+    }
+
+    private static boolean isNegativeOf(Expression a, Expression b) {
+        return (a.getOperation() == Expression.NEGATIVE) && (a.getLeft() == b);
+    }
+
+    private void checkGraph(Expression e) {
+        if (e.getGraph() != this) {
+            throw new RuntimeException(DIFFERENT_GRAPHS_MESSAGE);
+        }
+    }
+
+    /** An element wrapped so that it is compared by reference. */
+    private static final class ConstantKey {
+        private final CommutativeRingElement value;
+
+        ConstantKey(CommutativeRingElement value) {
+            this.value = value;
+        }
+
+        public boolean equals(Object o) {
+            return (o instanceof ConstantKey) && (((ConstantKey) o).value == value);
+        }
+
+        public int hashCode() {
+            return System.identityHashCode(value);
+        }
+    }
+
+    /** An operation together with the ids of its operands. */
+    private static final class NodeKey {
+        private final int operation;
+        private final long left;
+        private final long right;
+
+        NodeKey(int operation, long left, long right) {
+            this.operation = operation;
+            this.left = left;
+            this.right = right;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof NodeKey)) {
+                return false;
+            }
+            NodeKey k = (NodeKey) o;
+            return (k.operation == operation) && (k.left == left) && (k.right == right);
+        }
+
+        public int hashCode() {
+            return (31 * (31 * operation + Long.hashCode(left))) + Long.hashCode(right);
+        }
+    }
+
+    private static String ZERO_INVERSE_MESSAGE = "Zero does not have a multiplicative inverse.";
+    private static String DIFFERENT_GRAPHS_MESSAGE
+        = "These expressions belong to different expression graphs.";
+}
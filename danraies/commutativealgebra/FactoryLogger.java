@@ -1,19 +1,83 @@
 package danraies.commutativealgebra;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.concurrent.Flow;
 
-final class FactoryLogger {
+/**
+ * Writes the events of a run as text.  The logger is one subscriber of its
+ * factory's events, subscribed so that it receives every event in the
+ * checking thread; the summary at the end is built from the results it has
+ * seen since the run started.
+ */
+final class FactoryLogger implements Flow.Subscriber<TestEvent> {
     boolean showVerboseOutput = true;
+    boolean showLatencies = false;
     PrintStream stream = System.out;
+    private ArrayList<TestEvent> results = new ArrayList<TestEvent>();
+    private ArrayList<TestEvent> counterExamples = new ArrayList<TestEvent>();
+    private TestEvent pendingCounterExample;
 
     void shouldShowVerboseOutput(boolean showVerboseOutput) {
         this.showVerboseOutput = showVerboseOutput;
     }
 
+    void shouldShowLatencies(boolean showLatencies) {
+        this.showLatencies = showLatencies;
+    }
+
     void setPrintStream(PrintStream stream) {
         this.stream = stream;
     }
     
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    public void onNext(TestEvent event) {
+        switch (event.getType()) {
+        case TestEvent.RUN_STARTED:
+            results.clear();
+            counterExamples.clear();
+            announceStart();
+            break;
+        case TestEvent.AXIOM_STARTED:
+            pendingCounterExample = null;
+            announceAxiomCheck(event.getTestName(), event.getNumberOfChecks());
+            break;
+        case TestEvent.CHECKS_COMPLETED:
+            logChecks(event);
+            break;
+        case TestEvent.COUNTER_EXAMPLE:
+            pendingCounterExample = event;
+            break;
+        case TestEvent.AXIOM_FINISHED:
+            logAxiomResult(event.getTestName(), event.hasPassed(), event.getNumberOfChecks());
+            logPossibleCounterExample(pendingCounterExample);
+            if (showLatencies && (event.getLatencies() != null)) {
+                logLatencies(event.getLatencies());
+            }
+            results.add(event);
+            counterExamples.add(pendingCounterExample);
+            break;
+        case TestEvent.RUN_FINISHED:
+            announceEnd();
+            for (int i = 0; i < results.size(); i++) {
+                logResultSummary(results.get(i).getTestName(), results.get(i).hasPassed());
+                logPossibleCounterExample(counterExamples.get(i));
+            }
+            close();
+            break;
+        default:
+            break;
+        }
+    }
+
+    public void onError(Throwable throwable) {
+    }
+
+    public void onComplete() {
+    }
+
     void announceStart() {
         logBigHeadLine(LOG_START_MESSAGE);
     }
@@ -49,8 +113,50 @@ final class FactoryLogger {
         logResultSummary(testName, testResult);
     }
 
-    void logCounterExample(Element[] listOfElements) {
+    /**
+     * Logs the elements for which a test failed and, if it is not
+     * <code>null</code>, the smaller counterexample found by shrinking them.
+     */
+    /**
+     * Logs a counterexample, a smaller one if <code>shrunkElements</code> is
+     * not <code>null</code>, and the stack trace of the exception that the
+     * check threw for it, if <code>exception</code> is not
+     * <code>null</code>.
+     */
+    void logCounterExample(Element[] listOfElements, Element[] shrunkElements,
+                           Throwable exception) {
         log(COUNTER_EXAMPLE_PREFIX + formatElements(listOfElements));
+        if (shrunkElements != null) {
+            log(SHRUNK_COUNTER_EXAMPLE_PREFIX + formatElements(shrunkElements));
+        }
+        if (exception != null) {
+            log(EXCEPTION_PREFIX);
+            exception.printStackTrace(stream);
+        }
+    }
+
+    /**
+     * Logs the median, the 99th percentile and the maximum time of the
+     * checks of a test, followed by the slowest checks with their elements.
+     */
+    void logLatencies(LatencyHistogram latencies) {
+        if (latencies.getCount() == 0L) {
+            return;
+        }
+        String line = LATENCY_PREFIX
+            + MEDIAN + ResultSummary.formatNanos(latencies.getPercentile(50.0))
+            + ELEMENT_DELIMITER + WHITESPACE
+            + PERCENTILE_99 + ResultSummary.formatNanos(latencies.getPercentile(99.0))
+            + ELEMENT_DELIMITER + WHITESPACE
+            + MAXIMUM + ResultSummary.formatNanos(latencies.getMaximum());
+        if (latencies.getTimeouts() > 0) {
+            line = line + ELEMENT_DELIMITER + WHITESPACE + latencies.getTimeouts() + TIMED_OUT;
+        }
+        log(line);
+        for (int i = 0; i < latencies.getSlowestCount(); i++) {
+            log(SLOW_CHECK_PREFIX + ResultSummary.formatNanos(latencies.getSlowestNanos(i))
+                + SLOW_CHECK_ARROW + formatElements(latencies.getSlowestElements(i)));
+        }
     }
 
     void logIndividualCheck(int testCounter,
@@ -75,11 +181,30 @@ final class FactoryLogger {
     void close() {
         stream.close();
     }
-    
+
     //////////////////////////////////////////////////
     // Private methods
     //////////////////////////////////////////////////
 
+    private void logChecks(TestEvent event) {
+        if (!showVerboseOutput || !event.hasElements()) {
+            return;
+        }
+        Element[][] elements = event.getAllElements();
+        for (int i = 0; i < elements.length; i++) {
+            boolean passedThisCheck = event.hasPassed() || (i < (elements.length - 1));
+            logIndividualCheck(event.getFirstCheck() + i, elements[i], passedThisCheck);
+        }
+    }
+
+    private void logPossibleCounterExample(TestEvent counterExample) {
+        if (counterExample != null) {
+            Element[][] elements = counterExample.getAllElements();
+            logCounterExample(elements[0], (elements.length > 1) ? elements[1] : null,
+                              counterExample.getException());
+        }
+    }
+
     private void log(String message) {
         stream.println(message);
     }
@@ -201,6 +326,15 @@ final class FactoryLogger {
     private static String TEST_PASSED_MESSAGE = "(___" + PASSED + "___)";
     private static String TEST_FAILED_MESSAGE = "(***" + FAILED + "***)";
     private static String COUNTER_EXAMPLE_PREFIX = "\t\tCounter Example --> ";
+    private static String SHRUNK_COUNTER_EXAMPLE_PREFIX = "\t\tMinimal Counter Example --> ";
+    private static String EXCEPTION_PREFIX = "\t\tException thrown by the check:";
+    private static String LATENCY_PREFIX = "\t\tCheck Times --> ";
+    private static String MEDIAN = "median ";
+    private static String PERCENTILE_99 = "99th percentile ";
+    private static String MAXIMUM = "maximum ";
+    private static String TIMED_OUT = " timed out";
+    private static String SLOW_CHECK_PREFIX = "\t\tSlow Check (";
+    private static String SLOW_CHECK_ARROW = ") --> ";
     private static String INDIVIDUAL_CHECK_PREFIX = "Test Number ";
     private static String ELEMENTS_TESTED_PREFIX = "Elements Tested: ";
     private static String THIS_TEST_HAS = "This test has ";
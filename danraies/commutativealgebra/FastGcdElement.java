@@ -0,0 +1,41 @@
+package danraies.commutativealgebra;
+
+/**
+ * <p>
+ * Implement <code>FastGcdElement</code> in addition to
+ * <code>EuclideanDomainElement</code> when the elements of a domain have a
+ * faster way to find greatest common divisors than repeated division.
+ * {@link EuclideanAlgorithm EuclideanAlgorithm}, and every algorithm that
+ * goes through it, will then use these methods instead of its own loop.
+ * Implementing this interface is optional; every Euclidean domain has
+ * greatest common divisors, just not as cheaply.
+ * </p>
+ * <p>
+ * {@link UnivariatePolynomial UnivariatePolynomial} implements this
+ * interface with the subquadratic algorithms of {@link HalfGcd HalfGcd},
+ * whose methods for <code>BigInteger</code> integers can serve an
+ * implementation over the integers as well.
+ * </p>
+ */
+public interface FastGcdElement extends EuclideanDomainElement {
+    /**
+     * Computes a greatest common divisor.
+     *
+     * @param other Any element of the same domain.
+     * @return A greatest common divisor of <code>this</code> and
+     *         <code>other</code>, which is zero only if both are zero.
+     */
+    public EuclideanDomainElement gcd(EuclideanDomainElement other);
+
+    /**
+     * Computes a greatest common divisor together with the coefficients
+     * that express it as a combination of the two elements.
+     *
+     * @param other Any element of the same domain.
+     * @return An array <code>{g, s, t}</code> where <code>g</code> is a
+     *         greatest common divisor of <code>this</code> and
+     *         <code>other</code> and
+     *         <code>s * this + t * other = g</code>.
+     */
+    public EuclideanDomainElement[] extendedGcd(EuclideanDomainElement other);
+}
@@ -15,6 +15,6 @@ public abstract class FieldElementFactory extends CommutativeRingElementFactory
     }
 
     final void addFieldTestsToRun() {
-        addTestToRun(new AxiomTestMultiplicativeInverse(totalTests, log));
+        addTestToRun(new AxiomTestMultiplicativeInverse(totalTests, events));
     }
 }
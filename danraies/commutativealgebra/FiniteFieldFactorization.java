@@ -0,0 +1,584 @@
+package danraies.commutativealgebra;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>
+ * Factors polynomials in one variable over a finite field with
+ * <code>q = p^k</code> elements, such as GF(p) or GF(2^k), into monic
+ * irreducible factors.  The field is only known through its
+ * <code>FieldElementFactory</code>, its characteristic <code>p</code> and
+ * its degree <code>k</code> over the prime field.  The factorization runs
+ * in three stages:
+ * </p>
+ * <dl>
+ * <dt>{@link #squareFreeDecomposition(UnivariatePolynomial) squareFreeDecomposition}</dt>
+ * <dd>Repeated gcds with the derivative split the polynomial into
+ *     square-free parts, one for each multiplicity.  Where the derivative
+ *     vanishes the polynomial is a <code>p</code>-th power, whose root is
+ *     taken coefficient by coefficient.</dd>
+ * <dt>{@link #distinctDegreeFactorization(UnivariatePolynomial) distinctDegreeFactorization}</dt>
+ * <dd>The irreducible factors of degree <code>d</code> are exactly those
+ *     of <code>x^(q^d) - x</code>.  The powers <code>x^(q^i)</code> are found
+ *     with the baby-step giant-step method of Kaltofen and Shoup: about
+ *     <code>sqrt(n/2)</code> baby steps <code>x^(q^i)</code> and as many giant
+ *     steps <code>x^(q^(li))</code>, each one modular composition away from
+ *     the last, and one gcd per giant step collects the factors of all
+ *     degrees in its range at once.</dd>
+ * <dt>{@link #equalDegreeFactorization(UnivariatePolynomial, int) equalDegreeFactorization}</dt>
+ * <dd>The method of Cantor and Zassenhaus: for a random <code>a</code>, the
+ *     power <code>a^((q^d - 1) / 2)</code>, or the trace of <code>a</code>
+ *     in characteristic two, is <code>1</code> modulo about half of the
+ *     factors and something else modulo the rest, so a gcd splits the
+ *     product.  The powers are computed as norms and traces from
+ *     <code>F_(q^d)</code> to <code>F_q</code>, with <code>log d</code>
+ *     compositions instead of <code>d log q</code> squarings.</dd>
+ * </dl>
+ * <p>
+ * The Frobenius map <code>x^q mod f</code> is computed once per modulus by
+ * repeated squaring; every further power of it is a composition, computed
+ * as in {@link #compose(UnivariatePolynomial, UnivariatePolynomial,
+ * UnivariatePolynomial) compose}.  The square-free parts are factored
+ * independently, and so are the halves of every split, so both run as tasks
+ * on the common fork-join pool.
+ * </p>
+ * <p>
+ * Random elements are drawn from the factory, one at a time, so a seeded
+ * factory gives reproducible runs when the pool has a single thread.  The
+ * factors found do not depend on the random choices, and are returned in a
+ * fixed order: by degree, then by their string form.
+ * </p>
+ */
+public final class FiniteFieldFactorization {
+    private FieldElementFactory field;
+    private long characteristic;
+    private int extensionDegree;
+    private BigInteger order;
+
+    /**
+     * Describes the field whose polynomials are to be factored.
+     *
+     * @param field The factory of the field, which supplies zero, one and
+     *        random elements.
+     * @param characteristic The characteristic <code>p</code> of the field,
+     *        a prime.
+     * @param extensionDegree The degree <code>k</code> of the field over its
+     *        prime field, so that it has <code>p^k</code> elements.
+     */
+    public FiniteFieldFactorization(FieldElementFactory field, long characteristic,
+                                    int extensionDegree) {
+        if (!ModularArithmetic.isPrime(characteristic)) {
+            throw new RuntimeException(NOT_PRIME_MESSAGE);
+        } else if (extensionDegree < 1) {
+            throw new RuntimeException(EXTENSION_DEGREE_MESSAGE);
+        }
+        this.field = field;
+        this.characteristic = characteristic;
+        this.extensionDegree = extensionDegree;
+        this.order = BigInteger.valueOf(characteristic).pow(extensionDegree);
+    }
+
+    /**
+     * <p>
+     * An irreducible or square-free factor together with its multiplicity.
+     * </p>
+     */
+    public static final class Factor {
+        private UnivariatePolynomial polynomial;
+        private int multiplicity;
+
+        Factor(UnivariatePolynomial polynomial, int multiplicity) {
+            this.polynomial = polynomial;
+            this.multiplicity = multiplicity;
+        }
+
+        /**
+         * @return The factor, which is monic.
+         */
+        public UnivariatePolynomial getPolynomial() {
+            return polynomial;
+        }
+
+        /**
+         * @return The exponent of the factor.
+         */
+        public int getMultiplicity() {
+            return multiplicity;
+        }
+
+        public String toString() {
+            return "(" + polynomial + ")" + ((multiplicity == 1) ? "" : "^" + multiplicity);
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // Public Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * @return The number <code>q</code> of elements of the field.
+     */
+    public BigInteger getOrder() {
+        return order;
+    }
+
+    /**
+     * Factors a polynomial completely.
+     *
+     * @param f A non-zero polynomial over the field.
+     * @return The monic irreducible factors of <code>f</code> with their
+     *         multiplicities; their product is <code>f</code> divided by its
+     *         leading coefficient.  A constant has no factors.
+     */
+    public ArrayList<Factor> factor(UnivariatePolynomial f) {
+        ArrayList<Factor> parts = squareFreeDecomposition(f);
+        ArrayList<PartTask> tasks = new ArrayList<PartTask>();
+        for (int i = 0; i < parts.size(); i++) {
+            PartTask task = new PartTask(parts.get(i));
+            ForkJoinPool.commonPool().execute(task);
+            tasks.add(task);
+        }
+        ArrayList<Factor> factors = new ArrayList<Factor>();
+        for (int i = 0; i < tasks.size(); i++) {
+            factors.addAll(tasks.get(i).join());
+        }
+        Collections.sort(factors, FACTOR_ORDER);
+        return factors;
+    }
+
+    /**
+     * Splits a polynomial into square-free parts.
+     *
+     * @param f A non-zero polynomial over the field.
+     * @return Monic, square-free and pairwise coprime polynomials of positive
+     *         degree, each with a different multiplicity, whose product with
+     *         these multiplicities is <code>f</code> divided by its leading
+     *         coefficient.
+     */
+    public ArrayList<Factor> squareFreeDecomposition(UnivariatePolynomial f) {
+        if (f.isZero()) {
+            throw new RuntimeException(ZERO_POLYNOMIAL_MESSAGE);
+        }
+        ArrayList<Factor> parts = new ArrayList<Factor>();
+        if (f.getDegree() > 0) {
+            squareFree(f.monic(), 1, parts);
+        }
+        Collections.sort(parts, FACTOR_ORDER);
+        return parts;
+    }
+
+    /**
+     * Groups the irreducible factors of a square-free polynomial by degree.
+     *
+     * @param f A square-free polynomial over the field, for instance a part
+     *        returned by {@link #squareFreeDecomposition(UnivariatePolynomial)
+     *        squareFreeDecomposition}.
+     * @return For each degree <code>d</code> that occurs, the monic product of
+     *         the irreducible factors of degree <code>d</code>.
+     */
+    public TreeMap<Integer, UnivariatePolynomial> distinctDegreeFactorization(UnivariatePolynomial f) {
+        if (f.isZero()) {
+            throw new RuntimeException(ZERO_POLYNOMIAL_MESSAGE);
+        }
+        TreeMap<Integer, UnivariatePolynomial> products = new TreeMap<Integer, UnivariatePolynomial>();
+        f = f.monic();
+        int n = f.getDegree();
+        if (n <= 0) {
+            return products;
+        }
+        PolynomialModulus mod = new PolynomialModulus(f);
+        int l = Math.max((int) Math.ceil(Math.sqrt(n / 2.0)), 1);
+        // baby[i] is x^(q^i) mod f.
+        FieldElement[][] baby = new FieldElement[l + 1][];
+        baby[0] = mod.x();
+        baby[1] = mod.power(baby[0], order);
+        FieldElement[][] frobeniusTable = mod.powerTable(baby[1], l - 1);
+        for (int i = 2; i <= l; i++) {
+            baby[i] = mod.compose(baby[i - 1], frobeniusTable);
+        }
+        FieldElement[][] giantTable = mod.powerTable(baby[l], n / (2 * l));
+        FieldElement[] giant = baby[l];
+        UnivariatePolynomial remaining = f;
+        // Giant step j finds the factors whose degree lies in
+        // (l (j - 1), l j]; once the rest has less than twice the lower
+        // end of that range it is irreducible.
+        for (int j = 1; remaining.getDegree() >= 2 * (l * (j - 1) + 1); j++) {
+            if (j > 1) {
+                giant = mod.compose(giant, giantTable);
+            }
+            FieldElement[] product = mod.subtract(giant, baby[0]);
+            for (int i = 1; i < l; i++) {
+                product = mod.multiply(product, mod.subtract(giant, baby[i]));
+            }
+            UnivariatePolynomial g = monicGcd(remaining, mod.toPolynomial(product));
+            if (g.getDegree() <= 0) {
+                continue;
+            }
+            remaining = quotient(remaining, g);
+            // x^(q^(lj)) - x^(q^i) collects the factors whose degree divides
+            // l j - i; going up in degree leaves exactly those of degree
+            // l j - i.
+            for (int i = l - 1; (i >= 0) && (g.getDegree() > 0); i--) {
+                UnivariatePolynomial h = monicGcd(g, mod.toPolynomial(mod.subtract(giant, baby[i])));
+                if (h.getDegree() > 0) {
+                    products.put(l * j - i, h);
+                    g = quotient(g, h);
+                }
+            }
+        }
+        if (remaining.getDegree() > 0) {
+            products.put(remaining.getDegree(), remaining);
+        }
+        return products;
+    }
+
+    /**
+     * Splits a product of distinct irreducible polynomials of the same
+     * degree into its factors.  The two halves of each split are split
+     * further in parallel.
+     *
+     * @param f A square-free polynomial over the field whose irreducible
+     *        factors all have degree <code>degree</code>.
+     * @param degree The degree of the factors.
+     * @return The monic irreducible factors of <code>f</code>.
+     */
+    public ArrayList<UnivariatePolynomial> equalDegreeFactorization(UnivariatePolynomial f, int degree) {
+        if (f.isZero()) {
+            throw new RuntimeException(ZERO_POLYNOMIAL_MESSAGE);
+        } else if ((degree < 1) || (f.getDegree() % degree != 0)) {
+            throw new RuntimeException(DEGREE_MESSAGE);
+        }
+        if (f.getDegree() == 0) {
+            return new ArrayList<UnivariatePolynomial>();
+        }
+        ArrayList<UnivariatePolynomial> factors
+            = ForkJoinPool.commonPool().invoke(new SplitTask(f.monic(), degree, null));
+        Collections.sort(factors, POLYNOMIAL_ORDER);
+        return factors;
+    }
+
+    /**
+     * Tests a polynomial for irreducibility with Rabin's criterion: a monic
+     * <code>f</code> of degree <code>n</code> is irreducible exactly when it
+     * divides <code>x^(q^n) - x</code> and is coprime to
+     * <code>x^(q^(n/r)) - x</code> for every prime <code>r</code> dividing
+     * <code>n</code>.
+     *
+     * @param f Any polynomial over the field.
+     * @return Whether <code>f</code> is irreducible; constants are not.
+     */
+    public boolean isIrreducible(UnivariatePolynomial f) {
+        int n = f.getDegree();
+        if (n <= 0) {
+            return false;
+        } else if (n == 1) {
+            return true;
+        }
+        PolynomialModulus mod = new PolynomialModulus(f.monic());
+        FieldElement[] x = mod.x();
+        FieldElement[] frobenius = mod.power(x, order);
+        FieldElement[][] frobeniusTable = mod.powerTable(frobenius);
+        if (!Arrays.equals(frobeniusPower(mod, frobenius, frobeniusTable, n), x)) {
+            return false;
+        }
+        for (int r = 2; r <= n; r++) {
+            if ((n % r != 0) || !ModularArithmetic.isPrime(r)) {
+                continue;
+            }
+            FieldElement[] power = frobeniusPower(mod, frobenius, frobeniusTable, n / r);
+            UnivariatePolynomial g = monicGcd(mod.getModulus(),
+                                              mod.toPolynomial(mod.subtract(power, x)));
+            if (g.getDegree() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the Frobenius map modulo a polynomial by repeated squaring.
+     *
+     * @param f A monic polynomial of positive degree over the field.
+     * @return The remainder of <code>x^q</code> modulo <code>f</code>.
+     */
+    public UnivariatePolynomial frobenius(UnivariatePolynomial f) {
+        PolynomialModulus mod = new PolynomialModulus(f);
+        return mod.toPolynomial(mod.power(mod.x(), order));
+    }
+
+    /**
+     * Computes a modular composition with the baby-step giant-step method of
+     * Brent and Kung, which takes about <code>2 sqrt(n)</code> products
+     * modulo <code>f</code> and <code>n^2</code> coefficient operations
+     * instead of the <code>n</code> products of Horner's rule.
+     *
+     * @param g Any polynomial over a field.
+     * @param h Any polynomial over the same field.
+     * @param f A monic polynomial of positive degree over the same field.
+     * @return The remainder of <code>g(h)</code> modulo <code>f</code>.
+     */
+    public static UnivariatePolynomial compose(UnivariatePolynomial g, UnivariatePolynomial h,
+                                               UnivariatePolynomial f) {
+        PolynomialModulus mod = new PolynomialModulus(f);
+        return mod.toPolynomial(mod.compose(g.getCoefficients(), mod.powerTable(mod.residue(h))));
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Adds the square-free parts of a monic polynomial to a list, with
+     * their multiplicities times <code>multiplier</code>.  Each round of the
+     * loop removes one from every multiplicity that is not divisible by
+     * <code>p</code>; what remains in <code>c</code> afterwards is a
+     * <code>p</code>-th power.
+     */
+    private void squareFree(UnivariatePolynomial f, int multiplier, ArrayList<Factor> parts) {
+        UnivariatePolynomial c = monicGcd(f, derivative(f));
+        UnivariatePolynomial w = quotient(f, c);
+        for (int i = 1; w.getDegree() > 0; i++) {
+            UnivariatePolynomial y = monicGcd(w, c);
+            UnivariatePolynomial part = quotient(w, y);
+            if (part.getDegree() > 0) {
+                parts.add(new Factor(part, i * multiplier));
+            }
+            w = y;
+            c = quotient(c, y);
+        }
+        if (c.getDegree() > 0) {
+            squareFree(pthRoot(c), multiplier * (int) characteristic, parts);
+        }
+    }
+
+    private UnivariatePolynomial derivative(UnivariatePolynomial f) {
+        FieldElement[] coefficients = new FieldElement[Math.max(f.getDegree(), 0)];
+        for (int i = 1; i <= f.getDegree(); i++) {
+            coefficients[i - 1] = (FieldElement) Exponentiation.multiple(
+                field, f.getCoefficient(i), i % characteristic);
+        }
+        return new UnivariatePolynomial(field, coefficients);
+    }
+
+    /**
+     * Takes the <code>p</code>-th root of a polynomial in
+     * <code>x^p</code>.  The <code>p</code>-th root of a coefficient
+     * <code>a</code> is <code>a^(q/p)</code>.
+     */
+    private UnivariatePolynomial pthRoot(UnivariatePolynomial f) {
+        BigInteger rootExponent = order.divide(BigInteger.valueOf(characteristic));
+        FieldElement[] coefficients = new FieldElement[f.getDegree() / (int) characteristic + 1];
+        for (int j = 0; j < coefficients.length; j++) {
+            coefficients[j] = (FieldElement) Exponentiation.power(
+                field, f.getCoefficient(j * (int) characteristic), rootExponent);
+        }
+        return new UnivariatePolynomial(field, coefficients);
+    }
+
+    /**
+     * Finds a proper monic factor of a product of distinct irreducible
+     * polynomials of degree <code>d</code>, trying random elements until one
+     * splits it.
+     *
+     * @param frobenius The residue of <code>x^q</code> modulo
+     *        <code>g</code>.
+     */
+    private UnivariatePolynomial splitOnce(PolynomialModulus mod, FieldElement[] frobenius, int d) {
+        FieldElement[][] frobeniusTable = mod.powerTable(frobenius);
+        FieldElement[] one = mod.one();
+        while (true) {
+            FieldElement[] a = randomResidue(mod);
+            FieldElement[] splitter;
+            if (characteristic == 2L) {
+                // The trace down to GF(2) is the trace from F_(q^d) to F_q
+                // of a + a^2 + ... + a^(2^(k-1)).
+                FieldElement[] square = a;
+                FieldElement[] partialTrace = a;
+                for (int i = 1; i < extensionDegree; i++) {
+                    square = mod.multiply(square, square);
+                    partialTrace = mod.add(partialTrace, square);
+                }
+                splitter = conjugates(mod, partialTrace, frobenius, frobeniusTable, d, false);
+            } else {
+                FieldElement[] norm = conjugates(mod, a, frobenius, frobeniusTable, d, true);
+                splitter = mod.subtract(mod.power(norm, order.shiftRight(1)), one);
+            }
+            UnivariatePolynomial h = monicGcd(mod.getModulus(), mod.toPolynomial(splitter));
+            if ((h.getDegree() > 0) && (h.getDegree() < mod.getDegree())) {
+                return h;
+            }
+        }
+    }
+
+    /**
+     * Computes the sum or the product of the conjugates
+     * <code>s, s^q, ..., s^(q^(d-1))</code>, that is the trace or the norm
+     * from <code>F_(q^d)</code> to <code>F_q</code> on every factor.  With
+     * <code>R_j</code> the sum or product of the first <code>j</code>
+     * conjugates and <code>X_j = x^(q^j)</code>, doubling uses
+     * <code>R_2j = R_j * R_j(X_j)</code> and <code>X_2j = X_j(X_j)</code>,
+     * and a step of one uses <code>R_(j+1) = s * R_j(X_1)</code>.
+     */
+    private static FieldElement[] conjugates(PolynomialModulus mod, FieldElement[] s,
+                                             FieldElement[] frobenius,
+                                             FieldElement[][] frobeniusTable,
+                                             int d, boolean multiply) {
+        FieldElement[] r = s;
+        FieldElement[] power = frobenius;
+        for (int bit = 30 - Integer.numberOfLeadingZeros(d); bit >= 0; bit--) {
+            FieldElement[][] table = mod.powerTable(power);
+            FieldElement[] shifted = mod.compose(r, table);
+            r = multiply ? mod.multiply(r, shifted) : mod.add(r, shifted);
+            if (bit > 0) {
+                power = mod.compose(power, table);
+            }
+            if (((d >> bit) & 1) != 0) {
+                shifted = mod.compose(r, frobeniusTable);
+                r = multiply ? mod.multiply(s, shifted) : mod.add(s, shifted);
+                if (bit > 0) {
+                    power = mod.compose(power, frobeniusTable);
+                }
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Computes <code>x^(q^j)</code> by the same doubling as
+     * {@link #conjugates conjugates}.
+     */
+    private static FieldElement[] frobeniusPower(PolynomialModulus mod, FieldElement[] frobenius,
+                                                 FieldElement[][] frobeniusTable, int j) {
+        FieldElement[] power = frobenius;
+        for (int bit = 30 - Integer.numberOfLeadingZeros(j); bit >= 0; bit--) {
+            power = mod.compose(power, mod.powerTable(power));
+            if (((j >> bit) & 1) != 0) {
+                power = mod.compose(power, frobeniusTable);
+            }
+        }
+        return power;
+    }
+
+    private FieldElement[] randomResidue(PolynomialModulus mod) {
+        FieldElement[] a = new FieldElement[mod.getDegree()];
+        // Factories are not made for concurrent use.
+        synchronized (field) {
+            for (int i = 0; i < a.length; i++) {
+                a[i] = field.getRandom();
+            }
+        }
+        return a;
+    }
+
+    private static UnivariatePolynomial monicGcd(UnivariatePolynomial a, UnivariatePolynomial b) {
+        return ((UnivariatePolynomial) EuclideanAlgorithm.gcd(a, b)).monic();
+    }
+
+    private static UnivariatePolynomial quotient(UnivariatePolynomial a, UnivariatePolynomial b) {
+        return a.divideWithRemainder(b)[0];
+    }
+
+    /**
+     * Factors one square-free part: its distinct-degree factorization, and
+     * then every product of factors of one degree split in parallel.
+     */
+    @SuppressWarnings("serial")
+    private final class PartTask extends RecursiveTask<ArrayList<Factor>> {
+        private final Factor part;
+
+        PartTask(Factor part) {
+            this.part = part;
+        }
+
+        @Override
+        protected ArrayList<Factor> compute() {
+            TreeMap<Integer, UnivariatePolynomial> products
+                = distinctDegreeFactorization(part.getPolynomial());
+            ArrayList<SplitTask> splits = new ArrayList<SplitTask>();
+            for (Integer degree : products.keySet()) {
+                splits.add(new SplitTask(products.get(degree), degree, null));
+            }
+            invokeAll(splits);
+            ArrayList<Factor> factors = new ArrayList<Factor>();
+            for (int i = 0; i < splits.size(); i++) {
+                List<UnivariatePolynomial> irreducibles = splits.get(i).join();
+                for (int j = 0; j < irreducibles.size(); j++) {
+                    factors.add(new Factor(irreducibles.get(j), part.getMultiplicity()));
+                }
+            }
+            return factors;
+        }
+    }
+
+    /**
+     * Splits a product of irreducible factors of one degree in two and
+     * the halves in parallel.  The residue of <code>x^q</code> modulo the
+     * parent is passed down, since reducing it is cheaper than computing it
+     * again.
+     */
+    @SuppressWarnings("serial")
+    private final class SplitTask extends RecursiveTask<ArrayList<UnivariatePolynomial>> {
+        private final UnivariatePolynomial g;
+        private final int degree;
+        private final UnivariatePolynomial parentFrobenius;
+
+        SplitTask(UnivariatePolynomial g, int degree, UnivariatePolynomial parentFrobenius) {
+            this.g = g;
+            this.degree = degree;
+            this.parentFrobenius = parentFrobenius;
+        }
+
+        @Override
+        protected ArrayList<UnivariatePolynomial> compute() {
+            ArrayList<UnivariatePolynomial> factors = new ArrayList<UnivariatePolynomial>();
+            if (g.getDegree() <= degree) {
+                factors.add(g);
+                return factors;
+            }
+            PolynomialModulus mod = new PolynomialModulus(g);
+            FieldElement[] frobenius = (parentFrobenius == null)
+                ? mod.power(mod.x(), order) : mod.residue(parentFrobenius);
+            UnivariatePolynomial h = splitOnce(mod, frobenius, degree);
+            UnivariatePolynomial frobeniusPolynomial = mod.toPolynomial(frobenius);
+            SplitTask low = new SplitTask(h, degree, frobeniusPolynomial);
+            SplitTask high = new SplitTask(quotient(g, h), degree, frobeniusPolynomial);
+            invokeAll(low, high);
+            factors.addAll(low.join());
+            factors.addAll(high.join());
+            return factors;
+        }
+    }
+
+    private static final Comparator<UnivariatePolynomial> POLYNOMIAL_ORDER
+        = new Comparator<UnivariatePolynomial>() {
+            @Override
+            public int compare(UnivariatePolynomial a, UnivariatePolynomial b) {
+                if (a.getDegree() != b.getDegree()) {
+                    return Integer.compare(a.getDegree(), b.getDegree());
+                }
+                return a.toString().compareTo(b.toString());
+            }
+        };
+
+    private static final Comparator<Factor> FACTOR_ORDER = new Comparator<Factor>() {
+            @Override
+            public int compare(Factor a, Factor b) {
+                int c = POLYNOMIAL_ORDER.compare(a.getPolynomial(), b.getPolynomial());
+                return (c != 0) ? c : Integer.compare(a.getMultiplicity(), b.getMultiplicity());
+            }
+        };
+
+    private static String NOT_PRIME_MESSAGE = "The characteristic of a field must be a prime.";
+    private static String EXTENSION_DEGREE_MESSAGE
+        = "The degree of a field over its prime field must be positive.";
+    private static String ZERO_POLYNOMIAL_MESSAGE = "The zero polynomial has no factorization.";
+    private static String DEGREE_MESSAGE
+        = "The degree of the factors must be positive and divide the degree of the polynomial.";
+}
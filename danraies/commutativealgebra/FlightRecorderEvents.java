@@ -0,0 +1,253 @@
+package danraies.commutativealgebra;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>
+ * The events that axiom runs write to Java Flight Recorder, so that a
+ * recording shows the runs, their checks and the arithmetic of the
+ * elements next to the garbage collections and CPU samples of the JVM.
+ * All of them are in the category "Commutative Algebra":
+ * </p>
+ * <dl>
+ * <dt><code>danraies.commutativealgebra.AxiomRun</code></dt>
+ * <dd>One test of a factory, from start to finish, with the number of
+ *     checks and the result.</dd>
+ * <dt><code>danraies.commutativealgebra.Check</code></dt>
+ * <dd>One check in every {@link #CHECK_SAMPLE CHECK_SAMPLE}, and every
+ *     check that failed.</dd>
+ * <dt><code>danraies.commutativealgebra.CounterExample</code></dt>
+ * <dd>The elements for which a test failed, and their shrunk form.</dd>
+ * <dt><code>danraies.commutativealgebra.Operation</code></dt>
+ * <dd>One call of <code>addTo</code>, <code>multiplyBy</code>,
+ *     <code>negative</code> or <code>inverse</code> in every
+ *     {@link #OPERATION_SAMPLE OPERATION_SAMPLE} made by the axiom tests,
+ *     with the sizes of the operands if the factory implements
+ *     {@link OperandSize OperandSize}, and zero otherwise.</dd>
+ * </dl>
+ * <p>
+ * The events are enabled and given thresholds in the settings of a
+ * recording like any other.  While no recording has them enabled, each
+ * place that could write one costs a check of a flag, and the operations
+ * only a counter in addition; no event object is made and no operand is
+ * measured.
+ * </p>
+ */
+final class FlightRecorderEvents {
+    /** One in this many checks is recorded, besides every failed check. */
+    static final int CHECK_SAMPLE = 64;
+    /** One in this many operations is recorded; a power of two. */
+    static final int OPERATION_SAMPLE = 256;
+
+    private FlightRecorderEvents() {
+    }
+
+    @Name("danraies.commutativealgebra.AxiomRun")
+    @Label("Axiom Run")
+    @Category("Commutative Algebra")
+    @Description("A test of the axioms of a factory, from start to finish")
+    static final class AxiomRun extends Event {
+        @Label("Factory")
+        String factory;
+        @Label("Axiom")
+        String axiom;
+        @Label("Intended Checks")
+        int intendedChecks;
+        @Label("Checks")
+        int checks;
+        @Label("Passed")
+        boolean passed;
+    }
+
+    @Name("danraies.commutativealgebra.Check")
+    @Label("Axiom Check")
+    @Category("Commutative Algebra")
+    @Description("A sampled check of an axiom for one set of elements")
+    @StackTrace(false)
+    static final class Check extends Event {
+        @Label("Axiom")
+        String axiom;
+        @Label("Check Number")
+        int check;
+        @Label("Passed")
+        boolean passed;
+    }
+
+    @Name("danraies.commutativealgebra.CounterExample")
+    @Label("Counter Example")
+    @Category("Commutative Algebra")
+    @Description("The elements for which an axiom failed")
+    static final class CounterExample extends Event {
+        @Label("Axiom")
+        String axiom;
+        @Label("Elements")
+        String elements;
+        @Label("Shrunk Elements")
+        String shrunkElements;
+        @Label("Exception")
+        @Description("The stack trace of the exception that the check threw, if any")
+        String exception;
+    }
+
+    @Name("danraies.commutativealgebra.Operation")
+    @Label("Element Operation")
+    @Category("Commutative Algebra")
+    @Description("A sampled arithmetic operation made by an axiom test")
+    @StackTrace(false)
+    static final class Operation extends Event {
+        @Label("Operation")
+        String operation;
+        @Label("Element Class")
+        String elementClass;
+        @Label("Left Operand Size")
+        @Description("The size of the left operand given by the factory, or zero")
+        long leftSize;
+        @Label("Right Operand Size")
+        @Description("The size of the right operand given by the factory, or zero")
+        long rightSize;
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Starts timing a test, or returns <code>null</code> if the event is
+     * not being recorded.
+     */
+    static AxiomRun beginAxiomRun() {
+        if (!AXIOM_RUN.isEnabled()) {
+            return null;
+        }
+        AxiomRun event = new AxiomRun();
+        event.begin();
+        return event;
+    }
+
+    static void endAxiomRun(AxiomRun event, ElementFactory factory, UnitTest test) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.factory = factory.getClass().getName();
+            event.axiom = test.getTestName();
+            event.intendedChecks = test.getIntendedNumberOfChecks();
+            event.checks = test.getActualNumberOfChecks();
+            event.passed = test.getTestResult();
+            event.commit();
+        }
+    }
+
+    /**
+     * Starts timing a check, or returns <code>null</code> if the event is
+     * not being recorded.
+     */
+    static Check beginCheck() {
+        if (!CHECK.isEnabled()) {
+            return null;
+        }
+        Check event = new Check();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Records a check if it failed or falls on the sample.
+     */
+    static void endCheck(Check event, String axiom, int check, boolean passed) {
+        if ((event == null) || (passed && ((check % CHECK_SAMPLE) != 1))) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.axiom = axiom;
+            event.check = check;
+            event.passed = passed;
+            event.commit();
+        }
+    }
+
+    static void counterExample(String axiom, Element[] elements, Element[] shrunkElements,
+                               Throwable exception) {
+        if (!COUNTER_EXAMPLE.isEnabled()) {
+            return;
+        }
+        CounterExample event = new CounterExample();
+        if (event.shouldCommit()) {
+            event.axiom = axiom;
+            event.elements = join(elements);
+            event.shrunkElements = (shrunkElements == null) ? null : join(shrunkElements);
+            event.exception = (exception == null) ? null : stackTrace(exception);
+            event.commit();
+        }
+    }
+
+    /**
+     * Tells whether the operation with the given number should be timed.
+     */
+    static boolean sampleOperation(int operationNumber) {
+        return ((operationNumber & (OPERATION_SAMPLE - 1)) == 0) && OPERATION.isEnabled();
+    }
+
+    static Operation beginOperation() {
+        Operation event = new Operation();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Records an operation.  The operands are measured with
+     * <code>size</code>, which is <code>null</code> unless the factory of
+     * the test implements <code>OperandSize</code>; their strings are never
+     * made, since they can be far more expensive than the operation.
+     */
+    static void endOperation(Operation event, String operation, OperandSize size,
+                             Element left, Element right) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.elementClass = left.getClass().getName();
+            event.leftSize = sizeOf(size, left);
+            event.rightSize = sizeOf(size, right);
+            event.commit();
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    private static long sizeOf(OperandSize size, Element e) {
+        return ((size == null) || (e == null)) ? 0L : size.sizeOf(e);
+    }
+
+    private static String stackTrace(Throwable exception) {
+        StringWriter trace = new StringWriter();
+        exception.printStackTrace(new PrintWriter(trace));
+        return trace.toString();
+    }
+
+    private static String join(Element[] elements) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < elements.length; i++) {
+            if (i > 0) {
+                joined.append(", ");
+            }
+            joined.append(elements[i]);
+        }
+        return joined.toString();
+    }
+
+    private static final EventType AXIOM_RUN = EventType.getEventType(AxiomRun.class);
+    private static final EventType CHECK = EventType.getEventType(Check.class);
+    private static final EventType COUNTER_EXAMPLE = EventType.getEventType(CounterExample.class);
+    private static final EventType OPERATION = EventType.getEventType(Operation.class);
+}
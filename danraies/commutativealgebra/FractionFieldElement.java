@@ -0,0 +1,284 @@
+package danraies.commutativealgebra;
+
+/**
+ * <p>
+ * An element of the field of fractions of a Euclidean domain, written
+ * <code>a / b</code> with <code>b</code> non-zero.  The domain and the way
+ * fractions are kept are described by a {@link FractionFieldElementFactory
+ * FractionFieldElementFactory}.
+ * </p>
+ * <p>
+ * In eager mode every result is reduced, and the reductions are arranged so
+ * that the gcds involve the smallest possible operands: sums use the gcd of
+ * the denominators (Henrici's method) and products cancel crosswise before
+ * multiplying.  In lazy mode sums and products are formed without any gcd
+ * and the fraction is only reduced when it is printed or when its numerator
+ * and denominator grow past the factory's size threshold and to more than
+ * twice the size they had after the last reduction.  Long chains of sums
+ * then cost a few gcds in total instead of one per step.
+ * </p>
+ * <p>
+ * Equality never needs a reduced form: <code>a / b</code> equals
+ * <code>c / d</code> exactly when <code>a d = b c</code>.  The reduced form
+ * is canonical nevertheless: after cancelling the gcd, both parts are
+ * divided by the <code>unitPart</code> of the denominator, so that over the
+ * integers the denominator is positive and over a field the denominator
+ * polynomial is monic.  Equal fractions therefore have the same numerator,
+ * denominator and string.
+ * </p>
+ */
+public final class FractionFieldElement implements FieldElement {
+    private FractionFieldElementFactory field;
+
+    /**
+     * The numerator and the denominator.  Reducing a fraction replaces the
+     * whole array, so a reader never sees a numerator and a denominator from
+     * different representations.
+     */
+    private volatile EuclideanDomainElement[] parts;
+    private volatile boolean reduced;
+
+    /**
+     * In lazy mode, the size of the last reduced fraction that this one was
+     * computed from.
+     */
+    private long reducedSize;
+
+    /**
+     * Creates a fraction and reduces it if the mode of the factory requires
+     * it.
+     */
+    FractionFieldElement(FractionFieldElementFactory field, EuclideanDomainElement numerator,
+                         EuclideanDomainElement denominator, boolean reduced) {
+        this(field, numerator, denominator, reduced, 0L);
+    }
+
+    private FractionFieldElement(FractionFieldElementFactory field,
+                                 EuclideanDomainElement numerator,
+                                 EuclideanDomainElement denominator,
+                                 boolean reduced, long reducedSize) {
+        if (denominator.isZero()) {
+            throw new RuntimeException(ZERO_DENOMINATOR_MESSAGE);
+        }
+        this.field = field;
+        if (reduced) {
+            this.parts = normalizeUnit(numerator, denominator);
+        } else {
+            EuclideanDomainElement[] newParts = {numerator, denominator};
+            this.parts = newParts;
+        }
+        this.reduced = reduced;
+        this.reducedSize = reducedSize;
+        if (!reduced && field.shouldReduce(numerator, denominator, reducedSize)) {
+            reduce();
+        }
+    }
+
+    /**
+     * Returns the numerator of the reduced form.
+     *
+     * @return A numerator <code>a</code> such that this element is
+     *         <code>a / b</code> with <code>a</code> and <code>b</code>
+     *         coprime.
+     */
+    public EuclideanDomainElement getNumerator() {
+        reduce();
+        return parts[0];
+    }
+
+    /**
+     * Returns the denominator of the reduced form.
+     *
+     * @return The denominator <code>b</code> that goes with
+     *         <code>getNumerator()</code>.
+     */
+    public EuclideanDomainElement getDenominator() {
+        reduce();
+        return parts[1];
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof FractionFieldElement)) {
+            return false;
+        }
+        EuclideanDomainElement[] p = parts;
+        EuclideanDomainElement[] q = ((FractionFieldElement) o).parts;
+        return p[0].multiplyBy(q[1]).equals(p[1].multiplyBy(q[0]));
+    }
+
+    /**
+     * Overrides the <code>toString()</code> method.  This reduces the
+     * fraction first.
+     *
+     * @return The string "numerator/denominator", with parentheses around
+     *         either part if it is a sum, or just the numerator if the
+     *         denominator is one.
+     */
+    public String toString() {
+        reduce();
+        EuclideanDomainElement[] p = parts;
+        if (p[1].isOne()) {
+            return p[0].toString();
+        }
+        return parenthesize(p[0]) + "/" + parenthesize(p[1]);
+    }
+
+    public boolean isZero() {
+        return parts[0].isZero();
+    }
+
+    public boolean isOne() {
+        EuclideanDomainElement[] p = parts;
+        return p[0].equals(p[1]);
+    }
+
+    public FractionFieldElement addTo(CommutativeMonoidElement e) {
+        FractionFieldElement f = sameField(e);
+        if (isZero()) {
+            return f;
+        } else if (f.isZero()) {
+            return this;
+        }
+        EuclideanDomainElement[] p = parts;
+        EuclideanDomainElement[] q = f.parts;
+        if (field.isLazy()) {
+            return new FractionFieldElement(field,
+                                            add(p[0].multiplyBy(q[1]), q[0].multiplyBy(p[1])),
+                                            multiply(p[1], q[1]), false,
+                                            Math.max(reducedSize, f.reducedSize));
+        }
+        // With g = gcd(b, d), b = g b' and d = g d', the sum is
+        // (a d' + c b') / (g b' d'), and only g can share factors with the
+        // new numerator.
+        EuclideanDomainElement g = EuclideanAlgorithm.gcd(p[1], q[1]);
+        EuclideanDomainElement bPrime = exactQuotient(p[1], g);
+        EuclideanDomainElement dPrime = exactQuotient(q[1], g);
+        EuclideanDomainElement numerator = add(p[0].multiplyBy(dPrime), q[0].multiplyBy(bPrime));
+        if (numerator.isZero()) {
+            return field.getZero();
+        }
+        EuclideanDomainElement denominator = multiply(bPrime, q[1]);
+        EuclideanDomainElement h = EuclideanAlgorithm.gcd(numerator, g);
+        return new FractionFieldElement(field, exactQuotient(numerator, h),
+                                        exactQuotient(denominator, h), true);
+    }
+
+    public FractionFieldElement negative() {
+        EuclideanDomainElement[] p = parts;
+        return new FractionFieldElement(field, (EuclideanDomainElement) p[0].negative(), p[1],
+                                        reduced, reducedSize);
+    }
+
+    public FractionFieldElement multiplyBy(CommutativeRingElement e) {
+        FractionFieldElement f = sameField(e);
+        EuclideanDomainElement[] p = parts;
+        EuclideanDomainElement[] q = f.parts;
+        if (field.isLazy()) {
+            return new FractionFieldElement(field, multiply(p[0], q[0]), multiply(p[1], q[1]),
+                                            false, Math.max(reducedSize, f.reducedSize));
+        }
+        // Cancelling crosswise leaves a reduced product if both factors
+        // were reduced.
+        if (p[0].isZero() || q[0].isZero()) {
+            return field.getZero();
+        }
+        EuclideanDomainElement g1 = EuclideanAlgorithm.gcd(p[0], q[1]);
+        EuclideanDomainElement g2 = EuclideanAlgorithm.gcd(q[0], p[1]);
+        return new FractionFieldElement(field,
+                                        multiply(exactQuotient(p[0], g1), exactQuotient(q[0], g2)),
+                                        multiply(exactQuotient(p[1], g2), exactQuotient(q[1], g1)),
+                                        true);
+    }
+
+    public FractionFieldElement inverse() {
+        EuclideanDomainElement[] p = parts;
+        if (p[0].isZero()) {
+            throw new RuntimeException(ZERO_INVERSE_MESSAGE);
+        }
+        return new FractionFieldElement(field, p[1], p[0], reduced, reducedSize);
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Divides the numerator and the denominator by their gcd and by the
+     * unit of the denominator, once.
+     */
+    private void reduce() {
+        if (reduced) {
+            return;
+        }
+        EuclideanDomainElement[] p = parts;
+        EuclideanDomainElement[] newParts;
+        if (p[0].isZero()) {
+            newParts = new EuclideanDomainElement[2];
+            newParts[0] = p[0];
+            newParts[1] = (EuclideanDomainElement) field.getRing().getOne();
+        } else {
+            EuclideanDomainElement g = EuclideanAlgorithm.gcd(p[0], p[1]);
+            newParts = normalizeUnit(exactQuotient(p[0], g), exactQuotient(p[1], g));
+        }
+        if (field.isLazy()) {
+            reducedSize = field.sizeOf(newParts[0], newParts[1]);
+        }
+        parts = newParts;
+        reduced = true;
+    }
+
+    private FractionFieldElement sameField(Element e) {
+        FractionFieldElement f = (FractionFieldElement) e;
+        if (f.field != field) {
+            throw new RuntimeException(DIFFERENT_FIELDS_MESSAGE);
+        }
+        return f;
+    }
+
+    /**
+     * Divides both parts by the unit of the denominator, which leaves a
+     * reduced fraction reduced and makes its representation canonical.
+     */
+    private static EuclideanDomainElement[] normalizeUnit(EuclideanDomainElement numerator,
+                                                          EuclideanDomainElement denominator) {
+        EuclideanDomainElement unit = denominator.unitPart();
+        if (!unit.isOne()) {
+            numerator = exactQuotient(numerator, unit);
+            denominator = exactQuotient(denominator, unit);
+        }
+        EuclideanDomainElement[] normalized = {numerator, denominator};
+        return normalized;
+    }
+
+    private static EuclideanDomainElement exactQuotient(EuclideanDomainElement a,
+                                                        EuclideanDomainElement b) {
+        if (b.isOne()) {
+            return a;
+        }
+        return a.divideWithRemainder(b)[0];
+    }
+
+    private static EuclideanDomainElement add(CommutativeMonoidElement a, CommutativeMonoidElement b) {
+        return (EuclideanDomainElement) a.addTo(b);
+    }
+
+    private static EuclideanDomainElement multiply(EuclideanDomainElement a,
+                                                   EuclideanDomainElement b) {
+        return (EuclideanDomainElement) a.multiplyBy(b);
+    }
+
+    private static String parenthesize(Element e) {
+        String s = e.toString();
+        if (s.indexOf(' ') >= 0) {
+            return "(" + s + ")";
+        }
+        return s;
+    }
+
+    private static String ZERO_DENOMINATOR_MESSAGE = "The denominator of a fraction cannot be zero.";
+    private static String ZERO_INVERSE_MESSAGE = "Zero does not have a multiplicative inverse.";
+    private static String DIFFERENT_FIELDS_MESSAGE
+        = "These fractions belong to different fraction fields.";
+}
@@ -0,0 +1,112 @@
+package danraies.commutativealgebra;
+
+/**
+ * <p>
+ * Describes the field of fractions of a Euclidean domain and creates its
+ * elements, which are {@link FractionFieldElement FractionFieldElement}
+ * objects.  It also tests the field axioms for them, with random fractions
+ * built from random elements of the domain.
+ * </p>
+ * <p>
+ * A factory is either eager, in which case every fraction is kept reduced,
+ * or lazy, in which case a fraction is only reduced once the sizes of its
+ * numerator and denominator, as measured by an {@link OperandSize
+ * OperandSize}, add up to more than a threshold and to more than twice their
+ * size after the previous reduction.  The second condition keeps a chain of
+ * operations from reducing in every step once its reduced form has
+ * outgrown the threshold.  Fractions from different factories cannot be
+ * combined.
+ * </p>
+ */
+public class FractionFieldElementFactory extends FieldElementFactory {
+    private CommutativeRingElementFactory ring;
+    private OperandSize size;
+    private long threshold;
+
+    /**
+     * Creates an eager fraction field.
+     *
+     * @param ring A factory for a Euclidean domain, whose zero and one are
+     *        <code>EuclideanDomainElement</code> objects.
+     */
+    public FractionFieldElementFactory(CommutativeRingElementFactory ring) {
+        this.ring = ring;
+    }
+
+    /**
+     * Creates a lazy fraction field.
+     *
+     * @param ring A factory for a Euclidean domain, whose zero and one are
+     *        <code>EuclideanDomainElement</code> objects.
+     * @param size A measure of the elements of the domain.
+     * @param threshold Fractions are not reduced before the sizes of the
+     *        numerator and the denominator add up to more than this.  Pass
+     *        <code>Long.MAX_VALUE</code> to reduce only when printing.
+     */
+    public FractionFieldElementFactory(CommutativeRingElementFactory ring, OperandSize size,
+                                       long threshold) {
+        this.ring = ring;
+        this.size = size;
+        this.threshold = threshold;
+    }
+
+    public CommutativeRingElementFactory getRing() {
+        return ring;
+    }
+
+    public boolean isLazy() {
+        return (size != null);
+    }
+
+    /**
+     * Creates the fraction <code>numerator / denominator</code>.
+     *
+     * @param numerator Any element of the domain.
+     * @param denominator Any non-zero element of the domain.
+     * @return The fraction, reduced if this factory is eager.
+     */
+    public FractionFieldElement getElement(EuclideanDomainElement numerator,
+                                           EuclideanDomainElement denominator) {
+        return new FractionFieldElement(this, numerator, denominator, false);
+    }
+
+    public FractionFieldElement getRandom() {
+        EuclideanDomainElement denominator = (EuclideanDomainElement) ring.getRandom();
+        while (denominator.isZero()) {
+            denominator = (EuclideanDomainElement) ring.getRandom();
+        }
+        return getElement((EuclideanDomainElement) ring.getRandom(), denominator);
+    }
+
+    public void setSeed(long seed) {
+        ring.setSeed(seed);
+    }
+
+    public FractionFieldElement getZero() {
+        return new FractionFieldElement(this, (EuclideanDomainElement) ring.getZero(),
+                                        (EuclideanDomainElement) ring.getOne(), true);
+    }
+
+    public FractionFieldElement getOne() {
+        return new FractionFieldElement(this, (EuclideanDomainElement) ring.getOne(),
+                                        (EuclideanDomainElement) ring.getOne(), true);
+    }
+
+    /**
+     * Decides whether a new fraction should be reduced right away.  In
+     * eager mode every fraction is.
+     */
+    boolean shouldReduce(EuclideanDomainElement numerator, EuclideanDomainElement denominator,
+                         long reducedSize) {
+        if (size == null) {
+            return true;
+        }
+        long currentSize = sizeOf(numerator, denominator);
+        return (currentSize > threshold) && (currentSize > 2 * reducedSize);
+    }
+
+    /** The combined size of a numerator and a denominator, in lazy mode. */
+    long sizeOf(EuclideanDomainElement numerator, EuclideanDomainElement denominator) {
+        return size.sizeOf(numerator) + size.sizeOf(denominator);
+    }
+}
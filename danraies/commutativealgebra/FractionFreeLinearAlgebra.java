@@ -0,0 +1,627 @@
+package danraies.commutativealgebra;
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Linear algebra over a Euclidean domain which never leaves the domain.  The
+ * textbook algorithms for determinants and normal forms divide by pivots and
+ * therefore work over the fraction field; over the integers that means
+ * rationals, gcd reductions in every step and very early overflow.  The
+ * methods of this class use only ring operations and exact division instead.
+ * </p>
+ * <dl>
+ * <dt>{@link #determinant(CommutativeRingElementFactory, EuclideanDomainElement[][]) determinant}</dt>
+ * <dd>Bareiss' fraction-free elimination.  Every intermediate entry is a minor
+ *     of the input, so the entries stay as small as the answer allows.</dd>
+ * <dt>{@link #adjugate(CommutativeRingElementFactory, EuclideanDomainElement[][]) adjugate}</dt>
+ * <dd>Fraction-free Gauss-Jordan elimination of the matrix augmented by the
+ *     identity.</dd>
+ * <dt>{@link #hermiteNormalForm(CommutativeRingElementFactory, EuclideanDomainElement[][]) hermiteNormalForm}
+ *     and {@link #smithNormalForm(CommutativeRingElementFactory, EuclideanDomainElement[][]) smithNormalForm}</dt>
+ * <dd>Unimodular row (and column) operations built from extended gcds.</dd>
+ * <dt>{@link #multiModularDeterminant(BigInteger[][]) multiModularDeterminant}</dt>
+ * <dd>For large integer matrices: the determinant is computed modulo enough
+ *     word-sized primes to exceed the Hadamard bound, in parallel, and then
+ *     reconstructed with the Chinese Remainder Theorem.</dd>
+ * </dl>
+ * <p>
+ * The ring is passed as a <code>CommutativeRingElementFactory</code> whose
+ * zero and one are instances of <code>EuclideanDomainElement</code>.  The
+ * input matrices are never modified.  Pivots and diagonal entries of the
+ * normal forms are canonical associates, found with
+ * <code>unitPart</code>, and entries above a pivot are remainders of the
+ * domain's own <code>divideWithRemainder</code>.  Over the integers of
+ * this package, whose remainders are non-negative, the pivots and
+ * diagonal entries are therefore positive and the entries above a pivot
+ * lie in <code>[0, pivot)</code>, so that two equivalent matrices get the
+ * same normal forms.
+ * </p>
+ */
+public final class FractionFreeLinearAlgebra {
+    private FractionFreeLinearAlgebra() {
+    }
+
+    //////////////////////////////////////////////////
+    // Public Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Computes the determinant of a square matrix with Bareiss' algorithm.
+     *
+     * @param ring The factory describing the domain the entries belong to.
+     * @param matrix A square matrix, given as an array of rows.
+     * @return The determinant of <code>matrix</code>.
+     */
+    public static EuclideanDomainElement determinant(CommutativeRingElementFactory ring,
+                                                     EuclideanDomainElement[][] matrix) {
+        int n = checkSquare(matrix);
+        if (n == 0) {
+            return one(ring);
+        }
+        EuclideanDomainElement[][] m = copy(matrix);
+        EuclideanDomainElement previousPivot = one(ring);
+        boolean negate = false;
+        for (int k = 0; k < n - 1; k++) {
+            if (m[k][k].isZero()) {
+                int pivotRow = findPivotRow(m, k, k);
+                if (pivotRow < 0) {
+                    return zero(ring);
+                }
+                swapRows(m, k, pivotRow);
+                negate = !negate;
+            }
+            for (int i = k + 1; i < n; i++) {
+                for (int j = k + 1; j < n; j++) {
+                    m[i][j] = exactQuotient(subtract(multiply(m[k][k], m[i][j]),
+                                                     multiply(m[i][k], m[k][j])),
+                                            previousPivot);
+                }
+                m[i][k] = zero(ring);
+            }
+            previousPivot = m[k][k];
+        }
+        if (negate) {
+            return negative(m[n - 1][n - 1]);
+        }
+        return m[n - 1][n - 1];
+    }
+
+    /**
+     * Computes the adjugate (the transposed cofactor matrix) of a square
+     * matrix.  For a non-singular matrix this is done with one fraction-free
+     * Gauss-Jordan elimination of the matrix augmented by the identity.  A
+     * singular matrix falls back to computing each cofactor with
+     * {@link #determinant(CommutativeRingElementFactory, EuclideanDomainElement[][]) determinant}.
+     *
+     * @param ring The factory describing the domain the entries belong to.
+     * @param matrix A square matrix, given as an array of rows.
+     * @return The adjugate of <code>matrix</code>.
+     */
+    public static EuclideanDomainElement[][] adjugate(CommutativeRingElementFactory ring,
+                                                      EuclideanDomainElement[][] matrix) {
+        int n = checkSquare(matrix);
+        EuclideanDomainElement[][] m = new EuclideanDomainElement[n][2 * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                m[i][j] = matrix[i][j];
+                m[i][n + j] = (i == j) ? one(ring) : zero(ring);
+            }
+        }
+        EuclideanDomainElement previousPivot = one(ring);
+        boolean negate = false;
+        for (int k = 0; k < n; k++) {
+            if (m[k][k].isZero()) {
+                int pivotRow = findPivotRow(m, k, k);
+                if (pivotRow < 0) {
+                    return adjugateByCofactors(ring, matrix);
+                }
+                swapRows(m, k, pivotRow);
+                negate = !negate;
+            }
+            for (int i = 0; i < n; i++) {
+                if (i == k) {
+                    continue;
+                }
+                for (int j = 0; j < 2 * n; j++) {
+                    if (j == k) {
+                        continue;
+                    }
+                    m[i][j] = exactQuotient(subtract(multiply(m[k][k], m[i][j]),
+                                                     multiply(m[i][k], m[k][j])),
+                                            previousPivot);
+                }
+                m[i][k] = zero(ring);
+            }
+            previousPivot = m[k][k];
+        }
+        // The left half is now d times the identity and the right half is
+        // d times the inverse, where d is the determinant of the matrix with
+        // its rows permuted.
+        EuclideanDomainElement[][] adjugate = new EuclideanDomainElement[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                adjugate[i][j] = negate ? negative(m[i][n + j]) : m[i][n + j];
+            }
+        }
+        return adjugate;
+    }
+
+    /**
+     * Computes the Hermite normal form by unimodular row operations.  The
+     * result is in row echelon form, every pivot is its own canonical
+     * associate and every entry above a pivot is the remainder of its
+     * original value upon division by that pivot.
+     *
+     * @param ring The factory describing the domain the entries belong to.
+     * @param matrix Any matrix, given as an array of rows of equal length.
+     * @return The Hermite normal form of <code>matrix</code>.
+     */
+    public static EuclideanDomainElement[][] hermiteNormalForm(CommutativeRingElementFactory ring,
+                                                               EuclideanDomainElement[][] matrix) {
+        EuclideanDomainElement[][] h = copy(matrix);
+        int rows = h.length;
+        int columns = (rows == 0) ? 0 : h[0].length;
+        int pivotRow = 0;
+        for (int c = 0; (c < columns) && (pivotRow < rows); c++) {
+            for (int i = pivotRow + 1; i < rows; i++) {
+                if (h[i][c].isZero()) {
+                    continue;
+                }
+                if (h[pivotRow][c].isZero()) {
+                    swapRows(h, pivotRow, i);
+                    continue;
+                }
+                combineRows(ring, h, pivotRow, i, c);
+            }
+            if (h[pivotRow][c].isZero()) {
+                continue;
+            }
+            divideRowByUnit(h, pivotRow, h[pivotRow][c].unitPart());
+            for (int i = 0; i < pivotRow; i++) {
+                EuclideanDomainElement q = h[i][c].divideWithRemainder(h[pivotRow][c])[0];
+                if (!q.isZero()) {
+                    addMultipleOfRow(h, i, pivotRow, negative(q));
+                }
+            }
+            pivotRow++;
+        }
+        return h;
+    }
+
+    /**
+     * Computes the Smith normal form by unimodular row and column operations.
+     * The result is diagonal, each diagonal entry is its own canonical
+     * associate and each diagonal entry divides the next one.
+     *
+     * @param ring The factory describing the domain the entries belong to.
+     * @param matrix Any matrix, given as an array of rows of equal length.
+     * @return The Smith normal form of <code>matrix</code>.
+     */
+    public static EuclideanDomainElement[][] smithNormalForm(CommutativeRingElementFactory ring,
+                                                             EuclideanDomainElement[][] matrix) {
+        EuclideanDomainElement[][] s = copy(matrix);
+        int rows = s.length;
+        int columns = (rows == 0) ? 0 : s[0].length;
+        for (int t = 0; (t < rows) && (t < columns); t++) {
+            if (!moveNonZeroEntryTo(s, t)) {
+                break;
+            }
+            boolean finished = false;
+            while (!finished) {
+                for (int i = t + 1; i < rows; i++) {
+                    if (!s[i][t].isZero()) {
+                        combineRows(ring, s, t, i, t);
+                    }
+                }
+                for (int j = t + 1; j < columns; j++) {
+                    if (!s[t][j].isZero()) {
+                        combineColumns(ring, s, t, j, t);
+                    }
+                }
+                finished = isColumnClearBelow(s, t);
+                if (finished) {
+                    int offendingRow = findNonDivisibleRow(s, t);
+                    if (offendingRow >= 0) {
+                        addMultipleOfRow(s, t, offendingRow, one(ring));
+                        finished = false;
+                    }
+                }
+            }
+            // Only the diagonal entry is left in row t, so dividing the row
+            // by a unit changes nothing else.
+            divideRowByUnit(s, t, s[t][t].unitPart());
+        }
+        return s;
+    }
+
+    /**
+     * Computes the determinant of a large integer matrix by a multi-modular
+     * method.  The determinant is found modulo as many primes below
+     * {@link ModularArithmetic#MAX_MODULUS} as the Hadamard bound requires;
+     * the primes are processed in parallel on the common fork-join pool and
+     * the residues are combined with the Chinese Remainder Theorem.
+     *
+     * @param matrix A square integer matrix, given as an array of rows.
+     * @return The determinant of <code>matrix</code>.
+     */
+    public static BigInteger multiModularDeterminant(BigInteger[][] matrix) {
+        int n = checkSquare(matrix);
+        if (n == 0) {
+            return BigInteger.ONE;
+        }
+        long boundBits = 0;
+        for (int i = 0; i < n; i++) {
+            BigInteger squaredNorm = BigInteger.ZERO;
+            for (int j = 0; j < n; j++) {
+                squaredNorm = squaredNorm.add(matrix[i][j].multiply(matrix[i][j]));
+            }
+            if (squaredNorm.signum() == 0) {
+                return BigInteger.ZERO;
+            }
+            boundBits = boundBits + (squaredNorm.bitLength() + 1) / 2;
+        }
+        // The residues have to determine the determinant and its sign, so the
+        // product of the primes must exceed twice the Hadamard bound.
+        int primeCount = (int) ((boundBits + 2) / (PRIME_BITS - 1)) + 1;
+        long[] primes = new long[primeCount];
+        long bound = ModularArithmetic.MAX_MODULUS + 1;
+        for (int k = 0; k < primeCount; k++) {
+            primes[k] = ModularArithmetic.previousPrime(bound);
+            bound = primes[k];
+        }
+        long[] residues = new long[primeCount];
+        ForkJoinPool.commonPool().invoke(
+            new ModularDeterminantTask(matrix, primes, residues, 0, primeCount));
+        return chineseRemainder(primes, residues);
+    }
+
+    /**
+     * A convenience version of
+     * {@link #multiModularDeterminant(BigInteger[][]) multiModularDeterminant}
+     * for matrices whose entries fit in a <code>long</code>.  The determinant
+     * itself may not fit, which is why a <code>BigInteger</code> is returned.
+     *
+     * @param matrix A square integer matrix, given as an array of rows.
+     * @return The determinant of <code>matrix</code>.
+     */
+    public static BigInteger multiModularDeterminant(long[][] matrix) {
+        BigInteger[][] big = new BigInteger[matrix.length][];
+        for (int i = 0; i < matrix.length; i++) {
+            big[i] = new BigInteger[matrix[i].length];
+            for (int j = 0; j < matrix[i].length; j++) {
+                big[i][j] = BigInteger.valueOf(matrix[i][j]);
+            }
+        }
+        return multiModularDeterminant(big);
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    private static EuclideanDomainElement[][] adjugateByCofactors(CommutativeRingElementFactory ring,
+                                                                  EuclideanDomainElement[][] matrix) {
+        int n = matrix.length;
+        EuclideanDomainElement[][] adjugate = new EuclideanDomainElement[n][n];
+        if (n == 1) {
+            adjugate[0][0] = one(ring);
+            return adjugate;
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                EuclideanDomainElement[][] minor = new EuclideanDomainElement[n - 1][n - 1];
+                for (int r = 0, mr = 0; r < n; r++) {
+                    if (r == i) {
+                        continue;
+                    }
+                    for (int c = 0, mc = 0; c < n; c++) {
+                        if (c == j) {
+                            continue;
+                        }
+                        minor[mr][mc] = matrix[r][c];
+                        mc++;
+                    }
+                    mr++;
+                }
+                EuclideanDomainElement cofactor = determinant(ring, minor);
+                adjugate[j][i] = ((i + j) % 2 == 0) ? cofactor : negative(cofactor);
+            }
+        }
+        return adjugate;
+    }
+
+    /**
+     * Replaces rows <code>r1</code> and <code>r2</code> by the unimodular
+     * combination which leaves the gcd of their entries in column
+     * <code>c</code> in row <code>r1</code> and a zero in row <code>r2</code>.
+     */
+    private static void combineRows(CommutativeRingElementFactory ring,
+                                    EuclideanDomainElement[][] m,
+                                    int r1, int r2, int c) {
+        EuclideanDomainElement[] bezout = extendedGcd(ring, m[r1][c], m[r2][c]);
+        EuclideanDomainElement u = exactQuotient(m[r1][c], bezout[0]);
+        EuclideanDomainElement v = exactQuotient(m[r2][c], bezout[0]);
+        for (int j = 0; j < m[r1].length; j++) {
+            EuclideanDomainElement a = m[r1][j];
+            EuclideanDomainElement b = m[r2][j];
+            m[r1][j] = add(multiply(bezout[1], a), multiply(bezout[2], b));
+            m[r2][j] = subtract(multiply(u, b), multiply(v, a));
+        }
+    }
+
+    /** The column version of <code>combineRows</code>. */
+    private static void combineColumns(CommutativeRingElementFactory ring,
+                                       EuclideanDomainElement[][] m,
+                                       int c1, int c2, int r) {
+        EuclideanDomainElement[] bezout = extendedGcd(ring, m[r][c1], m[r][c2]);
+        EuclideanDomainElement u = exactQuotient(m[r][c1], bezout[0]);
+        EuclideanDomainElement v = exactQuotient(m[r][c2], bezout[0]);
+        for (int i = 0; i < m.length; i++) {
+            EuclideanDomainElement a = m[i][c1];
+            EuclideanDomainElement b = m[i][c2];
+            m[i][c1] = add(multiply(bezout[1], a), multiply(bezout[2], b));
+            m[i][c2] = subtract(multiply(u, b), multiply(v, a));
+        }
+    }
+
+    /**
+     * Returns <code>{g, s, t}</code> where <code>g</code> is a greatest common
+     * divisor of <code>a</code> and <code>b</code> and
+     * <code>s * a + t * b = g</code>.
+     */
+    private static EuclideanDomainElement[] extendedGcd(CommutativeRingElementFactory ring,
+                                                        EuclideanDomainElement a,
+                                                        EuclideanDomainElement b) {
+        // When a already divides b it must be returned as the gcd with the
+        // trivial coefficients, otherwise the normal forms could keep
+        // trading the pivot for one of its associates forever.
+        if (!a.isZero() && b.divideWithRemainder(a)[1].isZero()) {
+            EuclideanDomainElement[] bezout = {a, one(ring), zero(ring)};
+            return bezout;
+        }
+        return EuclideanAlgorithm.extendedGcd(ring, a, b);
+    }
+
+    private static boolean moveNonZeroEntryTo(EuclideanDomainElement[][] m, int t) {
+        for (int i = t; i < m.length; i++) {
+            for (int j = t; j < m[i].length; j++) {
+                if (!m[i][j].isZero()) {
+                    swapRows(m, t, i);
+                    swapColumns(m, t, j);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isColumnClearBelow(EuclideanDomainElement[][] m, int t) {
+        for (int i = t + 1; i < m.length; i++) {
+            if (!m[i][t].isZero()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int findNonDivisibleRow(EuclideanDomainElement[][] m, int t) {
+        for (int i = t + 1; i < m.length; i++) {
+            for (int j = t + 1; j < m[i].length; j++) {
+                if (!m[i][j].divideWithRemainder(m[t][t])[1].isZero()) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int findPivotRow(EuclideanDomainElement[][] m, int startRow, int column) {
+        for (int i = startRow; i < m.length; i++) {
+            if (!m[i][column].isZero()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Adds <code>factor</code> times row <code>source</code> to row <code>target</code>. */
+    private static void addMultipleOfRow(EuclideanDomainElement[][] m,
+                                         int target, int source,
+                                         EuclideanDomainElement factor) {
+        for (int j = 0; j < m[target].length; j++) {
+            if (!m[source][j].isZero()) {
+                m[target][j] = add(m[target][j], multiply(factor, m[source][j]));
+            }
+        }
+    }
+
+    /** Divides row <code>r</code> by the unit <code>u</code>. */
+    private static void divideRowByUnit(EuclideanDomainElement[][] m, int r,
+                                        EuclideanDomainElement u) {
+        if (u.isOne()) {
+            return;
+        }
+        for (int j = 0; j < m[r].length; j++) {
+            if (!m[r][j].isZero()) {
+                m[r][j] = exactQuotient(m[r][j], u);
+            }
+        }
+    }
+
+    private static void swapRows(Object[][] m, int r1, int r2) {
+        Object[] temp = m[r1];
+        m[r1] = m[r2];
+        m[r2] = temp;
+    }
+
+    private static void swapColumns(Object[][] m, int c1, int c2) {
+        for (int i = 0; i < m.length; i++) {
+            Object temp = m[i][c1];
+            m[i][c1] = m[i][c2];
+            m[i][c2] = temp;
+        }
+    }
+
+    private static EuclideanDomainElement[][] copy(EuclideanDomainElement[][] matrix) {
+        EuclideanDomainElement[][] copy = new EuclideanDomainElement[matrix.length][];
+        for (int i = 0; i < matrix.length; i++) {
+            if ((i > 0) && (matrix[i].length != matrix[0].length)) {
+                throw new RuntimeException(RAGGED_MATRIX_MESSAGE);
+            }
+            copy[i] = matrix[i].clone();
+        }
+        return copy;
+    }
+
+    private static int checkSquare(Object[][] matrix) {
+        for (int i = 0; i < matrix.length; i++) {
+            if (matrix[i].length != matrix.length) {
+                throw new RuntimeException(NOT_SQUARE_MESSAGE);
+            }
+        }
+        return matrix.length;
+    }
+
+    private static EuclideanDomainElement exactQuotient(EuclideanDomainElement a,
+                                                        EuclideanDomainElement b) {
+        EuclideanDomainElement[] qr = a.divideWithRemainder(b);
+        if (!qr[1].isZero()) {
+            throw new RuntimeException(INEXACT_DIVISION_MESSAGE);
+        }
+        return qr[0];
+    }
+
+    private static EuclideanDomainElement add(EuclideanDomainElement a,
+                                              EuclideanDomainElement b) {
+        return (EuclideanDomainElement) a.addTo(b);
+    }
+
+    private static EuclideanDomainElement subtract(EuclideanDomainElement a,
+                                                   EuclideanDomainElement b) {
+        return (EuclideanDomainElement) a.addTo(b.negative());
+    }
+
+    private static EuclideanDomainElement multiply(EuclideanDomainElement a,
+                                                   EuclideanDomainElement b) {
+        return (EuclideanDomainElement) a.multiplyBy(b);
+    }
+
+    private static EuclideanDomainElement negative(EuclideanDomainElement a) {
+        return (EuclideanDomainElement) a.negative();
+    }
+
+    private static EuclideanDomainElement zero(CommutativeRingElementFactory ring) {
+        return (EuclideanDomainElement) ring.getZero();
+    }
+
+    private static EuclideanDomainElement one(CommutativeRingElementFactory ring) {
+        return (EuclideanDomainElement) ring.getOne();
+    }
+
+    /**
+     * Computes a determinant modulo a prime by ordinary Gaussian elimination
+     * on primitive residues.
+     */
+    private static long determinantModulo(BigInteger[][] matrix, long prime) {
+        int n = matrix.length;
+        BigInteger bigPrime = BigInteger.valueOf(prime);
+        long[][] m = new long[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                m[i][j] = matrix[i][j].mod(bigPrime).longValue();
+            }
+        }
+        long det = 1L;
+        for (int k = 0; k < n; k++) {
+            int pivotRow = k;
+            while ((pivotRow < n) && (m[pivotRow][k] == 0L)) {
+                pivotRow++;
+            }
+            if (pivotRow == n) {
+                return 0L;
+            }
+            if (pivotRow != k) {
+                long[] temp = m[k];
+                m[k] = m[pivotRow];
+                m[pivotRow] = temp;
+                det = ModularArithmetic.negate(det, prime);
+            }
+            det = ModularArithmetic.multiply(det, m[k][k], prime);
+            long pivotInverse = ModularArithmetic.inverse(m[k][k], prime);
+            for (int i = k + 1; i < n; i++) {
+                if (m[i][k] == 0L) {
+                    continue;
+                }
+                long factor = ModularArithmetic.multiply(m[i][k], pivotInverse, prime);
+                for (int j = k + 1; j < n; j++) {
+                    m[i][j] = ModularArithmetic.subtract(
+                        m[i][j], ModularArithmetic.multiply(factor, m[k][j], prime), prime);
+                }
+            }
+        }
+        return det;
+    }
+
+    /**
+     * Combines residues modulo pairwise distinct primes into the unique
+     * integer of smallest absolute value with those residues.
+     */
+    private static BigInteger chineseRemainder(long[] primes, long[] residues) {
+        BigInteger x = BigInteger.valueOf(residues[0]);
+        BigInteger modulus = BigInteger.valueOf(primes[0]);
+        for (int k = 1; k < primes.length; k++) {
+            BigInteger p = BigInteger.valueOf(primes[k]);
+            long difference = ModularArithmetic.subtract(residues[k],
+                                                         x.mod(p).longValue(),
+                                                         primes[k]);
+            long modulusInverse = ModularArithmetic.inverse(modulus.mod(p).longValue(),
+                                                            primes[k]);
+            long t = ModularArithmetic.multiply(difference, modulusInverse, primes[k]);
+            x = x.add(modulus.multiply(BigInteger.valueOf(t)));
+            modulus = modulus.multiply(p);
+        }
+        if (x.shiftLeft(1).compareTo(modulus) > 0) {
+            x = x.subtract(modulus);
+        }
+        return x;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ModularDeterminantTask extends RecursiveAction {
+        private final BigInteger[][] matrix;
+        private final long[] primes;
+        private final long[] residues;
+        private final int start;
+        private final int end;
+
+        ModularDeterminantTask(BigInteger[][] matrix, long[] primes, long[] residues,
+                               int start, int end) {
+            this.matrix = matrix;
+            this.primes = primes;
+            this.residues = residues;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                residues[start] = determinantModulo(matrix, primes[start]);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new ModularDeterminantTask(matrix, primes, residues, start, middle),
+                      new ModularDeterminantTask(matrix, primes, residues, middle, end));
+        }
+    }
+
+    private static final int PRIME_BITS = 31;
+
+    private static String NOT_SQUARE_MESSAGE = "The matrix must be square.";
+    private static String RAGGED_MATRIX_MESSAGE
+        = "Every row of the matrix must have the same length.";
+    private static String INEXACT_DIVISION_MESSAGE
+        = "A division that should have been exact left a remainder.";
+}
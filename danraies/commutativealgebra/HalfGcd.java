@@ -0,0 +1,454 @@
+package danraies.commutativealgebra;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Greatest common divisors by the half-gcd method, for polynomials over a
+ * field and for integers.  Repeated division needs a number of steps
+ * proportional to the size of the operands, each as expensive as the
+ * operands are large, so it takes quadratic time.  The quotients at the
+ * start of a remainder sequence only depend on the leading halves of the
+ * operands, however.  The half-gcd method finds the matrix of those
+ * quotients recursively from the leading halves, applies it to the whole
+ * operands with a few products, and finds the next quotients the same way,
+ * so that a greatest common divisor costs <code>O(M(n) log n)</code>, where
+ * <code>M(n)</code> is the cost of one product.
+ * </p>
+ * <dl>
+ * <dt>Polynomials</dt>
+ * <dd>The recursion of Thull and Yap: the matrix that takes
+ *     <code>(a, b)</code>, with <code>deg a = n</code>, to the first pair
+ *     of remainders of degree at least <code>n/2</code> and below
+ *     <code>n/2</code>.  Products are those of
+ *     {@link UnivariatePolynomial UnivariatePolynomial}, so they use
+ *     Karatsuba's method.  The greatest common divisor that is returned is
+ *     monic.</dd>
+ * <dt>Integers</dt>
+ * <dd>The reduction of M&ouml;ller, which only takes steps
+ *     <code>a - q b</code> that leave both numbers above
+ *     <code>2^s</code>, with <code>s</code> a little over half the size.
+ *     Steps taken on the leading bits then remain valid for the whole
+ *     numbers, so no correction is needed after the recursive calls.
+ *     Products are those of <code>BigInteger</code>, which uses the methods
+ *     of Karatsuba and of Toom and Cook for large numbers.  The greatest
+ *     common divisor that is returned is non-negative.</dd>
+ * </dl>
+ * <p>
+ * Below a threshold both fall back to repeated division, or to
+ * <code>BigInteger.gcd</code> when no coefficients are needed.  The
+ * thresholds are far apart: without coefficients, repeated division of
+ * polynomials only loses to the half-gcd method for degrees in the
+ * thousands, and <code>BigInteger.gcd</code> only for numbers of over ten
+ * thousand bits, while the coefficients make repeated division a good deal
+ * slower.
+ * {@link UnivariatePolynomial UnivariatePolynomial} computes its greatest
+ * common divisors here; integer elements can do the same through
+ * {@link FastGcdElement FastGcdElement}.
+ * </p>
+ */
+public final class HalfGcd {
+    /**
+     * Below this degree repeated division is faster, both inside a
+     * half-gcd and for the coefficients of B&eacute;zout's identity.
+     */
+    private static int POLYNOMIAL_THRESHOLD = 128;
+    /**
+     * Below this degree repeated division is faster for a greatest common
+     * divisor alone.  A division step then costs a single pass over the
+     * coefficients, so the half-gcd method takes much longer to pay off.
+     */
+    private static int POLYNOMIAL_GCD_THRESHOLD = 8192;
+    /** Below this many bits a half-gcd reduction takes single steps. */
+    private static int INTEGER_HALF_GCD_THRESHOLD = 512;
+    /** Below this many bits <code>BigInteger.gcd</code> is faster. */
+    private static int INTEGER_GCD_THRESHOLD = 16384;
+    /** Below this many bits the extended Euclidean algorithm is faster. */
+    private static int INTEGER_EXTENDED_GCD_THRESHOLD = 2048;
+
+    private HalfGcd() {
+    }
+
+    //////////////////////////////////////////////////
+    // Public Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Computes the greatest common divisor of two integers.
+     *
+     * @param a Any integer.
+     * @param b Any integer.
+     * @return The non-negative greatest common divisor of <code>a</code>
+     *         and <code>b</code>.
+     */
+    public static BigInteger gcd(BigInteger a, BigInteger b) {
+        a = a.abs();
+        b = b.abs();
+        while ((a.signum() != 0) && (b.signum() != 0)
+               && (Math.max(a.bitLength(), b.bitLength()) >= INTEGER_GCD_THRESHOLD)) {
+            BigInteger[] reduced = halfGcd(a, b);
+            a = reduced[4];
+            b = reduced[5];
+            if (a.compareTo(b) >= 0) {
+                a = a.mod(b);
+            } else {
+                b = b.mod(a);
+            }
+        }
+        return a.gcd(b);
+    }
+
+    /**
+     * Computes the greatest common divisor of two integers together with
+     * the coefficients of B&eacute;zout's identity.
+     *
+     * @param a Any integer.
+     * @param b Any integer.
+     * @return An array <code>{g, s, t}</code> where <code>g</code> is the
+     *         non-negative greatest common divisor of <code>a</code> and
+     *         <code>b</code> and <code>s * a + t * b = g</code>.
+     */
+    public static BigInteger[] extendedGcd(BigInteger a, BigInteger b) {
+        BigInteger x = a.abs();
+        BigInteger y = b.abs();
+        // (|a|, |b|) = u (x, y), where u has determinant one and no negative
+        // entries.
+        BigInteger[] u = {BigInteger.ONE, BigInteger.ZERO, BigInteger.ZERO, BigInteger.ONE};
+        while ((x.signum() != 0) && (y.signum() != 0)
+               && (Math.max(x.bitLength(), y.bitLength()) >= INTEGER_EXTENDED_GCD_THRESHOLD)) {
+            BigInteger[] reduced = halfGcd(x, y);
+            u = multiply(u, reduced);
+            x = reduced[4];
+            y = reduced[5];
+            if (x.compareTo(y) >= 0) {
+                BigInteger[] qr = x.divideAndRemainder(y);
+                x = qr[1];
+                u = multiply(u, new BigInteger[] {BigInteger.ONE, qr[0],
+                                                  BigInteger.ZERO, BigInteger.ONE});
+            } else {
+                BigInteger[] qr = y.divideAndRemainder(x);
+                y = qr[1];
+                u = multiply(u, new BigInteger[] {BigInteger.ONE, BigInteger.ZERO,
+                                                  qr[0], BigInteger.ONE});
+            }
+        }
+        BigInteger[] bezout = euclid(x, y);
+        // With x = u[3] |a| - u[1] |b| and y = u[0] |b| - u[2] |a|, the
+        // coefficients of x and y become coefficients of |a| and |b|.
+        BigInteger s = bezout[1].multiply(u[3]).subtract(bezout[2].multiply(u[2]));
+        BigInteger t = bezout[2].multiply(u[0]).subtract(bezout[1].multiply(u[1]));
+        BigInteger[] result = {bezout[0], (a.signum() < 0) ? s.negate() : s,
+                               (b.signum() < 0) ? t.negate() : t};
+        return result;
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Computes the monic greatest common divisor of two polynomials.
+     *
+     * @param a Any polynomial.
+     * @param b Any polynomial over the same field.
+     * @return The monic greatest common divisor, or zero if both are zero.
+     */
+    static UnivariatePolynomial gcd(UnivariatePolynomial a, UnivariatePolynomial b) {
+        return polynomialGcd(a, b, false)[0];
+    }
+
+    /**
+     * Computes the monic greatest common divisor of two polynomials
+     * together with the coefficients of B&eacute;zout's identity.
+     *
+     * @param a Any polynomial.
+     * @param b Any polynomial over the same field.
+     * @return An array <code>{g, s, t}</code> where <code>g</code> is the
+     *         monic greatest common divisor of <code>a</code> and
+     *         <code>b</code>, or zero if both are zero, and
+     *         <code>s * a + t * b = g</code>.
+     */
+    static UnivariatePolynomial[] extendedGcd(UnivariatePolynomial a, UnivariatePolynomial b) {
+        return polynomialGcd(a, b, true);
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Runs the remainder sequence of <code>a</code> and <code>b</code>.
+     * While the degree is above the threshold, each half-gcd matrix takes
+     * it halfway down and one division takes it past the middle; below the
+     * threshold it goes on one division at a time.  If the coefficients are
+     * wanted, <code>m</code> keeps the matrix that takes <code>(a, b)</code>
+     * to the current pair.
+     */
+    private static UnivariatePolynomial[] polynomialGcd(UnivariatePolynomial a,
+                                                        UnivariatePolynomial b,
+                                                        boolean extended) {
+        if (a.isZero() && b.isZero()) {
+            UnivariatePolynomial[] bezout = {a, a, a};
+            return bezout;
+        }
+        UnivariatePolynomial[] m = extended ? identity(a.isZero() ? b : a) : null;
+        if (a.getDegree() < b.getDegree()) {
+            UnivariatePolynomial temp = a;
+            a = b;
+            b = temp;
+            if (extended) {
+                UnivariatePolynomial[] swapped = {m[2], m[3], m[0], m[1]};
+                m = swapped;
+            }
+        }
+        int threshold = extended ? POLYNOMIAL_THRESHOLD : POLYNOMIAL_GCD_THRESHOLD;
+        while (!b.isZero()) {
+            if ((a.getDegree() >= threshold) && (b.getDegree() < a.getDegree())) {
+                UnivariatePolynomial[] r = halfGcd(a, b);
+                UnivariatePolynomial[] pair = apply(r, a, b);
+                a = pair[0];
+                b = pair[1];
+                if (extended) {
+                    m = multiply(r, m);
+                }
+                if (b.isZero()) {
+                    break;
+                }
+            }
+            UnivariatePolynomial[] qr = a.divideWithRemainder(b);
+            if (extended) {
+                m = quotientStep(qr[0], m);
+            }
+            a = b;
+            b = qr[1];
+        }
+        if (!extended) {
+            UnivariatePolynomial[] g = {a.monic()};
+            return g;
+        }
+        FieldElement[] inverse = {a.getLeadingCoefficient().inverse()};
+        UnivariatePolynomial scale = new UnivariatePolynomial(inverse, zeroOf(a));
+        UnivariatePolynomial[] bezout = {a.monic(), m[0].multiplyBy(scale), m[1].multiplyBy(scale)};
+        return bezout;
+    }
+
+    /**
+     * Returns the matrix that takes <code>(a, b)</code>, with
+     * <code>deg a = n &gt; deg b</code>, to the consecutive remainders
+     * <code>(c, d)</code> with <code>deg c &gt;= m &gt; deg d</code>, where
+     * <code>m = ceil(n/2)</code>.  The first recursive call finds the
+     * quotients that only depend on the leading <code>n - m</code>
+     * coefficients, one division takes the sequence past them, and the
+     * second call finds the rest from the leading coefficients of that
+     * pair.
+     */
+    private static UnivariatePolynomial[] halfGcd(UnivariatePolynomial a, UnivariatePolynomial b) {
+        int m = (a.getDegree() + 1) / 2;
+        if (b.getDegree() < m) {
+            return identity(a);
+        }
+        if (a.getDegree() < POLYNOMIAL_THRESHOLD) {
+            return divisionSteps(a, b, m);
+        }
+        UnivariatePolynomial[] r = halfGcd(shiftDown(a, m), shiftDown(b, m));
+        UnivariatePolynomial[] pair = apply(r, a, b);
+        UnivariatePolynomial c = pair[0];
+        UnivariatePolynomial d = pair[1];
+        if (d.getDegree() < m) {
+            return r;
+        }
+        UnivariatePolynomial[] qr = c.divideWithRemainder(d);
+        r = quotientStep(qr[0], r);
+        UnivariatePolynomial e = qr[1];
+        if (e.getDegree() < m) {
+            return r;
+        }
+        int k = 2 * m - d.getDegree();
+        return multiply(halfGcd(shiftDown(d, k), shiftDown(e, k)), r);
+    }
+
+    /** Computes the matrix of {@link #halfGcd halfGcd} one division at a time. */
+    private static UnivariatePolynomial[] divisionSteps(UnivariatePolynomial a,
+                                                        UnivariatePolynomial b, int m) {
+        UnivariatePolynomial[] r = identity(a);
+        while (!b.isZero() && (b.getDegree() >= m)) {
+            UnivariatePolynomial[] qr = a.divideWithRemainder(b);
+            r = quotientStep(qr[0], r);
+            a = b;
+            b = qr[1];
+        }
+        return r;
+    }
+
+    /**
+     * Returns the matrix that takes <code>(c, d)</code> to
+     * <code>(d, c - q d)</code>, times <code>r</code>.
+     */
+    private static UnivariatePolynomial[] quotientStep(UnivariatePolynomial q,
+                                                       UnivariatePolynomial[] r) {
+        UnivariatePolynomial[] product = {
+            r[2], r[3],
+            r[0].addTo(q.multiplyBy(r[2]).negative()),
+            r[1].addTo(q.multiplyBy(r[3]).negative())};
+        return product;
+    }
+
+    /**
+     * Applies the matrix with rows <code>{r[0], r[1]}</code> and
+     * <code>{r[2], r[3]}</code> to <code>(a, b)</code>.
+     */
+    private static UnivariatePolynomial[] apply(UnivariatePolynomial[] r,
+                                                UnivariatePolynomial a, UnivariatePolynomial b) {
+        UnivariatePolynomial[] pair = {
+            r[0].multiplyBy(a).addTo(r[1].multiplyBy(b)),
+            r[2].multiplyBy(a).addTo(r[3].multiplyBy(b))};
+        return pair;
+    }
+
+    private static UnivariatePolynomial[] multiply(UnivariatePolynomial[] r, UnivariatePolynomial[] s) {
+        UnivariatePolynomial[] product = {
+            r[0].multiplyBy(s[0]).addTo(r[1].multiplyBy(s[2])),
+            r[0].multiplyBy(s[1]).addTo(r[1].multiplyBy(s[3])),
+            r[2].multiplyBy(s[0]).addTo(r[3].multiplyBy(s[2])),
+            r[2].multiplyBy(s[1]).addTo(r[3].multiplyBy(s[3]))};
+        return product;
+    }
+
+    /** Returns the identity matrix over the field of a non-zero polynomial. */
+    private static UnivariatePolynomial[] identity(UnivariatePolynomial f) {
+        FieldElement lead = f.getLeadingCoefficient();
+        FieldElement[] one = {(FieldElement) lead.multiplyBy(lead.inverse())};
+        UnivariatePolynomial zeroPolynomial = new UnivariatePolynomial(new FieldElement[0], zeroOf(f));
+        UnivariatePolynomial onePolynomial = new UnivariatePolynomial(one, zeroOf(f));
+        UnivariatePolynomial[] identity = {onePolynomial, zeroPolynomial, zeroPolynomial, onePolynomial};
+        return identity;
+    }
+
+    /** Returns the quotient of <code>f</code> by <code>x^k</code>. */
+    private static UnivariatePolynomial shiftDown(UnivariatePolynomial f, int k) {
+        FieldElement[] coefficients = f.getCoefficients();
+        if (k >= coefficients.length) {
+            return new UnivariatePolynomial(new FieldElement[0], zeroOf(f));
+        }
+        return new UnivariatePolynomial(Arrays.copyOfRange(coefficients, k, coefficients.length),
+                                        zeroOf(f));
+    }
+
+    private static FieldElement zeroOf(UnivariatePolynomial f) {
+        // Coefficients beyond the degree are the zero of the field.
+        return f.getCoefficient(f.getDegree() + 1);
+    }
+
+    /**
+     * Reduces <code>a, b &gt; 0</code>, of at most <code>n</code> bits,
+     * with respect to <code>s = floor(n/2) + 1</code>: the result
+     * <code>{u[0], u[1], u[2], u[3], alpha, beta}</code> has
+     * <code>(a, b) = u (alpha, beta)</code>, with <code>u</code> of
+     * determinant one and without negative entries, and
+     * <code>alpha</code> and <code>beta</code> are above <code>2^s</code>
+     * but no step can be taken between them without leaving that bound.
+     * The first recursive call reduces the leading <code>n/2</code> bits,
+     * single steps bring the pair below about <code>3n/4</code> bits, and
+     * the second call reduces the leading bits of that pair that lie above
+     * <code>2^(s+1)</code>.  The reduced leading bits never come within a
+     * factor of two of their own bound, so the lifted pair stays above
+     * <code>2^s</code>.
+     */
+    private static BigInteger[] halfGcd(BigInteger a, BigInteger b) {
+        int n = Math.max(a.bitLength(), b.bitLength());
+        int s = n / 2 + 1;
+        BigInteger[] r = {BigInteger.ONE, BigInteger.ZERO, BigInteger.ZERO, BigInteger.ONE, a, b};
+        if (!isReducible(a, b, s)) {
+            return r;
+        }
+        if (n < INTEGER_HALF_GCD_THRESHOLD) {
+            while (reduceOnce(r, s)) {
+            }
+            return r;
+        }
+        int p = n / 2;
+        r = lift(halfGcd(a.shiftRight(p), b.shiftRight(p)), a, b);
+        while ((Math.max(r[4].bitLength(), r[5].bitLength()) > 3 * n / 4 + 1) && reduceOnce(r, s)) {
+        }
+        if (isReducible(r[4], r[5], s)) {
+            p = 2 * s - Math.max(r[4].bitLength(), r[5].bitLength()) + 1;
+            BigInteger[] t = lift(halfGcd(r[4].shiftRight(p), r[5].shiftRight(p)), r[4], r[5]);
+            BigInteger[] product = multiply(r, t);
+            r = new BigInteger[] {product[0], product[1], product[2], product[3], t[4], t[5]};
+        }
+        while (reduceOnce(r, s)) {
+        }
+        return r;
+    }
+
+    /**
+     * Applies the inverse of the matrix found for the leading bits to the
+     * whole numbers.
+     */
+    private static BigInteger[] lift(BigInteger[] u, BigInteger a, BigInteger b) {
+        BigInteger[] r = {u[0], u[1], u[2], u[3],
+                          u[3].multiply(a).subtract(u[1].multiply(b)),
+                          u[0].multiply(b).subtract(u[2].multiply(a))};
+        return r;
+    }
+
+    /**
+     * Takes the largest step that keeps the pair of a reduction above
+     * <code>2^s</code>, if there is one.
+     */
+    private static boolean reduceOnce(BigInteger[] r, int s) {
+        if (!isReducible(r[4], r[5], s)) {
+            return false;
+        }
+        BigInteger bound = BigInteger.ONE.shiftLeft(s).add(BigInteger.ONE);
+        if (r[4].compareTo(r[5]) > 0) {
+            BigInteger q = r[4].subtract(bound).divide(r[5]);
+            r[4] = r[4].subtract(q.multiply(r[5]));
+            r[1] = r[1].add(q.multiply(r[0]));
+            r[3] = r[3].add(q.multiply(r[2]));
+        } else {
+            BigInteger q = r[5].subtract(bound).divide(r[4]);
+            r[5] = r[5].subtract(q.multiply(r[4]));
+            r[0] = r[0].add(q.multiply(r[1]));
+            r[2] = r[2].add(q.multiply(r[3]));
+        }
+        return true;
+    }
+
+    /** Both numbers and their difference are above <code>2^s</code>. */
+    private static boolean isReducible(BigInteger a, BigInteger b, int s) {
+        BigInteger bound = BigInteger.ONE.shiftLeft(s);
+        return (a.compareTo(bound) > 0) && (b.compareTo(bound) > 0)
+            && (a.subtract(b).abs().compareTo(bound) > 0);
+    }
+
+    /** Multiplies the matrices held in the first four entries. */
+    private static BigInteger[] multiply(BigInteger[] u, BigInteger[] v) {
+        BigInteger[] product = {u[0].multiply(v[0]).add(u[1].multiply(v[2])),
+                                u[0].multiply(v[1]).add(u[1].multiply(v[3])),
+                                u[2].multiply(v[0]).add(u[3].multiply(v[2])),
+                                u[2].multiply(v[1]).add(u[3].multiply(v[3]))};
+        return product;
+    }
+
+    /** The extended Euclidean algorithm by repeated division. */
+    private static BigInteger[] euclid(BigInteger a, BigInteger b) {
+        BigInteger oldS = BigInteger.ONE;
+        BigInteger s = BigInteger.ZERO;
+        BigInteger oldT = BigInteger.ZERO;
+        BigInteger t = BigInteger.ONE;
+        while (b.signum() != 0) {
+            BigInteger[] qr = a.divideAndRemainder(b);
+            a = b;
+            b = qr[1];
+            BigInteger temp = s;
+            s = oldS.subtract(qr[0].multiply(s));
+            oldS = temp;
+            temp = t;
+            t = oldT.subtract(qr[0].multiply(t));
+            oldT = temp;
+        }
+        BigInteger[] bezout = {a, oldS, oldT};
+        return bezout;
+    }
+}
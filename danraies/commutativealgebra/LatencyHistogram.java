@@ -0,0 +1,189 @@
+package danraies.commutativealgebra;
+
+/**
+ * <p>
+ * The running times of the checks of one test, and the elements of the
+ * slowest of them.  Each time is counted in one of a fixed set of buckets:
+ * times below sixteen nanoseconds have a bucket each, and every larger
+ * power of two is split into eight buckets, so that a bucket is never more
+ * than an eighth wider than its lower bound.  Recording a time costs a few
+ * shifts and an increment, and the whole histogram takes a few kilobytes,
+ * however many checks are run.  Percentiles are read off the buckets and
+ * are therefore accurate to within an eighth.
+ * </p>
+ * <p>
+ * Besides the counts, the histogram keeps the elements of a few of the
+ * slowest checks, so that a check that is much slower than the others can
+ * be traced back to the elements that caused it.  Checks stopped by the
+ * deadline of {@link ElementFactory#setCheckDeadline(long) setCheckDeadline}
+ * are counted with the deadline as their time.
+ * </p>
+ */
+public final class LatencyHistogram {
+    private long[] counts = new long[BUCKETS];
+    private long count;
+    private long total;
+    private long maximum;
+    private int timeouts;
+    private long[] slowestNanos;
+    private Element[][] slowestElements;
+    private int slowestCount;
+
+    /**
+     * @param slowest The number of slowest checks whose elements are kept.
+     */
+    LatencyHistogram(int slowest) {
+        slowestNanos = new long[slowest];
+        slowestElements = new Element[slowest][];
+    }
+
+    /**
+     * @return The number of checks that were timed.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The mean time of a check in nanoseconds, or zero if there
+     *         were none.
+     */
+    public double getMean() {
+        return (count == 0L) ? 0.0 : ((double) total / count);
+    }
+
+    /**
+     * @return The longest time of a check in nanoseconds.
+     */
+    public long getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * @return The number of checks that were stopped by the deadline.
+     */
+    public int getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Returns a time that the given share of checks did not exceed.
+     *
+     * @param percentile A number between zero and one hundred.
+     * @return The upper end, in nanoseconds, of the bucket that holds the
+     *         check of that rank, but no more than the maximum; zero if
+     *         there were no checks.
+     */
+    public long getPercentile(double percentile) {
+        if (!((percentile >= 0.0) && (percentile <= 100.0))) {
+            throw new RuntimeException(PERCENTILE_MESSAGE);
+        }
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen = seen + counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maximum);
+            }
+        }
+        return maximum;
+    }
+
+    /**
+     * @return The number of slowest checks whose elements were kept, at
+     *         most the number asked for when the histogram was made.
+     */
+    public int getSlowestCount() {
+        return slowestCount;
+    }
+
+    /**
+     * @param i Zero for the slowest check, one for the next, and so on.
+     * @return The time of that check in nanoseconds.
+     */
+    public long getSlowestNanos(int i) {
+        checkSlowestIndex(i);
+        return slowestNanos[i];
+    }
+
+    /**
+     * @param i Zero for the slowest check, one for the next, and so on.
+     * @return A copy of the elements of that check.
+     */
+    public Element[] getSlowestElements(int i) {
+        checkSlowestIndex(i);
+        return slowestElements[i].clone();
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Counts one check.  The elements are copied only if the check is one
+     * of the slowest so far.
+     */
+    void record(long nanos, Element[] elements) {
+        counts[bucket(nanos)]++;
+        count++;
+        total = total + nanos;
+        maximum = Math.max(maximum, nanos);
+        if ((slowestCount == slowestNanos.length)
+            && ((slowestCount == 0) || (nanos <= slowestNanos[slowestCount - 1]))) {
+            return;
+        }
+        int i = Math.min(slowestCount, slowestNanos.length - 1);
+        while ((i > 0) && (slowestNanos[i - 1] < nanos)) {
+            slowestNanos[i] = slowestNanos[i - 1];
+            slowestElements[i] = slowestElements[i - 1];
+            i--;
+        }
+        slowestNanos[i] = nanos;
+        slowestElements[i] = elements.clone();
+        slowestCount = Math.min(slowestCount + 1, slowestNanos.length);
+    }
+
+    /**
+     * Counts a check that was stopped by the deadline.
+     */
+    void recordTimeout(long deadlineNanos, Element[] elements) {
+        timeouts++;
+        record(deadlineNanos, elements);
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    private static int bucket(long nanos) {
+        if (nanos < EXACT) {
+            return (int) Math.max(nanos, 0L);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUBS - 1);
+        return EXACT + (exponent - EXACT_BITS) * SUBS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < EXACT) {
+            return bucket;
+        }
+        int exponent = (bucket - EXACT) / SUBS + EXACT_BITS;
+        long sub = (bucket - EXACT) % SUBS;
+        return ((SUBS + sub + 1L) << (exponent - SUB_BITS)) - 1L;
+    }
+
+    private void checkSlowestIndex(int i) {
+        if ((i < 0) || (i >= slowestCount)) {
+            throw new RuntimeException(SLOWEST_INDEX_MESSAGE);
+        }
+    }
+
+    private static final int SUB_BITS = 3;
+    private static final int SUBS = 1 << SUB_BITS;
+    private static final int EXACT_BITS = 4;
+    private static final int EXACT = 1 << EXACT_BITS;
+    private static final int BUCKETS = EXACT + (63 - EXACT_BITS) * SUBS;
+    private static String PERCENTILE_MESSAGE = "A percentile must lie between zero and one hundred.";
+    private static String SLOWEST_INDEX_MESSAGE = "There is no slow check with this index.";
+}
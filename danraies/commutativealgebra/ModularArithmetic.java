@@ -0,0 +1,287 @@
+package danraies.commutativealgebra;
+
+/**
+ * <p>
+ * A collection of static methods for arithmetic on primitive
+ * <code>long</code> residues.  Every method here requires the modulus to be
+ * at least two and at most {@link #MAX_MODULUS MAX_MODULUS}, so that the
+ * product of two reduced residues always fits in a <code>long</code> and no
+ * intermediate object is ever created.
+ * </p>
+ * <p>
+ * Unless stated otherwise the arguments are expected to be already reduced,
+ * i.e. to lie between <code>0</code> and <code>modulus - 1</code>, and the
+ * results are always reduced.
+ * </p>
+ */
+public final class ModularArithmetic {
+    /** The largest modulus supported by the methods of this class. */
+    public static final long MAX_MODULUS = Integer.MAX_VALUE;
+
+    private ModularArithmetic() {
+    }
+
+    /**
+     * Reduces any <code>long</code> integer to a residue.
+     *
+     * @param a Any <code>long</code> integer.
+     * @param modulus The modulus.
+     * @return The residue of <code>a</code>, between <code>0</code> and
+     *         <code>modulus - 1</code>.
+     */
+    public static long reduce(long a, long modulus) {
+        long r = a % modulus;
+        if (r < 0) {
+            r = r + modulus;
+        }
+        return r;
+    }
+
+    public static long add(long a, long b, long modulus) {
+        long sum = a + b;
+        if (sum >= modulus) {
+            sum = sum - modulus;
+        }
+        return sum;
+    }
+
+    public static long subtract(long a, long b, long modulus) {
+        long difference = a - b;
+        if (difference < 0) {
+            difference = difference + modulus;
+        }
+        return difference;
+    }
+
+    public static long negate(long a, long modulus) {
+        if (a == 0L) {
+            return 0L;
+        }
+        return modulus - a;
+    }
+
+    public static long multiply(long a, long b, long modulus) {
+        return (a * b) % modulus;
+    }
+
+    /**
+     * Raises a residue to a non-negative power by repeated squaring.
+     *
+     * @param base A reduced residue.
+     * @param exponent Any non-negative <code>long</code> integer.
+     * @param modulus The modulus.
+     * @return <code>base</code> to the power <code>exponent</code>.
+     */
+    public static long power(long base, long exponent, long modulus) {
+        if (exponent < 0) {
+            throw new RuntimeException(NEGATIVE_EXPONENT_MESSAGE);
+        }
+        long result = 1L % modulus;
+        long square = base;
+        while (exponent != 0) {
+            if ((exponent & 1L) != 0) {
+                result = (result * square) % modulus;
+            }
+            square = (square * square) % modulus;
+            exponent = exponent >>> 1;
+        }
+        return result;
+    }
+
+    /**
+     * Computes a multiplicative inverse with the extended Euclidean Algorithm.
+     * A runtime exception is thrown if the residue is not invertible.
+     *
+     * @param a A reduced residue.
+     * @param modulus The modulus.
+     * @return The residue <code>b</code> with <code>a * b = 1</code> modulo
+     *         <code>modulus</code>.
+     */
+    public static long inverse(long a, long modulus) {
+        long oldR = a;
+        long r = modulus;
+        long oldS = 1L;
+        long s = 0L;
+        while (r != 0) {
+            long q = oldR / r;
+            long temp = r;
+            r = oldR - q * r;
+            oldR = temp;
+            temp = s;
+            s = oldS - q * s;
+            oldS = temp;
+        }
+        if (oldR != 1L) {
+            throw new RuntimeException(NOT_INVERTIBLE_MESSAGE);
+        }
+        return reduce(oldS, modulus);
+    }
+
+    /**
+     * Inverts many residues with Montgomery's trick: one call to
+     * {@link #inverse(long, long) inverse} and about three multiplications
+     * per residue.  Zero residues are skipped and stay zero in the output.
+     * A runtime exception is thrown if some non-zero residue is not
+     * invertible.
+     *
+     * @param values Reduced residues.
+     * @param modulus The modulus.
+     * @return A new array whose <code>i</code>-th entry is the inverse of
+     *         <code>values[i]</code>, or zero if that residue is zero.
+     */
+    public static long[] inverseAll(long[] values, long modulus) {
+        long[] inverses = new long[values.length];
+        long running = 1L % modulus;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != 0L) {
+                running = (running * values[i]) % modulus;
+            }
+            inverses[i] = running;
+        }
+        long runningInverse = inverse(running, modulus);
+        for (int i = values.length - 1; i >= 0; i--) {
+            if (values[i] == 0L) {
+                inverses[i] = 0L;
+                continue;
+            }
+            long previous = (i > 0) ? inverses[i - 1] : 1L % modulus;
+            inverses[i] = (runningInverse * previous) % modulus;
+            runningInverse = (runningInverse * values[i]) % modulus;
+        }
+        return inverses;
+    }
+
+    /**
+     * Decides whether a residue is a square modulo an odd prime, using
+     * Euler's criterion.  Zero counts as a square.
+     *
+     * @param a A reduced residue.
+     * @param prime An odd prime modulus.
+     * @return <code>true</code> if <code>a = b * b</code> for some residue
+     *         <code>b</code>.
+     */
+    public static boolean isSquare(long a, long prime) {
+        return (a == 0L) || (power(a, (prime - 1) / 2, prime) == 1L);
+    }
+
+    /**
+     * Computes a square root modulo an odd prime with the Tonelli-Shanks
+     * algorithm.  A runtime exception is thrown if the residue is not a
+     * square.
+     *
+     * @param a A reduced residue.
+     * @param prime An odd prime modulus.
+     * @return A residue <code>b</code> with <code>b * b = a</code>.  The
+     *         other square root is <code>prime - b</code>.
+     */
+    public static long squareRoot(long a, long prime) {
+        if (a == 0L) {
+            return 0L;
+        }
+        if (!isSquare(a, prime)) {
+            throw new RuntimeException(NOT_A_SQUARE_MESSAGE);
+        }
+        long q = prime - 1;
+        int s = 0;
+        while ((q & 1L) == 0) {
+            q = q >>> 1;
+            s++;
+        }
+        long z = 2L;
+        while (isSquare(z, prime)) {
+            z++;
+        }
+        long c = power(z, q, prime);
+        long root = power(a, (q + 1) / 2, prime);
+        long t = power(a, q, prime);
+        int m = s;
+        while (t != 1L) {
+            int i = 0;
+            long t2 = t;
+            while (t2 != 1L) {
+                t2 = (t2 * t2) % prime;
+                i++;
+            }
+            long b = c;
+            for (int j = 0; j < m - i - 1; j++) {
+                b = (b * b) % prime;
+            }
+            root = (root * b) % prime;
+            c = (b * b) % prime;
+            t = (t * c) % prime;
+            m = i;
+        }
+        return root;
+    }
+
+    /**
+     * Decides whether a number is prime.  This is a Miller-Rabin test with a
+     * set of bases that makes it deterministic for every modulus supported by
+     * this class.
+     *
+     * @param n Any <code>long</code> integer not exceeding
+     *        <code>MAX_MODULUS</code>.
+     * @return <code>true</code> if <code>n</code> is prime.
+     */
+    public static boolean isPrime(long n) {
+        if (n < 2) {
+            return false;
+        }
+        for (int i = 0; i < PRIME_TEST_BASES.length; i++) {
+            if (n == PRIME_TEST_BASES[i]) {
+                return true;
+            }
+            if (n % PRIME_TEST_BASES[i] == 0) {
+                return false;
+            }
+        }
+        long d = n - 1;
+        int s = 0;
+        while ((d & 1L) == 0) {
+            d = d >>> 1;
+            s++;
+        }
+        for (int i = 0; i < PRIME_TEST_BASES.length; i++) {
+            long x = power(PRIME_TEST_BASES[i], d, n);
+            if ((x == 1L) || (x == n - 1)) {
+                continue;
+            }
+            boolean composite = true;
+            for (int j = 1; j < s; j++) {
+                x = (x * x) % n;
+                if (x == n - 1) {
+                    composite = false;
+                    break;
+                }
+            }
+            if (composite) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the largest prime strictly smaller than a given bound.
+     *
+     * @param bound Any <code>long</code> integer greater than two and not
+     *        exceeding <code>MAX_MODULUS + 1</code>.
+     * @return The largest prime smaller than <code>bound</code>.
+     */
+    public static long previousPrime(long bound) {
+        long candidate = bound - 1;
+        while (!isPrime(candidate)) {
+            candidate--;
+        }
+        return candidate;
+    }
+
+    private static final long[] PRIME_TEST_BASES = {2L, 3L, 5L, 7L, 11L, 13L, 17L};
+
+    private static String NEGATIVE_EXPONENT_MESSAGE
+        = "Residues can only be raised to non-negative powers.";
+    private static String NOT_INVERTIBLE_MESSAGE
+        = "This residue is not invertible.";
+    private static String NOT_A_SQUARE_MESSAGE
+        = "This residue is not a square.";
+}
@@ -0,0 +1,36 @@
+package danraies.commutativealgebra;
+
+/**
+ * The array kernels of {@link ModularVectors ModularVectors} that an
+ * implementation built on the Vector API provides.  <code>ModularVectors</code>
+ * checks the lengths of the arrays before it calls any of these methods, and
+ * every method must give exactly the results of the scalar loops there.
+ */
+interface ModularKernels {
+    /** @return The number of bits in one vector register, such as 256. */
+    int vectorBits();
+
+    void add(long[] a, long[] b, long[] result, long modulus);
+
+    void add(int[] a, int[] b, int[] result, long modulus);
+
+    void subtract(long[] a, long[] b, long[] result, long modulus);
+
+    void subtract(int[] a, int[] b, int[] result, long modulus);
+
+    void multiply(long[] a, long[] b, long[] result, long modulus);
+
+    void multiply(int[] a, int[] b, int[] result, long modulus);
+
+    void scale(long[] a, long c, long[] result, long modulus);
+
+    void scale(int[] a, long c, int[] result, long modulus);
+
+    void multiplyAccumulate(long[] result, long c, long[] a, long modulus);
+
+    void multiplyAccumulate(int[] result, long c, int[] a, long modulus);
+
+    long dotProduct(long[] a, long[] b, long modulus);
+
+    long dotProduct(int[] a, int[] b, long modulus);
+}
@@ -0,0 +1,348 @@
+package danraies.commutativealgebra;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A sparse matrix of residues modulo a word-sized modulus, stored in
+ * compressed sparse row form with primitive arrays.  It has the same
+ * layout and the same operations as a {@link SparseMatrix SparseMatrix},
+ * but each entry costs a <code>long</code> instead of an element object,
+ * and the arithmetic is done in the manner of
+ * {@link ModularVectors ModularVectors}: the products along a row are
+ * summed without reduction and the sum is only brought down when it could
+ * otherwise overflow, so that a row takes one division however many
+ * entries it has.
+ * </p>
+ * <p>
+ * The requirements of {@link ModularArithmetic ModularArithmetic} apply:
+ * the modulus is between two and <code>MAX_MODULUS</code>, and the vectors
+ * passed to {@link #multiply(long[]) multiply} hold reduced residues.  The
+ * values given to the builder may be any <code>long</code> and are reduced
+ * there.  Matrices are immutable.
+ * </p>
+ */
+public final class ModularSparseMatrix {
+    private long modulus;
+    private int rows;
+    private int columns;
+    private int[] rowPointers;
+    private int[] columnIndices;
+    private long[] values;
+
+    ModularSparseMatrix(long modulus, int rows, int columns,
+                        int[] rowPointers, int[] columnIndices, long[] values) {
+        this.modulus = modulus;
+        this.rows = rows;
+        this.columns = columns;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+    }
+
+    /**
+     * <p>
+     * Collects the entries of a sparse matrix of residues, in any order.
+     * Values are reduced as they are added, zeros are not stored, and
+     * values at the same position are added when the matrix is built.
+     * </p>
+     */
+    public static final class Builder {
+        private long modulus;
+        private int rows;
+        private int columns;
+        private int count = 0;
+        private int[] rowIndices = new int[SparseMatrix.INITIAL_CAPACITY];
+        private int[] columnIndices = new int[SparseMatrix.INITIAL_CAPACITY];
+        private long[] values = new long[SparseMatrix.INITIAL_CAPACITY];
+
+        /**
+         * Starts a matrix of zeros.
+         *
+         * @param modulus The modulus.
+         * @param rows The number of rows.
+         * @param columns The number of columns.
+         */
+        public Builder(long modulus, int rows, int columns) {
+            if ((modulus < 2) || (modulus > ModularArithmetic.MAX_MODULUS)) {
+                throw new RuntimeException(MODULUS_OUT_OF_RANGE_MESSAGE);
+            }
+            SparseMatrix.checkDimensions(rows, columns);
+            this.modulus = modulus;
+            this.rows = rows;
+            this.columns = columns;
+        }
+
+        /**
+         * Adds a value to an entry.
+         *
+         * @param row A row index, starting from zero.
+         * @param column A column index, starting from zero.
+         * @param value Any <code>long</code> integer, which is reduced.
+         * @return This builder.
+         */
+        public Builder add(int row, int column, long value) {
+            SparseMatrix.checkPosition(row, column, rows, columns);
+            long residue = ModularArithmetic.reduce(value, modulus);
+            if (residue == 0L) {
+                return this;
+            }
+            if (count == values.length) {
+                int capacity = SparseMatrix.grow(count);
+                rowIndices = Arrays.copyOf(rowIndices, capacity);
+                columnIndices = Arrays.copyOf(columnIndices, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            rowIndices[count] = row;
+            columnIndices[count] = column;
+            values[count] = residue;
+            count++;
+            return this;
+        }
+
+        /**
+         * Makes the matrix of the entries added so far.  The builder can
+         * go on collecting entries afterwards.
+         *
+         * @return The matrix.
+         */
+        public ModularSparseMatrix build() {
+            int[] order = SparseMatrix.sortEntries(rowIndices, columnIndices, count, rows, columns);
+            int[] pointers = new int[rows + 1];
+            int[] compressedColumns = new int[count];
+            long[] compressedValues = new long[count];
+            int size = 0;
+            for (int k = 0; k < count; ) {
+                int row = rowIndices[order[k]];
+                int column = columnIndices[order[k]];
+                long sum = values[order[k]];
+                k++;
+                while ((k < count) && (rowIndices[order[k]] == row)
+                       && (columnIndices[order[k]] == column)) {
+                    sum = ModularArithmetic.add(sum, values[order[k]], modulus);
+                    k++;
+                }
+                if (sum != 0L) {
+                    compressedColumns[size] = column;
+                    compressedValues[size] = sum;
+                    pointers[row + 1]++;
+                    size++;
+                }
+            }
+            for (int i = 0; i < rows; i++) {
+                pointers[i + 1] = pointers[i + 1] + pointers[i];
+            }
+            return new ModularSparseMatrix(modulus, rows, columns, pointers,
+                                           Arrays.copyOf(compressedColumns, size),
+                                           Arrays.copyOf(compressedValues, size));
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // Public Methods
+    //////////////////////////////////////////////////
+
+    public long getModulus() {
+        return modulus;
+    }
+
+    public int getRowCount() {
+        return rows;
+    }
+
+    public int getColumnCount() {
+        return columns;
+    }
+
+    /**
+     * @return The number of stored entries, none of which is zero.
+     */
+    public int getNonZeroCount() {
+        return values.length;
+    }
+
+    /**
+     * Returns an entry.  The row is searched by bisection.
+     *
+     * @param row A row index, starting from zero.
+     * @param column A column index, starting from zero.
+     * @return The reduced entry at that position.
+     */
+    public long get(int row, int column) {
+        SparseMatrix.checkPosition(row, column, rows, columns);
+        int k = Arrays.binarySearch(columnIndices, rowPointers[row], rowPointers[row + 1], column);
+        return (k < 0) ? 0L : values[k];
+    }
+
+    /**
+     * Returns where a row starts among the stored entries, as
+     * {@link SparseMatrix#getRowStart(int) SparseMatrix.getRowStart} does.
+     *
+     * @param row A row index, or the number of rows.
+     * @return The index of the first stored entry of the row.
+     */
+    public int getRowStart(int row) {
+        if ((row < 0) || (row > rows)) {
+            throw new RuntimeException(POSITION_MESSAGE);
+        }
+        return rowPointers[row];
+    }
+
+    public int getColumnIndex(int k) {
+        return columnIndices[k];
+    }
+
+    public long getValue(int k) {
+        return values[k];
+    }
+
+    /**
+     * Multiplies a column vector of residues by this matrix.
+     *
+     * @param vector As many reduced residues as there are columns.
+     * @return A new array of reduced residues, one per row.
+     */
+    public long[] multiply(final long[] vector) {
+        if (vector.length != columns) {
+            throw new RuntimeException(DIMENSION_MESSAGE);
+        }
+        final long[] result = new long[rows];
+        final long bound = ModularVectors.overflowBound(modulus);
+        ParallelRows.run(rowPointers, new ParallelRows.Block() {
+                @Override
+                public void compute(int startRow, int endRow) {
+                    for (int i = startRow; i < endRow; i++) {
+                        long sum = 0L;
+                        for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                            sum = ModularVectors.keepBelow(sum + values[k] * vector[columnIndices[k]],
+                                                           bound);
+                        }
+                        result[i] = sum % modulus;
+                    }
+                }
+            });
+        return result;
+    }
+
+    /**
+     * Multiplies this matrix by another one, row by row, gathering each row
+     * of the product in a dense accumulator of unreduced sums.
+     *
+     * @param other A matrix with the same modulus and with as many rows as
+     *        this one has columns.
+     * @return The product, without the entries that cancel.
+     */
+    public ModularSparseMatrix multiply(final ModularSparseMatrix other) {
+        if (other.modulus != modulus) {
+            throw new RuntimeException(DIFFERENT_MODULI_MESSAGE);
+        } else if (other.rows != columns) {
+            throw new RuntimeException(DIMENSION_MESSAGE);
+        }
+        final int[][] productColumns = new int[rows][];
+        final long[][] productValues = new long[rows][];
+        final long bound = ModularVectors.overflowBound(modulus);
+        ParallelRows.run(SparseMatrix.productWork(rowPointers, columnIndices, other.rowPointers),
+                         new ParallelRows.Block() {
+                @Override
+                public void compute(int startRow, int endRow) {
+                    long[] accumulator = new long[other.columns];
+                    int[] lastRow = new int[other.columns];
+                    Arrays.fill(lastRow, -1);
+                    int[] touched = new int[other.columns];
+                    for (int i = startRow; i < endRow; i++) {
+                        int count = 0;
+                        for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                            long a = values[k];
+                            int j = columnIndices[k];
+                            for (int l = other.rowPointers[j]; l < other.rowPointers[j + 1]; l++) {
+                                int c = other.columnIndices[l];
+                                if (lastRow[c] != i) {
+                                    lastRow[c] = i;
+                                    accumulator[c] = 0L;
+                                    touched[count] = c;
+                                    count++;
+                                }
+                                accumulator[c] = ModularVectors.keepBelow(
+                                    accumulator[c] + a * other.values[l], bound);
+                            }
+                        }
+                        Arrays.sort(touched, 0, count);
+                        int size = 0;
+                        for (int t = 0; t < count; t++) {
+                            int c = touched[t];
+                            accumulator[c] = accumulator[c] % modulus;
+                            if (accumulator[c] != 0L) {
+                                size++;
+                            }
+                        }
+                        productColumns[i] = new int[size];
+                        productValues[i] = new long[size];
+                        size = 0;
+                        for (int t = 0; t < count; t++) {
+                            int c = touched[t];
+                            if (accumulator[c] != 0L) {
+                                productColumns[i][size] = c;
+                                productValues[i][size] = accumulator[c];
+                                size++;
+                            }
+                        }
+                    }
+                }
+            });
+        int[] pointers = new int[rows + 1];
+        for (int i = 0; i < rows; i++) {
+            pointers[i + 1] = pointers[i] + productColumns[i].length;
+        }
+        int[] compressedColumns = new int[pointers[rows]];
+        long[] compressedValues = new long[pointers[rows]];
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(productColumns[i], 0, compressedColumns, pointers[i],
+                             productColumns[i].length);
+            System.arraycopy(productValues[i], 0, compressedValues, pointers[i],
+                             productValues[i].length);
+        }
+        return new ModularSparseMatrix(modulus, rows, other.columns, pointers, compressedColumns,
+                                       compressedValues);
+    }
+
+    /**
+     * Transposes this matrix with one counting sort of the entries by
+     * column.
+     *
+     * @return The transposed matrix.
+     */
+    public ModularSparseMatrix transpose() {
+        int[] pointers = new int[columns + 1];
+        int[] transposedColumns = new int[values.length];
+        int[] positions = SparseMatrix.transposeStructure(rows, columns, rowPointers, columnIndices,
+                                                          pointers, transposedColumns);
+        long[] transposedValues = new long[values.length];
+        for (int k = 0; k < values.length; k++) {
+            transposedValues[positions[k]] = values[k];
+        }
+        return new ModularSparseMatrix(modulus, columns, rows, pointers, transposedColumns,
+                                       transposedValues);
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof ModularSparseMatrix)) {
+            return false;
+        }
+        ModularSparseMatrix m = (ModularSparseMatrix) o;
+        return (modulus == m.modulus) && (rows == m.rows) && (columns == m.columns)
+            && Arrays.equals(rowPointers, m.rowPointers)
+            && Arrays.equals(columnIndices, m.columnIndices)
+            && Arrays.equals(values, m.values);
+    }
+
+    public int hashCode() {
+        return 31 * (31 * rows + columns) + Arrays.hashCode(values);
+    }
+
+    private static String MODULUS_OUT_OF_RANGE_MESSAGE
+        = "The modulus must lie between 2 and ModularArithmetic.MAX_MODULUS.";
+    private static String DIFFERENT_MODULI_MESSAGE = "These matrices have different moduli.";
+    private static String DIMENSION_MESSAGE = "The dimensions of these matrices do not match.";
+    private static String POSITION_MESSAGE = "This position lies outside of the matrix.";
+}
@@ -0,0 +1,337 @@
+package danraies.commutativealgebra;
+
+/**
+ * <p>
+ * A collection of static methods for arithmetic on whole arrays of
+ * residues, stored as primitive <code>long</code> or <code>int</code>
+ * values.  The requirements of {@link ModularArithmetic ModularArithmetic}
+ * apply: the modulus is between two and <code>MAX_MODULUS</code>, the
+ * residues in the arguments are reduced, and so are the results.  Because
+ * the modulus fits in an <code>int</code>, so does every residue.
+ * </p>
+ * <p>
+ * The loops are written so that the just-in-time compiler can keep several
+ * elements in flight at once: sums and differences are corrected without
+ * branches, products are reduced with a quotient estimated in
+ * floating-point arithmetic instead of a division, and a multiply-add is
+ * reduced once rather than after the product and again after the sum.  Dot
+ * products keep four independent running sums and postpone reduction
+ * altogether; a sum is only brought down when it could otherwise overflow.
+ * </p>
+ * <p>
+ * When the incubating Vector API is available, the same computations are
+ * done a whole vector register at a time by
+ * <code>VectorModularKernels</code>, which is compiled separately from
+ * <code>vector/</code> with <code>--add-modules jdk.incubator.vector</code>
+ * and needs that option at run time as well.  It is looked for when this
+ * class is loaded and gives exactly the results of the loops here, which
+ * remain the fallback.  {@link #setUseVectors(boolean) setUseVectors}
+ * switches between the two, and the system property
+ * <code>danraies.commutativealgebra.vectorBits</code> chooses a vector
+ * width smaller than that of the processor's registers.
+ * </p>
+ * <p>
+ * The element-wise methods write into a result array, which may be one of
+ * the arguments.  All arrays passed to one call must have the same length.
+ * </p>
+ */
+public final class ModularVectors {
+    /** The vector kernels, or <code>null</code> if they are not available. */
+    private static final ModularKernels VECTOR_KERNELS = loadVectorKernels();
+    /** The vector kernels in use, or <code>null</code> for the loops. */
+    private static volatile ModularKernels vectorKernels = VECTOR_KERNELS;
+
+    private ModularVectors() {
+    }
+
+    /**
+     * Returns the width of the vector kernels in use.
+     *
+     * @return The number of bits in one vector register, or zero if the
+     *         scalar loops are used.
+     */
+    public static int getVectorBits() {
+        ModularKernels kernels = vectorKernels;
+        return (kernels == null) ? 0 : kernels.vectorBits();
+    }
+
+    /**
+     * Chooses between the vector kernels and the scalar loops.  The choice
+     * applies to every thread.
+     *
+     * @param useVectors Whether to use the vector kernels.
+     * @return <code>true</code> if the choice was made, or
+     *         <code>false</code> if the vector kernels were asked for but
+     *         are not available, in which case the loops remain in use.
+     */
+    public static boolean setUseVectors(boolean useVectors) {
+        if (useVectors && (VECTOR_KERNELS == null)) {
+            return false;
+        }
+        vectorKernels = useVectors ? VECTOR_KERNELS : null;
+        return true;
+    }
+
+    public static void add(long[] a, long[] b, long[] result, long modulus) {
+        checkLengths(a.length, b.length, result.length);
+        ModularKernels kernels = vectorKernels;
+        if (kernels != null) {
+            kernels.add(a, b, result, modulus);
+            return;
+        }
+        for (int i = 0; i < result.length; i++) {
+            long sum = a[i] + b[i] - modulus;
+            result[i] = sum + ((sum >> 63) & modulus);
+        }
+    }
+
+    public static void add(int[] a, int[] b, int[] result, long modulus) {
+        checkLengths(a.length, b.length, result.length);
+        ModularKernels kernels = vectorKernels;
+        if (kernels != null) {
+            kernels.add(a, b, result, modulus);
+            return;
+        }
+        for (int i = 0; i < result.length; i++) {
+            long sum = (long) a[i] + b[i] - modulus;
+            result[i] = (int) (sum + ((sum >> 63) & modulus));
+        }
+    }
+
+    public static void subtract(long[] a, long[] b, long[] result, long modulus) {
+        checkLengths(a.length, b.length, result.length);
+        ModularKernels kernels = vectorKernels;
+        if (kernels != null) {
+            kernels.subtract(a, b, result, modulus);
+            return;
+        }
+        for (int i = 0; i < result.length; i++) {
+            long difference = a[i] - b[i];
+            result[i] = difference + ((difference >> 63) & modulus);
+        }
+    }
+
+    public static void subtract(int[] a, int[] b, int[] result, long modulus) {
+        checkLengths(a.length, b.length, result.length);
+        ModularKernels kernels = vectorKernels;
+        if (kernels != null) {
+            kernels.subtract(a, b, result, modulus);
+            return;
+        }
+        for (int i = 0; i < result.length; i++) {
+            long difference = (long) a[i] - b[i];
+            result[i] = (int) (difference + ((difference >> 63) & modulus));
+        }
+    }
+
+    public static void multiply(long[] a, long[] b, long[] result, long modulus) {
+        checkLengths(a.length, b.length, result.length);
+        ModularKernels kernels = vectorKernels;
+        if (kernels != null) {
+            kernels.multiply(a, b, result, modulus);
+            return;
+        }
+        double inverse = 1.0 / modulus;
+        for (int i = 0; i < result.length; i++) {
+            result[i] = reduceProduct(a[i] * b[i], inverse, modulus);
+        }
+    }
+
+    public static void multiply(int[] a, int[] b, int[] result, long modulus) {
+        checkLengths(a.length, b.length, result.length);
+        ModularKernels kernels = vectorKernels;
+        if (kernels != null) {
+            kernels.multiply(a, b, result, modulus);
+            return;
+        }
+        double inverse = 1.0 / modulus;
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (int) reduceProduct((long) a[i] * b[i], inverse, modulus);
+        }
+    }
+
+    /**
+     * Multiplies every entry by the same residue.
+     *
+     * @param a Reduced residues.
+     * @param c A reduced residue.
+     * @param result The array that receives <code>c a[i]</code>.
+     * @param modulus The modulus.
+     */
+    public static void scale(long[] a, long c, long[] result, long modulus) {
+        checkLengths(a.length, a.length, result.length);
+        ModularKernels kernels = vectorKernels;
+        if (kernels != null) {
+            kernels.scale(a, c, result, modulus);
+            return;
+        }
+        double inverse = 1.0 / modulus;
+        for (int i = 0; i < result.length; i++) {
+            result[i] = reduceProduct(c * a[i], inverse, modulus);
+        }
+    }
+
+    public static void scale(int[] a, long c, int[] result, long modulus) {
+        checkLengths(a.length, a.length, result.length);
+        ModularKernels kernels = vectorKernels;
+        if (kernels != null) {
+            kernels.scale(a, c, result, modulus);
+            return;
+        }
+        double inverse = 1.0 / modulus;
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (int) reduceProduct(c * a[i], inverse, modulus);
+        }
+    }
+
+    /**
+     * Adds a multiple of one array to another in place, the operation known
+     * as <code>axpy</code>.  Each entry is reduced once.
+     *
+     * @param result Reduced residues, replaced by <code>result[i] + c
+     *        a[i]</code>.
+     * @param c A reduced residue.
+     * @param a Reduced residues.
+     * @param modulus The modulus.
+     */
+    public static void multiplyAccumulate(long[] result, long c, long[] a, long modulus) {
+        checkLengths(a.length, a.length, result.length);
+        ModularKernels kernels = vectorKernels;
+        if (kernels != null) {
+            kernels.multiplyAccumulate(result, c, a, modulus);
+            return;
+        }
+        double inverse = 1.0 / modulus;
+        for (int i = 0; i < result.length; i++) {
+            result[i] = reduceProduct(result[i] + c * a[i], inverse, modulus);
+        }
+    }
+
+    public static void multiplyAccumulate(int[] result, long c, int[] a, long modulus) {
+        checkLengths(a.length, a.length, result.length);
+        ModularKernels kernels = vectorKernels;
+        if (kernels != null) {
+            kernels.multiplyAccumulate(result, c, a, modulus);
+            return;
+        }
+        double inverse = 1.0 / modulus;
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (int) reduceProduct(result[i] + c * a[i], inverse, modulus);
+        }
+    }
+
+    /**
+     * Computes the sum of the products <code>a[i] b[i]</code>.
+     *
+     * @param a Reduced residues.
+     * @param b Reduced residues, as many as in <code>a</code>.
+     * @param modulus The modulus.
+     * @return The reduced dot product.
+     */
+    public static long dotProduct(long[] a, long[] b, long modulus) {
+        checkLengths(a.length, b.length, b.length);
+        ModularKernels kernels = vectorKernels;
+        if (kernels != null) {
+            return kernels.dotProduct(a, b, modulus);
+        }
+        long bound = overflowBound(modulus);
+        long s0 = 0L;
+        long s1 = 0L;
+        long s2 = 0L;
+        long s3 = 0L;
+        int n = a.length & ~3;
+        for (int i = 0; i < n; i += 4) {
+            s0 = keepBelow(s0 + a[i] * b[i], bound);
+            s1 = keepBelow(s1 + a[i + 1] * b[i + 1], bound);
+            s2 = keepBelow(s2 + a[i + 2] * b[i + 2], bound);
+            s3 = keepBelow(s3 + a[i + 3] * b[i + 3], bound);
+        }
+        for (int i = n; i < a.length; i++) {
+            s0 = keepBelow(s0 + a[i] * b[i], bound);
+        }
+        return ((s0 % modulus) + (s1 % modulus) + (s2 % modulus) + (s3 % modulus)) % modulus;
+    }
+
+    public static long dotProduct(int[] a, int[] b, long modulus) {
+        checkLengths(a.length, b.length, b.length);
+        ModularKernels kernels = vectorKernels;
+        if (kernels != null) {
+            return kernels.dotProduct(a, b, modulus);
+        }
+        long bound = overflowBound(modulus);
+        long s0 = 0L;
+        long s1 = 0L;
+        long s2 = 0L;
+        long s3 = 0L;
+        int n = a.length & ~3;
+        for (int i = 0; i < n; i += 4) {
+            s0 = keepBelow(s0 + (long) a[i] * b[i], bound);
+            s1 = keepBelow(s1 + (long) a[i + 1] * b[i + 1], bound);
+            s2 = keepBelow(s2 + (long) a[i + 2] * b[i + 2], bound);
+            s3 = keepBelow(s3 + (long) a[i + 3] * b[i + 3], bound);
+        }
+        for (int i = n; i < a.length; i++) {
+            s0 = keepBelow(s0 + (long) a[i] * b[i], bound);
+        }
+        return ((s0 % modulus) + (s1 % modulus) + (s2 % modulus) + (s3 % modulus)) % modulus;
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * The largest multiple of the modulus below <code>2^62</code>.  A
+     * running sum below it plus one product of residues is still below
+     * <code>2^63</code>.
+     */
+    static long overflowBound(long modulus) {
+        return ((1L << 62) / modulus) * modulus;
+    }
+
+    static long keepBelow(long sum, long bound) {
+        return sum - (bound & ~((sum - bound) >> 63));
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Reduces a non-negative value below <code>2^62 + 2^31</code>.  The
+     * quotient estimated in double precision is off by at most one, which
+     * two branch-free corrections remove.
+     */
+    private static long reduceProduct(long x, double inverse, long modulus) {
+        long r = x - (long) (x * inverse) * modulus;
+        r = r + ((r >> 63) & modulus) - modulus;
+        return r + ((r >> 63) & modulus);
+    }
+
+    /**
+     * Creates the vector kernels.  The class is only there if it was
+     * compiled, and only loads if the incubator module was added to the
+     * running virtual machine.
+     */
+    private static ModularKernels loadVectorKernels() {
+        try {
+            Class<?> c = Class.forName(VECTOR_KERNELS_CLASS);
+            return (ModularKernels) c.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            return null;
+        } catch (LinkageError e) {
+            return null;
+        }
+    }
+
+    private static void checkLengths(int a, int b, int result) {
+        if ((a != b) || (a != result)) {
+            throw new RuntimeException(DIFFERENT_LENGTHS_MESSAGE);
+        }
+    }
+
+    private static final String VECTOR_KERNELS_CLASS
+        = "danraies.commutativealgebra.VectorModularKernels";
+    private static String DIFFERENT_LENGTHS_MESSAGE
+        = "These arrays of residues have different lengths.";
+}
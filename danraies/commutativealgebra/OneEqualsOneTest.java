@@ -4,15 +4,15 @@ final class OneEqualsOneTest extends UnitTest {
     CommutativeRingElement possibleOne;
 
     OneEqualsOneTest(CommutativeRingElement possibleOne,
-                     FactoryLogger log) {
-        super(TEST_NAME, log);
+                     TestEventPublisher events) {
+        super(TEST_NAME, events);
         this.possibleOne = possibleOne;
     }
 
     boolean runTest(ElementRandomizer r) {
         // r is not needed for this one.
         Element[] possibleCounterExample = {possibleOne};
-        setPossibleCounterExample(possibleCounterExample);
+        setPossibleCounterExample(possibleCounterExample, null);
         return possibleOne.isOne();
     }
 
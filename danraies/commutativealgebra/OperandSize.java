@@ -0,0 +1,29 @@
+package danraies.commutativealgebra;
+
+/**
+ * <p>
+ * Implement <code>OperandSize</code> to tell {@link TreeReduction
+ * TreeReduction} how expensive the elements of a collection are to combine.
+ * For a big integer a good size is its bit length and for a polynomial its
+ * number of coefficients.  Only the ratios between sizes matter; they are
+ * used to cut the collection into parts of equal total size rather than
+ * equal length, so that the two operands of every combination are about as
+ * large as each other.
+ * </p>
+ * <p>
+ * An element factory may implement <code>OperandSize</code> as well.  The
+ * operations that its axiom tests record for Java Flight Recorder then
+ * carry the sizes of their operands; otherwise the sizes are recorded as
+ * zero.
+ * </p>
+ */
+public interface OperandSize {
+    /**
+     * Estimates the size of an element.
+     *
+     * @param e An element of the collection being reduced.
+     * @return A positive number that grows with the cost of combining
+     *         <code>e</code> with another element.
+     */
+    public long sizeOf(Element e);
+}
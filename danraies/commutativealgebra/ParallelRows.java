@@ -0,0 +1,116 @@
+package danraies.commutativealgebra;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Runs a computation on the rows of a matrix in parallel, on the common
+ * fork-join pool.  The rows are cut into consecutive blocks of about equal
+ * work rather than equal length, since the rows of a sparse matrix can
+ * differ greatly in their number of entries.  The work is given as a prefix
+ * sum: <code>work[i]</code> is the total work of the rows before row
+ * <code>i</code>, which for a product with a vector is exactly the row
+ * pointer array of a compressed sparse row matrix.
+ * </p>
+ * <p>
+ * Each block is handed to a {@link Block Block}, which must only write to
+ * the parts of its output that belong to its own rows.
+ * </p>
+ */
+final class ParallelRows {
+    /** Computations with less work than this are not split at all. */
+    static final long SEQUENTIAL_WORK = 8192L;
+
+    /** Each worker thread gets about this many blocks, for load balancing. */
+    private static int BLOCKS_PER_THREAD = 8;
+
+    private ParallelRows() {
+    }
+
+    /**
+     * The computation for one block of rows.
+     */
+    interface Block {
+        void compute(int startRow, int endRow);
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    static void run(int[] work, Block block) {
+        long[] longWork = new long[work.length];
+        for (int i = 0; i < work.length; i++) {
+            longWork[i] = work[i];
+        }
+        run(longWork, block);
+    }
+
+    /**
+     * Runs a computation on all rows and waits for it to finish.
+     *
+     * @param work The prefix sums of the work per row, one more than there
+     *        are rows.
+     * @param block The computation.
+     */
+    static void run(long[] work, Block block) {
+        int rows = work.length - 1;
+        long total = work[rows] - work[0];
+        if ((rows <= 1) || (total < SEQUENTIAL_WORK)
+            || (ForkJoinPool.commonPool().getParallelism() <= 1)) {
+            block.compute(0, rows);
+            return;
+        }
+        int blocks = BLOCKS_PER_THREAD * ForkJoinPool.commonPool().getParallelism();
+        long grain = Math.max(total / blocks, SEQUENTIAL_WORK);
+        ForkJoinPool.commonPool().invoke(new RowTask(work, grain, block, 0, rows));
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    @SuppressWarnings("serial")
+    private static final class RowTask extends RecursiveAction {
+        private final long[] work;
+        private final long grain;
+        private final Block block;
+        private final int start;
+        private final int end;
+
+        RowTask(long[] work, long grain, Block block, int start, int end) {
+            this.work = work;
+            this.grain = grain;
+            this.block = block;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if ((end - start <= 1) || (work[end] - work[start] <= grain)) {
+                block.compute(start, end);
+                return;
+            }
+            int middle = split();
+            invokeAll(new RowTask(work, grain, block, start, middle),
+                      new RowTask(work, grain, block, middle, end));
+        }
+
+        /** Finds the row that comes closest to halving the work. */
+        private int split() {
+            long target = (work[start] + work[end]) / 2;
+            int low = start + 1;
+            int high = end - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (work[middle] < target) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package danraies.commutativealgebra;
+
+/**
+ * Multiplication of dense coefficient arrays over a commutative ring, lowest
+ * degree first.  Short operands use the schoolbook method and long ones use
+ * Karatsuba's method, which needs about <code>n^1.585</code> coefficient
+ * multiplications instead of <code>n^2</code>.
+ */
+final class PolynomialArithmetic {
+    /** Below this length the schoolbook method is faster. */
+    private static int KARATSUBA_THRESHOLD = 32;
+
+    private PolynomialArithmetic() {
+    }
+
+    /**
+     * Multiplies two coefficient arrays and keeps only the terms of degree
+     * less than <code>length</code>.
+     *
+     * @param a The coefficients of the first factor.
+     * @param b The coefficients of the second factor.
+     * @param length The number of coefficients of the product to return.
+     * @param zero The zero of the coefficient ring, used for padding.
+     * @return The first <code>length</code> coefficients of the product.
+     */
+    static CommutativeRingElement[] multiply(CommutativeRingElement[] a,
+                                             CommutativeRingElement[] b,
+                                             int length,
+                                             CommutativeRingElement zero) {
+        // Terms of degree length or more cannot contribute.
+        int aLength = Math.min(a.length, length);
+        int bLength = Math.min(b.length, length);
+        CommutativeRingElement[] product = new CommutativeRingElement[length];
+        if ((aLength > 0) && (bLength > 0)) {
+            // The longer factor is cut into blocks as long as the shorter
+            // one, so that a short factor is not padded to the length of a
+            // long one.
+            CommutativeRingElement[] longer = (aLength >= bLength) ? a : b;
+            CommutativeRingElement[] shorter = (aLength >= bLength) ? b : a;
+            int longLength = Math.max(aLength, bLength);
+            int n = Math.min(aLength, bLength);
+            CommutativeRingElement[] paddedShorter = pad(shorter, n, n);
+            for (int start = 0; start < longLength; start = start + n) {
+                CommutativeRingElement[] block = pad(longer, start, Math.min(n, longLength - start), n);
+                CommutativeRingElement[] part = karatsuba(block, 0, paddedShorter, 0, n);
+                for (int i = 0; (i < part.length) && (start + i < length); i++) {
+                    if (part[i] != null) {
+                        accumulate(product, start + i, part[i]);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            if (product[i] == null) {
+                product[i] = zero;
+            }
+        }
+        return product;
+    }
+
+    /**
+     * Multiplies <code>a[aOffset ... aOffset + n - 1]</code> by
+     * <code>b[bOffset ... bOffset + n - 1]</code>.  Entries of the operands
+     * may be <code>null</code>, which stands for zero, and so may entries of
+     * the result.
+     */
+    private static CommutativeRingElement[] karatsuba(CommutativeRingElement[] a, int aOffset,
+                                                      CommutativeRingElement[] b, int bOffset,
+                                                      int n) {
+        CommutativeRingElement[] product = new CommutativeRingElement[2 * n - 1];
+        if (n <= KARATSUBA_THRESHOLD) {
+            // Each coefficient of the product is a dot product, which is
+            // formed in an accumulator rather than one element per term.
+            for (int k = 0; k < 2 * n - 1; k++) {
+                Accumulator sum = null;
+                for (int i = Math.max(0, k - n + 1); i <= Math.min(k, n - 1); i++) {
+                    CommutativeRingElement ai = a[aOffset + i];
+                    CommutativeRingElement bj = b[bOffset + k - i];
+                    if ((ai == null) || (bj == null)) {
+                        continue;
+                    }
+                    if (sum == null) {
+                        sum = Accumulators.newAccumulator(ai.multiplyBy(bj));
+                    } else {
+                        sum.multiplyAddInPlace(ai, bj);
+                    }
+                }
+                if (sum != null) {
+                    product[k] = sum.toElement();
+                }
+            }
+            return product;
+        }
+        int half = n / 2;
+        int upper = n - half;
+        CommutativeRingElement[] low = karatsuba(a, aOffset, b, bOffset, half);
+        CommutativeRingElement[] high = karatsuba(a, aOffset + half, b, bOffset + half, upper);
+        CommutativeRingElement[] aSum = new CommutativeRingElement[upper];
+        CommutativeRingElement[] bSum = new CommutativeRingElement[upper];
+        for (int i = 0; i < upper; i++) {
+            aSum[i] = a[aOffset + half + i];
+            bSum[i] = b[bOffset + half + i];
+            if (i < half) {
+                aSum[i] = add(aSum[i], a[aOffset + i]);
+                bSum[i] = add(bSum[i], b[bOffset + i]);
+            }
+        }
+        CommutativeRingElement[] middle = karatsuba(aSum, 0, bSum, 0, upper);
+        for (int i = 0; i < low.length; i++) {
+            if (low[i] != null) {
+                product[i] = low[i];
+                accumulate(middle, i, (CommutativeRingElement) low[i].negative());
+            }
+        }
+        for (int i = 0; i < high.length; i++) {
+            if (high[i] != null) {
+                accumulate(product, 2 * half + i, high[i]);
+                accumulate(middle, i, (CommutativeRingElement) high[i].negative());
+            }
+        }
+        for (int i = 0; i < middle.length; i++) {
+            if (middle[i] != null) {
+                accumulate(product, half + i, middle[i]);
+            }
+        }
+        return product;
+    }
+
+    private static CommutativeRingElement[] pad(CommutativeRingElement[] a, int length, int n) {
+        return pad(a, 0, length, n);
+    }
+
+    private static CommutativeRingElement[] pad(CommutativeRingElement[] a, int start, int length,
+                                                int n) {
+        CommutativeRingElement[] padded = new CommutativeRingElement[n];
+        System.arraycopy(a, start, padded, 0, length);
+        return padded;
+    }
+
+    private static CommutativeRingElement add(CommutativeRingElement a,
+                                              CommutativeRingElement b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return (CommutativeRingElement) a.addTo(b);
+    }
+
+    private static void accumulate(CommutativeRingElement[] sums, int i,
+                                   CommutativeRingElement value) {
+        sums[i] = add(sums[i], value);
+    }
+}
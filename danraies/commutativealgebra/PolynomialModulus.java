@@ -0,0 +1,256 @@
+package danraies.commutativealgebra;
+import java.math.BigInteger;
+
+/**
+ * <p>
+ * Arithmetic in the residue ring <code>F[x] / (f)</code> of a monic
+ * polynomial <code>f</code> of degree <code>n</code> over a field.  Residues
+ * are coefficient arrays of length exactly <code>n</code>, lowest degree
+ * first, padded with zeros.
+ * </p>
+ * <p>
+ * Products are reduced without long division.  The reversed polynomial of
+ * <code>f</code> is inverted modulo <code>x^(n-1)</code> once, by Newton
+ * iteration, and each reduction then takes two truncated products, so that
+ * a product modulo <code>f</code> costs about three Karatsuba products
+ * instead of <code>n^2</code> steps of long division.
+ * </p>
+ * <p>
+ * Composition <code>g(h) mod f</code> uses the baby-step giant-step method
+ * of Brent and Kung: with <code>m</code> near <code>sqrt(n)</code>, the
+ * powers <code>h^0, ..., h^m</code> are computed once in a
+ * {@link #powerTable(FieldElement[], int) power table}, <code>g</code> is cut into
+ * blocks of <code>m</code> coefficients, each block is evaluated at
+ * <code>h</code> as a linear combination of the table, and the blocks are
+ * combined by Horner's rule in <code>h^m</code>.  That takes
+ * <code>2 sqrt(n)</code> products modulo <code>f</code> and
+ * <code>n^2</code> multiply-adds of coefficients, and the table can be
+ * reused for every <code>g</code> composed with the same <code>h</code>.
+ * </p>
+ * <p>
+ * Instances are immutable and may be shared between threads.
+ * </p>
+ */
+final class PolynomialModulus {
+    private FieldElement[] modulus;
+    private int degree;
+    private FieldElement zero;
+    private FieldElement one;
+    private FieldElement[] reversedInverse;
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * @param f A monic polynomial of degree at least one.
+     */
+    PolynomialModulus(UnivariatePolynomial f) {
+        if ((f.getDegree() < 1) || !f.getLeadingCoefficient().isOne()) {
+            throw new RuntimeException(NOT_MONIC_MESSAGE);
+        }
+        this.modulus = f.getCoefficients();
+        this.degree = f.getDegree();
+        // Coefficients beyond the degree are the zero of the field.
+        this.zero = f.getCoefficient(degree + 1);
+        this.one = f.getLeadingCoefficient();
+        FieldElement[] reversed = new FieldElement[degree + 1];
+        for (int i = 0; i <= degree; i++) {
+            reversed[i] = modulus[degree - i];
+        }
+        this.reversedInverse = inverseSeries(reversed, Math.max(degree - 1, 1));
+    }
+
+    int getDegree() {
+        return degree;
+    }
+
+    UnivariatePolynomial getModulus() {
+        return toPolynomial(modulus);
+    }
+
+    /**
+     * @return The residue of a polynomial of any degree.
+     */
+    FieldElement[] residue(UnivariatePolynomial g) {
+        if (g.getDegree() >= 2 * degree - 1) {
+            g = g.divideWithRemainder(getModulus())[1];
+        }
+        return reduce(g.getCoefficients());
+    }
+
+    UnivariatePolynomial toPolynomial(FieldElement[] a) {
+        return new UnivariatePolynomial(a, zero);
+    }
+
+    FieldElement[] one() {
+        return reduce(new FieldElement[] {one});
+    }
+
+    /** @return The residue of <code>x</code>. */
+    FieldElement[] x() {
+        FieldElement[] x = {zero, one};
+        return reduce(x);
+    }
+
+    FieldElement[] add(FieldElement[] a, FieldElement[] b) {
+        FieldElement[] sum = new FieldElement[degree];
+        for (int i = 0; i < degree; i++) {
+            sum[i] = (FieldElement) a[i].addTo(b[i]);
+        }
+        return sum;
+    }
+
+    FieldElement[] subtract(FieldElement[] a, FieldElement[] b) {
+        FieldElement[] difference = new FieldElement[degree];
+        for (int i = 0; i < degree; i++) {
+            difference[i] = (FieldElement) a[i].addTo(b[i].negative());
+        }
+        return difference;
+    }
+
+    FieldElement[] multiply(FieldElement[] a, FieldElement[] b) {
+        return reduce(toFieldElements(PolynomialArithmetic.multiply(a, b, 2 * degree - 1, zero)));
+    }
+
+    /**
+     * Raises a residue to a power by repeated squaring.
+     *
+     * @param a A residue.
+     * @param exponent Any non-negative integer.
+     */
+    FieldElement[] power(FieldElement[] a, BigInteger exponent) {
+        FieldElement[] result = one();
+        for (int i = exponent.bitLength() - 1; i >= 0; i--) {
+            result = multiply(result, result);
+            if (exponent.testBit(i)) {
+                result = multiply(result, a);
+            }
+        }
+        return result;
+    }
+
+    FieldElement[][] powerTable(FieldElement[] h) {
+        return powerTable(h, 1);
+    }
+
+    /**
+     * Computes the powers of a residue that {@link #compose(FieldElement[],
+     * FieldElement[][]) compose} needs.  A composition with a table of
+     * <code>m</code> powers takes <code>n / m</code> products modulo
+     * <code>f</code> besides the table itself, so a table that serves many
+     * compositions is made larger: <code>m</code> is the square root of
+     * <code>n</code> times their number.
+     *
+     * @param h A residue.
+     * @param uses The number of compositions the table is made for.
+     * @return The residues <code>h^0, ..., h^m</code>.
+     */
+    FieldElement[][] powerTable(FieldElement[] h, int uses) {
+        double size = Math.ceil(Math.sqrt((double) degree * Math.max(uses, 1)));
+        int m = (int) Math.max(Math.min(size, degree), 1.0);
+        FieldElement[][] table = new FieldElement[m + 1][];
+        table[0] = one();
+        for (int j = 1; j <= m; j++) {
+            table[j] = (j == 1) ? h : multiply(table[j - 1], h);
+        }
+        return table;
+    }
+
+    /**
+     * Computes <code>g(h) mod f</code>.
+     *
+     * @param g The coefficients of any polynomial, lowest degree first.
+     * @param table The power table of <code>h</code>.
+     * @return The residue of the composition.
+     */
+    FieldElement[] compose(FieldElement[] g, FieldElement[][] table) {
+        int m = table.length - 1;
+        int blocks = Math.max((g.length + m - 1) / m, 1);
+        FieldElement[] result = null;
+        Accumulator sum = Accumulators.newAccumulator(zero);
+        for (int b = blocks - 1; b >= 0; b--) {
+            FieldElement[] block = new FieldElement[degree];
+            for (int t = 0; t < degree; t++) {
+                sum.set(zero);
+                for (int j = 0; (j < m) && (b * m + j < g.length); j++) {
+                    if (!g[b * m + j].isZero()) {
+                        sum.multiplyAddInPlace(g[b * m + j], table[j][t]);
+                    }
+                }
+                block[t] = (FieldElement) sum.toElement();
+            }
+            result = (result == null) ? block : add(multiply(result, table[m]), block);
+        }
+        return result;
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Reduces a coefficient array of length less than <code>2n</code>.  The
+     * quotient is read off the top of the product of the reversed array and
+     * the reversed inverse of <code>f</code>, and the remainder is the low
+     * part of the array minus the low part of the quotient times
+     * <code>f</code>.
+     */
+    private FieldElement[] reduce(FieldElement[] a) {
+        FieldElement[] remainder = new FieldElement[degree];
+        for (int i = 0; i < degree; i++) {
+            remainder[i] = (i < a.length) ? a[i] : zero;
+        }
+        int quotientLength = a.length - degree;
+        if (quotientLength <= 0) {
+            return remainder;
+        }
+        FieldElement[] reversedHigh = new FieldElement[quotientLength];
+        for (int i = 0; i < quotientLength; i++) {
+            reversedHigh[i] = a[a.length - 1 - i];
+        }
+        CommutativeRingElement[] reversedQuotient = PolynomialArithmetic.multiply(
+            reversedHigh, reversedInverse, quotientLength, zero);
+        FieldElement[] quotient = new FieldElement[quotientLength];
+        for (int i = 0; i < quotientLength; i++) {
+            quotient[i] = (FieldElement) reversedQuotient[quotientLength - 1 - i];
+        }
+        CommutativeRingElement[] low = PolynomialArithmetic.multiply(quotient, modulus, degree, zero);
+        for (int i = 0; i < degree; i++) {
+            remainder[i] = (FieldElement) remainder[i].addTo(low[i].negative());
+        }
+        return remainder;
+    }
+
+    /**
+     * Inverts a power series with constant term one modulo
+     * <code>x^length</code> by Newton iteration, doubling the precision of
+     * <code>g</code> with <code>g (2 - s g)</code> each time.
+     */
+    private FieldElement[] inverseSeries(FieldElement[] s, int length) {
+        FieldElement[] g = {one};
+        FieldElement two = (FieldElement) one.addTo(one);
+        int precision = 1;
+        while (precision < length) {
+            precision = Math.min(2 * precision, length);
+            CommutativeRingElement[] error = PolynomialArithmetic.multiply(s, g, precision, zero);
+            FieldElement[] correction = new FieldElement[precision];
+            for (int i = 0; i < precision; i++) {
+                correction[i] = (FieldElement) error[i].negative();
+            }
+            correction[0] = (FieldElement) correction[0].addTo(two);
+            g = toFieldElements(PolynomialArithmetic.multiply(g, correction, precision, zero));
+        }
+        return g;
+    }
+
+    private static FieldElement[] toFieldElements(CommutativeRingElement[] a) {
+        FieldElement[] f = new FieldElement[a.length];
+        for (int i = 0; i < a.length; i++) {
+            f[i] = (FieldElement) a[i];
+        }
+        return f;
+    }
+
+    private static String NOT_MONIC_MESSAGE = "The modulus must be a monic polynomial of positive degree.";
+}
@@ -0,0 +1,438 @@
+package danraies.commutativealgebra;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.concurrent.Flow;
+
+/**
+ * <p>
+ * Writes the results of axiom tests to a file as records instead of text,
+ * for runs that are too large to read.  A sink is attached to a factory
+ * with {@link ElementFactory#addResultSink(ResultSink) addResultSink} and
+ * then receives every event of its runs.  There are five kinds of record:
+ * </p>
+ * <dl>
+ * <dt><code>run</code></dt>
+ * <dd>The start or the end of a run, with the name of the source and, at
+ *     the end, the length of the run in nanoseconds.</dd>
+ * <dt><code>axiom</code></dt>
+ * <dd>A finished axiom: whether it passed, how many checks it ran and how
+ *     long they took.</dd>
+ * <dt><code>batch</code></dt>
+ * <dd>A batch of checks with the number of its first check, its size and
+ *     the time since the previous batch, which is where the timings of
+ *     individual checks come from.</dd>
+ * <dt><code>check</code></dt>
+ * <dd>One check with the elements it used.  Every failed check is kept, but
+ *     of the checks that passed only one in every <code>setSampling</code>
+ *     is kept: the first and every n-th after it.</dd>
+ * <dt><code>counterexample</code></dt>
+ * <dd>The elements for which an axiom failed and, if shrinking found one,
+ *     the smaller counterexample.</dd>
+ * </dl>
+ * <p>
+ * The records are written either as JSON Lines, one object per line, or in
+ * a columnar binary form: after a four-byte magic number and the source,
+ * the file is a sequence of blocks of up to 4096 records, each storing the
+ * kinds, the pass flags, the axioms, three number columns and the texts of
+ * its records one column after another, with the numbers as varints.  Axiom
+ * names are written once and then referred to by number.  Both forms are
+ * read by {@link ResultSummary ResultSummary}.
+ * </p>
+ * <p>
+ * Output is gathered in a direct buffer and written to a
+ * <code>FileChannel</code> when the buffer fills up and when a run
+ * finishes.  An <code>IOException</code> while writing stops the sink and is
+ * thrown again by <code>close</code>.
+ * </p>
+ */
+public final class ResultSink implements Flow.Subscriber<TestEvent>, Closeable {
+    /** One JSON object per line. */
+    public static final int JSON_LINES = 0;
+    /** Blocks of records stored column by column. */
+    public static final int COLUMNAR = 1;
+
+    static final byte[] COLUMNAR_MAGIC = {'C', 'A', 'R', '1'};
+    static final int BLOCK_ROWS = 4096;
+
+    static final byte NAME = 0;
+    static final byte RUN_STARTED = 1;
+    static final byte RUN_FINISHED = 2;
+    static final byte AXIOM = 3;
+    static final byte BATCH = 4;
+    static final byte CHECK = 5;
+    static final byte COUNTER_EXAMPLE = 6;
+
+    private FileChannel channel;
+    private ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private int format;
+    private String source;
+    private int sampling = 1;
+    private long runStart;
+    private long axiomStart;
+    private long previousBatch;
+    private IOException failure;
+    private boolean closed;
+
+    private HashMap<String, Integer> axiomIds = new HashMap<String, Integer>();
+    private int rows;
+    private byte[] kinds = new byte[BLOCK_ROWS];
+    private boolean[] passed = new boolean[BLOCK_ROWS];
+    private ByteBuffer axiomColumn = ByteBuffer.allocate(BLOCK_ROWS * 5);
+    private ByteBuffer aColumn = ByteBuffer.allocate(BLOCK_ROWS * 5);
+    private ByteBuffer bColumn = ByteBuffer.allocate(BLOCK_ROWS * 10);
+    private ByteBuffer cColumn = ByteBuffer.allocate(BLOCK_ROWS * 10);
+    private ByteBuffer textColumn = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * Creates or replaces a result file.
+     *
+     * @param file The file to write.
+     * @param format <code>JSON_LINES</code> or <code>COLUMNAR</code>.
+     * @param source A name for the factory whose results are written, such
+     *        as its class name.
+     * @throws IOException If the file cannot be opened.
+     */
+    public ResultSink(Path file, int format, String source) throws IOException {
+        if ((format != JSON_LINES) && (format != COLUMNAR)) {
+            throw new RuntimeException(UNKNOWN_FORMAT_MESSAGE);
+        }
+        this.format = format;
+        this.source = source;
+        this.channel = FileChannel.open(file,
+                                        StandardOpenOption.CREATE,
+                                        StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+        if (format == COLUMNAR) {
+            out.put(COLUMNAR_MAGIC);
+            putString(out, source);
+        }
+    }
+
+    /**
+     * Keeps only some of the checks that pass.  Failed checks are always
+     * kept, as are the batch and axiom records, so counts and timings stay
+     * complete.
+     *
+     * @param keepOneIn Keep the first passing check of each axiom and then
+     *        every <code>keepOneIn</code>-th; one keeps every check and
+     *        <code>Integer.MAX_VALUE</code> keeps practically none.
+     */
+    public synchronized void setSampling(int keepOneIn) {
+        if (keepOneIn < 1) {
+            throw new RuntimeException(SAMPLING_MESSAGE);
+        }
+        this.sampling = keepOneIn;
+    }
+
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    public synchronized void onNext(TestEvent event) {
+        if (closed || (failure != null)) {
+            return;
+        }
+        try {
+            record(event);
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    public void onError(Throwable throwable) {
+    }
+
+    public void onComplete() {
+    }
+
+    /**
+     * Writes what is still buffered and closes the file.
+     *
+     * @throws IOException If this or an earlier write failed.
+     */
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (failure == null) {
+                flush();
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    private void record(TestEvent event) throws IOException {
+        String axiom = event.getTestName();
+        switch (event.getType()) {
+        case TestEvent.RUN_STARTED:
+            runStart = event.getTime();
+            if (format == JSON_LINES) {
+                line("{\"record\":\"run\",\"event\":\"started\",\"source\":"
+                     + AxiomTestSuite.quote(source) + "}");
+            } else {
+                row(RUN_STARTED, null, true, 0L, 0L, 0L);
+            }
+            break;
+        case TestEvent.AXIOM_STARTED:
+            axiomStart = event.getTime();
+            previousBatch = axiomStart;
+            break;
+        case TestEvent.CHECKS_COMPLETED:
+            long nanos = event.getTime() - previousBatch;
+            previousBatch = event.getTime();
+            recordBatch(event, axiom, nanos);
+            break;
+        case TestEvent.COUNTER_EXAMPLE:
+            Element[][] counterExample = event.getAllElements();
+            if (format == JSON_LINES) {
+                String minimal = "";
+                if (counterExample.length > 1) {
+                    minimal = ",\"minimal\":" + jsonElements(counterExample[1]);
+                }
+                String exception = "";
+                if (event.getException() != null) {
+                    exception = ",\"exception\":"
+                        + AxiomTestSuite.quote(event.getException().toString());
+                }
+                line("{\"record\":\"counterexample\",\"axiom\":" + AxiomTestSuite.quote(axiom)
+                     + ",\"elements\":" + jsonElements(counterExample[0]) + minimal
+                     + exception + "}");
+            } else {
+                row(COUNTER_EXAMPLE, axiom, false, counterExample.length, 0L, 0L);
+                for (int i = 0; i < counterExample.length; i++) {
+                    putElements(counterExample[i]);
+                }
+            }
+            break;
+        case TestEvent.AXIOM_FINISHED:
+            long axiomNanos = event.getTime() - axiomStart;
+            if (format == JSON_LINES) {
+                line("{\"record\":\"axiom\",\"axiom\":" + AxiomTestSuite.quote(axiom)
+                     + ",\"passed\":" + event.hasPassed()
+                     + ",\"checks\":" + event.getNumberOfChecks()
+                     + ",\"nanos\":" + axiomNanos + "}");
+            } else {
+                row(AXIOM, axiom, event.hasPassed(), event.getNumberOfChecks(), axiomNanos, 0L);
+            }
+            break;
+        case TestEvent.RUN_FINISHED:
+            long runNanos = event.getTime() - runStart;
+            if (format == JSON_LINES) {
+                line("{\"record\":\"run\",\"event\":\"finished\",\"source\":"
+                     + AxiomTestSuite.quote(source) + ",\"nanos\":" + runNanos + "}");
+            } else {
+                row(RUN_FINISHED, null, true, 0L, runNanos, 0L);
+            }
+            flush();
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void recordBatch(TestEvent event, String axiom, long nanos) throws IOException {
+        if (format == JSON_LINES) {
+            line("{\"record\":\"batch\",\"axiom\":" + AxiomTestSuite.quote(axiom)
+                 + ",\"first\":" + event.getFirstCheck()
+                 + ",\"count\":" + event.getNumberOfChecks()
+                 + ",\"passed\":" + event.hasPassed()
+                 + ",\"nanos\":" + nanos + "}");
+        } else {
+            row(BATCH, axiom, event.hasPassed(), event.getFirstCheck(),
+                event.getNumberOfChecks(), nanos);
+        }
+        if (!event.hasElements()) {
+            return;
+        }
+        Element[][] elements = event.getAllElements();
+        for (int i = 0; i < elements.length; i++) {
+            int check = event.getFirstCheck() + i;
+            boolean passedThisCheck = event.hasPassed() || (i < (elements.length - 1));
+            if (passedThisCheck && (((check - 1) % sampling) != 0)) {
+                continue;
+            }
+            if (format == JSON_LINES) {
+                line("{\"record\":\"check\",\"axiom\":" + AxiomTestSuite.quote(axiom)
+                     + ",\"check\":" + check
+                     + ",\"passed\":" + passedThisCheck
+                     + ",\"elements\":" + jsonElements(elements[i]) + "}");
+            } else {
+                row(CHECK, axiom, passedThisCheck, check, 0L, 0L);
+                putElements(elements[i]);
+            }
+        }
+    }
+
+    private static String jsonElements(Element[] elements) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < elements.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(AxiomTestSuite.quote(String.valueOf(elements[i])));
+        }
+        return json.append(']').toString();
+    }
+
+    private void line(String json) throws IOException {
+        byte[] bytes = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > out.remaining()) {
+            flushBuffer();
+        }
+        if (bytes.length > out.remaining()) {
+            writeFully(ByteBuffer.wrap(bytes));
+        } else {
+            out.put(bytes);
+        }
+    }
+
+    /**
+     * Adds a row to the current block.  A row for an axiom that has not
+     * been named yet is preceded by a row that names it.
+     */
+    private void row(byte kind, String axiom, boolean passedRow, long a, long b, long c)
+        throws IOException {
+        int id = 0;
+        if (axiom != null) {
+            Integer known = axiomIds.get(axiom);
+            if (known == null) {
+                known = axiomIds.size() + 1;
+                axiomIds.put(axiom, known);
+                row(NAME, null, true, known, 0L, 0L);
+                putText(axiom);
+            }
+            id = known;
+        }
+        if (rows == BLOCK_ROWS) {
+            writeBlock();
+        }
+        kinds[rows] = kind;
+        passed[rows] = passedRow;
+        Codecs.writeVarLong(axiomColumn, id);
+        Codecs.writeVarLong(aColumn, a);
+        Codecs.writeVarLong(bColumn, b);
+        Codecs.writeVarLong(cColumn, c);
+        rows++;
+    }
+
+    private void putElements(Element[] elements) throws IOException {
+        Codecs.writeLength(textColumn(5), elements.length);
+        for (int i = 0; i < elements.length; i++) {
+            putText(String.valueOf(elements[i]));
+        }
+    }
+
+    private void putText(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Codecs.writeLength(textColumn(bytes.length + 5), bytes.length);
+        textColumn.put(bytes);
+    }
+
+    /** Returns the text column with room for some more bytes. */
+    private ByteBuffer textColumn(int bytes) {
+        if (textColumn.remaining() < bytes) {
+            int capacity = Math.max(2 * textColumn.capacity(), textColumn.position() + bytes);
+            ByteBuffer larger = ByteBuffer.allocate(capacity);
+            textColumn.flip();
+            larger.put(textColumn);
+            textColumn = larger;
+        }
+        return textColumn;
+    }
+
+    private static void putString(ByteBuffer buffer, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        Codecs.writeLength(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes the current block: its length in bytes as an <code>int</code>,
+     * the number of rows as a varint, and then the columns.
+     */
+    private void writeBlock() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        byte[] flags = new byte[(rows + 7) / 8];
+        for (int i = 0; i < rows; i++) {
+            if (passed[i]) {
+                flags[i >>> 3] = (byte) (flags[i >>> 3] | (1 << (i & 7)));
+            }
+        }
+        ByteBuffer[] columns = {axiomColumn, aColumn, bColumn, cColumn, textColumn};
+        int length = Codecs.varLongSize(rows) + rows + flags.length;
+        for (int i = 0; i < columns.length; i++) {
+            length = length + Codecs.varLongSize(columns[i].position()) + columns[i].position();
+        }
+        ByteBuffer header = ByteBuffer.allocate(4 + Codecs.varLongSize(rows));
+        header.putInt(length);
+        Codecs.writeVarLong(header, rows);
+        header.flip();
+        put(header);
+        put(ByteBuffer.wrap(kinds, 0, rows));
+        put(ByteBuffer.wrap(flags));
+        for (int i = 0; i < columns.length; i++) {
+            ByteBuffer size = ByteBuffer.allocate(Codecs.varLongSize(columns[i].position()));
+            Codecs.writeVarLong(size, columns[i].position());
+            size.flip();
+            put(size);
+            columns[i].flip();
+            put(columns[i]);
+            columns[i].clear();
+        }
+        rows = 0;
+    }
+
+    private void put(ByteBuffer bytes) throws IOException {
+        if (bytes.remaining() > out.remaining()) {
+            flushBuffer();
+        }
+        if (bytes.remaining() > out.remaining()) {
+            writeFully(bytes);
+        } else {
+            out.put(bytes);
+        }
+    }
+
+    private void flush() throws IOException {
+        if (format == COLUMNAR) {
+            writeBlock();
+        }
+        flushBuffer();
+    }
+
+    private void flushBuffer() throws IOException {
+        out.flip();
+        writeFully(out);
+        out.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private static int BUFFER_SIZE = 1 << 16;
+    private static String UNKNOWN_FORMAT_MESSAGE = "Unknown format for a result file.";
+    private static String SAMPLING_MESSAGE = "The sampling interval must be positive.";
+}
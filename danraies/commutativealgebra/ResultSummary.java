@@ -0,0 +1,481 @@
+package danraies.commutativealgebra;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+/**
+ * <p>
+ * Reads result files written by a {@link ResultSink ResultSink}, in either
+ * format, and adds up what they contain for every axiom of every source:
+ * how many runs passed, how many checks were run and how long they took,
+ * which batch of checks was slowest, and the first counterexample with its
+ * shrunk form.  Several files may be read into one summary.
+ * </p>
+ */
+public class ResultSummary {
+    private LinkedHashMap<String, AxiomSummary> axioms = new LinkedHashMap<String, AxiomSummary>();
+    private int runs;
+    private long runNanos;
+    private String source = "";
+
+    /**
+     * Adds the records of a file.  The format is recognized from the first
+     * bytes.
+     *
+     * @param file A file written by a <code>ResultSink</code>.
+     * @throws IOException If the file cannot be read.
+     */
+    public void read(Path file) throws IOException {
+        byte[] magic = new byte[ResultSink.COLUMNAR_MAGIC.length];
+        int length;
+        try (InputStream in = Files.newInputStream(file)) {
+            length = in.readNBytes(magic, 0, magic.length);
+        }
+        boolean columnar = (length == magic.length);
+        for (int i = 0; columnar && (i < magic.length); i++) {
+            columnar = (magic[i] == ResultSink.COLUMNAR_MAGIC[i]);
+        }
+        if (columnar) {
+            readColumnar(file);
+        } else {
+            readJsonLines(file);
+        }
+    }
+
+    /**
+     * @return <code>true</code> if every axiom that was read passed in every
+     *         run.
+     */
+    public boolean allPassed() {
+        for (AxiomSummary a : axioms.values()) {
+            if (a.passedRuns < a.runs) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes one line for every axiom, followed by its counterexample if it
+     * failed.  The stream is not closed.
+     *
+     * @param stream The stream to write to.
+     */
+    public void write(PrintStream stream) {
+        stream.println(runs + " runs, " + (runNanos / 1000000L) + " ms in total");
+        for (AxiomSummary a : axioms.values()) {
+            String line = a.source + " / " + a.axiom + ": passed " + a.passedRuns
+                + " of " + a.runs + " runs, " + a.checks + " checks";
+            if (a.checks > 0) {
+                line = line + ", " + formatNanos((double) a.nanos / a.checks) + " per check";
+            }
+            if (a.slowestBatch > 0.0) {
+                line = line + ", up to " + formatNanos(a.slowestBatch) + " in the slowest batch";
+            }
+            line = line + ", " + a.recordedChecks + " checks recorded";
+            stream.println(line);
+            if (a.counterExample != null) {
+                stream.println("    counterexample: " + a.counterExample);
+            }
+            if (a.minimalCounterExample != null) {
+                stream.println("    minimal counterexample: " + a.minimalCounterExample);
+            }
+        }
+        stream.flush();
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    /** Writes a time in nanoseconds with a suitable unit. */
+    static String formatNanos(double nanos) {
+        if (nanos < 1000.0) {
+            return String.format("%.0f ns", nanos);
+        } else if (nanos < 1000000.0) {
+            return String.format("%.2f us", nanos / 1000.0);
+        }
+        return String.format("%.2f ms", nanos / 1000000.0);
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    private void runStarted(String runSource) {
+        source = runSource;
+        runs++;
+    }
+
+    private AxiomSummary axiom(String name) {
+        String key = source + "\u0000" + name;
+        AxiomSummary a = axioms.get(key);
+        if (a == null) {
+            a = new AxiomSummary(source, name);
+            axioms.put(key, a);
+        }
+        return a;
+    }
+
+    private void axiomFinished(String name, boolean passed, long checks, long nanos) {
+        AxiomSummary a = axiom(name);
+        a.runs++;
+        a.passedRuns = a.passedRuns + (passed ? 1 : 0);
+        a.checks = a.checks + checks;
+        a.nanos = a.nanos + nanos;
+    }
+
+    private void batch(String name, long count, long nanos) {
+        AxiomSummary a = axiom(name);
+        if (count > 0) {
+            a.slowestBatch = Math.max(a.slowestBatch, (double) nanos / count);
+        }
+    }
+
+    private void check(String name) {
+        axiom(name).recordedChecks++;
+    }
+
+    private void counterExample(String name, String elements, String minimal) {
+        AxiomSummary a = axiom(name);
+        if (a.counterExample == null) {
+            a.counterExample = elements;
+            a.minimalCounterExample = minimal;
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // JSON Lines
+    //////////////////////////////////////////////////
+
+    private void readJsonLines(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                HashMap<String, Object> record = new JsonParser(line).parseObject();
+                String kind = (String) record.get("record");
+                String name = (String) record.get("axiom");
+                if ("run".equals(kind)) {
+                    if ("started".equals(record.get("event"))) {
+                        runStarted((String) record.get("source"));
+                    } else {
+                        runNanos = runNanos + number(record, "nanos");
+                    }
+                } else if ("axiom".equals(kind)) {
+                    axiomFinished(name, Boolean.TRUE.equals(record.get("passed")),
+                                  number(record, "checks"), number(record, "nanos"));
+                } else if ("batch".equals(kind)) {
+                    batch(name, number(record, "count"), number(record, "nanos"));
+                } else if ("check".equals(kind)) {
+                    check(name);
+                } else if ("counterexample".equals(kind)) {
+                    Object minimal = record.get("minimal");
+                    counterExample(name, join(record.get("elements")),
+                                   (minimal == null) ? null : join(minimal));
+                }
+            }
+        }
+    }
+
+    private static long number(HashMap<String, Object> record, String key) {
+        Object value = record.get(key);
+        return (value instanceof Long) ? ((Long) value).longValue() : 0L;
+    }
+
+    private static String join(Object elements) {
+        if (!(elements instanceof ArrayList)) {
+            return "";
+        }
+        ArrayList<?> list = (ArrayList<?>) elements;
+        String returnValue = "";
+        for (int i = 0; i < list.size(); i++) {
+            returnValue = returnValue + ((i > 0) ? ", " : "") + list.get(i);
+        }
+        return returnValue;
+    }
+
+    /**
+     * Parses the flat JSON objects that a <code>ResultSink</code> writes:
+     * strings, integers, booleans, <code>null</code> and arrays of these.
+     */
+    private static final class JsonParser {
+        private final String s;
+        private int i;
+
+        JsonParser(String s) {
+            this.s = s;
+        }
+
+        HashMap<String, Object> parseObject() {
+            HashMap<String, Object> object = new HashMap<String, Object>();
+            expect('{');
+            if (peek() == '}') {
+                i++;
+                return object;
+            }
+            do {
+                String key = parseString();
+                expect(':');
+                object.put(key, parseValue());
+            } while (next() == ',');
+            i--;
+            expect('}');
+            return object;
+        }
+
+        private Object parseValue() {
+            char c = peek();
+            if (c == '"') {
+                return parseString();
+            } else if (c == '[') {
+                i++;
+                ArrayList<Object> list = new ArrayList<Object>();
+                if (peek() == ']') {
+                    i++;
+                    return list;
+                }
+                do {
+                    list.add(parseValue());
+                } while (next() == ',');
+                i--;
+                expect(']');
+                return list;
+            } else if (s.startsWith("true", i)) {
+                i = i + 4;
+                return Boolean.TRUE;
+            } else if (s.startsWith("false", i)) {
+                i = i + 5;
+                return Boolean.FALSE;
+            } else if (s.startsWith("null", i)) {
+                i = i + 4;
+                return null;
+            }
+            int start = i;
+            while ((i < s.length()) && ((s.charAt(i) == '-') || Character.isDigit(s.charAt(i)))) {
+                i++;
+            }
+            try {
+                return Long.valueOf(s.substring(start, i));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException(MALFORMED_LINE_MESSAGE + s, e);
+            }
+        }
+
+        private String parseString() {
+            expect('"');
+            StringBuilder b = new StringBuilder();
+            while (true) {
+                if (i >= s.length()) {
+                    throw new RuntimeException(MALFORMED_LINE_MESSAGE + s);
+                }
+                char c = s.charAt(i++);
+                if (c == '"') {
+                    return b.toString();
+                } else if (c != '\\') {
+                    b.append(c);
+                    continue;
+                }
+                char escaped = s.charAt(i++);
+                if (escaped == 'n') {
+                    b.append('\n');
+                } else if (escaped == 'u') {
+                    b.append((char) Integer.parseInt(s.substring(i, i + 4), 16));
+                    i = i + 4;
+                } else {
+                    b.append(escaped);
+                }
+            }
+        }
+
+        private char peek() {
+            while ((i < s.length()) && Character.isWhitespace(s.charAt(i))) {
+                i++;
+            }
+            if (i >= s.length()) {
+                throw new RuntimeException(MALFORMED_LINE_MESSAGE + s);
+            }
+            return s.charAt(i);
+        }
+
+        private char next() {
+            char c = peek();
+            i++;
+            return c;
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                throw new RuntimeException(MALFORMED_LINE_MESSAGE + s);
+            }
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // Columnar
+    //////////////////////////////////////////////////
+
+    private void readColumnar(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int magicLength = ResultSink.COLUMNAR_MAGIC.length;
+            ByteBuffer header = ByteBuffer.allocate(magicLength + 10);
+            while (header.hasRemaining() && (channel.read(header) >= 0)) {
+                continue;
+            }
+            header.flip();
+            header.position(magicLength);
+            int sourceLength = (int) Codecs.readVarLong(header);
+            ByteBuffer sourceBytes = ByteBuffer.allocate(sourceLength);
+            channel.position(magicLength + Codecs.varLongSize(sourceLength));
+            if ((sourceLength > 0) && !readFully(channel, sourceBytes, sourceLength)) {
+                throw new RuntimeException(TRUNCATED_MESSAGE);
+            }
+            source = new String(sourceBytes.array(), 0, sourceLength, StandardCharsets.UTF_8);
+            ArrayList<String> names = new ArrayList<String>();
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+            ByteBuffer block = ByteBuffer.allocate(1 << 16);
+            while (readFully(channel, lengthBuffer, 4)) {
+                int length = lengthBuffer.getInt();
+                if (length > block.capacity()) {
+                    block = ByteBuffer.allocate(length);
+                }
+                if (!readFully(channel, block, length)) {
+                    throw new RuntimeException(TRUNCATED_MESSAGE);
+                }
+                readBlock(block, names);
+            }
+        }
+    }
+
+    /**
+     * Reads exactly <code>length</code> bytes into a cleared buffer and flips
+     * it.
+     *
+     * @return <code>false</code> if the file ended before the first byte.
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, int length)
+        throws IOException {
+        buffer.clear();
+        buffer.limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (buffer.position() == 0) {
+                    return false;
+                }
+                throw new RuntimeException(TRUNCATED_MESSAGE);
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private void readBlock(ByteBuffer block, ArrayList<String> names) {
+        int rows = (int) Codecs.readVarLong(block);
+        ByteBuffer kinds = slice(block, rows);
+        ByteBuffer flags = slice(block, (rows + 7) / 8);
+        ByteBuffer axiomColumn = column(block);
+        ByteBuffer aColumn = column(block);
+        ByteBuffer bColumn = column(block);
+        ByteBuffer cColumn = column(block);
+        ByteBuffer textColumn = column(block);
+        for (int row = 0; row < rows; row++) {
+            byte kind = kinds.get(row);
+            boolean passed = (flags.get(row >>> 3) & (1 << (row & 7))) != 0;
+            int id = (int) Codecs.readVarLong(axiomColumn);
+            long a = Codecs.readVarLong(aColumn);
+            long b = Codecs.readVarLong(bColumn);
+            long c = Codecs.readVarLong(cColumn);
+            String name = (id > 0) ? names.get(id - 1) : null;
+            switch (kind) {
+            case ResultSink.NAME:
+                names.add(readText(textColumn));
+                break;
+            case ResultSink.RUN_STARTED:
+                runStarted(source);
+                break;
+            case ResultSink.RUN_FINISHED:
+                runNanos = runNanos + b;
+                break;
+            case ResultSink.AXIOM:
+                axiomFinished(name, passed, a, b);
+                break;
+            case ResultSink.BATCH:
+                batch(name, b, c);
+                break;
+            case ResultSink.CHECK:
+                check(name);
+                readElements(textColumn);
+                break;
+            case ResultSink.COUNTER_EXAMPLE:
+                String elements = readElements(textColumn);
+                counterExample(name, elements, (a > 1) ? readElements(textColumn) : null);
+                break;
+            default:
+                throw new RuntimeException(UNKNOWN_RECORD_MESSAGE + kind);
+            }
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer block, int length) {
+        ByteBuffer slice = block.slice();
+        slice.limit(length);
+        block.position(block.position() + length);
+        return slice;
+    }
+
+    private static ByteBuffer column(ByteBuffer block) {
+        return slice(block, Codecs.readLength(block));
+    }
+
+    private static String readText(ByteBuffer column) {
+        int length = Codecs.readLength(column);
+        String text = new String(column.array(), column.arrayOffset() + column.position(),
+                                 length, StandardCharsets.UTF_8);
+        column.position(column.position() + length);
+        return text;
+    }
+
+    private static String readElements(ByteBuffer column) {
+        int count = Codecs.readLength(column);
+        String returnValue = "";
+        for (int i = 0; i < count; i++) {
+            returnValue = returnValue + ((i > 0) ? ", " : "") + readText(column);
+        }
+        return returnValue;
+    }
+
+    /** The totals of one axiom of one source. */
+    private static final class AxiomSummary {
+        private final String source;
+        private final String axiom;
+        private int runs;
+        private int passedRuns;
+        private long checks;
+        private long nanos;
+        private double slowestBatch;
+        private long recordedChecks;
+        private String counterExample;
+        private String minimalCounterExample;
+
+        AxiomSummary(String source, String axiom) {
+            this.source = source;
+            this.axiom = axiom;
+        }
+    }
+
+    private static String MALFORMED_LINE_MESSAGE = "Not a result record: ";
+    private static String TRUNCATED_MESSAGE = "The result file ends in the middle of a block.";
+    private static String UNKNOWN_RECORD_MESSAGE = "Unknown kind of record: ";
+}
@@ -0,0 +1,477 @@
+package danraies.commutativealgebra;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A matrix over a commutative ring which stores only its non-zero entries,
+ * in compressed sparse row form: the entries are kept row by row in two
+ * parallel arrays of column indices and values, and a third array holds
+ * the position where each row starts.  The columns within a row are
+ * increasing, no entry is stored twice, and no stored value is zero, so
+ * two matrices are equal exactly when their arrays are.
+ * </p>
+ * <p>
+ * Matrices are made with a {@link Builder Builder}, which takes the entries
+ * as <code>(row, column, value)</code> triples in any order, adds the values
+ * of repeated positions and drops every sum that is zero.  Products with a
+ * vector and with another matrix only visit the stored entries, and the
+ * rows of the result are computed in parallel, in blocks of about equal
+ * numbers of multiplications.  Entries of a product that cancel are
+ * dropped as well.  For residues modulo a word-sized prime
+ * {@link ModularSparseMatrix ModularSparseMatrix} does the same on
+ * primitive arrays.
+ * </p>
+ * <p>
+ * Matrices are immutable.  All entries must come from the same ring.
+ * </p>
+ */
+public final class SparseMatrix {
+    private int rows;
+    private int columns;
+    private int[] rowPointers;
+    private int[] columnIndices;
+    private CommutativeRingElement[] values;
+    private CommutativeRingElement zero;
+
+    SparseMatrix(CommutativeRingElement zero, int rows, int columns,
+                 int[] rowPointers, int[] columnIndices, CommutativeRingElement[] values) {
+        this.zero = zero;
+        this.rows = rows;
+        this.columns = columns;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+    }
+
+    /**
+     * <p>
+     * Collects the entries of a sparse matrix.  Entries can be added one at
+     * a time in any order; zero values are not even stored, and values at
+     * the same position are added when the matrix is built.  Building sorts
+     * the entries with two counting sorts, in time proportional to the
+     * number of entries plus the dimensions.
+     * </p>
+     */
+    public static final class Builder {
+        private CommutativeRingElement zero;
+        private int rows;
+        private int columns;
+        private int count = 0;
+        private int[] rowIndices = new int[INITIAL_CAPACITY];
+        private int[] columnIndices = new int[INITIAL_CAPACITY];
+        private CommutativeRingElement[] values = new CommutativeRingElement[INITIAL_CAPACITY];
+
+        /**
+         * Starts a matrix of zeros.
+         *
+         * @param ring The factory of the ring of the entries, which supplies
+         *        its zero.
+         * @param rows The number of rows.
+         * @param columns The number of columns.
+         */
+        public Builder(CommutativeRingElementFactory ring, int rows, int columns) {
+            checkDimensions(rows, columns);
+            this.zero = ring.getZero();
+            this.rows = rows;
+            this.columns = columns;
+        }
+
+        /**
+         * Adds a value to an entry.
+         *
+         * @param row A row index, starting from zero.
+         * @param column A column index, starting from zero.
+         * @param value The value to add to the entry at that position.
+         * @return This builder.
+         */
+        public Builder add(int row, int column, CommutativeRingElement value) {
+            checkPosition(row, column, rows, columns);
+            if (value.isZero()) {
+                return this;
+            }
+            if (count == values.length) {
+                int capacity = grow(count);
+                rowIndices = Arrays.copyOf(rowIndices, capacity);
+                columnIndices = Arrays.copyOf(columnIndices, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            rowIndices[count] = row;
+            columnIndices[count] = column;
+            values[count] = value;
+            count++;
+            return this;
+        }
+
+        /**
+         * Makes the matrix of the entries added so far.  The builder can
+         * go on collecting entries afterwards.
+         *
+         * @return The matrix.
+         */
+        public SparseMatrix build() {
+            int[] order = sortEntries(rowIndices, columnIndices, count, rows, columns);
+            int[] pointers = new int[rows + 1];
+            int[] compressedColumns = new int[count];
+            CommutativeRingElement[] compressedValues = new CommutativeRingElement[count];
+            int size = 0;
+            for (int k = 0; k < count; ) {
+                int row = rowIndices[order[k]];
+                int column = columnIndices[order[k]];
+                CommutativeRingElement sum = values[order[k]];
+                k++;
+                while ((k < count) && (rowIndices[order[k]] == row)
+                       && (columnIndices[order[k]] == column)) {
+                    sum = SparseMatrix.add(sum, values[order[k]]);
+                    k++;
+                }
+                if (!sum.isZero()) {
+                    compressedColumns[size] = column;
+                    compressedValues[size] = sum;
+                    pointers[row + 1]++;
+                    size++;
+                }
+            }
+            for (int i = 0; i < rows; i++) {
+                pointers[i + 1] = pointers[i + 1] + pointers[i];
+            }
+            return new SparseMatrix(zero, rows, columns, pointers,
+                                    Arrays.copyOf(compressedColumns, size),
+                                    Arrays.copyOf(compressedValues, size));
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // Public Methods
+    //////////////////////////////////////////////////
+
+    public int getRowCount() {
+        return rows;
+    }
+
+    public int getColumnCount() {
+        return columns;
+    }
+
+    /**
+     * @return The number of stored entries, none of which is zero.
+     */
+    public int getNonZeroCount() {
+        return values.length;
+    }
+
+    /**
+     * Returns an entry.  The row is searched by bisection.
+     *
+     * @param row A row index, starting from zero.
+     * @param column A column index, starting from zero.
+     * @return The entry at that position, which is zero if it is not stored.
+     */
+    public CommutativeRingElement get(int row, int column) {
+        checkPosition(row, column, rows, columns);
+        int k = Arrays.binarySearch(columnIndices, rowPointers[row], rowPointers[row + 1], column);
+        return (k < 0) ? zero : values[k];
+    }
+
+    /**
+     * Returns where a row starts among the stored entries.  The entries of
+     * row <code>i</code> are those with the indices from
+     * <code>getRowStart(i)</code> up to, but not including,
+     * <code>getRowStart(i + 1)</code>.
+     *
+     * @param row A row index, or the number of rows.
+     * @return The index of the first stored entry of the row.
+     */
+    public int getRowStart(int row) {
+        if ((row < 0) || (row > rows)) {
+            throw new RuntimeException(POSITION_MESSAGE);
+        }
+        return rowPointers[row];
+    }
+
+    /**
+     * @param k The index of a stored entry.
+     * @return The column of that entry.
+     */
+    public int getColumnIndex(int k) {
+        return columnIndices[k];
+    }
+
+    /**
+     * @param k The index of a stored entry.
+     * @return The value of that entry, which is not zero.
+     */
+    public CommutativeRingElement getValue(int k) {
+        return values[k];
+    }
+
+    /**
+     * Multiplies a column vector by this matrix.
+     *
+     * @param vector As many elements as there are columns.
+     * @return A new array with one element per row.
+     */
+    public CommutativeRingElement[] multiply(final CommutativeRingElement[] vector) {
+        if (vector.length != columns) {
+            throw new RuntimeException(DIMENSION_MESSAGE);
+        }
+        final CommutativeRingElement[] result = new CommutativeRingElement[rows];
+        ParallelRows.run(rowPointers, new ParallelRows.Block() {
+                @Override
+                public void compute(int startRow, int endRow) {
+                    for (int i = startRow; i < endRow; i++) {
+                        CommutativeRingElement sum = zero;
+                        for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                            CommutativeRingElement product = multiply(values[k],
+                                                                      vector[columnIndices[k]]);
+                            sum = (k == rowPointers[i]) ? product : add(sum, product);
+                        }
+                        result[i] = sum;
+                    }
+                }
+            });
+        return result;
+    }
+
+    /**
+     * Multiplies this matrix by another one, row by row: row <code>i</code>
+     * of the product is the sum of the rows <code>j</code> of
+     * <code>other</code> scaled by the entries <code>(i, j)</code> of this
+     * matrix, gathered in a dense accumulator.
+     *
+     * @param other A matrix with as many rows as this one has columns.
+     * @return The product, without the entries that cancel.
+     */
+    public SparseMatrix multiply(final SparseMatrix other) {
+        if (other.rows != columns) {
+            throw new RuntimeException(DIMENSION_MESSAGE);
+        }
+        final int[][] productColumns = new int[rows][];
+        final CommutativeRingElement[][] productValues = new CommutativeRingElement[rows][];
+        ParallelRows.run(productWork(rowPointers, columnIndices, other.rowPointers),
+                         new ParallelRows.Block() {
+                @Override
+                public void compute(int startRow, int endRow) {
+                    CommutativeRingElement[] accumulator = new CommutativeRingElement[other.columns];
+                    int[] lastRow = new int[other.columns];
+                    Arrays.fill(lastRow, -1);
+                    int[] touched = new int[other.columns];
+                    for (int i = startRow; i < endRow; i++) {
+                        int count = 0;
+                        for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                            int j = columnIndices[k];
+                            for (int l = other.rowPointers[j]; l < other.rowPointers[j + 1]; l++) {
+                                int c = other.columnIndices[l];
+                                CommutativeRingElement product = multiply(values[k], other.values[l]);
+                                if (lastRow[c] == i) {
+                                    accumulator[c] = add(accumulator[c], product);
+                                } else {
+                                    lastRow[c] = i;
+                                    accumulator[c] = product;
+                                    touched[count] = c;
+                                    count++;
+                                }
+                            }
+                        }
+                        Arrays.sort(touched, 0, count);
+                        int size = 0;
+                        for (int t = 0; t < count; t++) {
+                            if (!accumulator[touched[t]].isZero()) {
+                                size++;
+                            }
+                        }
+                        productColumns[i] = new int[size];
+                        productValues[i] = new CommutativeRingElement[size];
+                        size = 0;
+                        for (int t = 0; t < count; t++) {
+                            int c = touched[t];
+                            if (!accumulator[c].isZero()) {
+                                productColumns[i][size] = c;
+                                productValues[i][size] = accumulator[c];
+                                size++;
+                            }
+                            accumulator[c] = null;
+                        }
+                    }
+                }
+            });
+        int[] pointers = new int[rows + 1];
+        for (int i = 0; i < rows; i++) {
+            pointers[i + 1] = pointers[i] + productColumns[i].length;
+        }
+        int[] compressedColumns = new int[pointers[rows]];
+        CommutativeRingElement[] compressedValues = new CommutativeRingElement[pointers[rows]];
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(productColumns[i], 0, compressedColumns, pointers[i],
+                             productColumns[i].length);
+            System.arraycopy(productValues[i], 0, compressedValues, pointers[i],
+                             productValues[i].length);
+        }
+        return new SparseMatrix(zero, rows, other.columns, pointers, compressedColumns,
+                                compressedValues);
+    }
+
+    /**
+     * Transposes this matrix with one counting sort of the entries by
+     * column.
+     *
+     * @return The transposed matrix.
+     */
+    public SparseMatrix transpose() {
+        int[] pointers = new int[columns + 1];
+        int[] transposedColumns = new int[values.length];
+        int[] positions = transposeStructure(rows, columns, rowPointers, columnIndices,
+                                             pointers, transposedColumns);
+        CommutativeRingElement[] transposedValues = new CommutativeRingElement[values.length];
+        for (int k = 0; k < values.length; k++) {
+            transposedValues[positions[k]] = values[k];
+        }
+        return new SparseMatrix(zero, columns, rows, pointers, transposedColumns, transposedValues);
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof SparseMatrix)) {
+            return false;
+        }
+        SparseMatrix m = (SparseMatrix) o;
+        return (rows == m.rows) && (columns == m.columns)
+            && Arrays.equals(rowPointers, m.rowPointers)
+            && Arrays.equals(columnIndices, m.columnIndices)
+            && Arrays.equals(values, m.values);
+    }
+
+    public int hashCode() {
+        return 31 * (31 * rows + columns) + Arrays.hashCode(columnIndices);
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Sorts entries given as triples by row and then by column, with a
+     * stable counting sort by column followed by one by row.
+     *
+     * @return The indices of the entries in sorted order.
+     */
+    static int[] sortEntries(int[] rowIndices, int[] columnIndices, int count,
+                             int rows, int columns) {
+        int[] identity = new int[count];
+        for (int k = 0; k < count; k++) {
+            identity[k] = k;
+        }
+        return countingSort(rowIndices, countingSort(columnIndices, identity, count, columns),
+                            count, rows);
+    }
+
+    /**
+     * Computes the layout of the transpose of a compressed sparse row
+     * matrix.  Since the rows are scanned in order, the columns of every
+     * row of the transpose come out increasing.
+     *
+     * @param transposedPointers Receives the row pointers of the transpose;
+     *        one more than there are columns.
+     * @param transposedColumns Receives the column indices of the
+     *        transpose; as many as there are entries.
+     * @return For every entry, its index in the transpose.
+     */
+    static int[] transposeStructure(int rows, int columns, int[] rowPointers, int[] columnIndices,
+                                    int[] transposedPointers, int[] transposedColumns) {
+        for (int k = 0; k < rowPointers[rows]; k++) {
+            transposedPointers[columnIndices[k] + 1]++;
+        }
+        for (int j = 0; j < columns; j++) {
+            transposedPointers[j + 1] = transposedPointers[j + 1] + transposedPointers[j];
+        }
+        int[] next = Arrays.copyOf(transposedPointers, columns);
+        int[] positions = new int[rowPointers[rows]];
+        for (int i = 0; i < rows; i++) {
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                int position = next[columnIndices[k]];
+                next[columnIndices[k]]++;
+                transposedColumns[position] = i;
+                positions[k] = position;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Computes the prefix sums of the number of multiplications that each
+     * row of a product of two compressed sparse row matrices takes.
+     */
+    static long[] productWork(int[] rowPointers, int[] columnIndices, int[] otherRowPointers) {
+        int rows = rowPointers.length - 1;
+        long[] work = new long[rows + 1];
+        for (int i = 0; i < rows; i++) {
+            long rowWork = 1L;
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                int j = columnIndices[k];
+                rowWork = rowWork + otherRowPointers[j + 1] - otherRowPointers[j];
+            }
+            work[i + 1] = work[i] + rowWork;
+        }
+        return work;
+    }
+
+    static int grow(int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            throw new RuntimeException(TOO_MANY_ENTRIES_MESSAGE);
+        }
+        return (int) Math.min(2L * capacity, MAX_CAPACITY);
+    }
+
+    static void checkDimensions(int rows, int columns) {
+        if ((rows < 0) || (columns < 0)) {
+            throw new RuntimeException(NEGATIVE_DIMENSION_MESSAGE);
+        }
+    }
+
+    static void checkPosition(int row, int column, int rows, int columns) {
+        if ((row < 0) || (row >= rows) || (column < 0) || (column >= columns)) {
+            throw new RuntimeException(POSITION_MESSAGE);
+        }
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Sorts <code>order</code> stably by <code>keys[order[k]]</code>, for
+     * keys between zero and <code>range - 1</code>.
+     */
+    private static int[] countingSort(int[] keys, int[] order, int count, int range) {
+        int[] starts = new int[range + 1];
+        for (int k = 0; k < count; k++) {
+            starts[keys[order[k]] + 1]++;
+        }
+        for (int i = 0; i < range; i++) {
+            starts[i + 1] = starts[i + 1] + starts[i];
+        }
+        int[] sorted = new int[count];
+        for (int k = 0; k < count; k++) {
+            int key = keys[order[k]];
+            sorted[starts[key]] = order[k];
+            starts[key]++;
+        }
+        return sorted;
+    }
+
+    private static CommutativeRingElement add(CommutativeRingElement a, CommutativeRingElement b) {
+        return (CommutativeRingElement) a.addTo(b);
+    }
+
+    private static CommutativeRingElement multiply(CommutativeRingElement a,
+                                                   CommutativeRingElement b) {
+        return a.multiplyBy(b);
+    }
+
+    static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+    private static String DIMENSION_MESSAGE = "The dimensions of these matrices do not match.";
+    private static String NEGATIVE_DIMENSION_MESSAGE = "A matrix cannot have a negative dimension.";
+    private static String POSITION_MESSAGE = "This position lies outside of the matrix.";
+    private static String TOO_MANY_ENTRIES_MESSAGE = "A sparse matrix cannot hold this many entries.";
+}
@@ -0,0 +1,205 @@
+package danraies.commutativealgebra;
+
+/**
+ * <p>
+ * One step of a run of <code>testAxioms</code>, as published by an
+ * {@link ElementFactory ElementFactory} to its subscribers.  A run produces
+ * these events in order:
+ * </p>
+ * <ol>
+ * <li>{@link #RUN_STARTED RUN_STARTED}, once.</li>
+ * <li>For every test: {@link #AXIOM_STARTED AXIOM_STARTED}, any number of
+ *     {@link #CHECKS_COMPLETED CHECKS_COMPLETED} batches, a
+ *     {@link #COUNTER_EXAMPLE COUNTER_EXAMPLE} if the test failed and has
+ *     one, and {@link #AXIOM_FINISHED AXIOM_FINISHED}.  A counterexample
+ *     carries the elements for which the test failed and, if a smaller
+ *     counterexample was found, that one as well.</li>
+ * <li>{@link #RUN_FINISHED RUN_FINISHED}, once.</li>
+ * </ol>
+ * <p>
+ * Individual checks are reported in batches rather than one event each.  A
+ * test stops at its first failed check, so in a batch only the last check
+ * can have failed.  When a subscriber falls behind, consecutive batches of
+ * the same test are merged into one; a merged batch still counts every
+ * check but no longer carries the elements that were checked.
+ * </p>
+ */
+public final class TestEvent {
+    /** A run of <code>testAxioms</code> has started. */
+    public static final int RUN_STARTED = 0;
+    /** A test has started; the number of checks is the intended one. */
+    public static final int AXIOM_STARTED = 1;
+    /** A batch of checks of the current test has been carried out. */
+    public static final int CHECKS_COMPLETED = 2;
+    /** The current test has failed for the elements of this event. */
+    public static final int COUNTER_EXAMPLE = 3;
+    /** A test has finished; the number of checks is the actual one. */
+    public static final int AXIOM_FINISHED = 4;
+    /** A run of <code>testAxioms</code> has finished. */
+    public static final int RUN_FINISHED = 5;
+
+    private int type;
+    private String testName;
+    private int firstCheck;
+    private int numberOfChecks;
+    private boolean passed;
+    private Element[][] elements;
+    private long time = System.nanoTime();
+    private LatencyHistogram latencies;
+    private Throwable exception;
+
+    TestEvent(int type,
+              String testName,
+              int firstCheck,
+              int numberOfChecks,
+              boolean passed,
+              Element[][] elements) {
+        this.type = type;
+        this.testName = testName;
+        this.firstCheck = firstCheck;
+        this.numberOfChecks = numberOfChecks;
+        this.passed = passed;
+        this.elements = elements;
+    }
+
+    /**
+     * @return One of the constants of this class.
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * @return The name of the test, or <code>null</code> for the events that
+     *         start and finish a run.
+     */
+    public String getTestName() {
+        return testName;
+    }
+
+    /**
+     * @return The number, counting from one, of the first check in a
+     *         <code>CHECKS_COMPLETED</code> batch, and zero for other events.
+     */
+    public int getFirstCheck() {
+        return firstCheck;
+    }
+
+    /**
+     * @return The intended number of checks for <code>AXIOM_STARTED</code>,
+     *         the number in the batch for <code>CHECKS_COMPLETED</code>, the
+     *         actual number for <code>AXIOM_FINISHED</code>, one or two for
+     *         <code>COUNTER_EXAMPLE</code>, and zero for other events.
+     */
+    public int getNumberOfChecks() {
+        return numberOfChecks;
+    }
+
+    /**
+     * @return Whether every check of a batch, or the whole test, has passed.
+     *         It is <code>false</code> for <code>COUNTER_EXAMPLE</code> and
+     *         <code>true</code> for the events that start and finish a run.
+     */
+    public boolean hasPassed() {
+        return passed;
+    }
+
+    /**
+     * @return The value of <code>System.nanoTime()</code> when the event
+     *         was published; for a batch, when its last check was done.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return The running times of the checks and the elements of the
+     *         slowest of them, for an <code>AXIOM_FINISHED</code> event of a
+     *         test that timed its checks; otherwise <code>null</code>.
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * @return The exception that the check threw for the elements of a
+     *         <code>COUNTER_EXAMPLE</code>, or <code>null</code> if the
+     *         axiom simply did not hold for them.
+     */
+    public Throwable getException() {
+        return exception;
+    }
+
+    /**
+     * @return Whether <code>getElements</code> may be called.  This is
+     *         <code>true</code> for counterexamples and for batches that
+     *         were not merged.
+     */
+    public boolean hasElements() {
+        return elements != null;
+    }
+
+    /**
+     * Returns the elements of one check.
+     *
+     * @param check Between zero and <code>getNumberOfChecks() - 1</code> for
+     *        a batch.  For a counterexample, zero for the elements as found
+     *        and one for the smaller counterexample, if there is one.
+     * @return A copy of the elements that were checked.
+     */
+    public Element[] getElements(int check) {
+        if (elements == null) {
+            throw new RuntimeException(NO_ELEMENTS_MESSAGE);
+        }
+        return elements[check].clone();
+    }
+
+    public String toString() {
+        String returnValue = TYPE_NAMES[type];
+        if (testName != null) {
+            returnValue = returnValue + " " + testName;
+        }
+        return returnValue;
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    void setLatencies(LatencyHistogram latencies) {
+        this.latencies = latencies;
+    }
+
+    void setException(Throwable exception) {
+        this.exception = exception;
+    }
+
+    /** Returns the rows of elements without copying them. */
+    Element[][] getAllElements() {
+        return elements;
+    }
+
+    /**
+     * Combines two consecutive batches of the same test into one, dropping
+     * the elements.
+     */
+    static TestEvent merge(TestEvent first, TestEvent second) {
+        TestEvent merged = new TestEvent(CHECKS_COMPLETED,
+                                         first.testName,
+                                         first.firstCheck,
+                                         first.numberOfChecks + second.numberOfChecks,
+                                         first.passed && second.passed,
+                                         null);
+        merged.time = second.time;
+        return merged;
+    }
+
+    private static String[] TYPE_NAMES = {"Run Started",
+                                          "Axiom Started",
+                                          "Checks Completed",
+                                          "Counter Example",
+                                          "Axiom Finished",
+                                          "Run Finished"};
+    private static String NO_ELEMENTS_MESSAGE
+        = "The elements of this event were dropped when batches were merged.";
+}
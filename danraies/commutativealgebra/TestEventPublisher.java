@@ -0,0 +1,342 @@
+package danraies.commutativealgebra;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>
+ * Publishes the {@link TestEvent TestEvent} stream of one factory.  The tests
+ * report every check, but the checks are collected into batches and a batch
+ * is only published when it is full or when the test finishes, so a
+ * subscriber sees a few events per test instead of one per check.
+ * </p>
+ * <p>
+ * Each subscriber has its own buffer and receives events on its own
+ * executor, one at a time and only as many as it has requested.  Publishing
+ * never waits for a subscriber: when a buffer is full, a new batch is merged
+ * into the batch at the end of the buffer instead of being added, and the
+ * few other events are always added.  A slow subscriber therefore loses the
+ * elements of some checks, but never an event that starts or finishes
+ * something, and it never holds up the checking thread.
+ * </p>
+ * <p>
+ * The stream does not complete; every run ends with a
+ * <code>RUN_FINISHED</code> event and a factory may be run again.  A
+ * subscriber that throws from <code>onNext</code> is cancelled and told so
+ * through <code>onError</code>, except on the {@link #DIRECT DIRECT}
+ * executor, where the exception is thrown on to the thread that published
+ * the event, so that a failing log stops the tests instead of going quiet.
+ * </p>
+ */
+final class TestEventPublisher implements Flow.Publisher<TestEvent> {
+    /** Runs every task in the thread that hands it over. */
+    static final Executor DIRECT = new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                task.run();
+            }
+        };
+
+    static final int DEFAULT_CAPACITY = 256;
+    static final int DEFAULT_BATCH_SIZE = 64;
+
+    private CopyOnWriteArrayList<EventSubscription> subscriptions
+        = new CopyOnWriteArrayList<EventSubscription>();
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private String batchTest;
+    private int batchFirstCheck;
+    private int batchCount;
+    private boolean batchPassed;
+    private Element[][] batch = new Element[batchSize][];
+
+    /**
+     * Subscribes with a buffer of the default capacity, delivering on the
+     * common pool, or on a new thread per delivery when that pool has no
+     * threads to spare.
+     */
+    public void subscribe(Flow.Subscriber<? super TestEvent> subscriber) {
+        subscribe(subscriber, defaultExecutor(), DEFAULT_CAPACITY);
+    }
+
+    void subscribe(Flow.Subscriber<? super TestEvent> subscriber, Executor executor, int capacity) {
+        if ((subscriber == null) || (executor == null)) {
+            throw new NullPointerException();
+        } else if (capacity < 1) {
+            throw new RuntimeException(CAPACITY_MESSAGE);
+        }
+        EventSubscription s = new EventSubscription(this, subscriber, executor, capacity);
+        subscriptions.add(s);
+        s.start();
+    }
+
+    synchronized void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new RuntimeException(BATCH_SIZE_MESSAGE);
+        }
+        flushBatch();
+        this.batchSize = batchSize;
+        this.batch = new Element[batchSize][];
+    }
+
+    //////////////////////////////////////////////////
+    // Events
+    //////////////////////////////////////////////////
+
+    synchronized void runStarted() {
+        publish(new TestEvent(TestEvent.RUN_STARTED, null, 0, 0, true, null));
+    }
+
+    synchronized void axiomStarted(String testName, int intendedNumberOfChecks) {
+        flushBatch();
+        publish(new TestEvent(TestEvent.AXIOM_STARTED, testName, 0,
+                              intendedNumberOfChecks, true, null));
+    }
+
+    /**
+     * Adds a check to the current batch.  The array of elements is copied,
+     * because the tests reuse it.
+     */
+    synchronized void checkCompleted(String testName,
+                                     int checkNumber,
+                                     Element[] elements,
+                                     boolean passed) {
+        if ((batchCount > 0) && !testName.equals(batchTest)) {
+            flushBatch();
+        }
+        if (batchCount == 0) {
+            batchTest = testName;
+            batchFirstCheck = checkNumber;
+            batchPassed = true;
+        }
+        batch[batchCount] = elements.clone();
+        batchCount++;
+        batchPassed = batchPassed && passed;
+        if (batchCount == batchSize) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * Publishes the current batch at once, so that its time is not delayed
+     * by work that follows the checks.
+     */
+    synchronized void flush() {
+        flushBatch();
+    }
+
+    /**
+     * Publishes a counterexample, followed in the same event by a smaller
+     * one if <code>shrunk</code> is not <code>null</code>, and the exception
+     * that the check threw for it, if any.
+     */
+    synchronized void counterExample(String testName, Element[] elements, Element[] shrunk,
+                                     Throwable exception) {
+        flushBatch();
+        Element[][] rows = {elements.clone()};
+        if (shrunk != null) {
+            Element[][] bothRows = {elements.clone(), shrunk.clone()};
+            rows = bothRows;
+        }
+        TestEvent event = new TestEvent(TestEvent.COUNTER_EXAMPLE, testName, 0, rows.length,
+                                        false, rows);
+        event.setException(exception);
+        publish(event);
+    }
+
+    synchronized void axiomFinished(String testName,
+                                    boolean passed,
+                                    int actualNumberOfChecks,
+                                    LatencyHistogram latencies) {
+        flushBatch();
+        TestEvent event = new TestEvent(TestEvent.AXIOM_FINISHED, testName, 0,
+                                        actualNumberOfChecks, passed, null);
+        event.setLatencies(latencies);
+        publish(event);
+    }
+
+    synchronized void runFinished() {
+        flushBatch();
+        publish(new TestEvent(TestEvent.RUN_FINISHED, null, 0, 0, true, null));
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    private void flushBatch() {
+        if (batchCount == 0) {
+            return;
+        }
+        Element[][] rows = new Element[batchCount][];
+        System.arraycopy(batch, 0, rows, 0, batchCount);
+        Arrays.fill(batch, 0, batchCount, null);
+        publish(new TestEvent(TestEvent.CHECKS_COMPLETED, batchTest, batchFirstCheck,
+                              batchCount, batchPassed, rows));
+        batchCount = 0;
+    }
+
+    private void publish(TestEvent event) {
+        for (EventSubscription s : subscriptions) {
+            s.offer(event);
+        }
+    }
+
+    private void remove(EventSubscription s) {
+        subscriptions.remove(s);
+    }
+
+    private static Executor defaultExecutor() {
+        if (ForkJoinPool.getCommonPoolParallelism() > 1) {
+            return ForkJoinPool.commonPool();
+        }
+        return new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                Thread t = new Thread(task);
+                t.setDaemon(true);
+                t.start();
+            }
+        };
+    }
+
+    /**
+     * The buffer and the demand of one subscriber.  At most one delivery
+     * task runs at a time; it hands over events until the buffer is empty or
+     * the demand is used up.
+     */
+    private static final class EventSubscription implements Flow.Subscription, Runnable {
+        private final TestEventPublisher publisher;
+        private final Flow.Subscriber<? super TestEvent> subscriber;
+        private final Executor executor;
+        private final int capacity;
+        private final ArrayDeque<TestEvent> buffer = new ArrayDeque<TestEvent>();
+        private long demand;
+        private boolean subscribed;
+        private boolean scheduled;
+        private boolean cancelled;
+        private Throwable error;
+
+        EventSubscription(TestEventPublisher publisher,
+                          Flow.Subscriber<? super TestEvent> subscriber,
+                          Executor executor,
+                          int capacity) {
+            this.publisher = publisher;
+            this.subscriber = subscriber;
+            this.executor = executor;
+            this.capacity = capacity;
+        }
+
+        public void request(long n) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                } else if (n <= 0L) {
+                    error = new IllegalArgumentException(NON_POSITIVE_REQUEST_MESSAGE);
+                    buffer.clear();
+                } else {
+                    demand = demand + n;
+                    if (demand < 0L) {
+                        demand = Long.MAX_VALUE;
+                    }
+                }
+            }
+            schedule();
+        }
+
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                buffer.clear();
+            }
+            publisher.remove(this);
+        }
+
+        public void run() {
+            if (!subscribed) {
+                subscribed = true;
+                subscriber.onSubscribe(this);
+            }
+            while (true) {
+                TestEvent event;
+                Throwable failure = null;
+                synchronized (this) {
+                    if (cancelled) {
+                        scheduled = false;
+                        return;
+                    } else if (error != null) {
+                        failure = error;
+                        cancelled = true;
+                        event = null;
+                    } else if ((demand == 0L) || buffer.isEmpty()) {
+                        scheduled = false;
+                        return;
+                    } else {
+                        event = buffer.poll();
+                        demand--;
+                    }
+                }
+                if (failure != null) {
+                    publisher.remove(this);
+                    subscriber.onError(failure);
+                    return;
+                }
+                try {
+                    subscriber.onNext(event);
+                } catch (RuntimeException e) {
+                    cancel();
+                    if (executor == DIRECT) {
+                        throw e;
+                    }
+                    subscriber.onError(e);
+                    return;
+                }
+            }
+        }
+
+        void start() {
+            synchronized (this) {
+                scheduled = true;
+            }
+            executor.execute(this);
+        }
+
+        void offer(TestEvent event) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                TestEvent last = buffer.peekLast();
+                if ((buffer.size() >= capacity)
+                    && (event.getType() == TestEvent.CHECKS_COMPLETED)
+                    && (last.getType() == TestEvent.CHECKS_COMPLETED)
+                    && last.getTestName().equals(event.getTestName())) {
+                    buffer.pollLast();
+                    buffer.add(TestEvent.merge(last, event));
+                } else {
+                    buffer.add(event);
+                }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (scheduled || cancelled) {
+                    return;
+                } else if ((error == null) && ((demand == 0L) || buffer.isEmpty())) {
+                    return;
+                }
+                scheduled = true;
+            }
+            executor.execute(this);
+        }
+    }
+
+    private static String CAPACITY_MESSAGE = "A buffer must hold at least one event.";
+    private static String BATCH_SIZE_MESSAGE = "A batch must hold at least one check.";
+    private static String NON_POSITIVE_REQUEST_MESSAGE
+        = "A subscriber must request a positive number of events.";
+}
@@ -0,0 +1,238 @@
+package danraies.commutativealgebra;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>
+ * Sums and products of many elements, computed as balanced trees instead of
+ * left folds.  Associativity and commutativity guarantee that every
+ * bracketing gives the same result, but not the same cost: folding
+ * <code>n</code> integers of <code>b</code> bits each into a product
+ * multiplies a huge partial product by a small factor <code>n</code>
+ * times, while a balanced tree multiplies operands of equal size and lets
+ * fast multiplication pay off.  The two halves of every node are also
+ * independent, so the tree is evaluated on the common fork-join pool.
+ * </p>
+ * <p>
+ * By default every element counts the same and the collection is cut in
+ * halves by length.  Given an {@link OperandSize OperandSize} the cut is made
+ * where the total size is halved instead, and tasks are only forked while
+ * their share of the total size is large enough to be worth it.
+ * </p>
+ * <p>
+ * The variants that take an <code>Iterator</code> never hold more than
+ * {@link #BATCH_SIZE BATCH_SIZE} elements plus one partial result per
+ * doubling of the number of elements read, so they can consume streams
+ * whose length is not known in advance.
+ * </p>
+ */
+public final class TreeReduction {
+    /** The number of elements that the streaming variants read at a time. */
+    public static final int BATCH_SIZE = 4096;
+
+    /** Each worker thread gets about this many tasks, for load balancing. */
+    private static int TASKS_PER_THREAD = 8;
+
+    private static final OperandSize UNIT_SIZE = new OperandSize() {
+            @Override
+            public long sizeOf(Element e) {
+                return 1L;
+            }
+        };
+
+    private TreeReduction() {
+    }
+
+    //////////////////////////////////////////////////
+    // Public Methods
+    //////////////////////////////////////////////////
+
+    public static CommutativeMonoidElement sum(CommutativeMonoidElementFactory monoid,
+                                               Collection<? extends CommutativeMonoidElement> elements) {
+        return sum(monoid, elements, UNIT_SIZE);
+    }
+
+    /**
+     * Adds the elements of a collection.
+     *
+     * @param monoid The factory describing the monoid, which supplies the
+     *        sum of an empty collection.
+     * @param elements The elements to add.
+     * @param size An estimate of the cost of each element.
+     * @return The sum of the elements.
+     */
+    public static CommutativeMonoidElement sum(CommutativeMonoidElementFactory monoid,
+                                               Collection<? extends CommutativeMonoidElement> elements,
+                                               OperandSize size) {
+        Element sum = reduce(Exponentiation.ADDITION, elements.toArray(new Element[0]), size);
+        return (sum == null) ? monoid.getZero() : (CommutativeMonoidElement) sum;
+    }
+
+    public static CommutativeRingElement product(CommutativeRingElementFactory ring,
+                                                 Collection<? extends CommutativeRingElement> elements) {
+        return product(ring, elements, UNIT_SIZE);
+    }
+
+    /**
+     * Multiplies the elements of a collection.
+     *
+     * @param ring The factory describing the ring, which supplies the product
+     *        of an empty collection.
+     * @param elements The elements to multiply.
+     * @param size An estimate of the cost of each element.
+     * @return The product of the elements.
+     */
+    public static CommutativeRingElement product(CommutativeRingElementFactory ring,
+                                                 Collection<? extends CommutativeRingElement> elements,
+                                                 OperandSize size) {
+        Element product = reduce(Exponentiation.MULTIPLICATION, elements.toArray(new Element[0]), size);
+        return (product == null) ? ring.getOne() : (CommutativeRingElement) product;
+    }
+
+    /**
+     * Adds every element that an iterator returns, using bounded memory.
+     *
+     * @param monoid The factory describing the monoid, which supplies the
+     *        sum of an empty stream.
+     * @param elements The elements to add.
+     * @return The sum of the elements.
+     */
+    public static CommutativeMonoidElement sum(CommutativeMonoidElementFactory monoid,
+                                               Iterator<? extends CommutativeMonoidElement> elements) {
+        Element sum = reduceStream(Exponentiation.ADDITION, elements);
+        return (sum == null) ? monoid.getZero() : (CommutativeMonoidElement) sum;
+    }
+
+    /**
+     * Multiplies every element that an iterator returns, using bounded
+     * memory.
+     *
+     * @param ring The factory describing the ring, which supplies the
+     *        product of an empty stream.
+     * @param elements The elements to multiply.
+     * @return The product of the elements.
+     */
+    public static CommutativeRingElement product(CommutativeRingElementFactory ring,
+                                                 Iterator<? extends CommutativeRingElement> elements) {
+        Element product = reduceStream(Exponentiation.MULTIPLICATION, elements);
+        return (product == null) ? ring.getOne() : (CommutativeRingElement) product;
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /** Reduces an array as a balanced tree; returns <code>null</code> if it is empty. */
+    private static Element reduce(Exponentiation.Operation op, Element[] elements, OperandSize size) {
+        if (elements.length == 0) {
+            return null;
+        }
+        // prefix[i] is the total size of elements[0 ... i - 1].
+        long[] prefix = new long[elements.length + 1];
+        for (int i = 0; i < elements.length; i++) {
+            prefix[i + 1] = prefix[i] + Math.max(size.sizeOf(elements[i]), 1L);
+        }
+        int tasks = TASKS_PER_THREAD * ForkJoinPool.commonPool().getParallelism();
+        long grain = Math.max(prefix[elements.length] / tasks, 1L);
+        return ForkJoinPool.commonPool().invoke(
+            new ReductionTask(op, elements, prefix, grain, 0, elements.length));
+    }
+
+    /**
+     * Reads the stream in batches and reduces each batch as a tree.  The
+     * batch results are merged like a binary counter: <code>levels[k]</code>
+     * holds the result of <code>2^k</code> batches, so the merges also form
+     * a balanced tree.
+     */
+    private static Element reduceStream(Exponentiation.Operation op,
+                                        Iterator<? extends Element> elements) {
+        ArrayList<Element> levels = new ArrayList<Element>();
+        Element[] batch = new Element[BATCH_SIZE];
+        while (elements.hasNext()) {
+            int count = 0;
+            while ((count < BATCH_SIZE) && elements.hasNext()) {
+                batch[count] = elements.next();
+                count++;
+            }
+            Element[] full = new Element[count];
+            System.arraycopy(batch, 0, full, 0, count);
+            Element carry = reduce(op, full, UNIT_SIZE);
+            int k = 0;
+            while ((k < levels.size()) && (levels.get(k) != null)) {
+                carry = op.combine(levels.get(k), carry);
+                levels.set(k, null);
+                k++;
+            }
+            if (k == levels.size()) {
+                levels.add(carry);
+            } else {
+                levels.set(k, carry);
+            }
+        }
+        Element result = null;
+        for (int k = 0; k < levels.size(); k++) {
+            if (levels.get(k) != null) {
+                result = (result == null) ? levels.get(k) : op.combine(result, levels.get(k));
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ReductionTask extends RecursiveTask<Element> {
+        private final Exponentiation.Operation op;
+        private final Element[] elements;
+        private final long[] prefix;
+        private final long grain;
+        private final int start;
+        private final int end;
+
+        ReductionTask(Exponentiation.Operation op, Element[] elements, long[] prefix, long grain,
+                      int start, int end) {
+            this.op = op;
+            this.elements = elements;
+            this.prefix = prefix;
+            this.grain = grain;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Element compute() {
+            if (end - start == 1) {
+                return elements[start];
+            }
+            int middle = split();
+            ReductionTask low = new ReductionTask(op, elements, prefix, grain, start, middle);
+            ReductionTask high = new ReductionTask(op, elements, prefix, grain, middle, end);
+            if (prefix[end] - prefix[start] <= grain) {
+                return op.combine(low.compute(), high.compute());
+            }
+            low.fork();
+            Element highResult = high.compute();
+            return op.combine(low.join(), highResult);
+        }
+
+        /** Finds the cut that comes closest to halving the total size. */
+        private int split() {
+            long target = (prefix[start] + prefix[end]) / 2;
+            int low = start + 1;
+            int high = end - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (prefix[middle] < target) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            if ((low > start + 1) && (target - prefix[low - 1] < prefix[low] - target)) {
+                low--;
+            }
+            return low;
+        }
+    }
+}
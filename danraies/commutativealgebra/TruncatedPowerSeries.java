@@ -0,0 +1,383 @@
+package danraies.commutativealgebra;
+
+/**
+ * <p>
+ * An element of the truncated power series ring <code>R[[x]] / (x^N)</code>
+ * over a commutative ring <code>R</code>.  The precision <code>N</code> is the
+ * number of coefficients that are kept; two series can only be combined if
+ * they have the same precision.  Products are computed with Karatsuba's
+ * method.
+ * </p>
+ * <p>
+ * A series is invertible exactly when its constant term is.  Instead of
+ * solving for the coefficients of the inverse one at a time, which costs
+ * <code>N^2</code> coefficient operations, {@link #inverse() inverse} uses
+ * Newton iteration: each step doubles the number of correct terms at the
+ * cost of two multiplications, so the whole inverse costs about as much as a
+ * few multiplications.  {@link #log() log}, {@link #exp() exp} and
+ * {@link #sqrt() sqrt} are built the same way.  These three need to divide
+ * by small integers, so they require the coefficients to be
+ * <code>FieldElement</code> objects in a field whose characteristic is zero
+ * or at least <code>N</code>.
+ * </p>
+ */
+public final class TruncatedPowerSeries implements CommutativeRingElement {
+    private CommutativeRingElement[] coefficients;
+    private CommutativeRingElement zero;
+    private CommutativeRingElement one;
+
+    /**
+     * Creates a truncated power series.  Missing coefficients are taken to
+     * be zero and coefficients past the precision are discarded.
+     *
+     * @param coefficientRing The factory of the coefficient ring, which
+     *        supplies its zero and one.
+     * @param coefficients The coefficients, lowest degree first.
+     * @param precision The number <code>N</code> of coefficients kept.
+     */
+    public TruncatedPowerSeries(CommutativeRingElementFactory coefficientRing,
+                                CommutativeRingElement[] coefficients,
+                                int precision) {
+        this(coefficients, precision, coefficientRing.getZero(), coefficientRing.getOne());
+    }
+
+    private TruncatedPowerSeries(CommutativeRingElement[] coefficients, int precision,
+                                 CommutativeRingElement zero, CommutativeRingElement one) {
+        if (precision < 1) {
+            throw new RuntimeException(PRECISION_MESSAGE);
+        }
+        this.zero = zero;
+        this.one = one;
+        this.coefficients = new CommutativeRingElement[precision];
+        for (int i = 0; i < precision; i++) {
+            if ((i < coefficients.length) && (coefficients[i] != null)) {
+                this.coefficients[i] = coefficients[i];
+            } else {
+                this.coefficients[i] = zero;
+            }
+        }
+    }
+
+    public int getPrecision() {
+        return coefficients.length;
+    }
+
+    /**
+     * Returns a coefficient.
+     *
+     * @param degree Any integer between <code>0</code> and
+     *        <code>N - 1</code>.
+     * @return The coefficient of <code>x^degree</code>.
+     */
+    public CommutativeRingElement getCoefficient(int degree) {
+        return coefficients[degree];
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof TruncatedPowerSeries)) {
+            return false;
+        }
+        TruncatedPowerSeries s = (TruncatedPowerSeries) o;
+        if (s.coefficients.length != coefficients.length) {
+            return false;
+        }
+        for (int i = 0; i < coefficients.length; i++) {
+            if (!coefficients[i].equals(s.coefficients[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Overrides the <code>toString()</code> method.
+     *
+     * @return The non-zero terms followed by the error term, for example
+     *         <code>1 + 2*x^3 + O(x^5)</code>.
+     */
+    public String toString() {
+        String returnValue = "";
+        for (int i = 0; i < coefficients.length; i++) {
+            if (coefficients[i].isZero()) {
+                continue;
+            }
+            String term = coefficients[i].toString();
+            if (i == 1) {
+                term = term + "*x";
+            } else if (i > 1) {
+                term = term + "*x^" + i;
+            }
+            returnValue = returnValue + term + " + ";
+        }
+        return returnValue + "O(x^" + coefficients.length + ")";
+    }
+
+    public boolean isZero() {
+        for (int i = 0; i < coefficients.length; i++) {
+            if (!coefficients[i].isZero()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isOne() {
+        if (!coefficients[0].isOne()) {
+            return false;
+        }
+        for (int i = 1; i < coefficients.length; i++) {
+            if (!coefficients[i].isZero()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public TruncatedPowerSeries addTo(CommutativeMonoidElement e) {
+        TruncatedPowerSeries s = samePrecision(e);
+        CommutativeRingElement[] sum = new CommutativeRingElement[coefficients.length];
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = add(coefficients[i], s.coefficients[i]);
+        }
+        return withCoefficients(sum);
+    }
+
+    public TruncatedPowerSeries negative() {
+        CommutativeRingElement[] negative = new CommutativeRingElement[coefficients.length];
+        for (int i = 0; i < negative.length; i++) {
+            negative[i] = (CommutativeRingElement) coefficients[i].negative();
+        }
+        return withCoefficients(negative);
+    }
+
+    public TruncatedPowerSeries multiplyBy(CommutativeRingElement e) {
+        TruncatedPowerSeries s = samePrecision(e);
+        return withCoefficients(PolynomialArithmetic.multiply(coefficients, s.coefficients,
+                                                              coefficients.length, zero));
+    }
+
+    /**
+     * Computes the multiplicative inverse by Newton iteration,
+     * <code>g := g (2 - f g)</code>, doubling the precision of
+     * <code>g</code> in each step.  The constant term must be invertible:
+     * either a non-zero <code>FieldElement</code> or equal to one.
+     *
+     * @return The series <code>g</code> with <code>f g = 1</code>.
+     */
+    public TruncatedPowerSeries inverse() {
+        int n = coefficients.length;
+        CommutativeRingElement[] g = {invertConstant(coefficients[0])};
+        for (int m = 1; m < n; m = 2 * m) {
+            int length = Math.min(2 * m, n);
+            // e = f g - 1 vanishes below degree m, so g - g e is correct
+            // below degree 2m.
+            CommutativeRingElement[] e = PolynomialArithmetic.multiply(coefficients, g, length, zero);
+            e[0] = zero;
+            CommutativeRingElement[] correction = PolynomialArithmetic.multiply(g, e, length, zero);
+            CommutativeRingElement[] next = new CommutativeRingElement[length];
+            for (int i = 0; i < length; i++) {
+                CommutativeRingElement gi = (i < g.length) ? g[i] : zero;
+                next[i] = subtract(gi, correction[i]);
+            }
+            g = next;
+        }
+        return withCoefficients(g);
+    }
+
+    /**
+     * Computes the logarithm as the integral of <code>f' / f</code>.  The
+     * constant term must be one.
+     *
+     * @return The series <code>log(f)</code>, whose constant term is zero.
+     */
+    public TruncatedPowerSeries log() {
+        if (!coefficients[0].isOne()) {
+            throw new RuntimeException(LOG_MESSAGE);
+        }
+        CommutativeRingElement[] quotient =
+            PolynomialArithmetic.multiply(derivative(coefficients), inverse().coefficients,
+                                          coefficients.length, zero);
+        return withCoefficients(integral(quotient, coefficients.length));
+    }
+
+    /**
+     * Computes the exponential by Newton iteration,
+     * <code>g := g (1 - log(g) + f)</code>.  The constant term must be zero.
+     *
+     * @return The series <code>exp(f)</code>, whose constant term is one.
+     */
+    public TruncatedPowerSeries exp() {
+        if (!coefficients[0].isZero()) {
+            throw new RuntimeException(EXP_MESSAGE);
+        }
+        int n = coefficients.length;
+        CommutativeRingElement[] g = {one};
+        for (int m = 1; m < n; m = 2 * m) {
+            int length = Math.min(2 * m, n);
+            TruncatedPowerSeries current = new TruncatedPowerSeries(g, length, zero, one);
+            CommutativeRingElement[] logarithm = current.log().coefficients;
+            CommutativeRingElement[] factor = new CommutativeRingElement[length];
+            for (int i = 0; i < length; i++) {
+                factor[i] = subtract(coefficients[i], logarithm[i]);
+            }
+            factor[0] = add(factor[0], one);
+            g = PolynomialArithmetic.multiply(current.coefficients, factor, length, zero);
+        }
+        return withCoefficients(g);
+    }
+
+    /**
+     * Computes the square root with constant term one by Newton iteration,
+     * <code>g := (g + f / g) / 2</code>.  The constant term must be one.
+     *
+     * @return The series <code>g</code> with <code>g g = f</code> and
+     *         constant term one.
+     */
+    public TruncatedPowerSeries sqrt() {
+        if (!coefficients[0].isOne()) {
+            throw new RuntimeException(SQRT_MESSAGE);
+        }
+        int n = coefficients.length;
+        FieldElement half = integerInverse(2);
+        CommutativeRingElement[] g = {one};
+        for (int m = 1; m < n; m = 2 * m) {
+            int length = Math.min(2 * m, n);
+            TruncatedPowerSeries current = new TruncatedPowerSeries(g, length, zero, one);
+            CommutativeRingElement[] quotient =
+                PolynomialArithmetic.multiply(coefficients, current.inverse().coefficients,
+                                              length, zero);
+            CommutativeRingElement[] next = new CommutativeRingElement[length];
+            for (int i = 0; i < length; i++) {
+                next[i] = add(current.coefficients[i], quotient[i]).multiplyBy(half);
+            }
+            g = next;
+        }
+        return withCoefficients(g);
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    private TruncatedPowerSeries withCoefficients(CommutativeRingElement[] newCoefficients) {
+        return new TruncatedPowerSeries(newCoefficients, coefficients.length, zero, one);
+    }
+
+    private TruncatedPowerSeries samePrecision(Element e) {
+        TruncatedPowerSeries s = (TruncatedPowerSeries) e;
+        if (s.coefficients.length != coefficients.length) {
+            throw new RuntimeException(DIFFERENT_PRECISIONS_MESSAGE);
+        }
+        return s;
+    }
+
+    private CommutativeRingElement invertConstant(CommutativeRingElement constant) {
+        if (constant.isOne()) {
+            return one;
+        }
+        if ((constant instanceof FieldElement) && !constant.isZero()) {
+            return ((FieldElement) constant).inverse();
+        }
+        throw new RuntimeException(NOT_INVERTIBLE_MESSAGE);
+    }
+
+    private CommutativeRingElement[] derivative(CommutativeRingElement[] a) {
+        CommutativeRingElement[] derivative = new CommutativeRingElement[Math.max(a.length - 1, 1)];
+        derivative[0] = zero;
+        CommutativeRingElement multiplier = zero;
+        for (int i = 1; i < a.length; i++) {
+            multiplier = add(multiplier, one);
+            derivative[i - 1] = a[i].multiplyBy(multiplier);
+        }
+        return derivative;
+    }
+
+    /** The antiderivative with constant term zero, truncated to a length. */
+    private CommutativeRingElement[] integral(CommutativeRingElement[] a, int length) {
+        CommutativeRingElement[] integral = new CommutativeRingElement[length];
+        integral[0] = zero;
+        if (length < 2) {
+            return integral;
+        }
+        FieldElement[] inverses = integerInverses(length - 1);
+        for (int i = 1; i < length; i++) {
+            integral[i] = a[i - 1].multiplyBy(inverses[i - 1]);
+        }
+        return integral;
+    }
+
+    /**
+     * Returns the inverses of <code>1, 2, ..., count</code> in the
+     * coefficient field, using one field inversion and the running products
+     * of the integers.
+     */
+    private FieldElement[] integerInverses(int count) {
+        FieldElement[] integers = new FieldElement[count];
+        FieldElement[] prefixProducts = new FieldElement[count];
+        CommutativeRingElement integer = zero;
+        for (int i = 0; i < count; i++) {
+            integer = add(integer, one);
+            integers[i] = asFieldElement(integer);
+            prefixProducts[i] = (i == 0) ? integers[0]
+                : (FieldElement) prefixProducts[i - 1].multiplyBy(integers[i]);
+        }
+        FieldElement[] inverses = new FieldElement[count];
+        FieldElement running = invertInteger(prefixProducts[count - 1]);
+        for (int i = count - 1; i > 0; i--) {
+            inverses[i] = (FieldElement) running.multiplyBy(prefixProducts[i - 1]);
+            running = (FieldElement) running.multiplyBy(integers[i]);
+        }
+        inverses[0] = running;
+        return inverses;
+    }
+
+    private FieldElement integerInverse(int n) {
+        CommutativeRingElement integer = zero;
+        for (int i = 0; i < n; i++) {
+            integer = add(integer, one);
+        }
+        return invertInteger(asFieldElement(integer));
+    }
+
+    private static FieldElement invertInteger(FieldElement integer) {
+        if (integer.isZero()) {
+            throw new RuntimeException(CHARACTERISTIC_MESSAGE);
+        }
+        return integer.inverse();
+    }
+
+    private static FieldElement asFieldElement(CommutativeRingElement e) {
+        if (!(e instanceof FieldElement)) {
+            throw new RuntimeException(FIELD_REQUIRED_MESSAGE);
+        }
+        return (FieldElement) e;
+    }
+
+    private static CommutativeRingElement add(CommutativeRingElement a,
+                                              CommutativeRingElement b) {
+        return (CommutativeRingElement) a.addTo(b);
+    }
+
+    private static CommutativeRingElement subtract(CommutativeRingElement a,
+                                                   CommutativeRingElement b) {
+        return (CommutativeRingElement) a.addTo(b.negative());
+    }
+
+    private static String PRECISION_MESSAGE = "The precision must be at least one.";
+    private static String DIFFERENT_PRECISIONS_MESSAGE
+        = "These series have different precisions.";
+    private static String NOT_INVERTIBLE_MESSAGE
+        = "The constant term of this series is not invertible.";
+    private static String LOG_MESSAGE
+        = "The logarithm is only defined for series with constant term one.";
+    private static String EXP_MESSAGE
+        = "The exponential is only defined for series with constant term zero.";
+    private static String SQRT_MESSAGE
+        = "The square root is only computed for series with constant term one.";
+    private static String FIELD_REQUIRED_MESSAGE
+        = "This operation needs coefficients in a field.";
+    private static String CHARACTERISTIC_MESSAGE
+        = "The characteristic of the coefficient field is smaller than the precision.";
+}
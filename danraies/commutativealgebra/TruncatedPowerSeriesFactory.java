@@ -0,0 +1,46 @@
+package danraies.commutativealgebra;
+
+/**
+ * A factory for testing the ring axioms of <code>TruncatedPowerSeries</code>
+ * objects.  Random series have random coefficients drawn from a factory for
+ * the coefficient ring.
+ */
+public class TruncatedPowerSeriesFactory extends CommutativeRingElementFactory {
+    private CommutativeRingElementFactory coefficientRing;
+    private int precision;
+
+    /**
+     * @param coefficientRing A factory for the coefficient ring.
+     * @param precision The number <code>N</code> of coefficients kept.
+     */
+    public TruncatedPowerSeriesFactory(CommutativeRingElementFactory coefficientRing,
+                                       int precision) {
+        this.coefficientRing = coefficientRing;
+        this.precision = precision;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public TruncatedPowerSeries getRandom() {
+        CommutativeRingElement[] coefficients = new CommutativeRingElement[precision];
+        for (int i = 0; i < precision; i++) {
+            coefficients[i] = coefficientRing.getRandom();
+        }
+        return new TruncatedPowerSeries(coefficientRing, coefficients, precision);
+    }
+
+    public void setSeed(long seed) {
+        coefficientRing.setSeed(seed);
+    }
+
+    public TruncatedPowerSeries getZero() {
+        return new TruncatedPowerSeries(coefficientRing, new CommutativeRingElement[0], precision);
+    }
+
+    public TruncatedPowerSeries getOne() {
+        CommutativeRingElement[] coefficients = {coefficientRing.getOne()};
+        return new TruncatedPowerSeries(coefficientRing, coefficients, precision);
+    }
+}
@@ -2,42 +2,74 @@ package danraies.commutativealgebra;
 
 abstract class UnitTest {
     private String testName = "Test";
-    FactoryLogger log;
-    private boolean logWasSet = false;
+    TestEventPublisher events;
+    private boolean eventsWereSet = false;
     private Element[] possibleCounterExample = null;
+    private Throwable counterExampleException = null;
     private boolean testWasRun = false;
     private boolean testResult;
     private int intendedNumberOfChecks = 1;
     private int actualNumberOfChecks = 1;
 
-    UnitTest(String testName, FactoryLogger log) {
+    UnitTest(String testName, TestEventPublisher events) {
         setTestName(testName);
-        setLog(log);
+        setEvents(events);
     }
     
     abstract boolean runTest(ElementRandomizer r);
 
+    /**
+     * Returns a smaller counterexample for which the test also fails, or
+     * <code>null</code> if there is none.  Only axiom tests look for one.
+     */
+    Element[] shrinkCounterExample(Element[] counterExample) {
+        return null;
+    }
+
+    /**
+     * Returns the running times of the checks of the last run, or
+     * <code>null</code> if they were not timed.  Only axiom tests time
+     * their checks.
+     */
+    LatencyHistogram getLatencies() {
+        return null;
+    }
+
     final void run(ElementRandomizer r) {
-        if (!logWasSet) {
-            throw new RuntimeException(LOG_NOT_SET_MESSAGE);
+        if (!eventsWereSet) {
+            throw new RuntimeException(EVENTS_NOT_SET_MESSAGE);
         }
-        log.announceAxiomCheck(testName, intendedNumberOfChecks);
+        events.axiomStarted(testName, intendedNumberOfChecks);
         testResult = runTest(r);
         testWasRun = true;
-        logResult();
+        if ((!testResult) && (possibleCounterExample != null)) {
+            events.flush();
+            Element[] shrunk = shrinkCounterExample(possibleCounterExample);
+            FlightRecorderEvents.counterExample(testName, possibleCounterExample, shrunk,
+                                                counterExampleException);
+            events.counterExample(testName, possibleCounterExample, shrunk,
+                                  counterExampleException);
+        }
+        events.axiomFinished(testName, testResult, actualNumberOfChecks, getLatencies());
     }
 
     final void setTestName(String testName) {
         this.testName = testName;
     }
 
-    final void setLog(FactoryLogger log) {
-        this.log = log;
-        logWasSet = true;
+    final void setEvents(TestEventPublisher events) {
+        this.events = events;
+        eventsWereSet = true;
     }
 
-    final void setPossibleCounterExample(Element[] possibleCounterExample) {
+    /**
+     * Records the elements for which the test failed, together with the
+     * exception that the check threw for them, or <code>null</code> if it
+     * simply did not hold.
+     */
+    final void setPossibleCounterExample(Element[] possibleCounterExample, Throwable exception) {
         this.possibleCounterExample = possibleCounterExample;
+        this.counterExampleException = exception;
     }
 
     final void setIntendedNumberOfChecks(int intendedNumberOfChecks) {
@@ -52,28 +84,21 @@ abstract class UnitTest {
         this.actualNumberOfChecks = actualNumberOfChecks;
     }
 
-    final void logResultSummary() {
-        if (!testWasRun) {
-            throw new RuntimeException(TEST_WAS_NOT_RUN);
-        }
-        log.logResultSummary(testName, testResult);
-        logPossibleCounterExample();
+    final String getTestName() {
+        return testName;
     }
 
-    private void logResult() {
-        if (!testWasRun) {
-            throw new RuntimeException(TEST_WAS_NOT_RUN);
-        }
-        log.logAxiomResult(testName, testResult, actualNumberOfChecks);
-        logPossibleCounterExample();
+    final boolean wasRun() {
+        return testWasRun;
     }
 
-    private void logPossibleCounterExample() {
-        if ((!testResult) && (possibleCounterExample != null)) {
-            log.logCounterExample(possibleCounterExample);
-        }
+    final boolean getTestResult() {
+        return testResult;
+    }
+
+    final int getActualNumberOfChecks() {
+        return actualNumberOfChecks;
     }
 
-    private static String LOG_NOT_SET_MESSAGE = "You must set a log.";
-    private static String TEST_WAS_NOT_RUN = "The test was not run.";
+    private static String EVENTS_NOT_SET_MESSAGE = "You must set a publisher for the events.";
 }
@@ -0,0 +1,313 @@
+package danraies.commutativealgebra;
+import java.math.BigInteger;
+
+/**
+ * <p>
+ * A polynomial in one variable <code>x</code> with coefficients in a field.
+ * These polynomials form a Euclidean domain: dividing by a non-zero
+ * polynomial leaves a remainder of smaller degree.  Products are computed
+ * with Karatsuba's method once the factors are long enough, and greatest
+ * common divisors with the {@link HalfGcd half-gcd} method once the
+ * polynomials are long enough.
+ * </p>
+ * <p>
+ * The coefficients are stored lowest degree first without trailing zeros,
+ * so two polynomials are equal exactly when their coefficient arrays are.
+ * The zero polynomial has no coefficients and degree <code>-1</code>.
+ * </p>
+ */
+public final class UnivariatePolynomial implements FastGcdElement {
+    private FieldElement[] coefficients;
+    private FieldElement zero;
+
+    /**
+     * Creates a polynomial.
+     *
+     * @param field The factory of the coefficient field, which supplies its
+     *        zero.
+     * @param coefficients The coefficients, lowest degree first.  Trailing
+     *        zeros are removed.
+     */
+    public UnivariatePolynomial(FieldElementFactory field, FieldElement[] coefficients) {
+        this(coefficients, field.getZero());
+    }
+
+    UnivariatePolynomial(CommutativeRingElement[] coefficients, FieldElement zero) {
+        this.zero = zero;
+        int length = coefficients.length;
+        while ((length > 0) && coefficients[length - 1].isZero()) {
+            length--;
+        }
+        this.coefficients = new FieldElement[length];
+        for (int i = 0; i < length; i++) {
+            this.coefficients[i] = (FieldElement) coefficients[i];
+        }
+    }
+
+    /**
+     * Returns the polynomial <code>c x^degree</code>.
+     *
+     * @param field The factory of the coefficient field.
+     * @param c Any element of the field.
+     * @param degree Any non-negative integer.
+     * @return The monomial <code>c x^degree</code>.
+     */
+    public static UnivariatePolynomial monomial(FieldElementFactory field, FieldElement c, int degree) {
+        FieldElement[] coefficients = new FieldElement[degree + 1];
+        for (int i = 0; i < degree; i++) {
+            coefficients[i] = field.getZero();
+        }
+        coefficients[degree] = c;
+        return new UnivariatePolynomial(field, coefficients);
+    }
+
+    /**
+     * Returns the degree.
+     *
+     * @return The largest exponent with a non-zero coefficient, or
+     *         <code>-1</code> for the zero polynomial.
+     */
+    public int getDegree() {
+        return coefficients.length - 1;
+    }
+
+    /**
+     * Returns a coefficient.
+     *
+     * @param degree Any non-negative integer.
+     * @return The coefficient of <code>x^degree</code>, which is zero
+     *         beyond the degree of this polynomial.
+     */
+    public FieldElement getCoefficient(int degree) {
+        if (degree < coefficients.length) {
+            return coefficients[degree];
+        }
+        return zero;
+    }
+
+    /**
+     * Returns the leading coefficient.
+     *
+     * @return The coefficient of the highest power of <code>x</code>, or
+     *         zero for the zero polynomial.
+     */
+    public FieldElement getLeadingCoefficient() {
+        return getCoefficient(getDegree());
+    }
+
+    /**
+     * Divides by the leading coefficient.
+     *
+     * @return The monic polynomial that is a constant multiple of this one,
+     *         or zero if this polynomial is zero.
+     */
+    public UnivariatePolynomial monic() {
+        if ((coefficients.length == 0) || getLeadingCoefficient().isOne()) {
+            return this;
+        }
+        return scaleBy(getLeadingCoefficient().inverse());
+    }
+
+    /**
+     * Evaluates this polynomial with Horner's rule.
+     *
+     * @param value Any element of the coefficient field.
+     * @return The value of this polynomial at <code>value</code>.
+     */
+    public FieldElement evaluate(FieldElement value) {
+        FieldElement result = zero;
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            result = (FieldElement) result.multiplyBy(value).addTo(coefficients[i]);
+        }
+        return result;
+    }
+
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (!(o instanceof UnivariatePolynomial)) {
+            return false;
+        }
+        UnivariatePolynomial f = (UnivariatePolynomial) o;
+        if (f.coefficients.length != coefficients.length) {
+            return false;
+        }
+        for (int i = 0; i < coefficients.length; i++) {
+            if (!coefficients[i].equals(f.coefficients[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Overrides the <code>toString()</code> method.
+     *
+     * @return The non-zero terms from the highest degree down, for example
+     *         <code>3*x^2 + 1</code>.
+     */
+    public String toString() {
+        if (coefficients.length == 0) {
+            return "0";
+        }
+        String returnValue = "";
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            if (coefficients[i].isZero()) {
+                continue;
+            }
+            if (returnValue.length() > 0) {
+                returnValue = returnValue + " + ";
+            }
+            if (i == 0) {
+                returnValue = returnValue + coefficients[i];
+            } else {
+                if (!coefficients[i].isOne()) {
+                    returnValue = returnValue + coefficients[i] + "*";
+                }
+                returnValue = returnValue + ((i == 1) ? "x" : "x^" + i);
+            }
+        }
+        return returnValue;
+    }
+
+    public boolean isZero() {
+        return (coefficients.length == 0);
+    }
+
+    public boolean isOne() {
+        return (coefficients.length == 1) && coefficients[0].isOne();
+    }
+
+    public UnivariatePolynomial addTo(CommutativeMonoidElement e) {
+        UnivariatePolynomial f = (UnivariatePolynomial) e;
+        int length = Math.max(coefficients.length, f.coefficients.length);
+        FieldElement[] sum = new FieldElement[length];
+        for (int i = 0; i < length; i++) {
+            sum[i] = (FieldElement) getCoefficient(i).addTo(f.getCoefficient(i));
+        }
+        return withCoefficients(sum);
+    }
+
+    public UnivariatePolynomial negative() {
+        FieldElement[] negative = new FieldElement[coefficients.length];
+        for (int i = 0; i < coefficients.length; i++) {
+            negative[i] = (FieldElement) coefficients[i].negative();
+        }
+        return withCoefficients(negative);
+    }
+
+    public UnivariatePolynomial multiplyBy(CommutativeRingElement e) {
+        UnivariatePolynomial f = (UnivariatePolynomial) e;
+        if (isZero() || f.isZero()) {
+            return withCoefficients(new FieldElement[0]);
+        }
+        int length = coefficients.length + f.coefficients.length - 1;
+        return withCoefficients(PolynomialArithmetic.multiply(coefficients, f.coefficients,
+                                                              length, zero));
+    }
+
+    /**
+     * Long division.  The remainder has smaller degree than the divisor.
+     *
+     * @param divisor Any non-zero <code>UnivariatePolynomial</code>.
+     * @return The quotient and the remainder.
+     */
+    public UnivariatePolynomial[] divideWithRemainder(EuclideanDomainElement divisor) {
+        UnivariatePolynomial f = (UnivariatePolynomial) divisor;
+        if (f.isZero()) {
+            throw new RuntimeException(DIVISION_BY_ZERO_MESSAGE);
+        }
+        int divisorDegree = f.getDegree();
+        if (getDegree() < divisorDegree) {
+            UnivariatePolynomial[] quotientAndRemainder = {
+                withCoefficients(new FieldElement[0]), this};
+            return quotientAndRemainder;
+        }
+        FieldElement leadInverse = f.getLeadingCoefficient().inverse();
+        FieldElement[] remainder = coefficients.clone();
+        FieldElement[] quotient = new FieldElement[getDegree() - divisorDegree + 1];
+        for (int i = getDegree(); i >= divisorDegree; i--) {
+            FieldElement q = (FieldElement) remainder[i].multiplyBy(leadInverse);
+            quotient[i - divisorDegree] = q;
+            if (q.isZero()) {
+                continue;
+            }
+            FieldElement negativeQ = (FieldElement) q.negative();
+            for (int j = 0; j < divisorDegree; j++) {
+                remainder[i - divisorDegree + j] = (FieldElement)
+                    remainder[i - divisorDegree + j].addTo(negativeQ.multiplyBy(f.coefficients[j]));
+            }
+            remainder[i] = zero;
+        }
+        FieldElement[] trimmed = new FieldElement[divisorDegree];
+        System.arraycopy(remainder, 0, trimmed, 0, divisorDegree);
+        UnivariatePolynomial[] quotientAndRemainder = {
+            withCoefficients(quotient), withCoefficients(trimmed)};
+        return quotientAndRemainder;
+    }
+
+    /**
+     * @return The degree, as the Euclidean function of the polynomials.
+     */
+    public BigInteger euclideanNorm() {
+        return BigInteger.valueOf(getDegree());
+    }
+
+    /**
+     * @return The leading coefficient as a constant polynomial, so that the
+     *         canonical associates are the monic polynomials.
+     */
+    public UnivariatePolynomial unitPart() {
+        FieldElement[] leading = {getLeadingCoefficient()};
+        return withCoefficients(leading);
+    }
+
+    /**
+     * @param other Any polynomial over the same field.
+     * @return The monic greatest common divisor, or zero if both
+     *         polynomials are zero.
+     */
+    public UnivariatePolynomial gcd(EuclideanDomainElement other) {
+        return HalfGcd.gcd(this, (UnivariatePolynomial) other);
+    }
+
+    /**
+     * @param other Any polynomial over the same field.
+     * @return The monic greatest common divisor <code>g</code>, or zero if
+     *         both polynomials are zero, and <code>s</code> and
+     *         <code>t</code> with <code>s * this + t * other = g</code>.
+     */
+    public UnivariatePolynomial[] extendedGcd(EuclideanDomainElement other) {
+        return HalfGcd.extendedGcd(this, (UnivariatePolynomial) other);
+    }
+
+    //////////////////////////////////////////////////
+    // Package Methods
+    //////////////////////////////////////////////////
+
+    /**
+     * Returns the coefficient array itself, lowest degree first, without
+     * copying it.  Callers must not modify it.
+     */
+    FieldElement[] getCoefficients() {
+        return coefficients;
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    private UnivariatePolynomial withCoefficients(CommutativeRingElement[] newCoefficients) {
+        return new UnivariatePolynomial(newCoefficients, zero);
+    }
+
+    private UnivariatePolynomial scaleBy(FieldElement c) {
+        FieldElement[] scaled = new FieldElement[coefficients.length];
+        for (int i = 0; i < coefficients.length; i++) {
+            scaled[i] = (FieldElement) coefficients[i].multiplyBy(c);
+        }
+        return withCoefficients(scaled);
+    }
+
+    private static String DIVISION_BY_ZERO_MESSAGE = "Division by the zero polynomial.";
+}
@@ -0,0 +1,55 @@
+package danraies.commutativealgebra;
+import java.util.Random;
+
+/**
+ * A factory for testing the Euclidean domain axioms of
+ * <code>UnivariatePolynomial</code> objects.  Random polynomials have a
+ * random degree up to a bound and random coefficients drawn from a factory
+ * for the coefficient field.
+ */
+public class UnivariatePolynomialFactory extends EuclideanDomainElementFactory
+    implements OperandSize {
+    private FieldElementFactory field;
+    private int maxDegree;
+    Random r = new Random();
+
+    /**
+     * @param field A factory for the coefficient field.
+     * @param maxDegree The largest degree of a random polynomial.
+     */
+    public UnivariatePolynomialFactory(FieldElementFactory field, int maxDegree) {
+        this.field = field;
+        this.maxDegree = maxDegree;
+    }
+
+    public FieldElementFactory getCoefficientField() {
+        return field;
+    }
+
+    public UnivariatePolynomial getRandom() {
+        FieldElement[] coefficients = new FieldElement[r.nextInt(maxDegree + 1) + 1];
+        for (int i = 0; i < coefficients.length; i++) {
+            coefficients[i] = field.getRandom();
+        }
+        return new UnivariatePolynomial(field, coefficients);
+    }
+
+    public void setSeed(long seed) {
+        r.setSeed(seed);
+        field.setSeed(seed);
+    }
+
+    public UnivariatePolynomial getZero() {
+        return new UnivariatePolynomial(field, new FieldElement[0]);
+    }
+
+    public UnivariatePolynomial getOne() {
+        FieldElement[] coefficients = {field.getOne()};
+        return new UnivariatePolynomial(field, coefficients);
+    }
+
+    /** The number of coefficients. */
+    public long sizeOf(Element e) {
+        return ((UnivariatePolynomial) e).getDegree() + 1;
+    }
+}
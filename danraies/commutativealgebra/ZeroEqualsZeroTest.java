@@ -4,15 +4,15 @@ final class ZeroEqualsZeroTest extends UnitTest {
     CommutativeMonoidElement possibleZero;
     
     ZeroEqualsZeroTest(CommutativeMonoidElement possibleZero,
-                       FactoryLogger log) {
-        super(TEST_NAME, log);
+                       TestEventPublisher events) {
+        super(TEST_NAME, events);
         this.possibleZero = possibleZero;
     }
     
     boolean runTest(ElementRandomizer r) {
         // r is not needed for this one.
         Element[] possibleCounterExample = {possibleZero};
-        setPossibleCounterExample(possibleCounterExample);
+        setPossibleCounterExample(possibleCounterExample, null);
         return possibleZero.isZero();
     }
 
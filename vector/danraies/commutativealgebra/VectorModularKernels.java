@@ -0,0 +1,296 @@
+package danraies.commutativealgebra;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * <p>
+ * The kernels of {@link ModularVectors ModularVectors} written with the
+ * incubating Vector API, so that every operation works on a whole vector
+ * register of residues at once.  Each residue takes a 64-bit lane while it
+ * is multiplied, so a 256-bit register holds four of them; sums and
+ * differences of <code>int</code> residues stay in 32-bit lanes and get
+ * twice as many.  Sums, differences and dot products use the branch-free
+ * formulas of the scalar loops, with lane-wise shifts and masks in place of
+ * the branches.  Products are reduced with Barrett's method instead of a
+ * quotient estimated in double precision, because the conversions between
+ * <code>long</code> and <code>double</code> lanes are not compiled to
+ * vector instructions.  The lanes left over at the end of an array go
+ * through the same formulas one at a time, so every result is exactly that
+ * of the scalar loops.
+ * </p>
+ * <p>
+ * The width of the vectors is fixed when the class is loaded, because the
+ * just-in-time compiler only turns the Vector API into vector instructions
+ * when the <code>VectorSpecies</code> is a constant.  It is the width of
+ * the vector registers of the processor, or the number of bits in the
+ * system property <code>danraies.commutativealgebra.vectorBits</code>,
+ * which may be smaller; a width that the processor does not have leaves
+ * <code>ModularVectors</code> with its scalar loops.
+ * </p>
+ * <p>
+ * This class lives outside the main source tree, because it can only be
+ * compiled, and run, with the incubator module added:
+ * </p>
+ * <pre>
+ * javac --add-modules jdk.incubator.vector -cp classes -d classes \
+ *     vector/danraies/commutativealgebra/VectorModularKernels.java
+ * java --add-modules jdk.incubator.vector ...
+ * </pre>
+ * <p>
+ * <code>ModularVectors</code> looks for it at run time and uses its scalar
+ * loops when the class or the module is missing.
+ * </p>
+ */
+final class VectorModularKernels implements ModularKernels {
+    private static final String BITS_PROPERTY = "danraies.commutativealgebra.vectorBits";
+    private static final int PREFERRED_BITS = VectorShape.preferredShape().vectorBitSize();
+    private static final int BITS = Integer.getInteger(BITS_PROPERTY, PREFERRED_BITS);
+    private static final VectorShape SHAPE
+        = isSupported(BITS) ? VectorShape.forBitSize(BITS) : VectorShape.preferredShape();
+    private static final VectorSpecies<Long> longs = VectorSpecies.of(long.class, SHAPE);
+    private static final VectorSpecies<Integer> ints = VectorSpecies.of(int.class, SHAPE);
+    /** Half as many <code>int</code> lanes, one for every 64-bit lane. */
+    private static final VectorSpecies<Integer> halfInts
+        = VectorSpecies.of(int.class, VectorShape.forBitSize(SHAPE.vectorBitSize() / 2));
+
+    public VectorModularKernels() {
+        if (!isSupported(BITS)) {
+            throw new IllegalArgumentException(UNSUPPORTED_WIDTH_MESSAGE + BITS);
+        }
+    }
+
+    public int vectorBits() {
+        return longs.vectorBitSize();
+    }
+
+    public void add(long[] a, long[] b, long[] result, long modulus) {
+        int i = 0;
+        for (int bound = longs.loopBound(result.length); i < bound; i += longs.length()) {
+            LongVector sum = LongVector.fromArray(longs, a, i)
+                .add(LongVector.fromArray(longs, b, i)).sub(modulus);
+            correct(sum, modulus).intoArray(result, i);
+        }
+        for (; i < result.length; i++) {
+            long sum = a[i] + b[i] - modulus;
+            result[i] = sum + ((sum >> 63) & modulus);
+        }
+    }
+
+    /**
+     * Both residues and their sum less the modulus fit in an
+     * <code>int</code>, so the sum can wrap around in between.
+     */
+    public void add(int[] a, int[] b, int[] result, long modulus) {
+        int p = (int) modulus;
+        int i = 0;
+        for (int bound = ints.loopBound(result.length); i < bound; i += ints.length()) {
+            IntVector sum = IntVector.fromArray(ints, a, i)
+                .add(IntVector.fromArray(ints, b, i)).sub(p);
+            sum.add(sum.lanewise(VectorOperators.ASHR, 31).and(p)).intoArray(result, i);
+        }
+        for (; i < result.length; i++) {
+            int sum = a[i] + b[i] - p;
+            result[i] = sum + ((sum >> 31) & p);
+        }
+    }
+
+    public void subtract(long[] a, long[] b, long[] result, long modulus) {
+        int i = 0;
+        for (int bound = longs.loopBound(result.length); i < bound; i += longs.length()) {
+            LongVector difference = LongVector.fromArray(longs, a, i)
+                .sub(LongVector.fromArray(longs, b, i));
+            correct(difference, modulus).intoArray(result, i);
+        }
+        for (; i < result.length; i++) {
+            long difference = a[i] - b[i];
+            result[i] = difference + ((difference >> 63) & modulus);
+        }
+    }
+
+    public void subtract(int[] a, int[] b, int[] result, long modulus) {
+        int p = (int) modulus;
+        int i = 0;
+        for (int bound = ints.loopBound(result.length); i < bound; i += ints.length()) {
+            IntVector difference = IntVector.fromArray(ints, a, i)
+                .sub(IntVector.fromArray(ints, b, i));
+            difference.add(difference.lanewise(VectorOperators.ASHR, 31).and(p))
+                .intoArray(result, i);
+        }
+        for (; i < result.length; i++) {
+            int difference = a[i] - b[i];
+            result[i] = difference + ((difference >> 31) & p);
+        }
+    }
+
+    public void multiply(long[] a, long[] b, long[] result, long modulus) {
+        int n = 64 - Long.numberOfLeadingZeros(modulus);
+        long mu = (1L << (2 * n)) / modulus;
+        int i = 0;
+        for (int bound = longs.loopBound(result.length); i < bound; i += longs.length()) {
+            LongVector product = LongVector.fromArray(longs, a, i)
+                .mul(LongVector.fromArray(longs, b, i));
+            reduce(product, n, mu, modulus).intoArray(result, i);
+        }
+        for (; i < result.length; i++) {
+            result[i] = reduce(a[i] * b[i], n, mu, modulus);
+        }
+    }
+
+    public void multiply(int[] a, int[] b, int[] result, long modulus) {
+        int n = 64 - Long.numberOfLeadingZeros(modulus);
+        long mu = (1L << (2 * n)) / modulus;
+        int i = 0;
+        for (int bound = halfInts.loopBound(result.length); i < bound; i += halfInts.length()) {
+            LongVector product = widen(a, i).mul(widen(b, i));
+            narrow(reduce(product, n, mu, modulus), result, i);
+        }
+        for (; i < result.length; i++) {
+            result[i] = (int) reduce((long) a[i] * b[i], n, mu, modulus);
+        }
+    }
+
+    public void scale(long[] a, long c, long[] result, long modulus) {
+        int n = 64 - Long.numberOfLeadingZeros(modulus);
+        long mu = (1L << (2 * n)) / modulus;
+        int i = 0;
+        for (int bound = longs.loopBound(result.length); i < bound; i += longs.length()) {
+            LongVector product = LongVector.fromArray(longs, a, i).mul(c);
+            reduce(product, n, mu, modulus).intoArray(result, i);
+        }
+        for (; i < result.length; i++) {
+            result[i] = reduce(c * a[i], n, mu, modulus);
+        }
+    }
+
+    public void scale(int[] a, long c, int[] result, long modulus) {
+        int n = 64 - Long.numberOfLeadingZeros(modulus);
+        long mu = (1L << (2 * n)) / modulus;
+        int i = 0;
+        for (int bound = halfInts.loopBound(result.length); i < bound; i += halfInts.length()) {
+            narrow(reduce(widen(a, i).mul(c), n, mu, modulus), result, i);
+        }
+        for (; i < result.length; i++) {
+            result[i] = (int) reduce(c * a[i], n, mu, modulus);
+        }
+    }
+
+    public void multiplyAccumulate(long[] result, long c, long[] a, long modulus) {
+        int n = 64 - Long.numberOfLeadingZeros(modulus);
+        long mu = (1L << (2 * n)) / modulus;
+        int i = 0;
+        for (int bound = longs.loopBound(result.length); i < bound; i += longs.length()) {
+            LongVector sum = LongVector.fromArray(longs, a, i).mul(c)
+                .add(LongVector.fromArray(longs, result, i));
+            reduce(sum, n, mu, modulus).intoArray(result, i);
+        }
+        for (; i < result.length; i++) {
+            result[i] = reduce(result[i] + c * a[i], n, mu, modulus);
+        }
+    }
+
+    public void multiplyAccumulate(int[] result, long c, int[] a, long modulus) {
+        int n = 64 - Long.numberOfLeadingZeros(modulus);
+        long mu = (1L << (2 * n)) / modulus;
+        int i = 0;
+        for (int bound = halfInts.loopBound(result.length); i < bound; i += halfInts.length()) {
+            LongVector sum = widen(a, i).mul(c).add(widen(result, i));
+            narrow(reduce(sum, n, mu, modulus), result, i);
+        }
+        for (; i < result.length; i++) {
+            result[i] = (int) reduce(result[i] + c * a[i], n, mu, modulus);
+        }
+    }
+
+    public long dotProduct(long[] a, long[] b, long modulus) {
+        long bound = ModularVectors.overflowBound(modulus);
+        LongVector sums = LongVector.zero(longs);
+        int i = 0;
+        for (int end = longs.loopBound(a.length); i < end; i += longs.length()) {
+            sums = keepBelow(sums.add(LongVector.fromArray(longs, a, i)
+                                      .mul(LongVector.fromArray(longs, b, i))), bound);
+        }
+        long tail = 0L;
+        for (; i < a.length; i++) {
+            tail = ModularVectors.keepBelow(tail + a[i] * b[i], bound);
+        }
+        return sumOfLanes(sums, tail, modulus);
+    }
+
+    public long dotProduct(int[] a, int[] b, long modulus) {
+        long bound = ModularVectors.overflowBound(modulus);
+        LongVector sums = LongVector.zero(longs);
+        int i = 0;
+        for (int end = halfInts.loopBound(a.length); i < end; i += halfInts.length()) {
+            sums = keepBelow(sums.add(widen(a, i).mul(widen(b, i))), bound);
+        }
+        long tail = 0L;
+        for (; i < a.length; i++) {
+            tail = ModularVectors.keepBelow(tail + (long) a[i] * b[i], bound);
+        }
+        return sumOfLanes(sums, tail, modulus);
+    }
+
+    //////////////////////////////////////////////////
+    // Private Methods
+    //////////////////////////////////////////////////
+
+    /** Adds the modulus to the negative lanes. */
+    private static LongVector correct(LongVector x, long modulus) {
+        return x.add(x.lanewise(VectorOperators.ASHR, 63).and(modulus));
+    }
+
+    private static boolean isSupported(int bits) {
+        return ((bits == 128) || (bits == 256) || (bits == 512)) && (bits <= PREFERRED_BITS);
+    }
+
+    /**
+     * Reduces a non-negative value below the square of the modulus.  With
+     * <code>n</code> the number of bits of the modulus and
+     * <code>mu = 2^(2n) / modulus</code>, the estimated quotient is at most
+     * two too small, so two branch-free corrections follow.  The product in
+     * the estimate stays below <code>2^64</code> and is taken unsigned.
+     */
+    private static long reduce(long x, int n, long mu, long modulus) {
+        long r = x - (((x >>> (n - 1)) * mu) >>> (n + 1)) * modulus - modulus;
+        r = r + ((r >> 63) & modulus) - modulus;
+        return r + ((r >> 63) & modulus);
+    }
+
+    /** The lane-wise version of the method above. */
+    private static LongVector reduce(LongVector x, int n, long mu, long modulus) {
+        LongVector quotient = x.lanewise(VectorOperators.LSHR, n - 1).mul(mu)
+            .lanewise(VectorOperators.LSHR, n + 1);
+        LongVector r = x.sub(quotient.mul(modulus));
+        r = correct(r.sub(modulus), modulus);
+        return correct(r.sub(modulus), modulus);
+    }
+
+    /** The lane-wise version of <code>ModularVectors.keepBelow</code>. */
+    private static LongVector keepBelow(LongVector sum, long bound) {
+        LongVector below = sum.sub(bound).lanewise(VectorOperators.ASHR, 63);
+        return sum.sub(below.not().and(bound));
+    }
+
+    private static long sumOfLanes(LongVector sums, long tail, long modulus) {
+        long result = tail % modulus;
+        for (int lane = 0; lane < sums.length(); lane++) {
+            result = (result + sums.lane(lane) % modulus) % modulus;
+        }
+        return result;
+    }
+
+    /** Loads as many <code>int</code> residues as fit in 64-bit lanes. */
+    private static LongVector widen(int[] values, int i) {
+        return (LongVector) IntVector.fromArray(halfInts, values, i)
+            .convertShape(VectorOperators.I2L, longs, 0);
+    }
+
+    private static void narrow(LongVector values, int[] result, int i) {
+        ((IntVector) values.convertShape(VectorOperators.L2I, halfInts, 0)).intoArray(result, i);
+    }
+
+    private static String UNSUPPORTED_WIDTH_MESSAGE = "Unsupported vector width: ";
+}